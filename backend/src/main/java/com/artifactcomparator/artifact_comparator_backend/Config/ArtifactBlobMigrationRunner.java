@@ -0,0 +1,28 @@
+package com.artifactcomparator.artifact_comparator_backend.Config;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactStorage;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off move of artifacts written under uploads/ and ~/uploaded_files into
+ * the content-addressed blob store (hashing and deduplicating them).
+ * Run with --artifacts.storage.migrate-on-startup=true after upgrading.
+ */
+@Component
+@ConditionalOnProperty(name = "artifacts.storage.migrate-on-startup", havingValue = "true")
+public class ArtifactBlobMigrationRunner implements ApplicationRunner {
+
+    private final ArtifactStorage artifactStorage;
+
+    public ArtifactBlobMigrationRunner(ArtifactStorage artifactStorage) {
+        this.artifactStorage = artifactStorage;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        artifactStorage.migrateLegacy();
+    }
+}
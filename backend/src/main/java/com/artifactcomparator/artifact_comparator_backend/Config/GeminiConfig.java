@@ -1,9 +1,15 @@
 package com.artifactcomparator.artifact_comparator_backend.Config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class GeminiConfig {
@@ -11,13 +17,52 @@ public class GeminiConfig {
     @Value("${gemini.api.url}")
     private String apiUrl;
 
-    @Value("${gemini.api.timeout:30000}")
-    private int timeout;
+    // Aynı anda açık olabilecek en fazla Gemini bağlantısı
+    @Value("${gemini.http.max-connections:50}")
+    private int maxConnections;
+
+    // Havuz doluyken bağlantı bekleyen en fazla istek; fazlası hemen hata alır
+    @Value("${gemini.http.pending-acquire-max:100}")
+    private int pendingAcquireMax;
+
+    @Value("${gemini.http.pending-acquire-timeout-ms:10000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${gemini.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    // Emniyet sınırı; asıl deneme süresini GeminiClient belirler
+    @Value("${gemini.http.response-timeout-ms:180000}")
+    private long responseTimeoutMs;
+
+    // Upstream'in kapattığı boşta bağlantılar yeniden kullanılmasın
+    @Value("${gemini.http.max-idle-ms:30000}")
+    private long maxIdleMs;
+
+    @Value("${gemini.http.max-life-ms:300000}")
+    private long maxLifeMs;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider geminiConnectionProvider() {
+        return ConnectionProvider.builder("gemini")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .maxLifeTime(Duration.ofMillis(maxLifeMs))
+                .evictInBackground(Duration.ofSeconds(30))
+                .build();
+    }
 
     @Bean
-    public WebClient geminiWebClient() {
+    public WebClient geminiWebClient(ConnectionProvider geminiConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(geminiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return WebClient.builder()
                 .baseUrl(apiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .build();
     }
 }
@@ -0,0 +1,27 @@
+package com.artifactcomparator.artifact_comparator_backend.Config;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * One-off rebuild of the task × criterion result aggregates from existing responses.
+ * Run with --monitor.aggregates.rebuild-on-startup=true after upgrading an existing database.
+ */
+@Component
+@ConditionalOnProperty(name = "monitor.aggregates.rebuild-on-startup", havingValue = "true")
+public class ResultAggregateRebuildRunner implements ApplicationRunner {
+
+    private final ResultAggregateService resultAggregateService;
+
+    public ResultAggregateRebuildRunner(ResultAggregateService resultAggregateService) {
+        this.resultAggregateService = resultAggregateService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        resultAggregateService.rebuildAll();
+    }
+}
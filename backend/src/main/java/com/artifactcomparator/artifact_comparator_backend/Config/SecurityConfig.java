@@ -3,6 +3,7 @@ package com.artifactcomparator.artifact_comparator_backend.Config;
 import com.artifactcomparator.artifact_comparator_backend.Security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
@@ -29,6 +30,7 @@ public class SecurityConfig {
                     config.setAllowedOrigins(List.of("http://localhost:3000"));
                     config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
                     config.setAllowedHeaders(List.of("*")); // Authorization dahil
+                    config.setExposedHeaders(List.of("Retry-After")); // 503 yanıtlarında okunur
                     config.setAllowCredentials(true);
                     return config;
                 }))
@@ -54,6 +56,20 @@ public class SecurityConfig {
                         .requestMatchers("/api/artifact-folders/**").authenticated()
                         .requestMatchers("/api/artifacts/**").authenticated()
 
+                        // Gemini token/maliyet metrikleri dışarı açık kalmasın
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
+
+                        // Analiz cache'ini silmek ücretli Gemini yeniden hesaplamasına yol açar
+                        .requestMatchers(HttpMethod.DELETE, "/api/code-analysis/cache/**").hasRole("ADMIN")
+
+                        // Puanlama kuyruğu: tekrar kuyruğa almak Gemini çağrısı başlatır
+                        .requestMatchers(HttpMethod.POST, "/api/quiz-attempt/*/retry-grading").hasAnyRole("ADMIN", "RESEARCHER")
+                        .requestMatchers("/api/quiz-attempt/grading-jobs/stats").hasAnyRole("ADMIN", "RESEARCHER")
+                        .requestMatchers("/api/quiz-attempt/grading-memo/stats").hasAnyRole("ADMIN", "RESEARCHER")
+
+                        // Toplu puanlama (ücretli Gemini); quiz sahipliği controller'da kontrol edilir
+                        .requestMatchers("/api/quiz/*/batch-grade").hasAnyRole("ADMIN", "RESEARCHER")
+
                         .anyRequest().permitAll()
 
                 )
@@ -0,0 +1,143 @@
+package com.artifactcomparator.artifact_comparator_backend.Config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourceRegion;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.ResourceRegionHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves file-backed {@link Resource} bodies (artifact downloads, whole or
+ * a single range) without copying them through the heap: on Tomcat the body
+ * is handed to sendfile, which transfers it from the file to the socket with
+ * FileChannel.transferTo; elsewhere it is copied with transferTo into the
+ * response stream. Multi-range responses keep Spring's multipart writer.
+ */
+@Configuration
+public class ZeroCopyResourceConfig implements WebMvcConfigurer {
+
+    // org.apache.catalina.Globals: Tomcat'in sendfile istek öznitelikleri
+    static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Küçük dosyada sendfile kurulumu kopyadan pahalı (Tomcat DefaultServlet: 48 KB)
+    @Value("${artifacts.download.sendfile-min-bytes:49152}")
+    private long sendfileMinBytes;
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (int i = 0; i < converters.size(); i++) {
+            Class<?> type = converters.get(i).getClass();
+            if (type == ResourceHttpMessageConverter.class) {
+                converters.set(i, new FileResourceHttpMessageConverter(sendfileMinBytes));
+            } else if (type == ResourceRegionHttpMessageConverter.class) {
+                converters.set(i, new FileRegionHttpMessageConverter(sendfileMinBytes));
+            }
+        }
+    }
+
+    /** Whole resources; Content-Length is already set from the file size. */
+    public static class FileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+        private final long sendfileMinBytes;
+
+        public FileResourceHttpMessageConverter(long sendfileMinBytes) {
+            this.sendfileMinBytes = sendfileMinBytes;
+        }
+
+        @Override
+        protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+            if (!resource.isFile()) {
+                super.writeContent(resource, outputMessage);
+                return;
+            }
+            File file = resource.getFile();
+            writeFile(file, 0, file.length(), outputMessage, sendfileMinBytes);
+        }
+    }
+
+    /** Single-range (206) responses. */
+    public static class FileRegionHttpMessageConverter extends ResourceRegionHttpMessageConverter {
+
+        private final long sendfileMinBytes;
+
+        public FileRegionHttpMessageConverter(long sendfileMinBytes) {
+            this.sendfileMinBytes = sendfileMinBytes;
+        }
+
+        @Override
+        protected void writeResourceRegion(ResourceRegion region, HttpOutputMessage outputMessage) throws IOException {
+            Resource resource = region.getResource();
+            if (!resource.isFile()) {
+                super.writeResourceRegion(region, outputMessage);
+                return;
+            }
+
+            long length = resource.contentLength();
+            long start = region.getPosition();
+            long end = Math.min(start + region.getCount() - 1, length - 1);
+            long count = end - start + 1;
+
+            HttpHeaders headers = outputMessage.getHeaders();
+            headers.add(HttpHeaders.CONTENT_RANGE, "bytes " + start + '-' + end + '/' + length);
+            headers.setContentLength(count);
+            writeFile(resource.getFile(), start, count, outputMessage, sendfileMinBytes);
+        }
+    }
+
+    static void writeFile(File file, long position, long count,
+                          HttpOutputMessage outputMessage, long sendfileMinBytes) throws IOException {
+        HttpServletRequest request = currentRequest();
+        if (count >= sendfileMinBytes
+                && request != null
+                && outputMessage instanceof ServletServerHttpResponse response
+                && !"HEAD".equals(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            // Yalnızca başlıklar yazılır; gövdeyi Tomcat yanıt bitince dosyadan sokete aktarır
+            response.flush();
+            return;
+        }
+
+        OutputStream body = outputMessage.getBody();
+        try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(body);
+            long written = 0;
+            while (written < count) {
+                long n = in.transferTo(position + written, count - written, out);
+                // Dosya beklenenden kısaysa döngü biter
+                if (n <= 0) break;
+                written += n;
+            }
+        }
+        body.flush();
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+}
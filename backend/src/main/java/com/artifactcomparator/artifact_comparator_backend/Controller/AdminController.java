@@ -8,12 +8,16 @@ import com.artifactcomparator.artifact_comparator_backend.DTO.UserDTO;
 import com.artifactcomparator.artifact_comparator_backend.Entity.AdminActionLog;
 import com.artifactcomparator.artifact_comparator_backend.Filter.UserFilter;
 import com.artifactcomparator.artifact_comparator_backend.Service.AdminService;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactStorage;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCallMetrics;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiClient;
 import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,9 +28,17 @@ public class AdminController {
 
     private final AdminService adminService;
     private final StudyRepository studyRepository;
-    public AdminController(AdminService adminService, StudyRepository studyRepository) {
+    private final GeminiCallMetrics geminiCallMetrics;
+    private final GeminiClient geminiClient;
+    private final ArtifactStorage artifactStorage;
+    public AdminController(AdminService adminService, StudyRepository studyRepository,
+                           GeminiCallMetrics geminiCallMetrics, GeminiClient geminiClient,
+                           ArtifactStorage artifactStorage) {
         this.adminService = adminService;
         this.studyRepository = studyRepository;
+        this.geminiCallMetrics = geminiCallMetrics;
+        this.geminiClient = geminiClient;
+        this.artifactStorage = artifactStorage;
     }
 
     @GetMapping("/user-panel")
@@ -142,5 +154,20 @@ public class AdminController {
                     .body(null);
         }
     }
-}
 
+    // Gemini çağrıları: caller bazında gecikme, sonuç, token ve tahmini maliyet + devre/kota durumu
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/ai-usage")
+    public ResponseEntity<Map<String, Object>> getAiUsage() {
+        Map<String, Object> usage = new LinkedHashMap<>(geminiCallMetrics.summary());
+        usage.put("client", geminiClient.stats());
+        return ResponseEntity.ok(usage);
+    }
+
+    // Blob store: tekil içerik sayısı, saklanan / referans verilen byte, taşınmamış eski artifact'lar
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/artifact-storage/stats")
+    public ResponseEntity<Map<String, Object>> getArtifactStorageStats() {
+        return ResponseEntity.ok(artifactStorage.stats());
+    }
+}
@@ -6,6 +6,7 @@ import com.artifactcomparator.artifact_comparator_backend.Entity.User;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactFolderRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactStorage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -14,7 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.InputStream;
 import java.util.*;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -22,7 +23,6 @@ import java.util.*;
 @RequestMapping("/api/artifacts")
 public class ArtifactUploadController {
 
-    private static final String UPLOAD_DIR = System.getProperty("user.home") + "/uploaded_files/";
     private static final long MAX_FILE_SIZE = 50 * 1024 * 1024;
 
     @Autowired
@@ -34,6 +34,10 @@ public class ArtifactUploadController {
     @Autowired
     private ArtifactFolderRepository folderRepo; // ⭐ NEW
 
+    // İçerik SHA-256 ile blob store'a yazılır; ad yalnızca metadata
+    @Autowired
+    private ArtifactStorage artifactStorage;
+
     // ✅ 1. Artifact yükleme
     @PostMapping("/upload")
     public ResponseEntity<Map<String, String>> uploadArtifact(
@@ -50,24 +54,18 @@ public class ArtifactUploadController {
         if (file.getSize() > MAX_FILE_SIZE)
             return ResponseEntity.badRequest().body(Map.of("error", "File exceeds 50 MB limit"));
 
-        try {
-            Path userDir = Paths.get(UPLOAD_DIR, username);
-            Files.createDirectories(userDir);
-
+        try (InputStream content = file.getInputStream()) {
             String filename = Optional.ofNullable(file.getOriginalFilename()).orElse("unnamed");
-            Path filePath = userDir.resolve(filename);
-            Files.write(filePath, file.getBytes(), StandardOpenOption.CREATE);
 
             ArtifactUpload artifact = new ArtifactUpload();
             artifact.setFilename(filename);
-            artifact.setFilepath(filePath.toString());
             artifact.setResearcher(researcher);
-            fileRepo.save(artifact);
+            ArtifactUpload saved = artifactStorage.store(artifact, content);
 
             return ResponseEntity.ok(Map.of(
                     "message", "Artifact uploaded successfully",
                     "filename", filename,
-                    "path", filePath.toString()
+                    "path", saved.getFilepath()
             ));
         } catch (IOException e) {
             return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
@@ -194,19 +192,13 @@ public class ArtifactUploadController {
         if (newName == null || newName.isBlank())
             return ResponseEntity.badRequest().body(Map.of("error", "New name cannot be empty"));
 
-        Path oldPath = Paths.get(artifact.getFilepath());
         String extension = artifact.getFilename().contains(".")
                 ? artifact.getFilename().substring(artifact.getFilename().lastIndexOf("."))
                 : "";
         if (newName.contains(".")) newName = newName.substring(0, newName.lastIndexOf("."));
 
-        Path newPath = oldPath.getParent().resolve(newName + extension);
-
         try {
-            Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
-            artifact.setFilename(newName + extension);
-            artifact.setFilepath(newPath.toString());
-            fileRepo.save(artifact);
+            artifactStorage.rename(artifact, newName + extension);
 
             return ResponseEntity.ok(Map.of("message", "Artifact renamed successfully"));
         } catch (IOException e) {
@@ -237,8 +229,7 @@ public class ArtifactUploadController {
 
             // ⭐ TRY TO DELETE
             try {
-                fileRepo.delete(artifact);
-                fileRepo.flush();
+                artifactStorage.delete(artifact);
                 return ResponseEntity.ok(Map.of("message", "File deleted successfully"));
             } catch (Exception e) {
                 // Delete failed - likely being used in a study
@@ -296,8 +287,7 @@ public class ArtifactUploadController {
 
                 // Try to delete - if it fails due to foreign key constraint, it's being used
                 try {
-                    fileRepo.delete(artifact);
-                    fileRepo.flush(); // Force the delete to happen now
+                    artifactStorage.delete(artifact); // flush'lar: FK hatası burada yakalanır
                     deletedCount++;
                 } catch (Exception e) {
                     // Delete failed - likely due to foreign key constraint
@@ -1,6 +1,7 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
 import com.artifactcomparator.artifact_comparator_backend.Service.BulkUploadService;
+import com.artifactcomparator.artifact_comparator_backend.Exception.StorageBusyException;
 import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactFolderRepository;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
@@ -82,6 +83,9 @@ public class BulkUploadController {
                     "tasksCreated", tasksCreated
             ));
 
+        } catch (StorageBusyException e) {
+            // Geçersiz girdi değil → GlobalExceptionHandler 503 + Retry-After döner
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().body(Map.of(
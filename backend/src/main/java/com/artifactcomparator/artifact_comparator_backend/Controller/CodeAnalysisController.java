@@ -1,14 +1,22 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisBatchResponse;
 import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisRequest;
 import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisResponse;
+import com.artifactcomparator.artifact_comparator_backend.Service.CodeAnalysisCache;
 import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCodeAnalysisService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -27,6 +36,7 @@ import java.util.Map;
 public class CodeAnalysisController {
 
     private final GeminiCodeAnalysisService analysisService;
+    private final CodeAnalysisCache analysisCache;
 
     @PostMapping("/cyclomatic")
     public ResponseEntity<CodeAnalysisResponse> analyzeCyclomaticComplexity(
@@ -48,7 +58,7 @@ public class CodeAnalysisController {
             if (request.isIncludeVisualization()) {
                 log.info("Generating control flow diagram as requested");
                 String diagram = analysisService.generateControlFlowDiagram(
-                        request.getCode());
+                        request.getCode(), request.getFileName(), request.getLanguage());
                 response.setControlFlowDiagram(diagram);
             }
 
@@ -71,7 +81,7 @@ public class CodeAnalysisController {
 
         try {
             String mermaidCode = analysisService.generateControlFlowDiagram(
-                    request.getCode());
+                    request.getCode(), request.getFileName(), request.getLanguage());
 
             Map<String, String> response = new HashMap<>();
             response.put("mermaidCode", mermaidCode);
@@ -87,4 +97,32 @@ public class CodeAnalysisController {
                     .body(Map.of("error", e.getMessage()));
         }
     }
+
+    // Birden fazla dosya: Gemini'ye paralel (sınırlı sayıda) gönderilir, sonuçlar istek sırasıyla döner
+    @PostMapping("/batch")
+    public ResponseEntity<CodeAnalysisBatchResponse> analyzeBatch(
+            @RequestBody @NotEmpty @Size(max = 200) List<@Valid CodeAnalysisRequest> requests) {
+
+        log.info("Received batch code analysis request for {} files", requests.size());
+
+        CodeAnalysisBatchResponse response = analysisService.analyzeBatch(requests);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        response.getResults().forEach(r -> r.setTimestamp(timestamp));
+
+        return ResponseEntity.ok(response);
+    }
+
+    // 📦 Analiz cache'i: hit / miss sayıları
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(analysisCache.stats());
+    }
+
+    // Prompt dışı bir nedenle sonuçlar geçersizse (ör. model davranışı değişti) elle temizle
+    @PreAuthorize("hasRole('ADMIN')")
+    @DeleteMapping("/cache/{kind}")
+    public ResponseEntity<Map<String, Object>> invalidateCache(@PathVariable CodeAnalysisCache.Kind kind) {
+        int removed = analysisCache.invalidate(kind);
+        return ResponseEntity.ok(Map.of("kind", kind, "removed", removed));
+    }
 }
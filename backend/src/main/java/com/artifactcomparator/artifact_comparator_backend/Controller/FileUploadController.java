@@ -1,13 +1,13 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
-import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
-import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Exception.StorageBusyException;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactDownloadService;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactStorage;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,8 +16,10 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.*;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -26,8 +28,10 @@ import java.util.*;
 public class FileUploadController {
 
     private final UserRepository userRepository;
-    // backend/uploads içine kayıt edecek
-    private static final String UPLOAD_DIR = "uploads/";
+    // İçerik SHA-256 ile blob store'a yazılır (ArtifactStorage)
+    private final ArtifactStorage artifactStorage;
+    // ETag / 304 / Range / önbellek başlıkları
+    private final ArtifactDownloadService downloadService;
     private static final long MAX_FILE_SIZE = 50 * 1024 * 1024;
 
     private static final Set<String> ALLOWED_TYPES = Set.of(
@@ -52,8 +56,12 @@ public class FileUploadController {
     @Autowired
     private UserRepository userRepo;
 
-    public FileUploadController(UserRepository userRepository) {
+    public FileUploadController(UserRepository userRepository,
+                                ArtifactStorage artifactStorage,
+                                ArtifactDownloadService downloadService) {
         this.userRepository = userRepository;
+        this.artifactStorage = artifactStorage;
+        this.downloadService = downloadService;
     }
 
     // 🔹 Upload endpoint
@@ -86,29 +94,21 @@ public class FileUploadController {
             ));
         }
 
-        try {
-            Path userDir = Paths.get(UPLOAD_DIR, username);
-            Files.createDirectories(userDir);
-
-            Path filePath = userDir.resolve(Paths.get(filename).getFileName());
-            Files.write(filePath, file.getBytes(), StandardOpenOption.CREATE);
-
+        try (InputStream content = file.getInputStream()) {
             ArtifactUpload artifact = new ArtifactUpload();
             artifact.setFilename(filename);
-            String webPath = "/uploads/" + username + "/" + filename;
-            artifact.setFilepath(webPath);
             artifact.setCategory(null);
             artifact.setTags(null);
             artifact.setResearcher(researcher);
 
-            fileRepo.save(artifact);
+            ArtifactUpload saved = artifactStorage.store(artifact, content);
 
             System.out.printf("📁 [%s] File uploaded by %s → %s%n", LocalDateTime.now(), username, filename);
 
             return ResponseEntity.ok(Map.of(
                     "message", "File uploaded successfully",
                     "fileName", filename,
-                    "path", filePath.toString()
+                    "path", saved.getFilepath()
             ));
 
         } catch (IOException e) {
@@ -157,20 +157,16 @@ public class FileUploadController {
         if (!file.getResearcher().getId().equals(researcher.getId()))
             return ResponseEntity.status(403).body(Map.of("error", "Permission denied"));
 
-        Path oldPath = Paths.get(file.getFilepath());
         String extension = "";
         int dotIndex = file.getFilename().lastIndexOf(".");
         if (dotIndex != -1) extension = file.getFilename().substring(dotIndex);
         if (newName.contains(".")) newName = newName.substring(0, newName.lastIndexOf("."));
 
         String finalName = newName + extension;
-        Path newPath = oldPath.getParent().resolve(finalName);
 
         try {
-            Files.move(oldPath, newPath, StandardCopyOption.REPLACE_EXISTING);
-            file.setFilename(finalName);
-            file.setFilepath(newPath.toString());
-            fileRepo.save(file);
+            // Yalnızca ad değişir; içerik blob'da kalır
+            artifactStorage.rename(file, finalName);
 
             return ResponseEntity.ok(Map.of("message", "File renamed successfully", "newName", finalName));
         } catch (IOException e) {
@@ -198,14 +194,8 @@ public class FileUploadController {
         if (!file.getResearcher().getId().equals(researcher.getId()))
             return ResponseEntity.status(403).body(Map.of("error", "Permission denied"));
 
-        try {
-            Files.deleteIfExists(Paths.get(file.getFilepath()));
-            fileRepo.delete(file);
-            return ResponseEntity.ok(Map.of("message", "File deleted successfully"));
-        } catch (IOException e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(Map.of("error", "Delete failed: " + e.getMessage()));
-        }
+        artifactStorage.delete(file);
+        return ResponseEntity.ok(Map.of("message", "File deleted successfully"));
     }
 
     // 🔹 Classify file (add category & tags)
@@ -246,9 +236,11 @@ public class FileUploadController {
     // ====================================================
 // 🔹 SECURE FILE DOWNLOAD ENDPOINT
 // ====================================================
+    // ?v=<contentHash> → içerik adresli URL, tarayıcı süresiz önbellekler
     @GetMapping("/file/{id}")
     public ResponseEntity<Resource> getFile(
             @PathVariable Long id,
+            @RequestParam(required = false) String v,
             @AuthenticationPrincipal UserDetails userDetails
     ) {
 
@@ -259,39 +251,12 @@ public class FileUploadController {
         ArtifactUpload artifact = fileRepo.findById(id)
                 .orElseThrow(() -> new RuntimeException("File not found"));
 
-        String ownerUsername = artifact.getResearcher().getUsername();
-
-        Optional<User> user = userRepository.findByUsername(userDetails.getUsername());
-        List<Study> joined = user.get().getJoinedStudies();
-        Long artifactId = artifact.getId();
-
-        boolean allowed = false;
-
-        for (Study study : joined) {
-            for (EvaluationTask task : study.getEvaluationTasks()) {
-                for (ArtifactUpload art : task.getArtifacts()) {
-                    if (art.getId().equals(artifactId)) {
-                        allowed = true;
-                        break;
-                    }
-                }
-                if (allowed) break;
-            }
-            if (allowed) break;
-        }
-
-        if (!allowed) {
+        // Katıldığı bir çalışmanın görevinde mi? (tek sorgu; 304 yanıtları da bu kontrolden geçer)
+        if (!fileRepo.isInJoinedStudy(artifact.getId(), userDetails.getUsername())) {
             return ResponseEntity.status(403).build();
         }
 
         try {
-            Path path = Paths.get(UPLOAD_DIR, ownerUsername, artifact.getFilename());
-            Resource resource = new UrlResource(path.toUri());
-
-            if (!resource.exists()) {
-                return ResponseEntity.notFound().build();
-            }
-
             // === Content Type Belirleme ===
             String filename = artifact.getFilename().toLowerCase();
             MediaType type;
@@ -309,10 +274,7 @@ public class FileUploadController {
             }
 
             // === INLINE Açılmasını Sağla (İNDİRME YOK) ===
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "inline; filename=\"" + artifact.getFilename() + "\"")
-                    .contentType(type)
-                    .body(resource);
+            return downloadService.inline(artifact, type, v);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -323,6 +285,7 @@ public class FileUploadController {
     @GetMapping("/researcher/artifact/{id}")
     public ResponseEntity<Resource> getArtifactForResearcher(
             @PathVariable Long id,
+            @RequestParam(required = false) String v,
             @AuthenticationPrincipal UserDetails userDetails
     ) {
 
@@ -342,22 +305,13 @@ public class FileUploadController {
         }
 
         try {
-            // 🔥 Artifact DB'deki gerçek filepath'i kullan
-            Path path = Paths.get("uploads", artifact.getResearcher().getUsername(), artifact.getFilename());
-            Resource resource = new UrlResource(path.toUri());
-
-            if (!resource.exists()) return ResponseEntity.notFound().build();
-
             String filename = artifact.getFilename().toLowerCase();
             MediaType type = filename.endsWith(".pdf") ? MediaType.APPLICATION_PDF :
                     filename.endsWith(".png") ? MediaType.IMAGE_PNG :
                             filename.endsWith(".jpg") || filename.endsWith(".jpeg") ? MediaType.IMAGE_JPEG :
                                     MediaType.TEXT_PLAIN;
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "inline; filename=\"" + artifact.getFilename() + "\"")
-                    .contentType(type)
-                    .body(resource);
+            return downloadService.inline(artifact, type, v);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -392,31 +346,15 @@ public class FileUploadController {
             String tags = (String) body.getOrDefault("tags", "");
             String category = (String) body.getOrDefault("category", "solid_violation");
 
-            // 4) DOĞRU KLASÖRE YAZ
-            Path userDir = Paths.get(UPLOAD_DIR, username);
-            Files.createDirectories(userDir);
-
-            Path filePath = userDir.resolve(filename);
-
-            Files.writeString(
-                    filePath,
-                    content != null ? content : "",
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING
-            );
-
-            // 5) DB KAYDI
+            // 4) DB KAYDI + içerik (manuel upload ile aynı blob store)
             ArtifactUpload artifact = new ArtifactUpload();
             artifact.setFilename(filename);
-
-            // 🔥 Manuel upload ile aynı format
-            artifact.setFilepath("/uploads/" + username + "/" + filename);
-
             artifact.setTags(tags);
             artifact.setCategory(category);
             artifact.setResearcher(researcher);
 
-            ArtifactUpload saved = fileRepo.save(artifact);
+            byte[] bytes = (content != null ? content : "").getBytes(StandardCharsets.UTF_8);
+            ArtifactUpload saved = artifactStorage.store(artifact, new ByteArrayInputStream(bytes));
 
             return ResponseEntity.ok(Map.of(
                     "id", saved.getId(),
@@ -424,6 +362,8 @@ public class FileUploadController {
                     "filepath", saved.getFilepath()
             ));
 
+        } catch (StorageBusyException e) {
+            throw e;
         } catch (Exception e) {
             e.printStackTrace();
             return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
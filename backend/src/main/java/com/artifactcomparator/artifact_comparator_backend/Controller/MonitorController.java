@@ -1,18 +1,25 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.*;
-import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
-import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
 
+import com.artifactcomparator.artifact_comparator_backend.Service.ReportJobService;
+import com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyLiveFeedService;
 import com.artifactcomparator.artifact_comparator_backend.Service.StudyPdfExportService;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyResultsCubeService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,16 +29,24 @@ import java.util.stream.Collectors;
 public class MonitorController {
 
     private final StudyRepository studyRepo;
-    private final ParticipantTaskResponseRepository respRepo;
+    private final ResultAggregateService resultAggregateService;
+    private final StudyResultsCubeService cubeService;
     private final StudyPdfExportService pdfExportService; // 🔥 yeni
-
+    private final ReportJobService reportJobService;
+    private final StudyLiveFeedService liveFeedService;
 
     public MonitorController(StudyRepository studyRepo,
-                             ParticipantTaskResponseRepository respRepo,
-                             StudyPdfExportService pdfExportService) {
+                             ResultAggregateService resultAggregateService,
+                             StudyResultsCubeService cubeService,
+                             StudyPdfExportService pdfExportService,
+                             ReportJobService reportJobService,
+                             StudyLiveFeedService liveFeedService) {
         this.studyRepo = studyRepo;
-        this.respRepo = respRepo;
+        this.resultAggregateService = resultAggregateService;
+        this.cubeService = cubeService;
         this.pdfExportService = pdfExportService; // ✔ Sorunsuz
+        this.reportJobService = reportJobService;
+        this.liveFeedService = liveFeedService;
     }
 
     @GetMapping("/{studyId}/progress")
@@ -43,9 +58,12 @@ public class MonitorController {
         int totalParticipants = study.getParticipants().size();
         List<EvaluationTask> tasks = study.getEvaluationTasks();
 
-        // Tüm verilen cevaplar
-        List<ParticipantTaskResponse> allResponses =
-                respRepo.findByTask_Study_Id(studyId);
+        // 📡 Cube'dan önce okunur: bu seq'e kadarki delta'lar snapshot'ta var, client onları atlar
+        long feedVersion = liveFeedService.currentVersion(studyId);
+
+        // 📊 Task × criterion sonuçları (bellekteki results cube'dan)
+        ResultAggregateService.StudyResults results =
+                cubeService.getStudyResults(study);
 
         List<Map<String, Object>> taskStats = new ArrayList<>();
 
@@ -55,13 +73,10 @@ public class MonitorController {
         for (EvaluationTask task : tasks) {
 
             // Bu task'a cevap gönderenler
-            List<ParticipantTaskResponse> taskResponses =
-                    allResponses.stream()
-                            .filter(r -> r.getTask().getId().equals(task.getId()))
-                            .toList();
+            int completedCount = results.completedCount(task.getId());
 
             // Pending: cevap göndermeyen user sayısı
-            int pendingParticipants = totalParticipants - taskResponses.size();
+            int pendingParticipants = totalParticipants - completedCount;
 
             // ---- Correct answers mapping ----
             List<CorrectAnswerEntry> correctAnswers =
@@ -78,78 +93,25 @@ public class MonitorController {
 
             List<Map<String, Object>> criteriaStats = new ArrayList<>();
 
-            for (int i = 0; i < sortedCriteria.size(); i++) {
-
-                EvaluationCriterion crit = sortedCriteria.get(i);
-
-                boolean isCodeEdit = crit.getType() == CriterionType.CODE_EDIT;
+            for (EvaluationCriterion crit : sortedCriteria) {
 
                 String correctValue = correctMap.getOrDefault(crit.getId(), "");
+                CriterionResultAggregate agg = results.get(task.getId(), crit.getId());
 
                 int correct = 0;
                 int wrong = 0;
                 int blank = 0;
                 int unknown = 0;
 
-                boolean isUnknownCriterion = (correctValue == null || correctValue.isBlank());
-
-                for (ParticipantTaskResponse r : taskResponses) {
-
-                    List<String> userAns = (r.getAnswers() != null)
-                            ? r.getAnswers()
-                            : Collections.emptyList();
-
-                    String userValue = (i < userAns.size() && userAns.get(i) != null)
-                            ? userAns.get(i)
-                            : "";
-
-                    boolean correctEmpty = (correctValue == null || correctValue.isBlank());
-                    boolean userEmpty = (userValue == null || userValue.isBlank());
-
-                    // ================================================================
-                    // ① Correct boş → tüm cevaplar UNKNOWN
-                    // ================================================================
-                    if (correctEmpty) {
-                        unknown++;
-                        continue;
-                    }
-
-                    // ================================================================
-                    // ② User boş, correct dolu → WRONG
-                    // ================================================================
-                    if (userEmpty && !correctEmpty) {
-                        wrong++;
-                        continue;
-                    }
-
-                    // ================================================================
-                    // ③ User boş, correct boş (normalde yukarıda unknown'a giderdi ama kural gereği yine UNKNOWN)
-                    // ================================================================
-                    if (userEmpty && correctEmpty) {
-                        unknown++;
-                        continue;
-                    }
-
-                    // ================================================================
-                    // ④ User dolu & correct eşleşiyor → CORRECT
-                    // ================================================================
-                    boolean matches = isCodeEdit
-                            ? normalizeCode(extractEditedCode(userValue))
-                            .equals(normalizeCode(correctValue))
-                            : userValue.equals(correctValue);
-
-                    if (matches) {
-                        correct++;
-                        continue;
-                    }
-
-                    // ================================================================
-                    // ⑤ User dolu & correct eşleşmiyor → WRONG
-                    // ================================================================
-                    wrong++;
+                // ① Correct boş → tüm cevaplar UNKNOWN
+                if (correctValue == null || correctValue.isBlank()) {
+                    unknown = agg.getResponseCount();
+                } else {
+                    // ② User boş → WRONG, ④ eşleşiyor → CORRECT, ⑤ eşleşmiyor → WRONG
+                    correct = agg.getCorrectCount();
+                    wrong = agg.getWrongCount() + agg.getBlankCount();
                 }
 
-
                 Map<String, Object> critStat = new HashMap<>();
                 critStat.put("criterionId", crit.getId());
                 critStat.put("label", crit.getQuestion());
@@ -175,7 +137,7 @@ public class MonitorController {
             entry.put("taskId", task.getId());
             entry.put("questionText", task.getQuestionText());
             entry.put("totalParticipants", totalParticipants);
-            entry.put("completedCount", taskResponses.size());
+            entry.put("completedCount", completedCount);
             entry.put("pendingCount", pendingParticipants);
 
             // Yeni eklenen: Criterion bazlı sonuçlar
@@ -194,59 +156,71 @@ public class MonitorController {
         studyMap.put("totalParticipants", totalParticipants);
         studyMap.put("taskStats", taskStats);
         studyMap.put("status", study.getStatus().name());
+        studyMap.put("feedVersion", feedVersion);
 
         return studyMap;
     }
 
-    @GetMapping("/{studyId}/export-pdf")
-    public ResponseEntity<byte[]> exportStudyPdf(@PathVariable Long studyId) {
-        byte[] pdfBytes = pdfExportService.generateStudyReport(studyId);
+    // 📡 Canlı monitor akışı (SSE): her submit'te küçük bir delta, arada heartbeat
+    // Reconnect'te tarayıcı Last-Event-ID gönderir → kaçırılan delta'lar tekrar gönderilir
+    @GetMapping(value = "/{studyId}/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> liveFeed(
+            @PathVariable Long studyId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(org.springframework.http.MediaType.APPLICATION_PDF);
-        headers.setContentDisposition(
-                org.springframework.http.ContentDisposition
-                        .attachment()
-                        .filename("study-" + studyId + "-report.pdf")
-                        .build()
-        );
+        if (!studyRepo.existsById(studyId)) {
+            throw new RuntimeException("Study not found");
+        }
 
-        return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+        SseEmitter emitter = liveFeedService.subscribe(studyId, lastEventId);
+        if (emitter == null) {
+            // Node'daki abone sınırı dolu → client progress endpoint'ine döner
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
     }
 
-    private String normalizeCode(String s) {
-        if (s == null) return "";
-        return s
-                .replaceAll("//.*", "")
-                .replaceAll("/\\*(.|\\R)*?\\*/", "")
-                .replaceAll("\\s+", "")
-                .trim();
+    // 📊 Mevcut cevaplardan sonuç özetlerini yeniden kur (eski veriler / elle düzeltme için)
+    @PostMapping("/{studyId}/rebuild-aggregates")
+    public Map<String, Object> rebuildAggregates(@PathVariable Long studyId) {
+        int rebuiltTasks = resultAggregateService.rebuildStudy(studyId);
+
+        Map<String, Object> res = new HashMap<>();
+        res.put("studyId", studyId);
+        res.put("rebuiltTasks", rebuiltTasks);
+        return res;
     }
 
-    private String extractEditedCode(String raw) {
-        if (raw == null || raw.isBlank()) return "";
+    @GetMapping("/{studyId}/export-pdf")
+    public ResponseEntity<StreamingResponseBody> exportStudyPdf(@PathVariable Long studyId) {
 
-        String trimmed = raw.trim();
+        // Header'lar gönderilmeden önce kontrol et → stream ortasında hata olmasın
+        if (!studyRepo.existsById(studyId)) {
+            throw new RuntimeException("Study not found");
+        }
 
-        // JSON gibi duruyorsa
-        if (trimmed.startsWith("{")) {
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper =
-                        new com.fasterxml.jackson.databind.ObjectMapper();
-                com.fasterxml.jackson.databind.JsonNode node =
-                        mapper.readTree(trimmed);
+        // 📦 Study değişmediyse daha önce üretilmiş rapor cache'ten gönderilir;
+        // dosya burada açılır → stream sırasında eski versiyon olarak silinse de okunur
+        FileChannel cached = reportJobService.openCachedReport(studyId);
 
-                if (node.has("editedCode")) {
-                    return node.get("editedCode").asText("");
+        // 📄 Yoksa PDF doğrudan response stream'ine yazılır (heap'te byte[] kopyası yok)
+        StreamingResponseBody body = (cached != null)
+                ? out -> {
+                    try (cached) {
+                        Channels.newInputStream(cached).transferTo(out);
+                    }
                 }
-            } catch (Exception e) {
-                // parse edilemezse fallback
-            }
-        }
+                : out -> pdfExportService.generateStudyReport(studyId, out);
 
-        // JSON değilse direkt code kabul et
-        return raw;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(org.springframework.http.MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(
+                org.springframework.http.ContentDisposition
+                        .attachment()
+                        .filename("study-" + studyId + "-report.pdf")
+                        .build()
+        );
+
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 }
-
-
@@ -1,14 +1,24 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
 import com.artifactcomparator.artifact_comparator_backend.DTO.NotificationDto;
+import com.artifactcomparator.artifact_comparator_backend.DTO.NotificationPageDto;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Notification;
+import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
 import com.artifactcomparator.artifact_comparator_backend.Service.JwtService;
+import com.artifactcomparator.artifact_comparator_backend.Service.NotificationPushService;
 import com.artifactcomparator.artifact_comparator_backend.Service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
@@ -16,11 +26,17 @@ import java.util.List;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationPushService pushService;
+    private final UserRepository userRepository;
 
 
     @Autowired
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService,
+                                  NotificationPushService pushService,
+                                  UserRepository userRepository) {
         this.notificationService = notificationService;
+        this.pushService = pushService;
+        this.userRepository = userRepository;
     }
 
     @GetMapping("/user/{userId}")
@@ -28,6 +44,42 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getUserNotificationsDto(userId));
     }
 
+    // Sayfalı geçmiş (en yeni önce): ?before=<önceki sayfanın nextCursor'ı>&limit=20
+    @GetMapping("/user/{userId}/page")
+    public ResponseEntity<NotificationPageDto> getUserNotificationsPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(notificationService.getUserNotificationsPage(userId, before, limit));
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
+        return ResponseEntity.ok(Map.of("count", notificationService.getUnreadCount(userId)));
+    }
+
+    // 🔔 Push kanalı (SSE): yeni bildirimler + okunmamış sayısı, polling gerekmez
+    // Sadece giriş yapmış kullanıcı kendi kanalını dinleyebilir (JWT'deki kullanıcı = {userId})
+    @GetMapping(value = "/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(@PathVariable Long userId,
+                                             @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (!user.getId().equals(userId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        SseEmitter emitter = pushService.subscribe(userId, notificationService.getUnreadCount(userId));
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     @PatchMapping("/{id}/read")
     public ResponseEntity<Void> markAsRead(@PathVariable Long id) {
         notificationService.markAsRead(id);
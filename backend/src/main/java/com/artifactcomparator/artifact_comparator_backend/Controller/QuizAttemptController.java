@@ -12,6 +12,9 @@ import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
 import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradeMemoService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradingJobService;
 import com.artifactcomparator.artifact_comparator_backend.Service.GradingService;
 import com.artifactcomparator.artifact_comparator_backend.Service.JwtService;
 import com.artifactcomparator.artifact_comparator_backend.Service.NotificationService;
@@ -20,6 +23,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -36,6 +40,8 @@ import java.util.stream.Collectors;
 public class QuizAttemptController {
     private final QuizResultService quizResultService;
     private final GradingService gradingService;
+    private final GradingJobService gradingJobService;
+    private final GradeMemoService gradeMemoService;
     private final JwtService jwtService;
     private final NotificationService notificationService;
 
@@ -71,18 +77,15 @@ public class QuizAttemptController {
         log.info("Submitting quiz attempt {}**********************************************************", quizResultId);
         System.out.println("******************************************************************************");
         try {
-            // Submit answers and auto-grade
-            QuizResult gradedResult = quizResultService.submitAnswers(
+            // Submit answers; grading runs in the background (gradingStatus = GRADING)
+            QuizResult submittedResult = quizResultService.submitAnswers(
                     quizResultId,
                     submissionDTO.getAnswers()
             );
 
-            // Build response with results
-            QuizResultResponseDTO response = buildQuizResultResponse(gradedResult);
+            QuizResultResponseDTO response = buildQuizResultResponse(submittedResult);
 
-            log.info("Quiz submitted and graded. Score: {}/{}",
-                    gradedResult.getTotalPointsEarned(),
-                    gradedResult.getMaxPossiblePoints());
+            log.info("Quiz {} submitted, queued for grading", quizResultId);
 
             return ResponseEntity.ok(response);
 
@@ -209,6 +212,7 @@ public class QuizAttemptController {
                     .pointsEarned(quizResult.getPointsEarned().get(qId))
                     .maxPoints(question.getPoints())
                     .aiFeedback(quizResult.getAiFeedback().get(qId))
+                    .gradeReused(quizResult.getGradeSources().containsKey(qId))
                     .build();
 
             questionResults.put(qId, resultDTO);
@@ -227,6 +231,7 @@ public class QuizAttemptController {
                 .participantUsername(participant.getUsername())
                 .submittedAt(quizResult.getSubmittedAt())
                 .gradedAt(quizResult.getGradedAt())
+                .gradingStatus(gradingStatusOf(quizResult))
                 .totalPointsEarned(quizResult.getTotalPointsEarned())
                 .maxPossiblePoints(quizResult.getMaxPossiblePoints())
                 .percentageScore(quizResult.getPercentageScore())
@@ -282,4 +287,36 @@ public class QuizAttemptController {
 
         return ResponseEntity.ok(buildQuizResultResponse(updated));
     }
+
+    // Dead-letter'a düşen puanlama işini tekrar kuyruğa al
+    @PreAuthorize("hasAnyRole('ADMIN','RESEARCHER')")
+    @PostMapping("/{quizResultId}/retry-grading")
+    public ResponseEntity<?> retryGrading(@PathVariable Long quizResultId) {
+        try {
+            gradingJobService.retry(quizResultId);
+            return ResponseEntity.ok("Grading queued again");
+        } catch (Exception e) {
+            log.error("Error re-queueing grading: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','RESEARCHER')")
+    @GetMapping("/grading-jobs/stats")
+    public ResponseEntity<Map<String, Object>> gradingJobStats() {
+        return ResponseEntity.ok(gradingJobService.stats());
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','RESEARCHER')")
+    @GetMapping("/grading-memo/stats")
+    public ResponseEntity<Map<String, Object>> gradingMemoStats() {
+        return ResponseEntity.ok(gradeMemoService.stats());
+    }
+
+    // Kuyruktan önce submit edilmiş sonuçlarda gradingStatus boş
+    private String gradingStatusOf(QuizResult quizResult) {
+        if (quizResult.getGradingStatus() != null) return quizResult.getGradingStatus().name();
+        if (quizResult.getGradedAt() != null) return GradingStatus.GRADED.name();
+        return null;
+    }
 }
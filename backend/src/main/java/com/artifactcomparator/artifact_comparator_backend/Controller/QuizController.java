@@ -1,17 +1,28 @@
 package com.artifactcomparator.artifact_comparator_backend.Controller;
 
 import com.artifactcomparator.artifact_comparator_backend.DTO.AIQuizGenerationDTO;
+import com.artifactcomparator.artifact_comparator_backend.DTO.BatchGradingStatusDTO;
 import com.artifactcomparator.artifact_comparator_backend.DTO.MultipleChoiceQuestionDTO;
 import com.artifactcomparator.artifact_comparator_backend.DTO.OpenEndedQuestionDTO;
 import com.artifactcomparator.artifact_comparator_backend.DTO.QuizCreateDTO;
 import com.artifactcomparator.artifact_comparator_backend.DTO.QuizUpdateDTO;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Enums.Role;
+import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.BatchGradingService;
+import com.artifactcomparator.artifact_comparator_backend.Service.QuizGenerationStreamService;
 import com.artifactcomparator.artifact_comparator_backend.Service.QuizService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,7 +31,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -32,6 +45,9 @@ import java.util.List;
 public class QuizController {
 
     private final QuizService quizService;
+    private final BatchGradingService batchGradingService;
+    private final QuizGenerationStreamService quizGenerationStreamService;
+    private final UserRepository userRepository;
 
     @PostMapping("/create")
     public ResponseEntity<Quiz> createEmptyQuiz(@RequestBody QuizCreateDTO dto) {
@@ -67,6 +83,19 @@ public class QuizController {
         }
     }
 
+    // AI quiz üretimi (SSE): her soru hazır olur olmaz "question" event'i, sonunda kaydedilen quiz ile "done"
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter generateQuizWithAIStream(@RequestBody AIQuizGenerationDTO dto) {
+        return quizGenerationStreamService.generate(
+                dto.getTitle(),
+                dto.getDescription(),
+                dto.getTopic(),
+                dto.getDifficulty(),
+                dto.getNumberOfQuestions(),
+                dto.getQuestionType()
+        );
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Quiz> getQuizById(@PathVariable Long id) {
         try {
@@ -243,4 +272,56 @@ public class QuizController {
         }
     }
 
+    /**
+     * Switch open-ended grading between per-submission and researcher-triggered batches
+     * PUT /api/quiz/{quizId}/batch-grading?enabled=true
+     */
+    @PutMapping("/{quizId}/batch-grading")
+    public ResponseEntity<BatchGradingStatusDTO> setBatchGrading(
+            @PathVariable Long quizId,
+            @RequestParam boolean enabled) {
+        return ResponseEntity.ok(batchGradingService.setBatchGrading(quizId, enabled));
+    }
+
+    /**
+     * Grade every waiting result of the quiz, many answers per Gemini request
+     * POST /api/quiz/{quizId}/batch-grade
+     */
+    @PreAuthorize("hasAnyRole('ADMIN','RESEARCHER')")
+    @PostMapping("/{quizId}/batch-grade")
+    public ResponseEntity<BatchGradingStatusDTO> startBatchGrading(
+            @PathVariable Long quizId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!canManageGrading(quizId, userDetails)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(batchGradingService.start(quizId));
+    }
+
+    @PreAuthorize("hasAnyRole('ADMIN','RESEARCHER')")
+    @GetMapping("/{quizId}/batch-grade")
+    public ResponseEntity<BatchGradingStatusDTO> getBatchGradingStatus(
+            @PathVariable Long quizId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        if (userDetails == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!canManageGrading(quizId, userDetails)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return ResponseEntity.ok(batchGradingService.getStatus(quizId));
+    }
+
+    // Toplu puanlama ücretli Gemini çağrıları yapar → sadece quiz'in study sahibi veya admin
+    private boolean canManageGrading(Long quizId, UserDetails userDetails) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (user.getRole() == Role.ADMIN) return true;
+
+        Study study = quizService.getQuizById(quizId).getStudy();
+        return study != null && study.getResearcher().getId().equals(user.getId());
+    }
 }
@@ -0,0 +1,64 @@
+package com.artifactcomparator.artifact_comparator_backend.Controller;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.ReportJobDTO;
+import com.artifactcomparator.artifact_comparator_backend.Service.ReportJobService;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+@RestController
+@RequestMapping("/api/monitor")
+@CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    public ReportJobController(ReportJobService reportJobService) {
+        this.reportJobService = reportJobService;
+    }
+
+    // 📄 PDF raporu arka planda üret → job id döner
+    @PostMapping("/{studyId}/export-pdf/jobs")
+    public ReportJobDTO submitReportJob(@PathVariable Long studyId) {
+        return reportJobService.submit(studyId);
+    }
+
+    // ⏳ İlerleme (status, pagesDone / totalPages)
+    @GetMapping("/export-pdf/jobs/{jobId}")
+    public ReportJobDTO getReportJob(@PathVariable String jobId) {
+        return reportJobService.getJob(jobId);
+    }
+
+    // ⬇️ Bitmiş raporu indir
+    @GetMapping("/export-pdf/jobs/{jobId}/download")
+    public ResponseEntity<StreamingResponseBody> downloadReport(@PathVariable String jobId) throws IOException {
+        ReportJobDTO job = reportJobService.getJob(jobId);
+        // Burada açılır → stream sırasında yeni versiyon eskisini silse de indirme tamamlanır
+        FileChannel file = reportJobService.openReportFile(jobId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(
+                ContentDisposition.attachment()
+                        .filename("study-" + job.getStudyId() + "-report.pdf")
+                        .build()
+        );
+        headers.setContentLength(file.size());
+
+        StreamingResponseBody body = out -> {
+            try (file) {
+                Channels.newInputStream(file).transferTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+}
@@ -7,9 +7,13 @@ import com.artifactcomparator.artifact_comparator_backend.Entity.User;
 import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyResultsCube;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyResultsCubeService;
 
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/results")
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
@@ -18,15 +22,18 @@ public class ResultController {
     private final ParticipantTaskResponseRepository repo;
     private final EvaluationTaskRepository taskRepo;
     private final UserRepository userRepo;
+    private final StudyResultsCubeService cubeService;
 
     public ResultController(
             ParticipantTaskResponseRepository repo,
             EvaluationTaskRepository taskRepo,
-            UserRepository userRepo
+            UserRepository userRepo,
+            StudyResultsCubeService cubeService
     ) {
         this.repo = repo;
         this.taskRepo = taskRepo;
         this.userRepo = userRepo;
+        this.cubeService = cubeService;
     }
 
     @GetMapping("/{taskId}/{participantId}")
@@ -38,6 +45,14 @@ public class ResultController {
         EvaluationTask task = taskRepo.findById(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
 
+        // Results cube'da varsa response entity'si yüklenmez
+        StudyResultsCube cube = cubeService.findCube(task.getStudy());
+        List<String> cached = cube != null ? cube.answers(taskId, participantId) : null;
+
+        if (cached != null) {
+            return new TaskResultDTO(task, task.getStudy().getCriteriaSorted(), cached);
+        }
+
         User participant = userRepo.findById(participantId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
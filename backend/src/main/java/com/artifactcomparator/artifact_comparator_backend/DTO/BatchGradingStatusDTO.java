@@ -0,0 +1,26 @@
+package com.artifactcomparator.artifact_comparator_backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchGradingStatusDTO {
+    private Long quizId;
+    private boolean batchGrading;   // quiz toplu puanlama modunda mı
+    private String status;          // IDLE, RUNNING, DONE, FAILED
+    private int results;            // bu çalıştırmada puanlanan result sayısı
+    private int graded;
+    private int failed;             // tek tek kuyruğa devredilenler
+    private int answers;            // Gemini'ye giden açık uçlu cevap sayısı
+    private int batchRequests;      // toplu prompt sayısı
+    private int fallbackAnswers;    // toplu cevapta geçersiz çıkıp tek tek puanlananlar
+    private int reusedAnswers;      // aynı cevabın puanı tekrar kullanıldı (Gemini'ye gitmedi)
+    private String error;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
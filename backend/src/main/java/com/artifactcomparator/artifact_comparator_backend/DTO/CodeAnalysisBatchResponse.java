@@ -0,0 +1,31 @@
+package com.artifactcomparator.artifact_comparator_backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeAnalysisBatchResponse {
+
+    // İstek sırasıyla; başarısız dosyalar summary'de hata mesajıyla yer alır
+    private List<CodeAnalysisResponse> results;
+
+    private int succeeded;
+    private int failed;
+    private List<FailedFile> failures;
+
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedFile {
+        private int index;
+        private String fileName;
+        private String error;
+    }
+}
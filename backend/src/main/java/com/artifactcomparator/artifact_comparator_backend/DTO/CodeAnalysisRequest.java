@@ -12,6 +12,8 @@ public class CodeAnalysisRequest {
 
     private String fileName; // Optional, for batch processing
 
+    private String language; // Optional: java, python, javascript, typescript, c, cpp (else from fileName / code)
+
     private boolean includeVisualization = false; // Request control flow diagram
 
 }
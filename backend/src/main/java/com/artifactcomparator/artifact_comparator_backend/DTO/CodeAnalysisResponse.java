@@ -33,4 +33,5 @@ public class CodeAnalysisResponse {
 
     // Metadata
     private String timestamp;
+    private String analyzer; // "native" (in-process) or "gemini"
 }
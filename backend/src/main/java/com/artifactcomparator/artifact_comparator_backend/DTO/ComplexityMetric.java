@@ -21,6 +21,21 @@ public class ComplexityMetric {
 
     private String riskLevel; // LOW, MEDIUM, HIGH, CRITICAL (auto-calculated)
 
+    /**
+     * Risk level for a complexity value (same thresholds for every analyzer)
+     */
+    public static String riskLevelFor(int complexity) {
+        if (complexity <= 5) {
+            return "LOW";
+        } else if (complexity <= 10) {
+            return "MEDIUM";
+        } else if (complexity <= 20) {
+            return "HIGH";
+        } else {
+            return "CRITICAL";
+        }
+    }
+
     /**
      * Get color code for UI display based on risk level
      */
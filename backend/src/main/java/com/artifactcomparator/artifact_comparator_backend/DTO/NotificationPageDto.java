@@ -0,0 +1,16 @@
+package com.artifactcomparator.artifact_comparator_backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationPageDto {
+    private List<NotificationDto> items;
+    // Sonraki sayfa için ?before= değeri (son sayfada null)
+    private Long nextCursor;
+}
@@ -17,4 +17,5 @@ public class QuestionResultDTO {
     private Double pointsEarned;
     private Integer maxPoints;
     private String aiFeedback;
+    private boolean gradeReused; // aynı cevabın puanı başka bir result'tan alındı; kaynak id sadece sunucuda (QuizResult.gradeSources)
 }
@@ -27,6 +27,8 @@ public class QuizResultResponseDTO {
     // Submission info
     private LocalDateTime submittedAt;
     private LocalDateTime gradedAt;
+    // GRADING / GRADED / FAILED (null → henüz submit edilmedi)
+    private String gradingStatus;
 
     // Scores
     private Double totalPointsEarned;
@@ -0,0 +1,23 @@
+package com.artifactcomparator.artifact_comparator_backend.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReportJobDTO {
+    private String jobId;
+    private Long studyId;
+    private String resultsVersion;
+    private String status;          // QUEUED, RUNNING, DONE, FAILED
+    private int pagesDone;
+    private int totalPages;
+    private int progressPercent;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
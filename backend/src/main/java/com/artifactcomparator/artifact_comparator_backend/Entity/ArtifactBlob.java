@@ -0,0 +1,31 @@
+package com.artifactcomparator.artifact_comparator_backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/* ============================================================
+   📦 Artifact içeriği (içerik adresli blob)
+   Dosya: <artifacts.storage.root>/ab/cd/<sha256>; aynı içerik bir kez saklanır.
+   ref_count = bu içeriği gösteren ArtifactUpload sayısı; 0 olunca dosya silinir.
+============================================================ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(name = "artifact_blobs")
+public class ArtifactBlob {
+
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
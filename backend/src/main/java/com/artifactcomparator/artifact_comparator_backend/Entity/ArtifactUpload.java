@@ -8,7 +8,8 @@ import lombok.Setter;
 @Entity
 @Getter
 @Setter
-@Table(name = "uploaded_files")
+@Table(name = "uploaded_files",
+        indexes = @Index(name = "idx_uploaded_files_content_hash", columnList = "content_hash"))
 public class ArtifactUpload {
 
     @Id
@@ -21,6 +22,13 @@ public class ArtifactUpload {
     @Column(nullable = false)
     private String filepath;
 
+    // İçerik SHA-256'sı → ArtifactBlob; null = blob store öncesi yazılmış, eski yoldan okunur
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
     @Column(name = "category")
     private String category;
 
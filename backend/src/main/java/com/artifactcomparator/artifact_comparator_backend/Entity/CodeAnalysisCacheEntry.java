@@ -0,0 +1,52 @@
+package com.artifactcomparator.artifact_comparator_backend.Entity;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.CodeAnalysisCache;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/* ============================================================
+   🔥 Gemini kod analizi / diagram sonucu (kalıcı cache)
+   cache_key = SHA-256(normalize edilmiş kod + prompt versiyonu + model)
+   → aynı kod tekrar açıldığında Gemini'ye gidilmez.
+============================================================ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(
+        name = "code_analysis_cache",
+        uniqueConstraints = @UniqueConstraint(columnNames = "cache_key"),
+        indexes = @Index(name = "idx_code_analysis_cache_kind", columnList = "kind, prompt_version")
+)
+public class CodeAnalysisCacheEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cache_key", nullable = false, length = 64)
+    private String cacheKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private CodeAnalysisCache.Kind kind;
+
+    @Column(name = "prompt_version", nullable = false)
+    private int promptVersion;
+
+    @Column(name = "model_id", nullable = false)
+    private String modelId;
+
+    // Gemini'nin temizlenmiş cevabı (analiz JSON'u ya da Mermaid kodu)
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String result;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
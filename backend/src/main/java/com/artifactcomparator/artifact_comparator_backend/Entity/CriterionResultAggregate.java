@@ -0,0 +1,73 @@
+package com.artifactcomparator.artifact_comparator_backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* ============================================================
+   🔥 Task × Criterion sonuç özeti
+   ParticipantTaskResponseService.saveResponse her submit'te
+   bu satırları günceller → monitor / task details / PDF export
+   ham cevapları tekrar taramadan buradan okur.
+============================================================ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(
+        name = "criterion_result_aggregates",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"task_id", "criterion_id"}),
+        indexes = @Index(name = "idx_criterion_result_aggregates_study", columnList = "study_id")
+)
+public class CriterionResultAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "study_id", nullable = false)
+    private Long studyId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "criterion_id", nullable = false)
+    private Long criterionId;
+
+    // answers[criterionIndex] → bu criterion
+    @Column(nullable = false)
+    private int criterionIndex;
+
+    // Bu criterion için sayılan submission sayısı
+    private int responseCount;
+
+    // Cevap dolu & correct answer ile eşleşiyor
+    private int correctCount;
+
+    // Cevap dolu & correct answer ile eşleşmiyor
+    private int wrongCount;
+
+    // Cevap boş
+    private int blankCount;
+
+    // Cevap dolu ama researcher correct answer girmemiş
+    private int unknownCount;
+
+    // Trim edilmiş cevap → kaç kişi verdi (boş cevaplar blankCount'ta)
+    @ElementCollection
+    @CollectionTable(
+            name = "criterion_result_aggregate_options",
+            joinColumns = @JoinColumn(name = "aggregate_id")
+    )
+    @MapKeyColumn(name = "answer_value", columnDefinition = "TEXT")
+    @Column(name = "answer_count")
+    private Map<String, Integer> optionCounts = new LinkedHashMap<>();
+
+    public CriterionResultAggregate(Long studyId, Long taskId, Long criterionId, int criterionIndex) {
+        this.studyId = studyId;
+        this.taskId = taskId;
+        this.criterionId = criterionId;
+        this.criterionIndex = criterionIndex;
+    }
+}
@@ -68,4 +68,15 @@ public class EvaluationTask {
     @ElementCollection
     @CollectionTable(name = "task_correct_answers", joinColumns = @JoinColumn(name = "task_id"))
     private List<CorrectAnswerEntry> correctAnswers = new ArrayList<>();
+
+    /* ------------------- RESULTS VERSION -------------------
+       Her submit, correct answer veya task bilgisi değişikliğinde artar
+       → cache'lenmiş study raporunun bayat olup olmadığını anlamak için
+    ============================================================ */
+    @Column(name = "results_version", columnDefinition = "bigint default 0 not null")
+    private long resultsVersion;
+
+    public void bumpResultsVersion() {
+        this.resultsVersion++;
+    }
 }
@@ -0,0 +1,53 @@
+package com.artifactcomparator.artifact_comparator_backend.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/* ============================================================
+   🧠 Açık uçlu cevap puanı hafızası
+   Anahtar: soru + SHA-256(soru metni) + max puan + SHA-256(normalize cevap)
+   → aynı cevabı veren sonraki katılımcı Gemini'ye gitmeden aynı puanı alır.
+============================================================ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(
+        name = "grade_memo",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_grade_memo_key",
+                columnNames = {"question_id", "question_hash", "max_points", "answer_hash"})
+)
+public class GradeMemoEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // FK yok: soru silinince QuizService hafızayı temizler
+    @Column(name = "question_id", nullable = false)
+    private Long questionId;
+
+    @Column(name = "question_hash", nullable = false, length = 64)
+    private String questionHash;
+
+    @Column(name = "max_points", nullable = false)
+    private int maxPoints;
+
+    @Column(name = "answer_hash", nullable = false, length = 64)
+    private String answerHash;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String feedback;
+
+    // Puanın ilk verildiği quiz result (araştırmacıya "reused from result #N")
+    @Column(name = "source_result_id", nullable = false)
+    private Long sourceResultId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
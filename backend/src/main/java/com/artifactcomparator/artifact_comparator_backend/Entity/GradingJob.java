@@ -0,0 +1,67 @@
+package com.artifactcomparator.artifact_comparator_backend.Entity;
+
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/* ============================================================
+   📝 Quiz otomatik puanlama işi (kalıcı kuyruk)
+   Submit sırasında yazılır, GradingJobService worker'ları işler.
+   Restart sonrası PENDING / süresi dolmuş RUNNING işler kaldığı yerden devam eder.
+============================================================ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@Table(
+        name = "grading_jobs",
+        uniqueConstraints = @UniqueConstraint(columnNames = "quiz_result_id"),
+        indexes = @Index(name = "idx_grading_jobs_due", columnList = "status, next_attempt_at")
+)
+public class GradingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // FK yok: study silinince quiz result'lar silinir, iş "result not found" ile kapanır
+    @Column(name = "quiz_result_id", nullable = false)
+    private Long quizResultId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private GradingJobStatus status = GradingJobStatus.PENDING;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    // RUNNING'e geçtiği an; lease süresini aşarsa iş tekrar kuyruğa alınır
+    @Column(name = "locked_at")
+    private LocalDateTime lockedAt;
+
+    // RUNNING iken cevaplar yeniden submit edildi → bitince sonuç atılır, iş tekrar kuyruğa
+    @Column(name = "rerun_requested", columnDefinition = "boolean default false not null")
+    private boolean rerunRequested;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime finishedAt;
+
+    public GradingJob(Long quizResultId) {
+        this.quizResultId = quizResultId;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        if (this.nextAttemptAt == null) this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        // Keyset sayfalama (user_id, id desc) ve okunmamış sayısı
+        @Index(name = "idx_notifications_user_id", columnList = "user_id, id"),
+        @Index(name = "idx_notifications_user_unread", columnList = "user_id, is_read")
+})
 public class Notification {
 
     @Id
@@ -33,6 +33,10 @@ public class Quiz {
     @Column(length = 50)
     private String difficulty;
 
+    // true → açık uçlu cevaplar submit'te değil, araştırmacı tetikleyince toplu puanlanır
+    @Column(name = "batch_grading")
+    private Boolean batchGrading = false;
+
     @OneToMany(mappedBy = "quiz", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
     private List<Question> questions = new ArrayList<>();
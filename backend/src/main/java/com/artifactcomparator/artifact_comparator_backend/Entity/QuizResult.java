@@ -1,5 +1,6 @@
 package com.artifactcomparator.artifact_comparator_backend.Entity;
 
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
 import com.artifactcomparator.artifact_comparator_backend.Enums.QuizStatus;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -54,6 +55,13 @@ public class QuizResult {
     @Column(name = "feedback", columnDefinition = "TEXT")
     private Map<Long, String> aiFeedback = new HashMap<>();
 
+    // Map: questionId -> result whose identical answer's grade was reused (no Gemini call)
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "result_grade_sources", joinColumns = @JoinColumn(name = "quiz_result_id"))
+    @MapKeyColumn(name = "question_id")
+    @Column(name = "source_result_id")
+    private Map<Long, Long> gradeSources = new HashMap<>();
+
 
     private LocalDateTime submittedAt;
 
@@ -69,6 +77,10 @@ public class QuizResult {
     @Enumerated(EnumType.STRING)
     private QuizStatus status = QuizStatus.PENDING;
 
+    // Otomatik puanlama durumu (submit → GRADING, worker bitirince GRADED / FAILED)
+    @Enumerated(EnumType.STRING)
+    private GradingStatus gradingStatus;
+
     // Helper method to calculate total
     public void calculateTotalPoints() {
         this.totalPointsEarned = pointsEarned.values().stream()
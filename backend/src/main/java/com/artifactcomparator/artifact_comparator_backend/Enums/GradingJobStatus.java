@@ -0,0 +1,9 @@
+package com.artifactcomparator.artifact_comparator_backend.Enums;
+
+public enum GradingJobStatus {
+    PENDING,
+    RUNNING,
+    BATCH,
+    DONE,
+    DEAD
+}
@@ -0,0 +1,7 @@
+package com.artifactcomparator.artifact_comparator_backend.Enums;
+
+public enum GradingStatus {
+    GRADING,
+    GRADED,
+    FAILED
+}
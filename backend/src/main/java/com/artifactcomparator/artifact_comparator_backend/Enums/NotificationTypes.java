@@ -9,5 +9,6 @@ public enum NotificationTypes {
     STUDY_COMPLETED_BY_ALL_PARTICIPANTS_RESEARCHER,
     INVITATION_TO_STUDY_REVIEWER,
     INVITATION_TO_STUDY_RESEARCHER,
-    USER_INFO_CHANGED_BY_ADMIN_FORALL
+    USER_INFO_CHANGED_BY_ADMIN_FORALL,
+    QUIZ_GRADED_PARTICIPANT
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.artifactcomparator.artifact_comparator_backend.Event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * A quiz result was submitted and its grading job stored.
+ */
+@Getter
+public class GradingJobQueuedEvent extends ApplicationEvent {
+
+    private final Long quizResultId;
+
+    public GradingJobQueuedEvent(Object source, Long quizResultId) {
+        super(source);
+        this.quizResultId = quizResultId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.artifactcomparator.artifact_comparator_backend.Event;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.NotificationDto;
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Notifications of a user changed: a new one was created (notification set)
+ * or one was read / answered. userId is null when notifications of many users
+ * were removed at once (study deletion).
+ */
+@Getter
+public class NotificationChangedEvent extends ApplicationEvent {
+
+    private final Long userId;
+    private final NotificationDto notification;
+
+    public NotificationChangedEvent(Object source, Long userId, NotificationDto notification) {
+        super(source);
+        this.userId = userId;
+        this.notification = notification;
+    }
+}
@@ -0,0 +1,56 @@
+package com.artifactcomparator.artifact_comparator_backend.Event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * A participant submitted (or resubmitted) a task response.
+ * previousAnswers is null for a first submission.
+ * changes lists the criteria whose monitor bucket moved, for the live feed.
+ * resultsVersion is the task's results version after this submission; it
+ * orders submissions whose after-commit listeners run out of commit order.
+ */
+@Getter
+public class ResponseSubmittedEvent extends ApplicationEvent {
+
+    private final Long studyId;
+    private final Long taskId;
+    private final Long responseId;
+    private final long resultsVersion;
+    private final Long participantId;
+    private final String participantUsername;
+    private final List<String> previousAnswers;
+    private final List<String> answers;
+    private final int completedCount;
+    private final List<CriterionChange> changes;
+
+    public ResponseSubmittedEvent(Object source,
+                                  Long studyId,
+                                  Long taskId,
+                                  Long responseId,
+                                  long resultsVersion,
+                                  Long participantId,
+                                  String participantUsername,
+                                  List<String> previousAnswers,
+                                  List<String> answers,
+                                  int completedCount,
+                                  List<CriterionChange> changes) {
+        super(source);
+        this.studyId = studyId;
+        this.taskId = taskId;
+        this.responseId = responseId;
+        this.resultsVersion = resultsVersion;
+        this.participantId = participantId;
+        this.participantUsername = participantUsername;
+        this.previousAnswers = previousAnswers;
+        this.answers = answers;
+        this.completedCount = completedCount;
+        this.changes = changes;
+    }
+
+    /** from / to: "pending", "correct", "wrong" or "unknown" (as on the monitor page). */
+    public record CriterionChange(Long criterionId, String from, String to) {
+    }
+}
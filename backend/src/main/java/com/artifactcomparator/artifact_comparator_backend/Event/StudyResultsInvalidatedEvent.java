@@ -0,0 +1,19 @@
+package com.artifactcomparator.artifact_comparator_backend.Event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Results of a study must be recomputed from the database
+ * (correct answers, criteria or tasks changed).
+ */
+@Getter
+public class StudyResultsInvalidatedEvent extends ApplicationEvent {
+
+    private final Long studyId;
+
+    public StudyResultsInvalidatedEvent(Object source, Long studyId) {
+        super(source);
+        this.studyId = studyId;
+    }
+}
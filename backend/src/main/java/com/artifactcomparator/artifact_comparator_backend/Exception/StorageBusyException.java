@@ -0,0 +1,20 @@
+package com.artifactcomparator.artifact_comparator_backend.Exception;
+
+/**
+ * Thrown when artifact content cannot be stored right now because every
+ * write slot stayed busy for the configured wait. Nothing is wrong with the
+ * request itself: GlobalExceptionHandler answers 503 with Retry-After.
+ */
+public class StorageBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public StorageBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
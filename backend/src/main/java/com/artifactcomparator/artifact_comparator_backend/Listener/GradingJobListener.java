@@ -0,0 +1,23 @@
+package com.artifactcomparator.artifact_comparator_backend.Listener;
+
+import com.artifactcomparator.artifact_comparator_backend.Event.GradingJobQueuedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradingJobService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// İş satırı commit edilmeden worker uyanırsa bulamaz → commit sonrası
+@Component
+public class GradingJobListener {
+
+    private final GradingJobService gradingJobService;
+
+    public GradingJobListener(GradingJobService gradingJobService) {
+        this.gradingJobService = gradingJobService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleGradingJobQueued(GradingJobQueuedEvent event) {
+        gradingJobService.wakeUp();
+    }
+}
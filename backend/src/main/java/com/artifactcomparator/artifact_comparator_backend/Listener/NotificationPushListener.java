@@ -0,0 +1,49 @@
+package com.artifactcomparator.artifact_comparator_backend.Listener;
+
+import com.artifactcomparator.artifact_comparator_backend.Event.NotificationChangedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Service.NotificationPushService;
+import com.artifactcomparator.artifact_comparator_backend.Service.NotificationService;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+
+// Bildirim commit edildikten sonra: okunmamış sayısı cache'i silinir, açık bağlantılara gönderilir
+@Component
+public class NotificationPushListener {
+
+    private final NotificationService notificationService;
+    private final NotificationPushService pushService;
+
+    public NotificationPushListener(NotificationService notificationService,
+                                    NotificationPushService pushService) {
+        this.notificationService = notificationService;
+        this.pushService = pushService;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleNotificationChanged(NotificationChangedEvent event) {
+        notificationService.evictUnreadCount(event.getUserId());
+
+        // Toplu silme (study silindi) → bağlı herkesin sayısı yenilenir
+        if (event.getUserId() == null) {
+            for (Long userId : pushService.connectedUsers()) {
+                pushUnreadCount(userId);
+            }
+            return;
+        }
+
+        // Bağlı değilse DB'ye hiç gidilmez
+        if (!pushService.isConnected(event.getUserId())) return;
+
+        if (event.getNotification() != null) {
+            pushService.push(event.getUserId(), "notification", event.getNotification());
+        }
+        pushUnreadCount(event.getUserId());
+    }
+
+    private void pushUnreadCount(Long userId) {
+        pushService.push(userId, "unread", Map.of("count", notificationService.getUnreadCount(userId)));
+    }
+}
@@ -0,0 +1,31 @@
+package com.artifactcomparator.artifact_comparator_backend.Listener;
+
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Event.StudyResultsInvalidatedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyLiveFeedService;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Monitor ekranlarına sadece commit edilmiş submit'ler gitsin (cube güncellendikten sonra)
+@Component
+public class StudyLiveFeedListener {
+
+    private final StudyLiveFeedService liveFeedService;
+
+    public StudyLiveFeedListener(StudyLiveFeedService liveFeedService) {
+        this.liveFeedService = liveFeedService;
+    }
+
+    @Order(1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleResponseSubmitted(ResponseSubmittedEvent event) {
+        liveFeedService.publish(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleResultsInvalidated(StudyResultsInvalidatedEvent event) {
+        liveFeedService.resync(event.getStudyId());
+    }
+}
@@ -0,0 +1,32 @@
+package com.artifactcomparator.artifact_comparator_backend.Listener;
+
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Event.StudyResultsInvalidatedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Service.StudyResultsCubeService;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Cube sadece commit edilmiş veriyi yansıtsın → rollback olan submit cube'a girmez
+// Live feed'den önce çalışır: yayınlanan her delta cube'da (→ /progress snapshot'ında) zaten vardır
+@Component
+public class StudyResultsCubeListener {
+
+    private final StudyResultsCubeService cubeService;
+
+    public StudyResultsCubeListener(StudyResultsCubeService cubeService) {
+        this.cubeService = cubeService;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleResponseSubmitted(ResponseSubmittedEvent event) {
+        cubeService.applyResponse(event);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleResultsInvalidated(StudyResultsInvalidatedEvent event) {
+        cubeService.invalidate(event.getStudyId());
+    }
+}
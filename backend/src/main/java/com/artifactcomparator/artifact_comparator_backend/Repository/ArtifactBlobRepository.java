@@ -0,0 +1,38 @@
+package com.artifactcomparator.artifact_comparator_backend.Repository;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface ArtifactBlobRepository extends JpaRepository<ArtifactBlob, String> {
+
+    // İlk referans satırı oluşturur, sonrakiler sayacı artırır (tek atomik sorgu)
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO artifact_blobs (sha256, size_bytes, ref_count, created_at)
+    VALUES (:sha256, :sizeBytes, 1, :createdAt)
+    ON CONFLICT (sha256) DO UPDATE SET ref_count = artifact_blobs.ref_count + 1
+""", nativeQuery = true)
+    int acquire(@Param("sha256") String sha256,
+                @Param("sizeBytes") long sizeBytes,
+                @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ArtifactBlob b SET b.refCount = b.refCount - 1 WHERE b.sha256 = :sha256")
+    int release(@Param("sha256") String sha256);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ArtifactBlob b WHERE b.sha256 = :sha256 AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+
+    @Query("SELECT COALESCE(SUM(b.sizeBytes), 0) FROM ArtifactBlob b")
+    long sumSizeBytes();
+}
@@ -32,4 +32,23 @@ public interface ArtifactUploadRepository extends JpaRepository<ArtifactUpload,
     Optional<ArtifactUpload> findByFilenameAndResearcherIdAndFolderId(
             String filename, Long researcherId, Long folderId);
 
+    // Blob store'a taşınmamış (eski yoldaki) artifact'lar; researcher eski yolu çözmek için gerekli
+    @Query("SELECT a FROM ArtifactUpload a JOIN FETCH a.researcher WHERE a.contentHash IS NULL")
+    List<ArtifactUpload> findLegacyWithResearcher();
+
+    long countByContentHashIsNull();
+
+    @Query("SELECT COALESCE(SUM(a.sizeBytes), 0) FROM ArtifactUpload a WHERE a.contentHash IS NOT NULL")
+    long sumStoredSizeBytes();
+
+    // Artifact, kullanıcının katılımcı olduğu bir çalışmanın görevlerinden birinde mi
+    @Query("""
+    SELECT CASE WHEN COUNT(t) > 0 THEN true ELSE false END FROM EvaluationTask t
+    JOIN t.artifacts a
+    JOIN t.study s
+    JOIN s.participants p
+    WHERE a.id = :artifactId AND p.username = :username
+""")
+    boolean isInJoinedStudy(@Param("artifactId") Long artifactId, @Param("username") String username);
+
 }
@@ -0,0 +1,32 @@
+package com.artifactcomparator.artifact_comparator_backend.Repository;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CodeAnalysisCacheEntry;
+import com.artifactcomparator.artifact_comparator_backend.Service.CodeAnalysisCache;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface CodeAnalysisCacheRepository extends JpaRepository<CodeAnalysisCacheEntry, Long> {
+
+    Optional<CodeAnalysisCacheEntry> findByCacheKey(String cacheKey);
+
+    boolean existsByCacheKey(String cacheKey);
+
+    // Prompt şablonu ya da model değişince eski sonuçlar silinir
+    @Modifying
+    @Query("""
+    DELETE FROM CodeAnalysisCacheEntry e
+    WHERE e.kind = :kind
+      AND (e.promptVersion <> :promptVersion OR e.modelId <> :modelId)
+""")
+    int deleteStale(@Param("kind") CodeAnalysisCache.Kind kind,
+                    @Param("promptVersion") int promptVersion,
+                    @Param("modelId") String modelId);
+
+    @Modifying
+    @Query("DELETE FROM CodeAnalysisCacheEntry e WHERE e.kind = :kind")
+    int deleteByKind(@Param("kind") CodeAnalysisCache.Kind kind);
+}
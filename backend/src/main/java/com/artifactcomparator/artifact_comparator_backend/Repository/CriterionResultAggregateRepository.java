@@ -0,0 +1,28 @@
+package com.artifactcomparator.artifact_comparator_backend.Repository;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface CriterionResultAggregateRepository
+        extends JpaRepository<CriterionResultAggregate, Long> {
+
+    // Study bazında tüm özetler (option sayıları tek sorguda gelsin)
+    @EntityGraph(attributePaths = "optionCounts")
+    List<CriterionResultAggregate> findByStudyId(Long studyId);
+
+    @EntityGraph(attributePaths = "optionCounts")
+    List<CriterionResultAggregate> findByTaskId(Long taskId);
+
+    @Modifying
+    @Query("""
+    DELETE FROM CriterionResultAggregate a
+    WHERE a.taskId = :taskId
+""")
+    void deleteByTaskId(@Param("taskId") Long taskId);
+}
@@ -2,9 +2,20 @@ package com.artifactcomparator.artifact_comparator_backend.Repository;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
+import java.util.Optional;
 
 public interface EvaluationTaskRepository extends JpaRepository<EvaluationTask, Long> {
     List<EvaluationTask> findByStudy(Study study);
+
+    // Aynı task'a gelen eşzamanlı submit'ler sonuç özetini sırayla güncellesin
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select t from EvaluationTask t where t.id = :id")
+    Optional<EvaluationTask> findByIdForUpdate(@Param("id") Long id);
 }
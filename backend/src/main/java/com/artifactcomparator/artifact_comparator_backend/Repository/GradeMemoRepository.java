@@ -0,0 +1,59 @@
+package com.artifactcomparator.artifact_comparator_backend.Repository;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.GradeMemoEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface GradeMemoRepository extends JpaRepository<GradeMemoEntry, Long> {
+
+    Optional<GradeMemoEntry> findByQuestionIdAndQuestionHashAndMaxPointsAndAnswerHash(
+            Long questionId, String questionHash, int maxPoints, String answerHash);
+
+    boolean existsByQuestionIdAndQuestionHashAndMaxPointsAndAnswerHash(
+            Long questionId, String questionHash, int maxPoints, String answerHash);
+
+    // Aynı cevabı eşzamanlı puanlayan iki result → ilk yazan kalır; dış transaction'ı bozmaz
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO grade_memo (question_id, question_hash, max_points, answer_hash,
+                            score, feedback, source_result_id, created_at)
+    VALUES (:questionId, :questionHash, :maxPoints, :answerHash,
+            :score, :feedback, :sourceResultId, :createdAt)
+    ON CONFLICT (question_id, question_hash, max_points, answer_hash) DO NOTHING
+""", nativeQuery = true)
+    int insertIfAbsent(@Param("questionId") Long questionId,
+                       @Param("questionHash") String questionHash,
+                       @Param("maxPoints") int maxPoints,
+                       @Param("answerHash") String answerHash,
+                       @Param("score") double score,
+                       @Param("feedback") String feedback,
+                       @Param("sourceResultId") Long sourceResultId,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("""
+    DELETE FROM GradeMemoEntry m
+    WHERE m.questionId = :questionId
+      AND m.questionHash = :questionHash
+      AND m.maxPoints = :maxPoints
+      AND m.answerHash = :answerHash
+""")
+    int deleteByKey(@Param("questionId") Long questionId,
+                    @Param("questionHash") String questionHash,
+                    @Param("maxPoints") int maxPoints,
+                    @Param("answerHash") String answerHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM GradeMemoEntry m WHERE m.questionId IN :questionIds")
+    int deleteByQuestionIds(@Param("questionIds") Collection<Long> questionIds);
+}
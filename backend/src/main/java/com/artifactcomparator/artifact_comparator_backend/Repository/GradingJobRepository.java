@@ -0,0 +1,136 @@
+package com.artifactcomparator.artifact_comparator_backend.Repository;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.GradingJob;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingJobStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface GradingJobRepository extends JpaRepository<GradingJob, Long> {
+
+    Optional<GradingJob> findByQuizResultId(Long quizResultId);
+
+    List<GradingJob> findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+            GradingJobStatus status, LocalDateTime now, Limit limit);
+
+    long countByStatus(GradingJobStatus status);
+
+    List<GradingJob> findByStatusOrderByIdDesc(GradingJobStatus status, Limit limit);
+
+    // PENDING → RUNNING; birden fazla node aynı işi alırsa sadece biri 1 döner
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :running, j.lockedAt = :now, j.attempts = j.attempts + 1
+    WHERE j.id = :id
+      AND j.status = :pending
+      AND j.nextAttemptAt <= :now
+""")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("pending") GradingJobStatus pending,
+              @Param("running") GradingJobStatus running);
+
+    // Toplu puanlama: bekleyen ya da dead-letter'daki iş worker'lardan alınır (BATCH, kendi lease süresiyle)
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :batch, j.lockedAt = :now
+    WHERE j.id = :id
+      AND j.status IN :claimable
+""")
+    int claimForBatch(@Param("id") Long id,
+                      @Param("now") LocalDateTime now,
+                      @Param("claimable") Collection<GradingJobStatus> claimable,
+                      @Param("batch") GradingJobStatus batch);
+
+    // Çöken / restart edilen worker'ın (ya da toplu çalıştırmanın) işleri tekrar kuyruğa
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :pending, j.nextAttemptAt = :now, j.lockedAt = null, j.rerunRequested = false
+    WHERE j.status = :running
+      AND j.lockedAt < :cutoff
+""")
+    int releaseExpired(@Param("cutoff") LocalDateTime cutoff,
+                       @Param("now") LocalDateTime now,
+                       @Param("pending") GradingJobStatus pending,
+                       @Param("running") GradingJobStatus running);
+
+    // İşi bitir (DONE / DEAD / backoff'lu PENDING). Lease süresi dolup iş başka worker'a geçtiyse
+    // ya da bu arada yeniden submit edildiyse 0 döner → sonuç yazılmaz
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :status, j.lockedAt = null, j.lastError = :error,
+        j.finishedAt = :finishedAt, j.nextAttemptAt = :nextAttemptAt
+    WHERE j.id = :id
+      AND j.status = :running
+      AND j.lockedAt = :lockedAt
+      AND j.rerunRequested = false
+""")
+    int complete(@Param("id") Long id,
+                 @Param("lockedAt") LocalDateTime lockedAt,
+                 @Param("running") GradingJobStatus running,
+                 @Param("status") GradingJobStatus status,
+                 @Param("error") String error,
+                 @Param("finishedAt") LocalDateTime finishedAt,
+                 @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    // Çalışırken yeniden submit edilmiş işi bitirirken: taze deneme hakkıyla tekrar kuyruğa
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :pending, j.attempts = 0, j.lastError = null, j.lockedAt = null,
+        j.finishedAt = null, j.nextAttemptAt = :now, j.rerunRequested = false
+    WHERE j.id = :id
+      AND j.status = :running
+      AND j.lockedAt = :lockedAt
+      AND j.rerunRequested = true
+""")
+    int restartRequested(@Param("id") Long id,
+                         @Param("lockedAt") LocalDateTime lockedAt,
+                         @Param("now") LocalDateTime now,
+                         @Param("running") GradingJobStatus running,
+                         @Param("pending") GradingJobStatus pending);
+
+    // RUNNING iş yeniden submit edildi → bitiren worker işi tekrar kuyruğa alır
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.rerunRequested = true
+    WHERE j.id = :id
+      AND j.status IN :running
+""")
+    int requestRerun(@Param("id") Long id,
+                     @Param("running") Collection<GradingJobStatus> running);
+
+    // Bitmiş / dead-letter'daki işi taze deneme hakkıyla kuyruğa
+    @Transactional
+    @Modifying
+    @Query("""
+    UPDATE GradingJob j
+    SET j.status = :pending, j.attempts = 0, j.lastError = null, j.lockedAt = null,
+        j.finishedAt = null, j.nextAttemptAt = :now, j.rerunRequested = false
+    WHERE j.id = :id
+      AND j.status IN :from
+""")
+    int requeue(@Param("id") Long id,
+                @Param("now") LocalDateTime now,
+                @Param("from") Collection<GradingJobStatus> from,
+                @Param("pending") GradingJobStatus pending);
+}
@@ -2,6 +2,7 @@ package com.artifactcomparator.artifact_comparator_backend.Repository;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.Notification;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,6 +17,13 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
     // Fetch notifications for a specific user, ordered by the newest first
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // Keyset sayfalama: id IDENTITY → id sırası = oluşturulma sırası
+    List<Notification> findByUserIdOrderByIdDesc(Long userId, Limit limit);
+
+    List<Notification> findByUserIdAndIdLessThanOrderByIdDesc(Long userId, Long id, Limit limit);
+
+    long countByUserIdAndIsReadFalse(Long userId);
+
     List<Notification> findByUserIdAndStudyId(Long userId, Long studyId);
 
     // Optional: Fetch only unread notifications
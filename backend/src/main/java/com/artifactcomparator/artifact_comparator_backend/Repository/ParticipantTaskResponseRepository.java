@@ -3,6 +3,7 @@ package com.artifactcomparator.artifact_comparator_backend.Repository;
 import com.artifactcomparator.artifact_comparator_backend.Entity.ParticipantTaskResponse;
 import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -25,6 +26,53 @@ public interface ParticipantTaskResponseRepository
 
     List<ParticipantTaskResponse> findByTask_Id(Long taskId);
 
+    long countByTask_Id(Long taskId);
+
+    // 🔥 Cevap dağılımı DB'de → [answerIndex, answer, count], ilk gönderilme sırasıyla
+    // (participant_task_response_answers üzerinde GROUP BY answer_index, answers)
+    @Query("""
+    select index(a), a, count(ptr)
+    from ParticipantTaskResponse ptr
+    join ptr.answers a
+    where ptr.task.id = :taskId
+    group by index(a), a
+    order by min(ptr.id)
+""")
+    List<Object[]> countAnswersByIndexForTask(@Param("taskId") Long taskId);
+
+    // Task'ın cevap hücreleri (entity yüklemeden)
+    // → [responseId, username, answerIndex, answer]
+    @Query("""
+    select ptr.id, p.username, index(a), a
+    from ParticipantTaskResponse ptr
+    join ptr.participant p
+    left join ptr.answers a
+    where ptr.task.id = :taskId
+    order by ptr.id
+""")
+    List<Object[]> findAnswerCellsForTask(@Param("taskId") Long taskId);
+
+    // 🔥 Task başına submission sayısı → [taskId, count]
+    @Query("""
+    select ptr.task.id, count(ptr)
+    from ParticipantTaskResponse ptr
+    where ptr.task.study.id = :studyId
+    group by ptr.task.id
+""")
+    List<Object[]> countResponsesPerTaskForStudy(@Param("studyId") Long studyId);
+
+    // 🔥 Study'nin tüm cevap hücreleri (entity yüklemeden)
+    // → [responseId, taskId, participantId, username, answerIndex, answer]
+    @Query("""
+    select ptr.id, ptr.task.id, p.id, p.username, index(a), a
+    from ParticipantTaskResponse ptr
+    join ptr.participant p
+    left join ptr.answers a
+    where ptr.task.study.id = :studyId
+    order by ptr.id
+""")
+    List<Object[]> findAnswerCellsForStudy(@Param("studyId") Long studyId);
+
     @Modifying
     @Query("""
     DELETE FROM ParticipantTaskResponse p
@@ -2,8 +2,16 @@ package com.artifactcomparator.artifact_comparator_backend.Repository;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface QuizRepository extends JpaRepository<Quiz, Long> {
+
+    // Transaction dışında (arka plan thread'i) soru listesi gerektiğinde
+    @Query("SELECT q FROM Quiz q LEFT JOIN FETCH q.questions WHERE q.id = :id")
+    Optional<Quiz> findWithQuestionsById(@Param("id") Long id);
 }
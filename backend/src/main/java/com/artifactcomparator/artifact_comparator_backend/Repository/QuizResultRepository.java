@@ -2,12 +2,14 @@ package com.artifactcomparator.artifact_comparator_backend.Repository;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
 import com.artifactcomparator.artifact_comparator_backend.Enums.QuizStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -42,4 +44,9 @@ public interface QuizResultRepository extends JpaRepository<QuizResult, Long> {
 """)
         void deleteByStudy(@Param("study") Study study);
 
+        @Transactional
+        @Modifying
+        @Query("UPDATE QuizResult qr SET qr.gradingStatus = :status WHERE qr.id = :id")
+        int updateGradingStatus(@Param("id") Long id, @Param("status") GradingStatus status);
+
 }
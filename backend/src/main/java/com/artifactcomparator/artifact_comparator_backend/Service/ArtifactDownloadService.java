@@ -0,0 +1,67 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Builds inline artifact responses that browsers can cache and fetch in parts.
+ * The strong ETag is the content SHA-256; MVC answers If-None-Match /
+ * If-Modified-Since with 304 and Range (single or multi) with 206 from these
+ * headers. A URL carrying {@code ?v=<sha256>} always names the same bytes, so
+ * it is cached as immutable; without it the browser revalidates every time.
+ * The body is written zero-copy (see ZeroCopyResourceConfig).
+ */
+@Service
+public class ArtifactDownloadService {
+
+    // İçerik adresli URL: bir yıl, tarayıcı yeniden sormaz
+    private static final CacheControl IMMUTABLE =
+            CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
+    // Adres aynı kalıp içerik değişebilir (eski dosyalar) → her seferinde ETag ile sor
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private final ArtifactStorage artifactStorage;
+
+    public ArtifactDownloadService(ArtifactStorage artifactStorage) {
+        this.artifactStorage = artifactStorage;
+    }
+
+    /**
+     * The artifact's content to show in the browser; 404 if the file is missing.
+     *
+     * @param version the {@code v} query parameter, immutable caching when it is the content hash
+     */
+    public ResponseEntity<Resource> inline(ArtifactUpload artifact, MediaType type, String version) throws IOException {
+        Optional<Resource> resource = artifactStorage.open(artifact);
+        if (resource.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        String hash = artifact.getContentHash();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline()
+                        .filename(artifact.getFilename(), StandardCharsets.UTF_8).build().toString())
+                .contentType(type)
+                .lastModified(resource.get().lastModified());
+
+        if (hash == null) {
+            // Blob store'a taşınmamış eski dosya: yalnızca Last-Modified ile doğrulanır
+            return response.cacheControl(REVALIDATE).body(resource.get());
+        }
+        return response
+                .eTag(hash)
+                .cacheControl(hash.equals(version) ? IMMUTABLE : REVALIDATE)
+                .body(resource.get());
+    }
+}
@@ -0,0 +1,43 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The only way artifact content is written, read, renamed or removed.
+ * File names are metadata on {@link ArtifactUpload}; the content lives in a
+ * store keyed by its SHA-256, so identical uploads share one copy and
+ * same-name uploads never overwrite each other.
+ */
+public interface ArtifactStorage {
+
+    /**
+     * Stores the content, points the artifact at it and saves the artifact.
+     * The stream is read to its end but not closed (ZIP entries).
+     * Throws StorageBusyException when no write slot frees up in time.
+     */
+    ArtifactUpload store(ArtifactUpload artifact, InputStream content) throws IOException;
+
+    /** The artifact's content; empty if the file is missing. */
+    Optional<Resource> open(ArtifactUpload artifact);
+
+    /** Changes the file name only; the content is not touched. */
+    ArtifactUpload rename(ArtifactUpload artifact, String filename) throws IOException;
+
+    /**
+     * Deletes the artifact and releases its content, which is removed when no
+     * other artifact refers to it. Fails like the repository delete if the
+     * artifact is still used (e.g. by a study task).
+     */
+    void delete(ArtifactUpload artifact);
+
+    /** Moves artifacts written before the blob store into it and removes the old files. */
+    Map<String, Object> migrateLegacy();
+
+    Map<String, Object> stats();
+}
@@ -0,0 +1,364 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.BatchGradingStatusDTO;
+import com.artifactcomparator.artifact_comparator_backend.DTO.GradingResult;
+import com.artifactcomparator.artifact_comparator_backend.Entity.OpenEndedQuestion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiGradingService.BatchAnswer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Researcher-triggered grading of every waiting result of a quiz.
+ * Answers to the same open-ended question are packed into one Gemini prompt
+ * (question and rubric sent once), split into chunks by an estimated token
+ * budget. Items the model returns invalid or not at all are graded one by
+ * one; results that still fail are handed to the grading job queue.
+ * Answers already remembered by GradeMemoService, and repeats of an answer
+ * within the run, are left out of the prompts and reuse that grade.
+ */
+@Service
+@Slf4j
+public class BatchGradingService {
+
+    public enum RunStatus { IDLE, RUNNING, DONE, FAILED }
+
+    // Prompt şablonu (kurallar + format) ve cevap başına JSON sarmalayıcı için pay
+    private static final int PROMPT_OVERHEAD_TOKENS = 350;
+    private static final int ANSWER_OVERHEAD_TOKENS = 12;
+
+    private final QuizRepository quizRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final GeminiGradingService geminiGradingService;
+    private final GradingService gradingService;
+    private final GradingJobService gradingJobService;
+    private final GradeMemoService gradeMemoService;
+
+    private final int maxPromptTokens;
+    private final int maxAnswersPerRequest;
+    private final int maxConcurrency;
+
+    // quizId → son çalıştırma
+    private final Map<Long, BatchRun> runs = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    public BatchGradingService(QuizRepository quizRepository,
+                               QuizResultRepository quizResultRepository,
+                               GeminiGradingService geminiGradingService,
+                               GradingService gradingService,
+                               GradingJobService gradingJobService,
+                               GradeMemoService gradeMemoService,
+                               @Value("${grading.batch.max-prompt-tokens:6000}") int maxPromptTokens,
+                               @Value("${grading.batch.max-answers:30}") int maxAnswersPerRequest,
+                               @Value("${grading.batch.max-concurrency:2}") int maxConcurrency) {
+        this.quizRepository = quizRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.geminiGradingService = geminiGradingService;
+        this.gradingService = gradingService;
+        this.gradingJobService = gradingJobService;
+        this.gradeMemoService = gradeMemoService;
+        this.maxPromptTokens = maxPromptTokens;
+        this.maxAnswersPerRequest = Math.max(1, maxAnswersPerRequest);
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "batch-grading");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // Public API
+    // ==========================================
+
+    /**
+     * Switches a quiz between per-submission and batch grading. Turning batch
+     * mode off queues the results that were waiting for a batch run.
+     */
+    public BatchGradingStatusDTO setBatchGrading(Long quizId, boolean enabled) {
+        Quiz quiz = findQuiz(quizId);
+        quiz.setBatchGrading(enabled);
+        quizRepository.save(quiz);
+
+        if (!enabled) {
+            for (QuizResult result : waitingResults(quizId)) {
+                if (result.getGradingStatus() == GradingStatus.GRADING) {
+                    gradingJobService.enqueue(result.getId());
+                }
+            }
+        }
+        return getStatus(quizId);
+    }
+
+    /** Starts grading the quiz's waiting results; returns the running job if one exists. */
+    public BatchGradingStatusDTO start(Long quizId) {
+        Quiz quiz = findQuiz(quizId);
+
+        BatchRun run = new BatchRun(quizId);
+        BatchRun current = runs.compute(quizId,
+                (k, old) -> old != null && old.status == RunStatus.RUNNING ? old : run);
+        if (current != run) return toDto(current, quiz);
+
+        try {
+            executor.execute(() -> execute(run, quiz));
+        } catch (RejectedExecutionException e) {
+            runs.remove(quizId, run);
+            throw new RuntimeException("Batch grading is shutting down, please try again later");
+        }
+        return toDto(run, quiz);
+    }
+
+    public BatchGradingStatusDTO getStatus(Long quizId) {
+        return toDto(runs.get(quizId), findQuiz(quizId));
+    }
+
+    // ==========================================
+    // Worker
+    // ==========================================
+
+    private void execute(BatchRun run, Quiz quiz) {
+        Set<Long> unfinished = new LinkedHashSet<>();
+
+        try {
+            List<QuizResult> claimed = new ArrayList<>();
+            for (QuizResult result : waitingResults(quiz.getId())) {
+                if (gradingJobService.claimForBatch(result.getId())) {
+                    claimed.add(result);
+                    unfinished.add(result.getId());
+                }
+            }
+            run.results = claimed.size();
+            log.info("Batch grading quiz {}: {} results", quiz.getId(), claimed.size());
+
+            // resultId → (questionId → puan)
+            Map<Long, Map<Long, GradingResult>> grades = new ConcurrentHashMap<>();
+
+            List<Chunk> chunks = new ArrayList<>();
+            for (Question question : quiz.getQuestions()) {
+                if (!(question instanceof OpenEndedQuestion)) continue;
+
+                List<BatchAnswer> answers = new ArrayList<>();
+                Set<String> distinct = new HashSet<>();
+                for (QuizResult result : claimed) {
+                    String answer = result.getAnswers().get(question.getId());
+                    if (answer == null || answer.trim().isEmpty()) continue;
+
+                    // Tekrar eden / hatırlanan cevap prompt'a girmez: result'lar sırayla kaydedilir,
+                    // ilk örneğin puanı hafızaya yazılınca GradingService onu tekrarlara verir
+                    if (gradeMemoService.isEnabled()
+                            && (!distinct.add(GradeMemoService.answerHash(answer))
+                                || gradeMemoService.isRemembered(question.getId(), question.getQuestionText(),
+                                        question.getPoints(), answer))) {
+                        run.reusedAnswers.incrementAndGet();
+                        continue;
+                    }
+                    answers.add(new BatchAnswer(answerId(result.getId()), answer));
+                }
+                run.answers.addAndGet(answers.size());
+
+                for (List<BatchAnswer> part : chunk(question.getQuestionText(), answers)) {
+                    chunks.add(new Chunk(question.getId(), question.getQuestionText(), question.getPoints(), part));
+                }
+            }
+
+            Flux.fromIterable(chunks)
+                    .flatMap(chunk -> gradeChunk(run, chunk, grades), maxConcurrency)
+                    .blockLast();
+
+            // Her result ayrı kaydedilir; eksik kalan soru GradingService'te bir kez daha denenir
+            for (QuizResult result : claimed) {
+                Long resultId = result.getId();
+                try {
+                    QuizResult graded = gradingService.gradeQuizResult(
+                            resultId, grades.getOrDefault(resultId, Map.of()), true);
+                    unfinished.remove(resultId);
+                    gradingJobService.batchGraded(graded);
+                    run.graded++;
+                } catch (Exception e) {
+                    log.warn("Batch grading could not finish QuizResult {}, queueing it: {}", resultId, e.getMessage());
+                    unfinished.remove(resultId);
+                    gradingJobService.batchFailed(resultId);
+                    run.failed++;
+                }
+            }
+
+            run.status = RunStatus.DONE;
+            log.info("Batch grading quiz {} done: {} graded, {} queued, {} answers in {} requests ({} graded singly, {} reused)",
+                    quiz.getId(), run.graded, run.failed, run.answers.get(), run.batchRequests.get(),
+                    run.fallbackAnswers.get(), run.reusedAnswers.get());
+        } catch (Exception e) {
+            log.error("Batch grading of quiz {} failed", quiz.getId(), e);
+            run.error = e.getMessage();
+            run.status = RunStatus.FAILED;
+
+            // Alınmış ama bitmemiş result'lar tek tek kuyruğa
+            for (Long resultId : unfinished) {
+                try {
+                    gradingJobService.batchFailed(resultId);
+                    run.failed++;
+                } catch (Exception ex) {
+                    log.error("Could not queue QuizResult {} after failed batch", resultId, ex);
+                }
+            }
+        } finally {
+            run.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private Mono<Void> gradeChunk(BatchRun run, Chunk chunk, Map<Long, Map<Long, GradingResult>> grades) {
+        run.batchRequests.incrementAndGet();
+
+        return geminiGradingService.gradeAnswerBatchAsync(chunk.questionText(), chunk.maxPoints(), chunk.answers())
+                .onErrorResume(e -> {
+                    log.warn("Batch of {} answers to question {} failed, grading them one by one: {}",
+                            chunk.answers().size(), chunk.questionId(), e.getMessage());
+                    return Mono.just(Map.of());
+                })
+                .flatMapMany(accepted -> {
+                    List<BatchAnswer> missing = new ArrayList<>();
+                    for (BatchAnswer answer : chunk.answers()) {
+                        GradingResult grade = accepted.get(answer.id());
+                        if (grade != null) store(grades, answer, chunk.questionId(), grade);
+                        else missing.add(answer);
+                    }
+                    run.fallbackAnswers.addAndGet(missing.size());
+
+                    // Geçersiz / eksik maddeler tek tek; yine olmazsa GradingService son kez dener
+                    return Flux.fromIterable(missing)
+                            .flatMap(answer -> geminiGradingService
+                                    .gradeOpenEndedAnswerAsync(chunk.questionText(), answer.answer(), chunk.maxPoints())
+                                    .doOnNext(grade -> store(grades, answer, chunk.questionId(), grade))
+                                    .onErrorResume(e -> Mono.empty()), maxConcurrency);
+                })
+                .then();
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    /**
+     * Greedy split under the prompt token budget and the per-request answer cap.
+     * An answer that alone exceeds the budget still gets its own request.
+     */
+    List<List<BatchAnswer>> chunk(String questionText, List<BatchAnswer> answers) {
+        int base = PROMPT_OVERHEAD_TOKENS + estimateTokens(questionText);
+
+        List<List<BatchAnswer>> chunks = new ArrayList<>();
+        List<BatchAnswer> current = new ArrayList<>();
+        int tokens = base;
+
+        for (BatchAnswer answer : answers) {
+            int cost = estimateTokens(answer.answer()) + ANSWER_OVERHEAD_TOKENS;
+
+            if (!current.isEmpty() && (tokens + cost > maxPromptTokens || current.size() >= maxAnswersPerRequest)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                tokens = base;
+            }
+            current.add(answer);
+            tokens += cost;
+        }
+        if (!current.isEmpty()) chunks.add(current);
+        return chunks;
+    }
+
+    // ~4 karakter ≈ 1 token (tokenizer olmadan kaba, temkinli tahmin)
+    static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    private List<QuizResult> waitingResults(Long quizId) {
+        return quizResultRepository.findByQuizId(quizId).stream()
+                .filter(r -> r.getSubmittedAt() != null && r.getGradedAt() == null)
+                .toList();
+    }
+
+    private Quiz findQuiz(Long quizId) {
+        return quizRepository.findWithQuestionsById(quizId)
+                .orElseThrow(() -> new RuntimeException("Quiz not found with id: " + quizId));
+    }
+
+    private static void store(Map<Long, Map<Long, GradingResult>> grades,
+                              BatchAnswer answer, Long questionId, GradingResult grade) {
+        grades.computeIfAbsent(resultIdOf(answer), k -> new ConcurrentHashMap<>()).put(questionId, grade);
+    }
+
+    // Prompt'taki id result id'sinden türetilir → tekrar çalıştırmada da aynı kalır
+    private static String answerId(Long resultId) {
+        return "r" + resultId;
+    }
+
+    private static Long resultIdOf(BatchAnswer answer) {
+        return Long.parseLong(answer.id().substring(1));
+    }
+
+    private BatchGradingStatusDTO toDto(BatchRun run, Quiz quiz) {
+        boolean batchMode = Boolean.TRUE.equals(quiz.getBatchGrading());
+        if (run == null) {
+            return new BatchGradingStatusDTO(quiz.getId(), batchMode, RunStatus.IDLE.name(),
+                    0, 0, 0, 0, 0, 0, 0, null, null, null);
+        }
+        return new BatchGradingStatusDTO(
+                quiz.getId(),
+                batchMode,
+                run.status.name(),
+                run.results,
+                run.graded,
+                run.failed,
+                run.answers.get(),
+                run.batchRequests.get(),
+                run.fallbackAnswers.get(),
+                run.reusedAnswers.get(),
+                run.error,
+                run.startedAt,
+                run.finishedAt
+        );
+    }
+
+    private record Chunk(Long questionId, String questionText, Integer maxPoints, List<BatchAnswer> answers) {
+    }
+
+    private static class BatchRun {
+        final Long quizId;
+        final LocalDateTime startedAt = LocalDateTime.now();
+
+        volatile RunStatus status = RunStatus.RUNNING;
+        volatile int results;
+        volatile int graded;
+        volatile int failed;
+        final AtomicInteger answers = new AtomicInteger();
+        final AtomicInteger batchRequests = new AtomicInteger();
+        final AtomicInteger fallbackAnswers = new AtomicInteger();
+        final AtomicInteger reusedAnswers = new AtomicInteger();
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        BatchRun(Long quizId) {
+            this.quizId = quizId;
+        }
+    }
+}
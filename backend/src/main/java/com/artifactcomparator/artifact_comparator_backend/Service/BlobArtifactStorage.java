@@ -0,0 +1,357 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import com.artifactcomparator.artifact_comparator_backend.Exception.StorageBusyException;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactBlobRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Content-addressed {@link ArtifactStorage}: content is written once to
+ * {@code <root>/ab/cd/<sha256>} (temp file, then atomic rename) and counted
+ * in artifact_blobs by the artifacts referring to it. Acquire/release and
+ * the file write/delete of one hash run under the same lock stripe, so a
+ * release never removes a file an upload is about to reuse.
+ * Content is copied through one fixed buffer per write, so memory does not
+ * grow with file size, and at most {@code max-concurrent-writes} writes run
+ * at once.
+ */
+@Service
+@Slf4j
+public class BlobArtifactStorage implements ArtifactStorage {
+
+    // Blob store öncesi: FileUploadController / ZipUtil → uploads/<kullanıcı>/<dosya>,
+    // ArtifactUploadController → ~/uploaded_files/<kullanıcı>/<dosya> (filepath'te mutlak yol)
+    private static final Path LEGACY_ROOT = Paths.get("uploads");
+
+    private static final int LOCK_STRIPES = 64;
+
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+
+    /** Hash and size of content now referenced once more. */
+    private record StoredBlob(String sha256, long sizeBytes) {
+    }
+
+    private final ArtifactUploadRepository uploadRepo;
+    private final ArtifactBlobRepository blobRepo;
+    private final Path root;
+    private final Path tmpDir;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final int maxConcurrentWrites;
+    private final Semaphore writeSlots;
+    private final long writeWaitMs;
+
+    public BlobArtifactStorage(ArtifactUploadRepository uploadRepo,
+                               ArtifactBlobRepository blobRepo,
+                               @Value("${artifacts.storage.root:artifact-store}") String root,
+                               @Value("${artifacts.storage.max-concurrent-writes:4}") int maxConcurrentWrites,
+                               @Value("${artifacts.storage.write-wait-ms:30000}") long writeWaitMs) throws IOException {
+        this.uploadRepo = uploadRepo;
+        this.blobRepo = blobRepo;
+        this.root = Paths.get(root);
+        this.maxConcurrentWrites = Math.max(1, maxConcurrentWrites);
+        this.writeSlots = new Semaphore(this.maxConcurrentWrites, true);
+        this.writeWaitMs = writeWaitMs;
+        // Aynı dosya sisteminde olmalı: rename atomik kalsın
+        this.tmpDir = this.root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public ArtifactUpload store(ArtifactUpload artifact, InputStream content) throws IOException {
+        StoredBlob blob = put(content);
+
+        artifact.setContentHash(blob.sha256());
+        artifact.setSizeBytes(blob.sizeBytes());
+        artifact.setFilepath(relativePath(blob.sha256()));
+        try {
+            return uploadRepo.save(artifact);
+        } catch (RuntimeException e) {
+            release(blob.sha256());
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Resource> open(ArtifactUpload artifact) {
+        Path path = artifact.getContentHash() != null
+                ? blobPath(artifact.getContentHash())
+                : legacyPath(artifact, LEGACY_ROOT);
+
+        if (path == null || !Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        return Optional.of(new FileSystemResource(path));
+    }
+
+    @Override
+    public ArtifactUpload rename(ArtifactUpload artifact, String filename) throws IOException {
+        // Eski yol dosya adından çözülür → ad değişmeden önce içerik blob'a alınır
+        if (artifact.getContentHash() == null) {
+            Path legacy = legacyPath(artifact, LEGACY_ROOT);
+            if (legacy != null) {
+                try (InputStream in = Files.newInputStream(legacy)) {
+                    StoredBlob blob = put(in);
+                    artifact.setContentHash(blob.sha256());
+                    artifact.setSizeBytes(blob.sizeBytes());
+                    artifact.setFilepath(relativePath(blob.sha256()));
+                }
+            }
+        }
+
+        artifact.setFilename(filename);
+        return uploadRepo.save(artifact);
+    }
+
+    @Override
+    public void delete(ArtifactUpload artifact) {
+        String sha256 = artifact.getContentHash();
+
+        uploadRepo.delete(artifact);
+        uploadRepo.flush();
+
+        // Eski dosyalara dokunulmaz: aynı adla yüklenenler aynı yolu gösteriyor olabilir
+        if (sha256 == null) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Silme geri alınırsa içerik hâlâ gerekli → yalnızca commit sonrası bırak
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    release(sha256);
+                }
+            });
+        } else {
+            release(sha256);
+        }
+    }
+
+    @Override
+    public Map<String, Object> migrateLegacy() {
+        List<ArtifactUpload> legacy = uploadRepo.findLegacyWithResearcher();
+        Set<Path> moved = new HashSet<>();
+        Set<Path> kept = new HashSet<>();
+        int migrated = 0, missing = 0, failed = 0;
+
+        for (ArtifactUpload artifact : legacy) {
+            Path path = legacyPath(artifact, LEGACY_ROOT);
+            if (path == null) {
+                missing++;
+                log.warn("Artifact {} ({}): file not found, left as is", artifact.getId(), artifact.getFilepath());
+                continue;
+            }
+
+            Path key = path.toAbsolutePath().normalize();
+            try (InputStream in = Files.newInputStream(path)) {
+                store(artifact, in);
+                moved.add(key);
+                migrated++;
+            } catch (IOException | RuntimeException e) {
+                failed++;
+                kept.add(key);
+                log.warn("Artifact {}: migration failed: {}", artifact.getId(), e.getMessage());
+            }
+        }
+
+        // Aynı eski dosyayı gösteren satırlardan biri taşınamadıysa dosya kalır
+        moved.removeAll(kept);
+        int removed = 0;
+        for (Path path : moved) {
+            try {
+                if (Files.deleteIfExists(path)) removed++;
+            } catch (IOException e) {
+                log.warn("Could not remove migrated file {}: {}", path, e.getMessage());
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("legacyArtifacts", legacy.size());
+        result.put("migrated", migrated);
+        result.put("missing", missing);
+        result.put("failed", failed);
+        result.put("legacyFilesRemoved", removed);
+        result.put("blobs", blobRepo.count());
+        log.info("Artifact blob migration: {}", result);
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        long storedBytes = blobRepo.sumSizeBytes();
+        long referencedBytes = uploadRepo.sumStoredSizeBytes();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blobs", blobRepo.count());
+        stats.put("storedBytes", storedBytes);
+        stats.put("referencedBytes", referencedBytes);
+        stats.put("savedBytes", Math.max(0, referencedBytes - storedBytes));
+        stats.put("legacyArtifacts", uploadRepo.countByContentHashIsNull());
+        stats.put("writesInFlight", maxConcurrentWrites - writeSlots.availablePermits());
+        stats.put("maxConcurrentWrites", maxConcurrentWrites);
+        return stats;
+    }
+
+    // ==================== BLOBS ====================
+
+    private StoredBlob put(InputStream content) throws IOException {
+        acquireWriteSlot();
+        try {
+            return write(content);
+        } finally {
+            writeSlots.release();
+        }
+    }
+
+    private StoredBlob write(InputStream content) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                size = copy(content, out, digest);
+            }
+
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+            Path target = blobPath(sha256);
+
+            synchronized (lock(sha256)) {
+                blobRepo.acquire(sha256, size, LocalDateTime.now());
+                if (!Files.exists(target)) {
+                    try {
+                        Files.createDirectories(target.getParent());
+                        // Yarım yazılmış blob görünmez: tam dosya tek adımda yerine geçer
+                        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                    } catch (IOException e) {
+                        releaseLocked(sha256);
+                        throw e;
+                    }
+                }
+            }
+            return new StoredBlob(sha256, size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /** Copies the stream to the file and hashes it in the same pass; returns the size. */
+    private static long copy(InputStream content, FileChannel out, MessageDigest digest) throws IOException {
+        // Kanal kapatılmaz: ZIP girdisinin akışı açık kalmalı
+        ReadableByteChannel in = Channels.newChannel(content);
+        ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_BYTES);
+        long size = 0;
+
+        while (in.read(buffer) != -1) {
+            buffer.flip();
+            digest.update(buffer.array(), 0, buffer.limit());
+            while (buffer.hasRemaining()) {
+                size += out.write(buffer);
+            }
+            buffer.clear();
+        }
+        return size;
+    }
+
+    private void acquireWriteSlot() {
+        try {
+            // Yükleme patlamasında disk ve tampon kullanımı sınırlı kalır; sıra bekleyen istek parça dosyasında durur
+            if (!writeSlots.tryAcquire(writeWaitMs, TimeUnit.MILLISECONDS)) {
+                throw new StorageBusyException("Too many uploads in progress, please try again later",
+                        Math.max(1, TimeUnit.MILLISECONDS.toSeconds(writeWaitMs)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Upload interrupted");
+        }
+    }
+
+    private void release(String sha256) {
+        synchronized (lock(sha256)) {
+            releaseLocked(sha256);
+        }
+    }
+
+    private void releaseLocked(String sha256) {
+        blobRepo.release(sha256);
+        if (blobRepo.deleteIfUnreferenced(sha256) > 0) {
+            try {
+                Files.deleteIfExists(blobPath(sha256));
+            } catch (IOException e) {
+                log.warn("Could not remove unreferenced blob {}: {}", sha256, e.getMessage());
+            }
+        }
+    }
+
+    private Object lock(String sha256) {
+        return locks[Math.floorMod(sha256.hashCode(), LOCK_STRIPES)];
+    }
+
+    // 2 + 2 karakterlik iki seviye → klasör başına en fazla 256 alt klasör
+    Path blobPath(String sha256) {
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static String relativePath(String sha256) {
+        return "blobs/" + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    /**
+     * Where an artifact written before the blob store lives: the download
+     * path (legacy root / owner / file name), then the stored filepath as is
+     * (absolute for ~/uploaded_files) and relative to the working directory.
+     */
+    static Path legacyPath(ArtifactUpload artifact, Path legacyRoot) {
+        List<Path> candidates = new ArrayList<>();
+        if (artifact.getResearcher() != null && artifact.getFilename() != null) {
+            candidates.add(legacyRoot.resolve(artifact.getResearcher().getUsername())
+                    .resolve(Paths.get(artifact.getFilename()).getFileName()));
+        }
+        String filepath = artifact.getFilepath();
+        if (filepath != null && !filepath.isBlank()) {
+            candidates.add(Paths.get(filepath));
+            if (filepath.startsWith("/")) candidates.add(Paths.get(filepath.substring(1)));
+        }
+        return candidates.stream().filter(Files::isRegularFile).findFirst().orElse(null);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.artifactcomparator.artifact_comparator_backend.Service;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.*;
-import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
 import com.artifactcomparator.artifact_comparator_backend.Util.CSVReaderUtil;
 import com.artifactcomparator.artifact_comparator_backend.Util.ZipUtil;
@@ -14,17 +13,17 @@ import java.util.*;
 public class BulkUploadService {
 
     private final StudyRepository studyRepository;
-    private final ArtifactUploadRepository artifactRepo;
     private final EvaluationTaskService taskService;
+    private final ArtifactStorage artifactStorage;
 
     public BulkUploadService(
             StudyRepository studyRepository,
-            ArtifactUploadRepository artifactRepo,
-            EvaluationTaskService taskService
+            EvaluationTaskService taskService,
+            ArtifactStorage artifactStorage
     ) {
         this.studyRepository = studyRepository;
-        this.artifactRepo = artifactRepo;
         this.taskService = taskService;
+        this.artifactStorage = artifactStorage;
     }
 
     public int processBulkUpload(  // ⭐ CHANGED: Return task count
@@ -46,7 +45,7 @@ public class BulkUploadService {
                 ZipUtil.extractAndSaveArtifacts(
                         zipFile,
                         zipName,
-                        artifactRepo,
+                        artifactStorage,
                         researcher,
                         folder  // ⭐ PASS FOLDER
                 );
@@ -0,0 +1,263 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CodeAnalysisCacheEntry;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CodeAnalysisCacheRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Content-addressed cache of Gemini code analysis results: an in-process LRU
+ * in front of the code_analysis_cache table. The key is the SHA-256 of the
+ * normalized code, the prompt template version and the model id, so editing a
+ * prompt (bump its {@link Kind} version) or switching model never serves an
+ * old answer; stale rows are purged on startup.
+ */
+@Service
+@Slf4j
+public class CodeAnalysisCache {
+
+    /** Cached prompt kinds; bump the version whenever the prompt template changes. */
+    public enum Kind {
+        CYCLOMATIC(1),
+        DIAGRAM(2);
+
+        private final int promptVersion;
+
+        Kind(int promptVersion) {
+            this.promptVersion = promptVersion;
+        }
+
+        public int getPromptVersion() {
+            return promptVersion;
+        }
+    }
+
+    private final CodeAnalysisCacheRepository repo;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final String modelId;
+
+    // cacheKey → sonuç, erişim sırasına göre (LRU)
+    private final LinkedHashMap<String, Cached> memory;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong databaseHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CodeAnalysisCache(CodeAnalysisCacheRepository repo,
+                             @Value("${code-analysis.cache.enabled:true}") boolean enabled,
+                             @Value("${code-analysis.cache.max-entries:500}") int maxEntries,
+                             @Value("${gemini.model-id:}") String modelId,
+                             @Value("${gemini.api.url:}") String apiUrl) {
+        this.repo = repo;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.modelId = (modelId == null || modelId.isBlank()) ? modelFromUrl(apiUrl) : modelId;
+
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Cached> eldest) {
+                return size() > CodeAnalysisCache.this.maxEntries;
+            }
+        };
+    }
+
+    // ==========================================
+    // Lookup
+    // ==========================================
+
+    /** Cached result for the code, or loader's result (stored for next time). */
+    public String getOrCompute(Kind kind, String code, Supplier<String> loader) {
+        return getOrCompute(kind, code, loader, Function.identity());
+    }
+
+    /**
+     * Cached result for the code mapped through parse. A fresh loader result
+     * is parsed once, before it is stored, so unparseable results are not cached.
+     */
+    public <T> T getOrCompute(Kind kind, String code, Supplier<String> loader, Function<String, T> parse) {
+        if (!enabled) return parse.apply(loader.get());
+
+        String key = key(kind, code);
+        String cached = lookup(key);
+        if (cached != null) return parse.apply(cached);
+
+        misses.incrementAndGet();
+        String result = loader.get();
+        T parsed = parse.apply(result);
+        store(kind, key, result);
+        return parsed;
+    }
+
+    /** Non-blocking variant; database access runs on the bounded elastic scheduler. */
+    public <T> Mono<T> getOrComputeAsync(Kind kind,
+                                         String code,
+                                         Supplier<Mono<String>> loader,
+                                         Function<String, T> parse) {
+        if (!enabled) return Mono.defer(loader).map(parse);
+
+        String key = key(kind, code);
+        String inMemory = memoryGet(key);
+        if (inMemory != null) return Mono.just(inMemory).map(parse);
+
+        return Mono.fromCallable(() -> databaseGet(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(parse)
+                .switchIfEmpty(Mono.defer(() -> {
+                    misses.incrementAndGet();
+                    return Mono.defer(loader)
+                            .flatMap(result -> {
+                                T parsed = parse.apply(result);
+                                return Mono.fromRunnable(() -> store(kind, key, result))
+                                        .subscribeOn(Schedulers.boundedElastic())
+                                        .thenReturn(parsed);
+                            });
+                }));
+    }
+
+    // ==========================================
+    // Invalidation & stats
+    // ==========================================
+
+    // Açılışta: prompt versiyonu ya da modeli tutmayan satırlar silinir
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void purgeStale() {
+        if (!enabled) return;
+
+        for (Kind kind : Kind.values()) {
+            int removed = repo.deleteStale(kind, kind.getPromptVersion(), modelId);
+            if (removed > 0) {
+                log.info("Removed {} stale {} analysis cache entries", removed, kind);
+            }
+        }
+    }
+
+    /** Drops every cached result of a kind (memory + database). */
+    @Transactional
+    public int invalidate(Kind kind) {
+        synchronized (memory) {
+            memory.values().removeIf(c -> c.kind() == kind);
+        }
+        return repo.deleteByKind(kind);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("modelId", modelId);
+        stats.put("memoryHits", memoryHits.get());
+        stats.put("databaseHits", databaseHits.get());
+        stats.put("misses", misses.get());
+        synchronized (memory) {
+            stats.put("memoryEntries", memory.size());
+        }
+        stats.put("maxMemoryEntries", maxEntries);
+        return stats;
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    private String lookup(String key) {
+        String inMemory = memoryGet(key);
+        return inMemory != null ? inMemory : databaseGet(key);
+    }
+
+    private String memoryGet(String key) {
+        Cached cached;
+        synchronized (memory) {
+            cached = memory.get(key);
+        }
+        if (cached == null) return null;
+
+        memoryHits.incrementAndGet();
+        return cached.result();
+    }
+
+    private String databaseGet(String key) {
+        CodeAnalysisCacheEntry entry = repo.findByCacheKey(key).orElse(null);
+        if (entry == null) return null;
+
+        databaseHits.incrementAndGet();
+        synchronized (memory) {
+            memory.put(key, new Cached(entry.getKind(), entry.getResult()));
+        }
+        return entry.getResult();
+    }
+
+    private void store(Kind kind, String key, String result) {
+        synchronized (memory) {
+            memory.put(key, new Cached(kind, result));
+        }
+
+        try {
+            if (repo.existsByCacheKey(key)) return;
+
+            CodeAnalysisCacheEntry entry = new CodeAnalysisCacheEntry();
+            entry.setCacheKey(key);
+            entry.setKind(kind);
+            entry.setPromptVersion(kind.getPromptVersion());
+            entry.setModelId(modelId);
+            entry.setResult(result);
+            repo.save(entry);
+        } catch (DataIntegrityViolationException e) {
+            // Aynı kodu eşzamanlı analiz eden başka istek önce yazdı
+            log.debug("Analysis cache entry {} already stored", key);
+        }
+    }
+
+    private String key(Kind kind, String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((kind.name() + "\n" + kind.getPromptVersion() + "\n" + modelId + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            digest.update(normalize(code).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // Satır sonları + satır sonu boşlukları: satır numaraları (startLine) değişmesin diye satırlar korunur
+    static String normalize(String code) {
+        if (code == null) return "";
+
+        StringBuilder sb = new StringBuilder(code.length());
+        for (String line : code.replace("\r\n", "\n").replace('\r', '\n').split("\n", -1)) {
+            sb.append(line.stripTrailing()).append('\n');
+        }
+        return sb.toString().stripTrailing();
+    }
+
+    // .../models/gemini-2.0-flash:generateContent → gemini-2.0-flash
+    private static String modelFromUrl(String apiUrl) {
+        if (apiUrl == null) return "unknown";
+
+        int start = apiUrl.indexOf("/models/");
+        if (start < 0) return apiUrl.isBlank() ? "unknown" : apiUrl;
+
+        String rest = apiUrl.substring(start + "/models/".length());
+        int end = rest.indexOf(':');
+        return end >= 0 ? rest.substring(0, end) : rest;
+    }
+
+    private record Cached(Kind kind, String result) {
+    }
+}
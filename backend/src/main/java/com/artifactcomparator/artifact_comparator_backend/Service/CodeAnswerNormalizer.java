@@ -0,0 +1,197 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalizes CODE_EDIT answers so that a participant's edited code can be
+ * compared with the task's correct answer regardless of comments and
+ * whitespace.
+ *
+ * Normalized correct answers are memoized per task × criterion; normalized
+ * participant answers can optionally be cached per response
+ * (code-normalizer.response-cache-size, 0 = off).
+ */
+@Component
+public class CodeAnswerNormalizer {
+
+    private static final JsonPointer EDITED_CODE = JsonPointer.compile("/editedCode");
+
+    private final ObjectMapper objectMapper;
+    private final int responseCacheSize;
+
+    // taskId:criterionId → normalize edilmiş correct answer
+    private final Map<String, Normalized> correctAnswers = new ConcurrentHashMap<>();
+
+    // responseId:criterionIndex → normalize edilmiş participant cevabı (LRU)
+    private final Map<String, Normalized> responseAnswers;
+
+    public CodeAnswerNormalizer(ObjectMapper objectMapper,
+                                @Value("${code-normalizer.response-cache-size:0}") int responseCacheSize) {
+        this.objectMapper = objectMapper;
+        this.responseCacheSize = responseCacheSize;
+        this.responseAnswers = Collections.synchronizedMap(
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Normalized> eldest) {
+                        return size() > CodeAnswerNormalizer.this.responseCacheSize;
+                    }
+                });
+    }
+
+    // ==========================================
+    // Public API
+    // ==========================================
+
+    /** True if the participant's raw answer matches the correct answer after normalization. */
+    public boolean matches(Long taskId, Long criterionId, String correctAnswer,
+                           Long responseId, int criterionIndex, String rawAnswer) {
+        return normalizedAnswer(responseId, criterionIndex, rawAnswer)
+                .equals(normalizedCorrectAnswer(taskId, criterionId, correctAnswer));
+    }
+
+    /** Memoized; recomputed only when the correct answer text changes. */
+    public String normalizedCorrectAnswer(Long taskId, Long criterionId, String correctAnswer) {
+        if (taskId == null || criterionId == null) return normalize(correctAnswer);
+
+        String raw = correctAnswer == null ? "" : correctAnswer;
+        String key = taskId + ":" + criterionId;
+
+        Normalized cached = correctAnswers.get(key);
+        if (cached != null && cached.raw.equals(raw)) return cached.value;
+
+        String value = normalize(raw);
+        correctAnswers.put(key, new Normalized(raw, value));
+        return value;
+    }
+
+    /** Participant answer (raw JSON or plain code) → normalized edited code. */
+    public String normalizedAnswer(Long responseId, int criterionIndex, String rawAnswer) {
+        String raw = rawAnswer == null ? "" : rawAnswer;
+
+        if (responseCacheSize <= 0 || responseId == null) {
+            return normalize(extractEditedCode(raw));
+        }
+
+        String key = responseId + ":" + criterionIndex;
+        Normalized cached = responseAnswers.get(key);
+        if (cached != null && cached.raw.equals(raw)) return cached.value;
+
+        String value = normalize(extractEditedCode(raw));
+        responseAnswers.put(key, new Normalized(raw, value));
+        return value;
+    }
+
+    /** Drops memoized correct answers of a deleted task. */
+    public void evictTask(Long taskId) {
+        String prefix = taskId + ":";
+        correctAnswers.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    // ==========================================
+    // Extraction
+    // ==========================================
+
+    /**
+     * CODE_EDIT answers are stored as {"editedCode": "..."}; anything that
+     * is not such a JSON object is taken as the code itself.
+     */
+    public String extractEditedCode(String raw) {
+        if (raw == null || raw.isBlank()) return "";
+
+        String trimmed = raw.trim();
+
+        // JSON gibi duruyorsa
+        if (trimmed.startsWith("{")) {
+            try {
+                JsonNode code = objectMapper.readTree(trimmed).at(EDITED_CODE);
+                if (!code.isMissingNode()) {
+                    return code.asText("");
+                }
+            } catch (Exception e) {
+                // parse edilemezse fallback
+            }
+        }
+
+        // JSON değilse direkt code kabul et
+        return raw;
+    }
+
+    // ==========================================
+    // Tokenizer
+    // ==========================================
+
+    /**
+     * Same result as the former regex chain (drop "//" to end of line, then
+     * block comments, then all whitespace, then trim) in two linear passes.
+     * Like before, string literals get no special treatment: whitespace and
+     * comment markers inside them are dropped too, so answers keep their
+     * existing Correct / Wrong results.
+     */
+    public String normalize(String code) {
+        if (code == null || code.isEmpty()) return "";
+
+        String withoutLineComments = stripLineComments(code);
+
+        int n = withoutLineComments.length();
+        StringBuilder out = new StringBuilder(n);
+        int i = 0;
+
+        while (i < n) {
+            char c = withoutLineComments.charAt(i);
+
+            // Blok yorum → */ bulunursa atla, kapanmamışsa kod gibi devam et
+            if (c == '/' && i + 1 < n && withoutLineComments.charAt(i + 1) == '*') {
+                int end = withoutLineComments.indexOf("*/", i + 2);
+                if (end >= 0) {
+                    i = end + 2;
+                    continue;
+                }
+            }
+
+            if (!isWhitespace(c)) out.append(c);
+            i++;
+        }
+
+        return out.toString().trim();
+    }
+
+    // "//.*" ile aynı: // ile satır sonu arası atılır, satır sonu kalır.
+    // Blok yorumdan önce çalışır → "/* a // b */" içindeki "*/" da gider (eski davranış)
+    private static String stripLineComments(String code) {
+        int start = code.indexOf("//");
+        if (start < 0) return code;
+
+        int n = code.length();
+        StringBuilder out = new StringBuilder(n);
+        int i = 0;
+
+        while (start >= 0) {
+            out.append(code, i, start);
+            i = start + 2;
+            while (i < n && !isLineTerminator(code.charAt(i))) i++;
+            start = code.indexOf("//", i);
+        }
+        return out.append(code, i, n).toString();
+    }
+
+    // Regex "." karşılığı olmayan karakterler (UNIX_LINES kapalı)
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    // Regex \s ile aynı küme
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private record Normalized(String raw, String value) {}
+}
@@ -0,0 +1,1122 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Kind;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Language;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.PyToken;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Token;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Unit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.isOp;
+
+/**
+ * Deterministic control flow diagrams: every function of the code (split the
+ * same way as in {@link CyclomaticComplexityAnalyzer}) becomes a subgraph of a
+ * Mermaid {@code flowchart TD} with its branches, loops, switch cases,
+ * try/catch, calls and exits. Functions over the node limit have their
+ * deepest blocks collapsed into single nodes, and blocks nested deeper than
+ * MAX_NESTING are not parsed at all but shown as one "…" node. Empty means
+ * the language is not supported here, i.e. ask Gemini.
+ */
+@Service
+public class ControlFlowDiagramBuilder {
+
+    private static final int LABEL_MAX = 40;
+    private static final int BLOCK_STATEMENTS = 3;
+    // Parser ve çizim özyinelemeli → bundan derin bloklar ayrıştırılmaz (kullanıcı kodu stack'i taşırmasın)
+    static final int MAX_NESTING = 64;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // Ardından '(' gelse de çağrı sayılmayan anahtar kelimeler
+    private static final Set<String> NOT_CALLS = Set.of(
+            "if", "elif", "for", "while", "switch", "catch", "synchronized", "return", "throw", "typeof",
+            "sizeof", "and", "or", "not", "in", "with", "yield", "await", "assert", "del", "lambda", "except",
+            "raise", "print");
+
+    enum JumpKind { RETURN, THROW, BREAK, CONTINUE }
+
+    sealed interface Stmt permits Simple, Jump, If, Loop, Switch, Try, Omitted {
+    }
+
+    record Simple(String text, boolean call) implements Stmt {
+    }
+
+    record Jump(JumpKind kind, String text) implements Stmt {
+    }
+
+    record Branch(String condition, List<Stmt> body) {
+    }
+
+    record If(List<Branch> branches, List<Stmt> otherwise) implements Stmt {
+    }
+
+    // otherwise: Python for/while ... else (döngü break'siz biterse çalışır)
+    record Loop(String header, List<Stmt> body, boolean postTest, List<Stmt> otherwise) implements Stmt {
+    }
+
+    record Case(String label, List<Stmt> body, boolean fallsThrough) {
+    }
+
+    record Switch(String header, List<Case> cases) implements Stmt {
+    }
+
+    record Handler(String label, List<Stmt> body) {
+    }
+
+    record Try(List<Stmt> body, List<Handler> handlers, List<Stmt> finallyBody) implements Stmt {
+    }
+
+    // Düğüm sınırı yüzünden çizilmeyen ifadeler
+    record Omitted(int statements) implements Stmt {
+    }
+
+    record Flow(String name, int startLine, int endLine, List<Stmt> body) {
+    }
+
+    private final CyclomaticComplexityAnalyzer analyzer;
+    private final int maxNodes;
+    private final int maxFunctions;
+
+    public ControlFlowDiagramBuilder(CyclomaticComplexityAnalyzer analyzer,
+                                     @Value("${code-analysis.diagram.max-nodes:60}") int maxNodes,
+                                     @Value("${code-analysis.diagram.max-functions:20}") int maxFunctions) {
+        this.analyzer = analyzer;
+        this.maxNodes = Math.max(5, maxNodes);
+        this.maxFunctions = Math.max(1, maxFunctions);
+    }
+
+    /** Mermaid flowchart of the code when its language is supported, otherwise empty. */
+    public Optional<String> build(String code, String fileName, String language) {
+        return analyzer.detectLanguage(code, fileName, language).map(lang -> build(code, lang));
+    }
+
+    String build(String code, Language language) {
+        List<Flow> flows = language == Language.PYTHON
+                ? new PythonParser(code).flows()
+                : braceFlows(code, language);
+        return render(flows);
+    }
+
+    // ==================== RENDERING ====================
+
+    String render(List<Flow> flows) {
+        StringBuilder out = new StringBuilder("flowchart TD\n");
+        if (flows.isEmpty()) {
+            out.append("    empty([\"no functions, branches or loops found\"])\n");
+            return out.toString();
+        }
+
+        for (int i = 0; i < flows.size() && i < maxFunctions; i++) {
+            Flow flow = flows.get(i);
+            String prefix = "f" + i;
+            Graph graph = fit(flow.body, prefix);
+
+            String title = flow.name + " (lines " + flow.startLine + "-" + flow.endLine + ")"
+                    + (graph.simplified ? " (simplified)" : "");
+            out.append("    subgraph ").append(prefix).append(" [\"").append(escape(title)).append("\"]\n");
+            out.append("        ").append(prefix).append("_s([\"").append(escape(shorten(flow.name))).append("\"])\n");
+            for (String node : graph.nodes) {
+                out.append("        ").append(node).append('\n');
+            }
+            out.append("        ").append(graph.end).append("([\"end\"])\n");
+            for (String edge : graph.edges) {
+                out.append("        ").append(edge).append('\n');
+            }
+            out.append("    end\n");
+        }
+
+        if (flows.size() > maxFunctions) {
+            out.append("    more([\"+ ").append(flows.size() - maxFunctions).append(" more functions\"])\n");
+        }
+        return out.toString();
+    }
+
+    // Sığmayan fonksiyonda önce en derin bloklar tek düğüme indirilir, yetmezse sondan kırpılır
+    private Graph fit(List<Stmt> body, String prefix) {
+        for (int collapse = depth(body); collapse >= 0; collapse--) {
+            Graph graph = draw(body, prefix, collapse);
+            if (graph.size() <= maxNodes) return graph;
+        }
+
+        int low = 0;
+        int high = body.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) / 2;
+            if (draw(truncate(body, mid), prefix, 0).size() <= maxNodes) low = mid;
+            else high = mid - 1;
+        }
+        return draw(truncate(body, low), prefix, 0);
+    }
+
+    private static List<Stmt> truncate(List<Stmt> body, int keep) {
+        List<Stmt> kept = new ArrayList<>(body.subList(0, keep));
+        kept.add(new Omitted(count(body.subList(keep, body.size()))));
+        return kept;
+    }
+
+    private Graph draw(List<Stmt> body, String prefix, int collapseDepth) {
+        Graph graph = new Graph(prefix, collapseDepth);
+        List<Exit> exits = emit(graph, body, List.of(new Exit(prefix + "_s", null)), 0);
+        graph.connect(exits, graph.end);
+        return graph;
+    }
+
+    private List<Exit> emit(Graph g, List<Stmt> stmts, List<Exit> in, int depth) {
+        List<Exit> current = in;
+        List<Simple> run = new ArrayList<>();
+        for (Stmt stmt : stmts) {
+            if (stmt instanceof Simple simple) {
+                run.add(simple);
+                continue;
+            }
+            current = flush(g, run, current);
+            current = emit(g, stmt, current, depth);
+        }
+        return flush(g, run, current);
+    }
+
+    // Art arda gelen basit ifadeler tek düğüm (temel blok); çağrı içeriyorsa alt program şekli
+    private List<Exit> flush(Graph g, List<Simple> run, List<Exit> in) {
+        if (run.isEmpty()) return in;
+
+        List<String> lines = new ArrayList<>();
+        boolean call = false;
+        for (int i = 0; i < run.size(); i++) {
+            call |= run.get(i).call;
+            if (i < BLOCK_STATEMENTS) lines.add(escape(shorten(run.get(i).text)));
+        }
+        if (run.size() > BLOCK_STATEMENTS) {
+            lines.add("+ " + (run.size() - BLOCK_STATEMENTS) + " more");
+        }
+        run.clear();
+
+        String id = call
+                ? g.node("[[", String.join("<br/>", lines), "]]")
+                : g.node("[", String.join("<br/>", lines), "]");
+        g.connect(in, id);
+        return List.of(new Exit(id, null));
+    }
+
+    private List<Exit> emit(Graph g, Stmt stmt, List<Exit> in, int depth) {
+        if (depth >= g.collapseDepth && !(stmt instanceof Jump) && !(stmt instanceof Omitted)) {
+            g.simplified = true;
+            String id = g.node("{{", escape(shorten(summary(stmt))) + "<br/>" + count(List.of(stmt)) + " statements", "}}");
+            g.connect(in, id);
+            return List.of(new Exit(id, null));
+        }
+
+        if (stmt instanceof Omitted omitted) {
+            g.simplified = true;
+            String id = g.node("[", "… " + omitted.statements + " more statements", "]");
+            g.connect(in, id);
+            return List.of(new Exit(id, null));
+        }
+
+        if (stmt instanceof Jump jump) {
+            return emitJump(g, jump, in);
+        }
+
+        if (stmt instanceof If iff) {
+            List<Exit> out = new ArrayList<>();
+            List<Exit> pending = in;
+            for (Branch branch : iff.branches) {
+                String id = g.node("{", escape(shorten(branch.condition)), "}");
+                g.connect(pending, id);
+                out.addAll(emit(g, branch.body, List.of(new Exit(id, "yes")), depth + 1));
+                pending = List.of(new Exit(id, "no"));
+            }
+            out.addAll(iff.otherwise == null ? pending : emit(g, iff.otherwise, pending, depth + 1));
+            return out;
+        }
+
+        if (stmt instanceof Loop loop) {
+            return loop.postTest ? emitDoWhile(g, loop, in, depth) : emitLoop(g, loop, in, depth);
+        }
+
+        if (stmt instanceof Switch sw) {
+            return emitSwitch(g, sw, in, depth);
+        }
+
+        Try tr = (Try) stmt;
+        String id = g.node("[", "try", "]");
+        g.connect(in, id);
+        List<Exit> out = new ArrayList<>(emit(g, tr.body, List.of(new Exit(id, null)), depth + 1));
+        for (Handler handler : tr.handlers) {
+            String handlerId = g.node("[", escape(shorten(handler.label)), "]");
+            g.edge(new Exit(id, "exception", true), handlerId);
+            out.addAll(emit(g, handler.body, List.of(new Exit(handlerId, null)), depth + 1));
+        }
+        if (tr.finallyBody == null) return out;
+
+        String finallyId = g.node("[", "finally", "]");
+        g.connect(out, finallyId);
+        return emit(g, tr.finallyBody, List.of(new Exit(finallyId, null)), depth + 1);
+    }
+
+    private List<Exit> emitJump(Graph g, Jump jump, List<Exit> in) {
+        switch (jump.kind) {
+            case BREAK -> {
+                Target target = g.targets.peek();
+                if (target == null) g.connect(in, g.end);
+                else target.breaks.addAll(in);
+            }
+            case CONTINUE -> {
+                Target loop = g.targets.stream().filter(t -> t.loop).findFirst().orElse(null);
+                g.connect(in, loop == null ? g.end : loop.continueTo);
+            }
+            default -> {
+                String id = g.node("[", escape(shorten(jump.text)), "]");
+                g.connect(in, id);
+                g.edge(new Exit(id, jump.kind == JumpKind.THROW ? "throws" : null), g.end);
+            }
+        }
+        return List.of();
+    }
+
+    private List<Exit> emitLoop(Graph g, Loop loop, List<Exit> in, int depth) {
+        String id = g.node("{", escape(shorten(loop.header)), "}");
+        g.connect(in, id);
+
+        Target target = new Target(id, true);
+        g.targets.push(target);
+        List<Exit> body = emit(g, loop.body, List.of(new Exit(id, "loop")), depth + 1);
+        g.targets.pop();
+        g.connect(body, id);
+
+        List<Exit> done = List.of(new Exit(id, "done"));
+        List<Exit> out = new ArrayList<>(loop.otherwise == null ? done : emit(g, loop.otherwise, done, depth + 1));
+        out.addAll(target.breaks);
+        return out;
+    }
+
+    // do { } while (x): gövde koşuldan önce en az bir kez çalışır
+    private List<Exit> emitDoWhile(Graph g, Loop loop, List<Exit> in, int depth) {
+        String entry = g.node("[", "do", "]");
+        g.connect(in, entry);
+        String condition = g.node("{", escape(shorten(loop.header)), "}");
+
+        Target target = new Target(condition, true);
+        g.targets.push(target);
+        List<Exit> body = emit(g, loop.body, List.of(new Exit(entry, null)), depth + 1);
+        g.targets.pop();
+        g.connect(body, condition);
+        g.edge(new Exit(condition, "loop"), entry);
+
+        List<Exit> out = new ArrayList<>(target.breaks);
+        out.add(0, new Exit(condition, "done"));
+        return out;
+    }
+
+    private List<Exit> emitSwitch(Graph g, Switch sw, List<Exit> in, int depth) {
+        String id = g.node("{", escape(shorten(sw.header)), "}");
+        g.connect(in, id);
+
+        Target target = new Target(null, false);
+        g.targets.push(target);
+        List<Exit> out = new ArrayList<>();
+        List<Exit> fallThrough = List.of();
+        boolean hasDefault = false;
+        for (Case c : sw.cases) {
+            hasDefault |= c.label.equals("default") || c.label.equals("_");
+            // "case A: case B:" → boş gövde bir sonraki case'e düşer
+            List<Exit> entry = new ArrayList<>(fallThrough);
+            entry.add(new Exit(id, shorten(c.label)));
+            List<Exit> exits = emit(g, c.body, entry, depth + 1);
+            if (c.fallsThrough) {
+                fallThrough = exits;
+            } else {
+                out.addAll(exits);
+                fallThrough = List.of();
+            }
+        }
+        g.targets.pop();
+
+        out.addAll(fallThrough);
+        out.addAll(target.breaks);
+        if (!hasDefault) out.add(new Exit(id, "no match"));
+        return out;
+    }
+
+    private static String summary(Stmt stmt) {
+        if (stmt instanceof If iff) return "if " + iff.branches.get(0).condition;
+        if (stmt instanceof Loop loop) return loop.header;
+        if (stmt instanceof Switch sw) return sw.header;
+        return "try";
+    }
+
+    private static int depth(List<Stmt> stmts) {
+        int max = 0;
+        for (Stmt stmt : stmts) {
+            for (List<Stmt> child : children(stmt)) {
+                max = Math.max(max, 1 + depth(child));
+            }
+            if (!(stmt instanceof Simple) && !(stmt instanceof Jump) && !(stmt instanceof Omitted)) {
+                max = Math.max(max, 1);
+            }
+        }
+        return max;
+    }
+
+    private static int count(List<Stmt> stmts) {
+        int total = 0;
+        for (Stmt stmt : stmts) {
+            total += stmt instanceof Omitted omitted ? omitted.statements : 1;
+            for (List<Stmt> child : children(stmt)) {
+                total += count(child);
+            }
+        }
+        return total;
+    }
+
+    private static List<List<Stmt>> children(Stmt stmt) {
+        List<List<Stmt>> children = new ArrayList<>();
+        if (stmt instanceof If iff) {
+            iff.branches.forEach(b -> children.add(b.body));
+            if (iff.otherwise != null) children.add(iff.otherwise);
+        } else if (stmt instanceof Loop loop) {
+            children.add(loop.body);
+            if (loop.otherwise != null) children.add(loop.otherwise);
+        } else if (stmt instanceof Switch sw) {
+            sw.cases.forEach(c -> children.add(c.body));
+        } else if (stmt instanceof Try tr) {
+            children.add(tr.body);
+            tr.handlers.forEach(h -> children.add(h.body));
+            if (tr.finallyBody != null) children.add(tr.finallyBody);
+        }
+        return children;
+    }
+
+    private static boolean hasBranches(List<Stmt> stmts) {
+        return stmts.stream().anyMatch(s -> !(s instanceof Simple) && !(s instanceof Jump));
+    }
+
+    record Exit(String from, String label, boolean dashed) {
+        Exit(String from, String label) {
+            this(from, label, false);
+        }
+    }
+
+    // break/continue hedefi: döngü (continue → koşul düğümü) ya da switch
+    private static final class Target {
+        final String continueTo;
+        final boolean loop;
+        final List<Exit> breaks = new ArrayList<>();
+
+        Target(String continueTo, boolean loop) {
+            this.continueTo = continueTo;
+            this.loop = loop;
+        }
+    }
+
+    private static final class Graph {
+        final String prefix;
+        final String end;
+        final int collapseDepth;
+        final List<String> nodes = new ArrayList<>();
+        final List<String> edges = new ArrayList<>();
+        final Deque<Target> targets = new ArrayDeque<>();
+        boolean simplified;
+
+        Graph(String prefix, int collapseDepth) {
+            this.prefix = prefix;
+            this.end = prefix + "_e";
+            this.collapseDepth = collapseDepth;
+        }
+
+        // label önceden escape edilmiş olmalı
+        String node(String open, String label, String close) {
+            String id = prefix + "_" + (nodes.size() + 1);
+            nodes.add(id + open + "\"" + label + "\"" + close);
+            return id;
+        }
+
+        void connect(List<Exit> from, String to) {
+            for (Exit exit : from) edge(exit, to);
+        }
+
+        void edge(Exit exit, String to) {
+            String arrow = exit.dashed ? " -.->" : " -->";
+            String label = exit.label == null ? " " : "|\"" + escape(exit.label) + "\"| ";
+            edges.add(exit.from + arrow + label + to);
+        }
+
+        // başlangıç ve bitiş dahil
+        int size() {
+            return nodes.size() + 2;
+        }
+    }
+
+    // Mermaid etiketleri: tırnak, <, >, & ve # entity koduyla yazılır
+    static String escape(String text) {
+        return text.replace("#", "#35;")
+                .replace("\"", "#quot;")
+                .replace("&", "#amp;")
+                .replace("<", "#lt;")
+                .replace(">", "#gt;")
+                .replace("`", "#96;");
+    }
+
+    private static String shorten(String text) {
+        return text.length() <= LABEL_MAX ? text : text.substring(0, LABEL_MAX - 1) + "…";
+    }
+
+    // Kaynaktaki ifade metni; iç içe { ... } gövdeleri (lambda, anonim sınıf) "{…}" olarak kısaltılır
+    private static String sourceText(String source, List<Token> tokens, int[] match, int from, int to) {
+        if (from >= to) return "";
+
+        // Etiket zaten kısaltılacak: uzun ifadelerde (JSX return vb.) kaynağın tamamı kopyalanmaz
+        int limit = LABEL_MAX * 4;
+        StringBuilder sb = new StringBuilder();
+        int cursor = tokens.get(from).offset();
+        for (int i = from; i < to && sb.length() < limit; i++) {
+            if (match != null && isOp(tokens.get(i), "{") && match[i] > i && match[i] < to) {
+                sb.append(source, cursor, Math.min(tokens.get(i).offset(), cursor + limit)).append("{…}");
+                i = match[i];
+                cursor = tokens.get(i).offset() + 1;
+            }
+        }
+        Token last = tokens.get(to - 1);
+        int end = Math.min(last.offset() + last.text().length(), cursor + limit);
+        if (sb.length() < limit && cursor < end) sb.append(source, cursor, end);
+        return WHITESPACE.matcher(sb).replaceAll(" ").trim();
+    }
+
+    private static boolean hasCall(List<Token> tokens, int from, int to) {
+        for (int i = from; i + 1 < to; i++) {
+            Token t = tokens.get(i);
+            if (t.kind() == Kind.IDENT && !NOT_CALLS.contains(t.text()) && isOp(tokens.get(i + 1), "(")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== BRACE LANGUAGES ====================
+
+    private List<Flow> braceFlows(String code, Language language) {
+        List<Token> tokens = analyzer.lexBraces(code, language);
+        int[] match = CyclomaticComplexityAnalyzer.matchBrackets(tokens);
+        BraceParser parser = new BraceParser(code, tokens, match, language);
+
+        List<Flow> flows = new ArrayList<>();
+        // Fonksiyon dışında dal/döngü varsa (script, yapıştırılmış kod parçası) ayrı akış olarak çizilir
+        List<Stmt> topLevel = parser.block(0, tokens.size());
+        if (hasBranches(topLevel)) {
+            flows.add(new Flow(CyclomaticComplexityAnalyzer.TOP_LEVEL, 1, (int) code.lines().count(), topLevel));
+        }
+
+        for (Unit unit : analyzer.braceUnits(tokens, language)) {
+            if (unit.bodyStart < 0) continue;
+            int end = unit.bodyEnd < 0 ? tokens.size() : unit.bodyEnd;
+            flows.add(new Flow(unit.name, unit.startLine, unit.endLine, parser.block(unit.bodyStart + 1, end)));
+        }
+        return flows;
+    }
+
+    private static final class BraceParser {
+        private final String source;
+        private final List<Token> tokens;
+        private final int[] match;
+        private final Language language;
+        private int pos;
+        private int nesting;
+
+        BraceParser(String source, List<Token> tokens, int[] match, Language language) {
+            this.source = source;
+            this.tokens = tokens;
+            this.match = match;
+            this.language = language;
+        }
+
+        List<Stmt> block(int from, int to) {
+            List<Stmt> out = new ArrayList<>();
+            pos = from;
+            while (pos < to) {
+                statement(out, to);
+            }
+            return out;
+        }
+
+        private void statement(List<Stmt> out, int to) {
+            if (nesting >= MAX_NESTING) {
+                out.add(new Omitted(skipRest(to)));
+                return;
+            }
+            nesting++;
+            try {
+                compound(out, to);
+            } finally {
+                nesting--;
+            }
+        }
+
+        // Çok derindeki ifade ve bloğun geri kalanı tek "…" düğümü; ';' sayısı kabaca ifade sayısı
+        private int skipRest(int to) {
+            int statements = 1;
+            for (int i = pos + 1; i < to; i++) {
+                if (isOp(tokens.get(i), ";")) statements++;
+            }
+            pos = to;
+            return statements;
+        }
+
+        private void compound(List<Stmt> out, int to) {
+            Token t = tokens.get(pos);
+            if (isOp(t, ";")) {
+                pos++;
+                return;
+            }
+            if (isOp(t, "{")) {
+                int close = closeOf(pos, to);
+                List<Stmt> inner = block(pos + 1, close);
+                out.addAll(inner);
+                pos = Math.min(close + 1, to);
+                return;
+            }
+
+            if (t.kind() == Kind.IDENT) {
+                switch (t.text()) {
+                    case "if" -> {
+                        out.add(ifStatement(to));
+                        return;
+                    }
+                    case "for", "while" -> {
+                        pos++;
+                        if (pos < to && tokens.get(pos).text().equals("await")) pos++;
+                        String header = t.text() + " (" + paren(to) + ")";
+                        out.add(new Loop(header, body(to), false, null));
+                        return;
+                    }
+                    case "do" -> {
+                        pos++;
+                        List<Stmt> body = body(to);
+                        String condition = "";
+                        if (pos < to && tokens.get(pos).text().equals("while")) {
+                            pos++;
+                            condition = paren(to);
+                            if (pos < to && isOp(tokens.get(pos), ";")) pos++;
+                        }
+                        out.add(new Loop("while (" + condition + ")", body, true, null));
+                        return;
+                    }
+                    case "switch" -> {
+                        pos++;
+                        String header = "switch (" + paren(to) + ")";
+                        List<Case> cases = new ArrayList<>();
+                        if (pos < to && isOp(tokens.get(pos), "{")) {
+                            int close = closeOf(pos, to);
+                            cases = cases(pos + 1, close);
+                            pos = Math.min(close + 1, to);
+                        }
+                        out.add(new Switch(header, cases));
+                        return;
+                    }
+                    case "try" -> {
+                        out.add(tryStatement(to));
+                        return;
+                    }
+                    case "return" -> {
+                        out.add(jump(JumpKind.RETURN, to));
+                        return;
+                    }
+                    case "throw" -> {
+                        out.add(jump(JumpKind.THROW, to));
+                        return;
+                    }
+                    case "break" -> {
+                        out.add(jump(JumpKind.BREAK, to));
+                        return;
+                    }
+                    case "continue" -> {
+                        out.add(jump(JumpKind.CONTINUE, to));
+                        return;
+                    }
+                    case "synchronized" -> {
+                        if (language == Language.JAVA && pos + 1 < to && isOp(tokens.get(pos + 1), "(")) {
+                            pos++;
+                            out.add(new Simple("synchronized (" + paren(to) + ")", false));
+                            out.addAll(body(to));
+                            return;
+                        }
+                    }
+                    default -> {
+                        // etiket: outer: for (...)
+                        if (pos + 1 < to && isOp(tokens.get(pos + 1), ":") && !t.text().equals("default")
+                                && !t.text().equals("case")) {
+                            pos += 2;
+                            return;
+                        }
+                    }
+                }
+            }
+            out.add(simple(to));
+        }
+
+        private If ifStatement(int to) {
+            List<Branch> branches = new ArrayList<>();
+            List<Stmt> otherwise = null;
+            pos++;
+            String condition = paren(to);
+            branches.add(new Branch(condition, body(to)));
+
+            while (pos < to && isKeyword(tokens.get(pos), "else")) {
+                pos++;
+                if (pos < to && isKeyword(tokens.get(pos), "if")) {
+                    pos++;
+                    condition = paren(to);
+                    branches.add(new Branch(condition, body(to)));
+                } else {
+                    otherwise = body(to);
+                    break;
+                }
+            }
+            return new If(branches, otherwise);
+        }
+
+        private Try tryStatement(int to) {
+            pos++;
+            if (pos < to && isOp(tokens.get(pos), "(")) paren(to); // try-with-resources
+            List<Stmt> body = body(to);
+
+            List<Handler> handlers = new ArrayList<>();
+            while (pos < to && isKeyword(tokens.get(pos), "catch")) {
+                pos++;
+                String label = pos < to && isOp(tokens.get(pos), "(") ? "catch (" + paren(to) + ")" : "catch";
+                handlers.add(new Handler(label, body(to)));
+            }
+            List<Stmt> finallyBody = null;
+            if (pos < to && isKeyword(tokens.get(pos), "finally")) {
+                pos++;
+                finallyBody = body(to);
+            }
+            return new Try(body, handlers, finallyBody);
+        }
+
+        private List<Case> cases(int from, int to) {
+            List<Case> cases = new ArrayList<>();
+            pos = from;
+            while (pos < to) {
+                Token t = tokens.get(pos);
+                if (!isCaseLabel(t)) {
+                    statement(new ArrayList<>(), to); // case öncesi (bozuk kod) atlanır
+                    continue;
+                }
+
+                pos++;
+                int start = pos;
+                while (pos < to && !isOp(tokens.get(pos), ":") && !isOp(tokens.get(pos), "->")) {
+                    pos = skipGroup(pos, to);
+                }
+                String label = t.text().equals("default") ? "default" : text(start, pos);
+                boolean arrow = pos < to && isOp(tokens.get(pos), "->");
+                pos = Math.min(pos + 1, to);
+
+                List<Stmt> body = new ArrayList<>();
+                if (arrow) {
+                    if (pos < to) statement(body, to);
+                } else {
+                    while (pos < to && !isCaseLabel(tokens.get(pos))) statement(body, to);
+                }
+                cases.add(new Case(label, body, !arrow));
+            }
+            return cases;
+        }
+
+        private Jump jump(JumpKind kind, int to) {
+            int start = pos;
+            int end = statementEnd(to);
+            pos = end;
+            int textEnd = end > start && isOp(tokens.get(end - 1), ";") ? end - 1 : end;
+            return new Jump(kind, text(start, textEnd));
+        }
+
+        private Simple simple(int to) {
+            int start = pos;
+            int end = statementEnd(to);
+            pos = end;
+            int textEnd = end > start + 1 && isOp(tokens.get(end - 1), ";") ? end - 1 : end;
+            return new Simple(text(start, textEnd), hasCall(tokens, start, end));
+        }
+
+        // Tek ifade: blok ise içindekiler, değilse bir ifade
+        private List<Stmt> body(int to) {
+            List<Stmt> body = new ArrayList<>();
+            if (pos < to) statement(body, to);
+            return body;
+        }
+
+        // '(' ... ')' arası metin; pos kapanıştan sonrasına geçer
+        private String paren(int to) {
+            if (pos >= to || !isOp(tokens.get(pos), "(")) return "";
+            int close = closeOf(pos, to);
+            String text = text(pos + 1, close);
+            pos = Math.min(close + 1, to);
+            return text;
+        }
+
+        // ';' ile (JS'de satır sonunda da) biten ifadenin sonu; parantez/süslü gruplar atlanır
+        private int statementEnd(int to) {
+            int i = pos;
+            int square = 0;
+            while (i < to) {
+                Token t = tokens.get(i);
+                if (i > pos && language == Language.JAVASCRIPT && square == 0 && automaticSemicolon(i)) {
+                    return i;
+                }
+                if (t.kind() == Kind.OP) {
+                    if (t.text().equals(";") && square == 0) return i + 1;
+                    if (t.text().equals("(") || t.text().equals("{")) {
+                        i = closeOf(i, to) + 1;
+                        continue;
+                    }
+                    if (t.text().equals("[")) square++;
+                    if (t.text().equals("]")) square--;
+                }
+                i++;
+            }
+            return to;
+        }
+
+        // JS: değerle biten satırdan sonra yeni satır bir kelimeyle başlıyorsa ifade biter
+        private boolean automaticSemicolon(int i) {
+            Token t = tokens.get(i);
+            Token prev = tokens.get(i - 1);
+            if (t.line() <= prev.line() || t.kind() == Kind.OP) return false;
+            return prev.kind() != Kind.OP || Set.of(")", "]", "}", "++", "--").contains(prev.text());
+        }
+
+        private int skipGroup(int i, int to) {
+            if (isOp(tokens.get(i), "(") || isOp(tokens.get(i), "{")) return closeOf(i, to) + 1;
+            return i + 1;
+        }
+
+        private int closeOf(int open, int to) {
+            int close = match[open];
+            return close < 0 || close > to ? to : close;
+        }
+
+        private String text(int from, int to) {
+            return sourceText(source, tokens, match, from, Math.min(to, tokens.size()));
+        }
+
+        private static boolean isCaseLabel(Token t) {
+            return isKeyword(t, "case") || isKeyword(t, "default");
+        }
+
+        private static boolean isKeyword(Token t, String keyword) {
+            return t.kind() == Kind.IDENT && t.text().equals(keyword);
+        }
+    }
+
+    // ==================== PYTHON ====================
+
+    private final class PythonParser {
+        private final String source;
+        private final List<Token> tokens = new ArrayList<>();
+        // mantıksal satırlar: {ilk token, son token + 1, girinti}
+        private final List<int[]> lines = new ArrayList<>();
+        private final List<Flow> functions = new ArrayList<>();
+        private int li;
+        private int nesting;
+
+        PythonParser(String source) {
+            this.source = source;
+            List<PyToken> pyTokens = analyzer.lexPython(source);
+            for (int i = 0; i < pyTokens.size(); i++) {
+                PyToken pt = pyTokens.get(i);
+                tokens.add(pt.token());
+                if (pt.indent() >= 0) {
+                    if (!lines.isEmpty()) lines.get(lines.size() - 1)[1] = i;
+                    lines.add(new int[]{i, pyTokens.size(), pt.indent()});
+                }
+            }
+        }
+
+        List<Flow> flows() {
+            List<Stmt> module = suite(0);
+            List<Flow> flows = new ArrayList<>();
+            if (hasBranches(module)) {
+                flows.add(new Flow(CyclomaticComplexityAnalyzer.TOP_LEVEL, 1, (int) source.lines().count(), module));
+            }
+            functions.stream().filter(f -> f != null).forEach(flows::add);
+            return flows;
+        }
+
+        private List<Stmt> suite(int indent) {
+            List<Stmt> out = new ArrayList<>();
+            while (li < lines.size() && lines.get(li)[2] >= indent) {
+                statement(out);
+            }
+            return out;
+        }
+
+        private void statement(List<Stmt> out) {
+            if (nesting >= MAX_NESTING) {
+                // Çok derindeki satır ve aynı/daha içeri girintili devamı tek "…" düğümü
+                int indent = lines.get(li)[2];
+                int start = li;
+                while (li < lines.size() && lines.get(li)[2] >= indent) li++;
+                out.add(new Omitted(li - start));
+                return;
+            }
+            nesting++;
+            try {
+                compound(out);
+            } finally {
+                nesting--;
+            }
+        }
+
+        private void compound(List<Stmt> out) {
+            int[] line = lines.get(li);
+            int first = line[0];
+            Token t = tokens.get(first);
+
+            if (t.kind() == Kind.STRING && line[1] - first == 1) { // docstring
+                li++;
+                return;
+            }
+            if (isOp(t, "@")) { // dekoratör
+                li++;
+                return;
+            }
+
+            int keyword = t.text().equals("async") && first + 1 < line[1] ? first + 1 : first;
+            String kw = tokens.get(keyword).kind() == Kind.IDENT ? tokens.get(keyword).text() : "";
+            boolean compound = headerColon(keyword + 1, line[1]) >= 0;
+
+            switch (kw) {
+                case "if" -> {
+                    if (compound) {
+                        out.add(ifStatement(keyword, line[2]));
+                        return;
+                    }
+                }
+                case "for", "while" -> {
+                    if (compound) {
+                        Clause clause = clause(keyword);
+                        List<Stmt> otherwise = continues(line[2], "else") ? clause(lines.get(li)[0]).body : null;
+                        out.add(new Loop(kw + " " + clause.header, clause.body, false, otherwise));
+                        return;
+                    }
+                }
+                case "try" -> {
+                    if (compound) {
+                        out.add(tryStatement(keyword, line[2]));
+                        return;
+                    }
+                }
+                case "with" -> {
+                    if (compound) {
+                        int colon = headerColon(keyword + 1, line[1]);
+                        boolean call = hasCall(tokens, keyword, colon);
+                        Clause clause = clause(keyword);
+                        out.add(new Simple("with " + clause.header, call));
+                        out.addAll(clause.body);
+                        return;
+                    }
+                }
+                case "match" -> {
+                    if (compound && isOp(tokens.get(line[1] - 1), ":")) {
+                        out.add(matchStatement(keyword, line[2]));
+                        return;
+                    }
+                }
+                case "def", "class" -> {
+                    if (compound) {
+                        out.add(definition(keyword, kw));
+                        return;
+                    }
+                }
+                case "return" -> {
+                    out.add(new Jump(JumpKind.RETURN, text(first, line[1])));
+                    li++;
+                    return;
+                }
+                case "raise" -> {
+                    out.add(new Jump(JumpKind.THROW, text(first, line[1])));
+                    li++;
+                    return;
+                }
+                case "break" -> {
+                    out.add(new Jump(JumpKind.BREAK, "break"));
+                    li++;
+                    return;
+                }
+                case "continue" -> {
+                    out.add(new Jump(JumpKind.CONTINUE, "continue"));
+                    li++;
+                    return;
+                }
+                case "pass" -> {
+                    li++;
+                    return;
+                }
+                case "elif", "else", "except", "finally", "case" -> {
+                    // Başlığı olmayan devam satırı (bozuk girinti): gövdesiyle birlikte atlanır
+                    if (compound) {
+                        clause(keyword);
+                        return;
+                    }
+                }
+                default -> {
+                }
+            }
+            out.add(new Simple(text(first, line[1]), hasCall(tokens, first, line[1])));
+            li++;
+        }
+
+        private If ifStatement(int keyword, int indent) {
+            List<Branch> branches = new ArrayList<>();
+            Clause clause = clause(keyword);
+            branches.add(new Branch(clause.header, clause.body));
+
+            List<Stmt> otherwise = null;
+            while (true) {
+                if (continues(indent, "elif")) {
+                    clause = clause(lines.get(li)[0]);
+                    branches.add(new Branch(clause.header, clause.body));
+                } else if (continues(indent, "else")) {
+                    otherwise = clause(lines.get(li)[0]).body;
+                    break;
+                } else {
+                    break;
+                }
+            }
+            return new If(branches, otherwise);
+        }
+
+        private Try tryStatement(int keyword, int indent) {
+            List<Stmt> body = new ArrayList<>(clause(keyword).body);
+            List<Handler> handlers = new ArrayList<>();
+            List<Stmt> finallyBody = null;
+
+            while (true) {
+                if (continues(indent, "except")) {
+                    Clause clause = clause(lines.get(li)[0]);
+                    handlers.add(new Handler(clause.header.isEmpty() ? "except" : "except " + clause.header, clause.body));
+                } else if (continues(indent, "else")) {
+                    body.addAll(clause(lines.get(li)[0]).body); // hata yoksa try'dan sonra çalışır
+                } else if (continues(indent, "finally")) {
+                    finallyBody = clause(lines.get(li)[0]).body;
+                    break;
+                } else {
+                    break;
+                }
+            }
+            return new Try(body, handlers, finallyBody);
+        }
+
+        private Switch matchStatement(int keyword, int indent) {
+            int[] line = lines.get(li);
+            String header = "match " + text(keyword + 1, line[1] - 1);
+            li++;
+
+            List<Case> cases = new ArrayList<>();
+            if (li < lines.size() && lines.get(li)[2] > indent) {
+                int caseIndent = lines.get(li)[2];
+                while (li < lines.size() && lines.get(li)[2] >= caseIndent) {
+                    int first = lines.get(li)[0];
+                    if (lines.get(li)[2] == caseIndent && tokens.get(first).text().equals("case")) {
+                        Clause clause = clause(first);
+                        cases.add(new Case(clause.header, clause.body, false));
+                    } else {
+                        li++;
+                    }
+                }
+            }
+            return new Switch(header, cases);
+        }
+
+        // İç içe def/class: kendi akışı ayrıca çizilir, bulunduğu yerde tek düğüm
+        private Simple definition(int keyword, String kw) {
+            Token name = keyword + 1 < tokens.size() ? tokens.get(keyword + 1) : tokens.get(keyword);
+            int slot = -1;
+            if (kw.equals("def")) {
+                slot = functions.size();
+                functions.add(null); // kaynak sırası korunsun diye yer ayrılır
+            }
+            int startLine = tokens.get(keyword).line();
+            Clause clause = clause(keyword);
+            if (slot >= 0) {
+                int endLine = tokens.get(lines.get(li - 1)[1] - 1).line();
+                functions.set(slot, new Flow(name.text(), startLine, endLine, clause.body));
+            }
+            return new Simple(kw + " " + clause.header, false);
+        }
+
+        private record Clause(String header, List<Stmt> body) {
+        }
+
+        // "kw başlık:" satırı ve gövdesi (aynı satırda ya da daha içeride girintili)
+        private Clause clause(int keyword) {
+            int[] line = lines.get(li);
+            int colon = headerColon(keyword + 1, line[1]);
+            String header = text(keyword + 1, colon < 0 ? line[1] : colon);
+            li++;
+
+            List<Stmt> body = new ArrayList<>();
+            if (colon >= 0 && colon + 1 < line[1]) {
+                Stmt inline = inline(colon + 1, line[1]);
+                if (inline != null) body.add(inline);
+            } else if (li < lines.size() && lines.get(li)[2] > line[2]) {
+                body = suite(lines.get(li)[2]);
+            }
+            return new Clause(header, body);
+        }
+
+        private Stmt inline(int from, int to) {
+            String kw = tokens.get(from).text();
+            return switch (kw) {
+                case "return" -> new Jump(JumpKind.RETURN, text(from, to));
+                case "raise" -> new Jump(JumpKind.THROW, text(from, to));
+                case "break" -> new Jump(JumpKind.BREAK, "break");
+                case "continue" -> new Jump(JumpKind.CONTINUE, "continue");
+                case "pass" -> null;
+                default -> new Simple(text(from, to), hasCall(tokens, from, to));
+            };
+        }
+
+        private boolean continues(int indent, String keyword) {
+            if (li >= lines.size() || lines.get(li)[2] != indent) return false;
+            Token first = tokens.get(lines.get(li)[0]);
+            return first.kind() == Kind.IDENT && first.text().equals(keyword);
+        }
+
+        // Başlığı bitiren ':' (parantez içi, lambda ve := hariç)
+        private int headerColon(int from, int to) {
+            int depth = 0;
+            int lambdas = 0;
+            for (int i = from; i < to; i++) {
+                Token t = tokens.get(i);
+                if (t.kind() == Kind.IDENT && t.text().equals("lambda") && depth == 0) lambdas++;
+                if (t.kind() != Kind.OP) continue;
+                switch (t.text()) {
+                    case "(", "[", "{" -> depth++;
+                    case ")", "]", "}" -> depth--;
+                    case ":" -> {
+                        if (depth != 0) continue;
+                        if (lambdas > 0) lambdas--;
+                        else if (!(i + 1 < to && isOp(tokens.get(i + 1), "="))) return i;
+                    }
+                    default -> {
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private String text(int from, int to) {
+            return sourceText(source, tokens, null, from, to);
+        }
+    }
+}
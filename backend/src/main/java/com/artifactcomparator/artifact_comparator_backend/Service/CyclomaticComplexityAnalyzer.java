@@ -0,0 +1,794 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisResponse;
+import com.artifactcomparator.artifact_comparator_backend.DTO.ComplexityMetric;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * In-process McCabe complexity for Java, Python, JavaScript/TypeScript and
+ * C/C++: the source is tokenized (comments and literals skipped), split into
+ * functions and every decision point (if, loops, case, catch, &&, ||,
+ * ternary; elif/except/and/or in Python) is counted per function.
+ * Deterministic and fast; languages it cannot recognise go to Gemini.
+ */
+@Service
+public class CyclomaticComplexityAnalyzer {
+
+    public enum Language { JAVA, PYTHON, JAVASCRIPT, C_CPP }
+
+    static final String TOP_LEVEL = "(top-level code)";
+
+    private static final Map<String, Language> EXTENSIONS = Map.ofEntries(
+            Map.entry("java", Language.JAVA),
+            Map.entry("py", Language.PYTHON),
+            Map.entry("js", Language.JAVASCRIPT), Map.entry("jsx", Language.JAVASCRIPT),
+            Map.entry("mjs", Language.JAVASCRIPT), Map.entry("cjs", Language.JAVASCRIPT),
+            Map.entry("ts", Language.JAVASCRIPT), Map.entry("tsx", Language.JAVASCRIPT),
+            Map.entry("c", Language.C_CPP), Map.entry("h", Language.C_CPP),
+            Map.entry("cpp", Language.C_CPP), Map.entry("cc", Language.C_CPP),
+            Map.entry("cxx", Language.C_CPP), Map.entry("hpp", Language.C_CPP),
+            Map.entry("hh", Language.C_CPP));
+
+    private static final Map<String, Language> NAMES = Map.of(
+            "java", Language.JAVA, "python", Language.PYTHON,
+            "javascript", Language.JAVASCRIPT, "typescript", Language.JAVASCRIPT,
+            "c", Language.C_CPP, "cpp", Language.C_CPP, "c++", Language.C_CPP);
+
+    private static final Pattern C_INCLUDE = Pattern.compile("(?m)^\\s*#\\s*include\\b");
+    private static final Pattern JAVA_HINT = Pattern.compile(
+            "(?m)^\\s*(package [\\w.]+;|import java\\.|(public|private|protected)\\s+(static\\s+)?(final\\s+)?(class|interface|enum|record|[\\w<>\\[\\],\\s]+\\s\\w+\\s*\\())");
+    private static final Pattern PYTHON_HINT = Pattern.compile("(?m)^\\s*(async\\s+)?def\\s+\\w+\\s*\\(.*\\)\\s*(->\\s*[^:]+)?:\\s*(#.*)?$");
+    private static final Pattern JS_HINT = Pattern.compile(
+            "(?m)(\\bfunction\\s*\\w*\\s*\\(|=>|^\\s*(const|let|var)\\s+\\w+\\s*=|\\brequire\\(|^\\s*export\\s|console\\.log)");
+
+    // Parantezli blok açan ama fonksiyon olmayan anahtar kelimeler
+    private static final Set<String> NOT_FUNCTION_NAMES = Set.of(
+            "if", "for", "while", "switch", "catch", "with", "synchronized", "try", "return",
+            "typeof", "sizeof", "foreach", "constexpr", "new", "throw", "else", "do", "case",
+            "await", "yield", "super", "this", "function");
+    private static final Set<String> NOT_FUNCTION_BEFORE_NAME = Set.of(
+            "new", ".", "@", "record", "class", "struct", "interface", "enum", "extends", "implements",
+            "return", "throw", "case", "else", "?.");
+    private static final Set<String> TRAILER_OPS = Set.of(
+            ".", ",", "<", ">", "?", ":", "::", "->", "&", "*", "[", "]", "|");
+
+    private static final int MAX_TRAILER_TOKENS = 48;
+
+    private static final Set<String> BRACE_DECISIONS = Set.of("if", "for", "while", "case", "catch", "&&", "||");
+    private static final Set<String> PYTHON_DECISIONS = Set.of("if", "elif", "for", "while", "except", "and", "or");
+
+    private static final String[] OPERATORS = {
+            "&&", "||", "??", "?.", "->", "=>", "::", "==", "!=", "<=", ">=", "+=", "-=", "++", "--", "..."};
+
+    enum Kind { IDENT, NUMBER, STRING, OP }
+
+    record Token(Kind kind, String text, int line, int offset) {
+    }
+
+    /**
+     * Analyzes the request natively when its language is supported, taken
+     * from the language field, the file extension or, failing both, the code
+     * itself. Empty means "not supported here", i.e. ask Gemini.
+     */
+    public Optional<CodeAnalysisResponse> analyze(String code, String fileName, String language) {
+        return detectLanguage(code, fileName, language).map(lang -> analyze(code, lang));
+    }
+
+    Optional<Language> detectLanguage(String code, String fileName, String language) {
+        if (language != null && !language.isBlank()) {
+            return Optional.ofNullable(NAMES.get(language.trim().toLowerCase(Locale.ROOT)));
+        }
+        if (fileName != null && fileName.contains(".")) {
+            String ext = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+            return Optional.ofNullable(EXTENSIONS.get(ext));
+        }
+        // Dosya adı yoksa koddan tahmin; emin olunamazsa Gemini'ye bırakılır
+        if (C_INCLUDE.matcher(code).find()) return Optional.of(Language.C_CPP);
+        if (PYTHON_HINT.matcher(code).find() && !code.contains("{")) return Optional.of(Language.PYTHON);
+        if (JAVA_HINT.matcher(code).find()) return Optional.of(Language.JAVA);
+        if (PYTHON_HINT.matcher(code).find()) return Optional.of(Language.PYTHON);
+        if (JS_HINT.matcher(code).find()) return Optional.of(Language.JAVASCRIPT);
+        return Optional.empty();
+    }
+
+    CodeAnalysisResponse analyze(String code, Language language) {
+        List<Unit> units = language == Language.PYTHON
+                ? pythonUnits(lexPython(code))
+                : braceUnits(lexBraces(code, language), language);
+
+        List<ComplexityMetric> methods = new ArrayList<>();
+        int overall = 0;
+        int decisions = 0;
+        int functions = 0;
+
+        for (Unit unit : units) {
+            boolean topLevel = unit.name.equals(TOP_LEVEL);
+            // Fonksiyon dışı kod yalnızca karar noktası varsa listelenir
+            if (topLevel && unit.decisions.isEmpty()) continue;
+            if (!topLevel) functions++;
+
+            int complexity = 1 + unit.decisions.size();
+            overall += complexity;
+            decisions += unit.decisions.size();
+
+            ComplexityMetric metric = new ComplexityMetric();
+            metric.setMethodName(unit.name);
+            metric.setComplexity(complexity);
+            metric.setStartLine(unit.startLine);
+            metric.setEndLine(unit.endLine);
+            metric.setDecisionPoints(unit.decisions);
+            metric.setCalculation("1 base + " + unit.decisions.size() + " decision points = " + complexity);
+            metric.setRiskLevel(ComplexityMetric.riskLevelFor(complexity));
+            methods.add(metric);
+        }
+
+        List<Map<String, Object>> complexMethods = new ArrayList<>();
+        for (ComplexityMetric metric : methods) {
+            if (metric.getComplexity() > 10) {
+                Map<String, Object> complex = new HashMap<>();
+                complex.put("methodName", metric.getMethodName());
+                complex.put("complexity", metric.getComplexity());
+                complex.put("decisionPoints", metric.getDecisionPoints());
+                complexMethods.add(complex);
+            }
+        }
+
+        CodeAnalysisResponse response = new CodeAnalysisResponse();
+        response.setOverallComplexity(Math.max(1, overall));
+        response.setTotalLines(code.isEmpty() ? 0 : (int) code.lines().count());
+        response.setNumberOfMethods(functions);
+        response.setAverageComplexity(methods.isEmpty() ? 1.0
+                : Math.round(overall * 100.0 / methods.size()) / 100.0);
+        response.setMethods(methods);
+        response.setComplexMethods(complexMethods);
+        response.setCalculation(decisions + " decision points + " + methods.size() + " methods = " + overall);
+        response.setAnalyzer("native");
+        return response;
+    }
+
+    static final class Unit {
+        final String name;
+        final int startLine;
+        int endLine;
+        // Süslü parantezli dillerde gövdenin '{' ve '}' token index'leri
+        int bodyStart = -1;
+        int bodyEnd = -1;
+        final List<String> decisions = new ArrayList<>();
+
+        Unit(String name, int startLine) {
+            this.name = name;
+            this.startLine = startLine;
+            this.endLine = startLine;
+        }
+    }
+
+    // ==================== BRACE LANGUAGES ====================
+
+    List<Unit> braceUnits(List<Token> tokens, Language language) {
+        int[] match = matchBrackets(tokens);
+        List<Unit> units = new ArrayList<>();
+        Unit topLevel = new Unit(TOP_LEVEL, 1);
+        units.add(topLevel);
+
+        // Her '{' için: fonksiyon gövdesiyse Unit, değilse null
+        Deque<Unit> frames = new ArrayDeque<>();
+        Deque<Unit> functions = new ArrayDeque<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            Unit current = functions.isEmpty() ? topLevel : functions.peek();
+
+            if (token.kind == Kind.OP && token.text.equals("{")) {
+                boolean directlyInFunction = !frames.isEmpty() && frames.peek() != topLevel;
+                Token name = functionName(tokens, i, match, language);
+                // C/C++ ve Java'da fonksiyon içinde fonksiyon olmaz → makro döngüsü vb.
+                if (name != null && !(directlyInFunction && language != Language.JAVASCRIPT)) {
+                    Unit unit = new Unit(name.text, name.line);
+                    unit.bodyStart = i;
+                    units.add(unit);
+                    frames.push(unit);
+                    functions.push(unit);
+                } else {
+                    frames.push(topLevel); // sıradan blok
+                }
+                continue;
+            }
+            if (token.kind == Kind.OP && token.text.equals("}")) {
+                if (!frames.isEmpty()) {
+                    Unit closed = frames.pop();
+                    if (closed != topLevel) {
+                        closed.endLine = token.line;
+                        closed.bodyEnd = i;
+                        functions.pop();
+                    }
+                }
+                continue;
+            }
+
+            String decision = braceDecision(tokens, i);
+            if (decision != null) {
+                current.decisions.add(decision + " (line " + token.line + ")");
+            }
+        }
+        return units;
+    }
+
+    private String braceDecision(List<Token> tokens, int i) {
+        Token token = tokens.get(i);
+        if (token.kind == Kind.STRING || token.kind == Kind.NUMBER) return null;
+        if (BRACE_DECISIONS.contains(token.text)) {
+            // obj.if / obj.for gibi property erişimleri karar değil
+            if (token.kind == Kind.IDENT && i > 0 && isOp(tokens.get(i - 1), ".")) return null;
+            return token.text;
+        }
+        if (token.kind == Kind.OP && token.text.equals("?")) {
+            Token next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+            // TS opsiyonel alan (x?: T, x?) ve Java wildcard (<?>, ? extends) ternary değil
+            if (next == null || isOp(next, ":") || isOp(next, ")") || isOp(next, ",") || isOp(next, ">")
+                    || isOp(next, "=") || next.text.equals("extends") || next.text.equals("super")) {
+                return null;
+            }
+            return "ternary";
+        }
+        return null;
+    }
+
+    /** Name token of the function whose body starts at the brace, or null for any other block. */
+    private Token functionName(List<Token> tokens, int brace, int[] match, Language language) {
+        int i = brace - 1;
+        if (i < 0) return null;
+
+        if (isOp(tokens.get(i), "=>")) {
+            return language == Language.JAVASCRIPT ? arrowName(tokens, i, match) : null;
+        }
+
+        i = skipTrailer(tokens, i);
+
+        // C++ kurucu, init listesi süslü parantezle bitiyorsa: Foo(int n) : a(n), b{n} {
+        if (language == Language.C_CPP && i >= 0 && isOp(tokens.get(i), "}")) {
+            int open = match[i];
+            if (open < 2 || tokens.get(open - 1).kind != Kind.IDENT) return null;
+            int colon = initListColon(tokens, open - 2, match);
+            if (colon < 0) return null;
+            i = skipTrailer(tokens, colon - 1);
+        }
+
+        while (i >= 0 && isOp(tokens.get(i), ")")) {
+            int open = match[i];
+            if (open <= 0) return null;
+            // foo<T>(x) {  → tip parametreleri atlanır
+            int nameIndex = skipTypeParameters(tokens, open - 1);
+            if (nameIndex < 0) return null;
+            Token before = tokens.get(nameIndex);
+
+            // C++: f() throw() / noexcept(true) {  → asıl imza daha geride
+            if (before.text.equals("throw") || before.text.equals("noexcept")) {
+                i = skipTrailer(tokens, open - 2);
+                continue;
+            }
+            if (language == Language.JAVASCRIPT && before.text.equals("function")) {
+                return assignedName(tokens, nameIndex);
+            }
+            if (before.kind != Kind.IDENT || NOT_FUNCTION_NAMES.contains(before.text)) return null;
+
+            Token prev = nameIndex >= 1 ? tokens.get(nameIndex - 1) : null;
+            if (prev != null && NOT_FUNCTION_BEFORE_NAME.contains(prev.text)) return null;
+
+            // C++ kurucu: Foo(int x) : a(x), b(y) {  → init listesini atla
+            if (language == Language.C_CPP && prev != null && prev.kind == Kind.OP
+                    && (prev.text.equals(",") || prev.text.equals(":"))) {
+                int colon = initListColon(tokens, nameIndex - 1, match);
+                if (colon < 0) return null;
+                i = skipTrailer(tokens, colon - 1);
+                continue;
+            }
+            return qualifiedName(tokens, nameIndex);
+        }
+        return null;
+    }
+
+    private int skipTypeParameters(List<Token> tokens, int i) {
+        if (i < 0 || !isOp(tokens.get(i), ">")) return i;
+        int depth = 0;
+        for (int j = i; j >= 0; j--) {
+            Token t = tokens.get(j);
+            if (isOp(t, ">")) depth++;
+            else if (isOp(t, "<") && --depth == 0) return j - 1;
+            else if (t.kind == Kind.OP && !t.text.equals(",") && !t.text.equals(".")
+                    && !t.text.equals("[") && !t.text.equals("]") && !t.text.equals("?")) return -1;
+        }
+        return -1;
+    }
+
+    // Kapanış parantezinden sonra gelebilecek ekler: throws X, const, override, : ReturnType, -> T
+    // Ek kısadır; sınırsız geri yürümek JSX metninde (<p>a b c {x}</p>) karesel maliyet demek
+    private int skipTrailer(List<Token> tokens, int i) {
+        int limit = i - MAX_TRAILER_TOKENS;
+        while (i >= 0) {
+            if (i < limit) return -1;
+            Token t = tokens.get(i);
+            if (t.kind == Kind.IDENT && !NOT_FUNCTION_NAMES.contains(t.text)) {
+                i--;
+            } else if (t.kind == Kind.OP && TRAILER_OPS.contains(t.text)) {
+                i--;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // ", b(y)" / ": a(x)" dizisinden geriye giderek imzadan sonraki ':' bulunur
+    private int initListColon(List<Token> tokens, int i, int[] match) {
+        while (i >= 0) {
+            Token t = tokens.get(i);
+            if (isOp(t, ":")) return i;
+            if (isOp(t, ")") || isOp(t, "}")) {
+                if (match[i] < 0) return -1;
+                i = match[i] - 1;
+            } else if (t.kind == Kind.IDENT || isOp(t, ",") || isOp(t, "::") || isOp(t, "<") || isOp(t, ">")) {
+                i--;
+            } else {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // Foo::bar / Foo::~Foo → tek isim
+    private Token qualifiedName(List<Token> tokens, int nameIndex) {
+        Token name = tokens.get(nameIndex);
+        StringBuilder text = new StringBuilder(name.text);
+        int j = nameIndex - 1;
+        if (j >= 0 && isOp(tokens.get(j), "~")) {
+            text.insert(0, "~");
+            j--;
+        }
+        while (j >= 1 && isOp(tokens.get(j), "::") && tokens.get(j - 1).kind == Kind.IDENT) {
+            text.insert(0, tokens.get(j - 1).text + "::");
+            j -= 2;
+        }
+        return new Token(Kind.IDENT, text.toString(), name.line, name.offset);
+    }
+
+    // const f = (a, b) => {  /  f = async x => {  /  f: (a): T => {
+    private Token arrowName(List<Token> tokens, int arrow, int[] match) {
+        int j = arrow - 1;
+        int k = skipTrailer(tokens, j);
+        if (k >= 0 && k < j && isOp(tokens.get(k), ")") && isOp(tokens.get(k + 1), ":")) {
+            j = k; // TS dönüş tipi: (a): T =>
+        }
+        if (isOp(tokens.get(j), ")")) {
+            if (match[j] < 0) return null;
+            j = match[j] - 1;
+        } else if (tokens.get(j).kind == Kind.IDENT) {
+            j--;
+        } else {
+            return null;
+        }
+        if (j >= 0 && tokens.get(j).text.equals("async")) j--;
+        if (j >= 1 && (isOp(tokens.get(j), "=") || isOp(tokens.get(j), ":"))
+                && tokens.get(j - 1).kind == Kind.IDENT) {
+            return tokens.get(j - 1);
+        }
+        return null; // isimsiz callback → içinde bulunduğu fonksiyona sayılır
+    }
+
+    // function foo(  /  foo = function(  /  export default function (
+    private Token assignedName(List<Token> tokens, int function) {
+        Token fn = tokens.get(function);
+        int j = function + 1;
+        if (j < tokens.size() && isOp(tokens.get(j), "*")) j++;
+        if (j < tokens.size() && tokens.get(j).kind == Kind.IDENT) {
+            return tokens.get(j);
+        }
+        j = function - 1;
+        if (j >= 0 && tokens.get(j).text.equals("async")) j--;
+        if (j >= 0 && tokens.get(j).text.equals("default")) {
+            return new Token(Kind.IDENT, "default", fn.line, fn.offset);
+        }
+        if (j >= 1 && (isOp(tokens.get(j), "=") || isOp(tokens.get(j), ":"))
+                && tokens.get(j - 1).kind == Kind.IDENT) {
+            return tokens.get(j - 1);
+        }
+        return null;
+    }
+
+    static int[] matchBrackets(List<Token> tokens) {
+        int[] match = new int[tokens.size()];
+        java.util.Arrays.fill(match, -1);
+        Deque<Integer> parens = new ArrayDeque<>();
+        Deque<Integer> braces = new ArrayDeque<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            Token t = tokens.get(i);
+            if (t.kind != Kind.OP) continue;
+            switch (t.text) {
+                case "(" -> parens.push(i);
+                case "{" -> braces.push(i);
+                case ")" -> {
+                    if (!parens.isEmpty()) link(match, parens.pop(), i);
+                }
+                case "}" -> {
+                    if (!braces.isEmpty()) link(match, braces.pop(), i);
+                }
+                default -> {
+                }
+            }
+        }
+        return match;
+    }
+
+    private static void link(int[] match, int open, int close) {
+        match[open] = close;
+        match[close] = open;
+    }
+
+    // ==================== PYTHON ====================
+
+    /** Python tokens; a token starting a logical line carries its indentation, others -1. */
+    record PyToken(Token token, int indent) {
+    }
+
+    List<Unit> pythonUnits(List<PyToken> tokens) {
+        List<Unit> units = new ArrayList<>();
+        Unit topLevel = new Unit(TOP_LEVEL, 1);
+        units.add(topLevel);
+
+        Deque<Unit> open = new ArrayDeque<>();
+        Deque<Integer> indents = new ArrayDeque<>();
+
+        for (int i = 0; i < tokens.size(); i++) {
+            PyToken pt = tokens.get(i);
+            Token token = pt.token;
+
+            // Girinti def satırına (veya daha sola) dönünce fonksiyon biter
+            if (pt.indent >= 0) {
+                while (!indents.isEmpty() && pt.indent <= indents.peek()) {
+                    indents.pop();
+                    open.pop();
+                }
+            }
+            for (Unit unit : open) {
+                unit.endLine = Math.max(unit.endLine, token.line);
+            }
+
+            if (token.kind == Kind.IDENT && token.text.equals("def")
+                    && i + 1 < tokens.size() && tokens.get(i + 1).token.kind == Kind.IDENT) {
+                Token name = tokens.get(i + 1).token;
+                Unit unit = new Unit(name.text, token.line);
+                units.add(unit);
+                open.push(unit);
+                indents.push(lineIndent(tokens, i));
+                continue;
+            }
+
+            String decision = pythonDecision(tokens, i);
+            if (decision != null) {
+                Unit current = open.isEmpty() ? topLevel : open.peek();
+                current.decisions.add(decision + " (line " + token.line + ")");
+            }
+        }
+        return units;
+    }
+
+    private String pythonDecision(List<PyToken> tokens, int i) {
+        Token token = tokens.get(i).token;
+        if (token.kind != Kind.IDENT) return null;
+        if (i > 0 && isOp(tokens.get(i - 1).token, ".")) return null;
+        if (PYTHON_DECISIONS.contains(token.text)) return token.text;
+        // match/case: "case" yalnızca satır başında ve atama değilse anahtar kelime
+        if (token.text.equals("case") && tokens.get(i).indent >= 0 && i + 1 < tokens.size()) {
+            Token next = tokens.get(i + 1).token;
+            boolean assignment = next.kind == Kind.OP
+                    && (next.text.endsWith("=") && !next.text.equals("==") || next.text.equals(".")
+                    || next.text.equals(",") || next.text.equals(")") || next.text.equals(":"));
+            return assignment ? null : "case";
+        }
+        return null;
+    }
+
+    // "async def" / dekoratörsüz def: satırın başındaki token'ın girintisi
+    private int lineIndent(List<PyToken> tokens, int i) {
+        for (int j = i; j >= 0; j--) {
+            if (tokens.get(j).indent >= 0) return tokens.get(j).indent;
+        }
+        return 0;
+    }
+
+    List<PyToken> lexPython(String src) {
+        List<PyToken> tokens = new ArrayList<>();
+        int line = 1;
+        int depth = 0;
+        boolean lineStart = true;
+        boolean continuation = false;
+        int indent = 0;
+        int n = src.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = src.charAt(i);
+
+            if (c == '\n') {
+                line++;
+                i++;
+                if (depth == 0 && !continuation) {
+                    lineStart = true;
+                    indent = 0;
+                }
+                continuation = false;
+                continue;
+            }
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\f') {
+                if (lineStart) indent += (c == '\t') ? 8 - indent % 8 : 1;
+                i++;
+                continue;
+            }
+            if (c == '\\' && i + 1 < n && (src.charAt(i + 1) == '\n' || src.charAt(i + 1) == '\r')) {
+                continuation = true;
+                i++;
+                continue;
+            }
+            if (c == '#') {
+                while (i < n && src.charAt(i) != '\n') i++;
+                continue;
+            }
+
+            int start = i;
+            int startLine = line;
+            Kind kind;
+
+            int quote = stringStart(src, i);
+            if (quote >= 0) {
+                i = quote;
+                char q = src.charAt(i);
+                boolean triple = i + 2 < n && src.charAt(i + 1) == q && src.charAt(i + 2) == q;
+                i += triple ? 3 : 1;
+                while (i < n) {
+                    char s = src.charAt(i);
+                    if (s == '\\') {
+                        if (i + 1 < n && src.charAt(i + 1) == '\n') line++;
+                        i += 2;
+                        continue;
+                    }
+                    if (s == '\n') {
+                        if (!triple) break;
+                        line++;
+                    }
+                    if (s == q && (!triple || i + 2 < n && src.charAt(i + 1) == q && src.charAt(i + 2) == q)) {
+                        i += triple ? 3 : 1;
+                        break;
+                    }
+                    i++;
+                }
+                kind = Kind.STRING;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                while (i < n && Character.isJavaIdentifierPart(src.charAt(i))) i++;
+                kind = Kind.IDENT;
+            } else if (Character.isDigit(c)) {
+                while (i < n && (Character.isLetterOrDigit(src.charAt(i)) || src.charAt(i) == '.' || src.charAt(i) == '_')) i++;
+                kind = Kind.NUMBER;
+            } else {
+                i += operatorLength(src, i);
+                kind = Kind.OP;
+                if (c == '(' || c == '[' || c == '{') depth++;
+                if ((c == ')' || c == ']' || c == '}') && depth > 0) depth--;
+            }
+
+            String text = src.substring(start, Math.min(i, n));
+            tokens.add(new PyToken(new Token(kind, text, startLine, start), lineStart ? indent : -1));
+            lineStart = false;
+        }
+        return tokens;
+    }
+
+    // f"..", rb'..', u".." gibi önekli string başlangıcı → tırnağın index'i
+    private static int stringStart(String src, int i) {
+        int j = i;
+        while (j < src.length() && j - i < 2 && "rRbBuUfF".indexOf(src.charAt(j)) >= 0) j++;
+        if (j < src.length() && (src.charAt(j) == '"' || src.charAt(j) == '\'')) return j;
+        return -1;
+    }
+
+    // ==================== C-LIKE LEXER ====================
+
+    List<Token> lexBraces(String src, Language language) {
+        List<Token> tokens = new ArrayList<>();
+        int line = 1;
+        int n = src.length();
+        int i = 0;
+        boolean lineHasCode = false;
+
+        while (i < n) {
+            char c = src.charAt(i);
+
+            if (c == '\n') {
+                line++;
+                i++;
+                lineHasCode = false;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                i++;
+                continue;
+            }
+            if (c == '/' && i + 1 < n && src.charAt(i + 1) == '/') {
+                while (i < n && src.charAt(i) != '\n') i++;
+                continue;
+            }
+            if (c == '/' && i + 1 < n && src.charAt(i + 1) == '*') {
+                int end = src.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                line += count(src, i, end, '\n');
+                i = end;
+                continue;
+            }
+            // Önişlemci satırları (#if dahil) sayılmaz; '\' ile devam eden satırlar da atlanır
+            if (c == '#' && language == Language.C_CPP && !lineHasCode) {
+                while (i < n && src.charAt(i) != '\n') {
+                    if (src.charAt(i) == '\\' && i + 1 < n && src.charAt(i + 1) == '\n') {
+                        line++;
+                        i++;
+                    }
+                    i++;
+                }
+                continue;
+            }
+            lineHasCode = true;
+
+            int start = i;
+            int startLine = line;
+            Kind kind;
+
+            if (c == '"' && language == Language.JAVA && src.startsWith("\"\"\"", i)) {
+                int end = src.indexOf("\"\"\"", i + 3);
+                end = end < 0 ? n : end + 3;
+                line += count(src, i, end, '\n');
+                i = end;
+                kind = Kind.STRING;
+            } else if (c == 'R' && language == Language.C_CPP && i + 1 < n && src.charAt(i + 1) == '"') {
+                int paren = src.indexOf('(', i + 2);
+                String close = paren < 0 ? "\"" : ")" + src.substring(i + 2, paren) + "\"";
+                int end = src.indexOf(close, Math.max(i + 2, paren));
+                end = end < 0 ? n : end + close.length();
+                line += count(src, i, end, '\n');
+                i = end;
+                kind = Kind.STRING;
+            } else if (c == '"' || c == '\'') {
+                i = skipQuoted(src, i, c);
+                kind = Kind.STRING;
+            } else if (c == '`' && language == Language.JAVASCRIPT) {
+                int end = skipTemplate(src, i);
+                line += count(src, i, end, '\n');
+                i = end;
+                kind = Kind.STRING;
+            } else if (c == '/' && language == Language.JAVASCRIPT && regexAllowed(tokens)) {
+                i = skipRegex(src, i);
+                kind = Kind.STRING;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                while (i < n && Character.isJavaIdentifierPart(src.charAt(i))) i++;
+                kind = Kind.IDENT;
+            } else if (Character.isDigit(c) || c == '.' && i + 1 < n && Character.isDigit(src.charAt(i + 1))) {
+                while (i < n && (Character.isLetterOrDigit(src.charAt(i)) || src.charAt(i) == '.' || src.charAt(i) == '_'
+                        || src.charAt(i) == '\'' && language == Language.C_CPP)) i++;
+                kind = Kind.NUMBER;
+            } else {
+                i += operatorLength(src, i);
+                kind = Kind.OP;
+            }
+
+            tokens.add(new Token(kind, src.substring(start, Math.min(i, n)), startLine, start));
+        }
+        return tokens;
+    }
+
+    // Satır sonunda biten (kapanmamış) literal sonraki satırları bozmasın
+    private static int skipQuoted(String src, int i, char quote) {
+        int n = src.length();
+        i++;
+        while (i < n) {
+            char s = src.charAt(i);
+            if (s == '\\') {
+                i += 2;
+                continue;
+            }
+            if (s == quote) return i + 1;
+            if (s == '\n') return i;
+            i++;
+        }
+        return n;
+    }
+
+    // `...${ ifade }...`  — ifade içindeki '}' şablonu kapatmaz
+    private static int skipTemplate(String src, int i) {
+        int n = src.length();
+        int depth = 0;
+        i++;
+        while (i < n) {
+            char s = src.charAt(i);
+            if (s == '\\') {
+                i += 2;
+                continue;
+            }
+            if (depth == 0 && s == '`') return i + 1;
+            if (s == '$' && i + 1 < n && src.charAt(i + 1) == '{') {
+                depth++;
+                i += 2;
+                continue;
+            }
+            if (depth > 0 && s == '}') depth--;
+            i++;
+        }
+        return n;
+    }
+
+    // Önceki token bir değer değilse '/' bölme değil regex başlangıcıdır
+    private static boolean regexAllowed(List<Token> tokens) {
+        if (tokens.isEmpty()) return true;
+        Token prev = tokens.get(tokens.size() - 1);
+        return switch (prev.kind) {
+            case NUMBER, STRING -> false;
+            case IDENT -> Set.of("return", "typeof", "case", "do", "else", "in", "of", "new",
+                    "delete", "void", "throw", "instanceof", "yield", "await").contains(prev.text);
+            // "<" sonrası '/' → JSX kapanış etiketi (</div>)
+            case OP -> !prev.text.equals(")") && !prev.text.equals("]") && !prev.text.equals("}")
+                    && !prev.text.equals("++") && !prev.text.equals("--") && !prev.text.equals("<");
+        };
+    }
+
+    private static int skipRegex(String src, int i) {
+        int n = src.length();
+        boolean inClass = false;
+        i++;
+        while (i < n) {
+            char s = src.charAt(i);
+            if (s == '\\') {
+                i += 2;
+                continue;
+            }
+            if (s == '\n') return i;
+            if (s == '[') inClass = true;
+            else if (s == ']') inClass = false;
+            else if (s == '/' && !inClass) {
+                i++;
+                while (i < n && Character.isLetter(src.charAt(i))) i++;
+                return i;
+            }
+            i++;
+        }
+        return n;
+    }
+
+    private static int operatorLength(String src, int i) {
+        for (String op : OPERATORS) {
+            if (src.startsWith(op, i)) {
+                // a?.5:1 → ternary + sayı, optional chaining değil
+                if (op.equals("?.") && i + 2 < src.length() && Character.isDigit(src.charAt(i + 2))) continue;
+                return op.length();
+            }
+        }
+        return 1;
+    }
+
+    private static int count(String src, int from, int to, char c) {
+        int count = 0;
+        for (int i = from; i < to && i < src.length(); i++) {
+            if (src.charAt(i) == c) count++;
+        }
+        return count;
+    }
+
+    static boolean isOp(Token token, String text) {
+        return token.kind == Kind.OP && token.text.equals(text);
+    }
+}
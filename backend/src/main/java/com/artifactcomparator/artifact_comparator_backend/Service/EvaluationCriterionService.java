@@ -14,10 +14,14 @@ public class EvaluationCriterionService {
 
     private final EvaluationCriterionRepository repository;
     private final StudyService studyService;
+    private final ResultAggregateService resultAggregateService;
 
-    public EvaluationCriterionService(EvaluationCriterionRepository repository, StudyService studyService) {
+    public EvaluationCriterionService(EvaluationCriterionRepository repository,
+                                      StudyService studyService,
+                                      ResultAggregateService resultAggregateService) {
         this.repository = repository;
         this.studyService = studyService;
+        this.resultAggregateService = resultAggregateService;
     }
 
     public EvaluationCriterion createCriterion(Long studyId, CreateCriterionRequest req) {
@@ -79,7 +83,12 @@ public class EvaluationCriterionService {
         criterion.setStudy(study); // 🔥 ortak bağlantı
         criterion.setType(req.getType()); // 🔥 JSON polymorphism için gerekli
 
-        return repository.save(criterion);
+        EvaluationCriterion saved = repository.save(criterion);
+
+        // 📊 Criterion sırası değişti → answers[i] eşleşmesi için özetleri yeniden kur
+        resultAggregateService.rebuildStudy(studyId);
+
+        return saved;
     }
 
 
@@ -92,6 +101,9 @@ public class EvaluationCriterionService {
         EvaluationCriterion criterion = repository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Criterion not found"));
 
+        Long studyId = criterion.getStudy().getId();
         repository.delete(criterion);
+
+        resultAggregateService.rebuildStudy(studyId);
     }
 }
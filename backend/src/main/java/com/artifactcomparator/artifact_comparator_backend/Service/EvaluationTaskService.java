@@ -23,6 +23,7 @@ public class EvaluationTaskService {
     private final ParticipantTaskResponseRepository participantTaskResponseRepository;
     private final ReportRepository reportRepository;
     private final ResearcherActionLogRepository researcherActionLogRepository;
+    private final ResultAggregateService resultAggregateService;
 
 
     public EvaluationTaskService(
@@ -33,7 +34,8 @@ public class EvaluationTaskService {
             DeletedCommentLogRepository deletedCommentLogRepository,
             ParticipantTaskResponseRepository participantTaskResponseRepository,
             ReportRepository reportRepository,
-            ResearcherActionLogRepository researcherActionLogRepository
+            ResearcherActionLogRepository researcherActionLogRepository,
+            ResultAggregateService resultAggregateService
     ) {
         this.taskRepo = taskRepo;
         this.artifactRepo = artifactRepo;
@@ -43,6 +45,7 @@ public class EvaluationTaskService {
         this.participantTaskResponseRepository = participantTaskResponseRepository;
         this.reportRepository = reportRepository;
         this.researcherActionLogRepository = researcherActionLogRepository;
+        this.resultAggregateService = resultAggregateService;
     }
 
     /* ============================================================
@@ -93,6 +96,8 @@ public class EvaluationTaskService {
         if (req.getQuestionText() != null) task.setQuestionText(req.getQuestionText());
         if (req.getDescription() != null) task.setDescription(req.getDescription());
 
+        task.bumpResultsVersion();
+
         return taskRepo.save(task);
     }
 
@@ -142,12 +147,19 @@ public class EvaluationTaskService {
     /* ============================================================
                       NEW: UPDATE CORRECT ANSWERS
     ============================================================ */
+    @Transactional
     public EvaluationTask updateCorrectAnswers(Long taskId, List<CorrectAnswerEntry> answers) {
         EvaluationTask task = getTaskById(taskId);
 
         task.setCorrectAnswers(answers); // FULL REPLACE
+        task.bumpResultsVersion();
 
-        return taskRepo.save(task);
+        EvaluationTask saved = taskRepo.save(task);
+
+        // 📊 Doğru/yanlış sayıları correct answer'a bağlı → özeti yeniden hesapla
+        resultAggregateService.rebuildTask(saved.getId());
+
+        return saved;
     }
 
     public EvaluationTask createTaskBulk(
@@ -236,6 +248,9 @@ public class EvaluationTaskService {
         // 4️⃣ Participant responses
         participantTaskResponseRepository.deleteByTask(task);
 
+        // 📊 Sonuç özetleri
+        resultAggregateService.deleteForTask(task);
+
         // 5️⃣ Reports
         reportRepository.deleteByTaskId(task.getId());
 
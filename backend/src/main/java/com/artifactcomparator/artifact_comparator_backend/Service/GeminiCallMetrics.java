@@ -0,0 +1,275 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-caller latency, outcome, retry and token metrics of Gemini calls,
+ * registered in Micrometer (gemini.call.*, visible under /actuator/metrics)
+ * and summarized with an estimated cost for the admin panel. A call is one
+ * {@link GeminiClient} request including its retries and rate-limit wait.
+ */
+@Service
+public class GeminiCallMetrics {
+
+    public static final String OK = "ok";
+    public static final String TIMEOUT = "timeout";
+    public static final String RATE_LIMITED = "rate_limited";
+    public static final String UNAVAILABLE = "unavailable";
+    public static final String INVALID_RESPONSE = "invalid_response";
+    public static final String ERROR = "error";
+    public static final String CANCELLED = "cancelled";
+
+    static final String CALLS = "gemini.call.duration";
+    static final String TOKENS = "gemini.call.tokens";
+    static final String RETRIES = "gemini.call.retries";
+    static final String PARSE_FAILURES = "gemini.call.parse.failures";
+
+    private static final int SLOWEST_SHOWN = 10;
+
+    /** Token counts from a response's usageMetadata. */
+    public record Usage(long promptTokens, long responseTokens, long thoughtsTokens) {
+    }
+
+    /** One finished call, kept for the "slowest recent calls" list. */
+    public record CallSample(String caller, String outcome, long durationMs, long promptTokens,
+                             long responseTokens, int retries, LocalDateTime finishedAt) {
+    }
+
+    private final MeterRegistry registry;
+    private final double inputPricePerMillion;
+    private final double outputPricePerMillion;
+    private final int recentSize;
+    private final Deque<CallSample> recent = new ArrayDeque<>();
+
+    public GeminiCallMetrics(MeterRegistry registry,
+                             @Value("${gemini.metrics.input-price-per-million:0.10}") double inputPricePerMillion,
+                             @Value("${gemini.metrics.output-price-per-million:0.40}") double outputPricePerMillion,
+                             @Value("${gemini.metrics.recent-calls:200}") int recentSize) {
+        this.registry = registry;
+        this.inputPricePerMillion = inputPricePerMillion;
+        this.outputPricePerMillion = outputPricePerMillion;
+        this.recentSize = Math.max(0, recentSize);
+    }
+
+    public Call start(String caller) {
+        return new Call(caller);
+    }
+
+    /** The model answered but the caller could not use the text (invalid JSON, missing fields...). */
+    public void parseFailure(String caller) {
+        Counter.builder(PARSE_FAILURES)
+                .description("Gemini responses the caller could not parse")
+                .tag("caller", caller)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * An in-flight call. Usage may be set several times (stream chunks carry
+     * running totals); only the first {@link #finish} counts.
+     */
+    public final class Call {
+
+        private final String caller;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final AtomicInteger retries = new AtomicInteger();
+        private volatile Usage usage;
+
+        private Call(String caller) {
+            this.caller = caller;
+        }
+
+        public void usage(Usage usage) {
+            if (usage != null) this.usage = usage;
+        }
+
+        public void retried(String reason) {
+            retries.incrementAndGet();
+            Counter.builder(RETRIES)
+                    .description("Gemini attempts retried, by failure reason")
+                    .tag("caller", caller)
+                    .tag("reason", reason)
+                    .register(registry)
+                    .increment();
+        }
+
+        public void finish(String outcome) {
+            if (!finished.compareAndSet(false, true)) return;
+
+            long nanos = System.nanoTime() - startedAt;
+            Timer.builder(CALLS)
+                    .description("Gemini call latency including retries and rate-limit wait")
+                    .tag("caller", caller)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+
+            Usage tokens = usage;
+            if (tokens != null) {
+                tokens("prompt", tokens.promptTokens());
+                tokens("response", tokens.responseTokens());
+                tokens("thoughts", tokens.thoughtsTokens());
+            }
+
+            if (recentSize > 0) {
+                CallSample sample = new CallSample(caller, outcome, TimeUnit.NANOSECONDS.toMillis(nanos),
+                        tokens == null ? 0 : tokens.promptTokens(),
+                        tokens == null ? 0 : tokens.responseTokens() + tokens.thoughtsTokens(),
+                        retries.get(), LocalDateTime.now());
+                synchronized (recent) {
+                    if (recent.size() == recentSize) recent.removeFirst();
+                    recent.addLast(sample);
+                }
+            }
+        }
+
+        private void tokens(String type, long amount) {
+            DistributionSummary.builder(TOKENS)
+                    .description("Tokens per Gemini call from usageMetadata")
+                    .baseUnit("tokens")
+                    .tag("caller", caller)
+                    .tag("type", type)
+                    .register(registry)
+                    .record(amount);
+        }
+    }
+
+    /** Per-caller totals, latency percentiles, token usage, estimated cost and the slowest recent calls. */
+    public Map<String, Object> summary() {
+        Map<String, CallerSummary> callers = new TreeMap<>();
+
+        for (Timer timer : registry.find(CALLS).timers()) {
+            CallerSummary caller = callers.computeIfAbsent(timer.getId().getTag("caller"), k -> new CallerSummary());
+            String outcome = timer.getId().getTag("outcome");
+            caller.calls += timer.count();
+            caller.outcomes.put(outcome, timer.count());
+            caller.latencyMs.put(outcome, latency(timer));
+        }
+        for (DistributionSummary tokens : registry.find(TOKENS).summaries()) {
+            CallerSummary caller = callers.computeIfAbsent(tokens.getId().getTag("caller"), k -> new CallerSummary());
+            String type = tokens.getId().getTag("type");
+            caller.tokens.put(type, (long) tokens.totalAmount());
+            if ("prompt".equals(type)) caller.callsWithUsage = tokens.count();
+        }
+        for (Counter retries : registry.find(RETRIES).counters()) {
+            CallerSummary caller = callers.computeIfAbsent(retries.getId().getTag("caller"), k -> new CallerSummary());
+            caller.retries.put(retries.getId().getTag("reason"), (long) retries.count());
+        }
+        for (Counter failures : registry.find(PARSE_FAILURES).counters()) {
+            CallerSummary caller = callers.computeIfAbsent(failures.getId().getTag("caller"), k -> new CallerSummary());
+            caller.parseFailures += (long) failures.count();
+        }
+
+        long calls = 0, promptTokens = 0, outputTokens = 0;
+        double cost = 0;
+        Map<String, Object> perCaller = new LinkedHashMap<>();
+        for (Map.Entry<String, CallerSummary> entry : callers.entrySet()) {
+            CallerSummary caller = entry.getValue();
+            calls += caller.calls;
+            promptTokens += caller.prompt();
+            outputTokens += caller.output();
+            cost += caller.cost();
+            perCaller.put(entry.getKey(), caller.toMap());
+        }
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("calls", calls);
+        totals.put("promptTokens", promptTokens);
+        totals.put("outputTokens", outputTokens);
+        totals.put("estimatedCostUsd", round(cost));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("pricing", Map.of(
+                "inputPerMillionUsd", inputPricePerMillion,
+                "outputPerMillionUsd", outputPricePerMillion));
+        summary.put("totals", totals);
+        summary.put("callers", perCaller);
+        summary.put("slowestRecent", slowestRecent());
+        return summary;
+    }
+
+    private List<CallSample> slowestRecent() {
+        List<CallSample> samples;
+        synchronized (recent) {
+            samples = new ArrayList<>(recent);
+        }
+        samples.sort(Comparator.comparingLong(CallSample::durationMs).reversed());
+        return samples.subList(0, Math.min(SLOWEST_SHOWN, samples.size()));
+    }
+
+    // Yüzdelikler son ~2 dakikalık pencereden (Micrometer varsayılanı), ortalama tüm zamanlardan
+    private static Map<String, Object> latency(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("mean", Math.round(snapshot.mean(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            latency.put("p" + Math.round(percentile.percentile() * 100),
+                    Math.round(percentile.value(TimeUnit.MILLISECONDS)));
+        }
+        latency.put("max", Math.round(snapshot.max(TimeUnit.MILLISECONDS)));
+        return latency;
+    }
+
+    private static double round(double usd) {
+        return Math.round(usd * 10_000) / 10_000.0;
+    }
+
+    private final class CallerSummary {
+        long calls;
+        long callsWithUsage;
+        long parseFailures;
+        final Map<String, Long> outcomes = new TreeMap<>();
+        final Map<String, Object> latencyMs = new TreeMap<>();
+        final Map<String, Long> retries = new TreeMap<>();
+        final Map<String, Long> tokens = new TreeMap<>();
+
+        long prompt() {
+            return tokens.getOrDefault("prompt", 0L);
+        }
+
+        // Düşünme token'ları çıktı fiyatından ücretlendirilir
+        long output() {
+            return tokens.getOrDefault("response", 0L) + tokens.getOrDefault("thoughts", 0L);
+        }
+
+        double cost() {
+            return prompt() / 1_000_000.0 * inputPricePerMillion + output() / 1_000_000.0 * outputPricePerMillion;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("calls", calls);
+            map.put("outcomes", outcomes);
+            map.put("parseFailures", parseFailures);
+            map.put("retries", retries);
+            map.put("latencyMs", latencyMs);
+            map.put("tokens", tokens);
+            map.put("avgPromptTokens", callsWithUsage == 0 ? 0 : prompt() / callsWithUsage);
+            map.put("estimatedCostUsd", round(cost()));
+            return map;
+        }
+    }
+}
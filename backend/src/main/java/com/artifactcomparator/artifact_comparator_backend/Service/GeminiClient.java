@@ -0,0 +1,492 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Single entry point for Gemini generateContent calls. Every attempt passes a
+ * token-bucket rate limiter (our quota) and a circuit breaker (fail fast while
+ * the upstream is degraded: 5xx, timeouts, connection errors); those and 429
+ * are retried with jittered exponential backoff. {@link #stream} uses the
+ * streamGenerateContent endpoint of the same model. Each call is recorded in
+ * {@link GeminiCallMetrics} under the caller name it is given.
+ */
+@Service
+@Slf4j
+public class GeminiClient {
+
+    private final WebClient webClient;
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_EVENT =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GeminiCallMetrics metrics;
+    private final String apiKey;
+    private final Duration attemptTimeout;
+    private final TokenBucket rateLimiter;
+    private final long maxWaitNanos;
+    private final CircuitBreaker circuit;
+    private final int maxRetries;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+
+    public GeminiClient(WebClient geminiWebClient,
+                        GeminiCallMetrics metrics,
+                        @Value("${gemini.api.key}") String apiKey,
+                        @Value("${gemini.api.timeout:30000}") long attemptTimeoutMs,
+                        @Value("${gemini.client.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                        @Value("${gemini.client.rate-limit.burst:10}") int burst,
+                        @Value("${gemini.client.rate-limit.max-wait-ms:15000}") long maxWaitMs,
+                        @Value("${gemini.client.circuit.failure-threshold:5}") int failureThreshold,
+                        @Value("${gemini.client.circuit.open-ms:30000}") long openMs,
+                        @Value("${gemini.client.retry.max-retries:3}") int maxRetries,
+                        @Value("${gemini.client.retry.backoff-base-ms:500}") long backoffBaseMs,
+                        @Value("${gemini.client.retry.backoff-max-ms:8000}") long backoffMaxMs) {
+        this.webClient = geminiWebClient;
+        this.metrics = metrics;
+        this.apiKey = apiKey;
+        this.attemptTimeout = Duration.ofMillis(attemptTimeoutMs);
+        this.rateLimiter = new TokenBucket(requestsPerMinute, burst, System::nanoTime);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.circuit = new CircuitBreaker(failureThreshold, openMs, System::nanoTime);
+        this.maxRetries = maxRetries;
+        this.backoffBase = Duration.ofMillis(backoffBaseMs);
+        this.backoffMax = Duration.ofMillis(backoffMaxMs);
+    }
+
+    /** Thrown without calling Gemini: circuit open or local quota exhausted. Never retried. */
+    public static class GeminiUnavailableException extends RuntimeException {
+        public GeminiUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    public Mono<String> generate(String caller, String prompt) {
+        return generate(caller, prompt, null, attemptTimeout);
+    }
+
+    public Mono<String> generate(String caller, String prompt, Map<String, Object> generationConfig) {
+        return generate(caller, prompt, generationConfig, attemptTimeout);
+    }
+
+    /**
+     * Sends the prompt and emits the model text with markdown code fences
+     * removed. The timeout applies to each attempt; callers that need an
+     * overall deadline add their own.
+     */
+    public Mono<String> generate(String caller, String prompt, Map<String, Object> generationConfig,
+                                 Duration attemptTimeout) {
+        Map<String, Object> requestBody = requestBody(prompt, generationConfig);
+
+        return Mono.defer(() -> {
+            GeminiCallMetrics.Call call = metrics.start(caller);
+            return Mono.defer(() -> attempt(requestBody, attemptTimeout))
+                    .retryWhen(Retry.backoff(maxRetries, backoffBase)
+                            .maxBackoff(backoffMax)
+                            .jitter(0.5)
+                            .filter(GeminiClient::isRetryable)
+                            .doBeforeRetry(signal -> {
+                                call.retried(outcome(signal.failure()));
+                                log.warn("Gemini call failed (retry {}/{}): {}",
+                                        signal.totalRetries() + 1, maxRetries, describe(signal.failure()));
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .<String>handle((response, sink) -> {
+                        try {
+                            JsonNode root = objectMapper.readTree(response);
+                            call.usage(usageOf(root));
+                            sink.next(extractText(root));
+                        } catch (Exception e) {
+                            call.finish(GeminiCallMetrics.INVALID_RESPONSE);
+                            sink.error(new RuntimeException("Unexpected Gemini response: " + e.getMessage(), e));
+                        }
+                    })
+                    .doOnSuccess(text -> call.finish(GeminiCallMetrics.OK))
+                    .doOnError(e -> call.finish(outcome(e)))
+                    // Çağıranın kendi süre sınırı (ör. soru başına timeout) da iptal olarak gelir
+                    .doOnCancel(() -> call.finish(GeminiCallMetrics.CANCELLED));
+        });
+    }
+
+    /**
+     * Streams the model text as it is generated (chunk by chunk, code fences
+     * left in). The timeout bounds the wait for each chunk. Failures before
+     * the first chunk are retried like {@link #generate}; after that the
+     * caller has seen partial output, so the error is passed on.
+     */
+    public Flux<String> stream(String caller, String prompt, Map<String, Object> generationConfig) {
+        Map<String, Object> requestBody = requestBody(prompt, generationConfig);
+
+        return Flux.defer(() -> {
+            GeminiCallMetrics.Call call = metrics.start(caller);
+            AtomicBoolean started = new AtomicBoolean();
+            return Flux.defer(() -> streamAttempt(requestBody, call))
+                    .doOnNext(chunk -> started.set(true))
+                    .retryWhen(Retry.backoff(maxRetries, backoffBase)
+                            .maxBackoff(backoffMax)
+                            .jitter(0.5)
+                            .filter(e -> !started.get() && isRetryable(e))
+                            .doBeforeRetry(signal -> {
+                                call.retried(outcome(signal.failure()));
+                                log.warn("Gemini stream failed (retry {}/{}): {}",
+                                        signal.totalRetries() + 1, maxRetries, describe(signal.failure()));
+                            })
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .doOnComplete(() -> call.finish(GeminiCallMetrics.OK))
+                    .doOnError(e -> call.finish(outcome(e)))
+                    // Yeterince parça alıp akışı kapatan çağıran (take) başarılı sayılır
+                    .doOnCancel(() -> call.finish(started.get() ? GeminiCallMetrics.OK : GeminiCallMetrics.CANCELLED));
+        });
+    }
+
+    /** For callers whose own parsing of a model answer failed; see {@link GeminiCallMetrics#parseFailure}. */
+    public void recordParseFailure(String caller) {
+        metrics.parseFailure(caller);
+    }
+
+    public Map<String, Object> stats() {
+        return Map.of(
+                "circuit", circuit.state().name(),
+                "availablePermits", rateLimiter.available());
+    }
+
+    private static Map<String, Object> requestBody(String prompt, Map<String, Object> generationConfig) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("contents", List.of(
+                Map.of("parts", List.of(Map.of("text", prompt)))
+        ));
+        if (generationConfig != null) {
+            requestBody.put("generationConfig", generationConfig);
+        }
+        return requestBody;
+    }
+
+    /** Rate limit reservation as a delay; the error if the circuit is open or the wait would be too long. */
+    private Mono<Long> permit() {
+        // Devre açıkken kota harcanmaz, beklenmez
+        if (circuit.rejecting()) {
+            return Mono.error(circuitOpen());
+        }
+
+        long waitNanos = rateLimiter.reserve(maxWaitNanos);
+        if (waitNanos < 0) {
+            return Mono.error(new GeminiUnavailableException("Gemini request quota exhausted, try again later"));
+        }
+        return waitNanos == 0 ? Mono.just(0L) : Mono.delay(Duration.ofNanos(waitNanos));
+    }
+
+    private Mono<String> attempt(Map<String, Object> requestBody, Duration timeout) {
+        return permit().then(Mono.defer(() -> {
+            if (!circuit.tryAcquire()) {
+                return Mono.error(circuitOpen());
+            }
+
+            // Anahtar header'da → hata mesajlarındaki URL'de görünmez
+            return webClient.post()
+                    .header("x-goog-api-key", apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToMono(String.class)
+                    .timeout(timeout)
+                    .switchIfEmpty(Mono.error(new RuntimeException("No response from Gemini API")))
+                    .doOnSuccess(response -> circuit.onSuccess())
+                    .doOnError(e -> {
+                        if (isUpstreamDegraded(e)) circuit.onFailure();
+                        else circuit.onSuccess();
+                    })
+                    .doOnCancel(circuit::onCancel);
+        }));
+    }
+
+    private Flux<String> streamAttempt(Map<String, Object> requestBody, GeminiCallMetrics.Call call) {
+        return permit().thenMany(Flux.defer(() -> {
+            if (!circuit.tryAcquire()) {
+                return Flux.<String>error(circuitOpen());
+            }
+
+            return webClient.post()
+                    .uri(builder -> streamUri(builder.build()))
+                    .header("x-goog-api-key", apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaType.TEXT_EVENT_STREAM)
+                    .bodyValue(requestBody)
+                    .retrieve()
+                    .bodyToFlux(SSE_EVENT)
+                    // Süre sınırı her parça için: uzun üretim sürebilir, sessizlik süremez
+                    .timeout(attemptTimeout)
+                    .<String>handle((event, sink) -> {
+                        if (event.data() == null) return;
+                        try {
+                            JsonNode root = objectMapper.readTree(event.data());
+                            // Her parça o ana kadarki toplamı taşır; sonuncusu geçerli
+                            call.usage(usageOf(root));
+                            String text = extractChunkText(root);
+                            if (!text.isEmpty()) sink.next(text);
+                        } catch (Exception e) {
+                            call.finish(GeminiCallMetrics.INVALID_RESPONSE);
+                            sink.error(new RuntimeException("Unexpected Gemini response: " + e.getMessage(), e));
+                        }
+                    })
+                    .doOnComplete(circuit::onSuccess)
+                    .doOnError(e -> {
+                        if (isUpstreamDegraded(e)) circuit.onFailure();
+                        else circuit.onSuccess();
+                    })
+                    .doOnCancel(circuit::onCancel);
+        }));
+    }
+
+    // .../models/x:generateContent → .../models/x:streamGenerateContent?alt=sse (her satır bir "data:" event'i)
+    static URI streamUri(URI generateUri) {
+        String uri = generateUri.toString();
+        int query = uri.indexOf('?');
+        String path = query < 0 ? uri : uri.substring(0, query);
+        if (path.endsWith(":generateContent")) {
+            path = path.substring(0, path.length() - ":generateContent".length()) + ":streamGenerateContent";
+        }
+        return URI.create(path + (query < 0 ? "?alt=sse" : uri.substring(query) + "&alt=sse"));
+    }
+
+    private GeminiUnavailableException circuitOpen() {
+        return new GeminiUnavailableException("Gemini is temporarily unavailable, retry in "
+                + Math.max(1, circuit.remainingOpenMs() / 1000) + " s");
+    }
+
+    /**
+     * Shared response parsing: first candidate's text, without the markdown
+     * code fence the model sometimes wraps JSON or Mermaid output in.
+     */
+    private static String extractText(JsonNode root) {
+        JsonNode text = root.path("candidates").path(0).path("content").path("parts").path(0).path("text");
+
+        if (!text.isTextual()) {
+            // Güvenlik filtresi vb. → aday yok; sebebi mesaja eklenir
+            String reason = root.path("promptFeedback").path("blockReason")
+                    .asText(root.path("candidates").path(0).path("finishReason").asText("unknown"));
+            throw new RuntimeException("Gemini returned no text (reason: " + reason + ")");
+        }
+        return stripCodeFence(text.asText());
+    }
+
+    /** Text of one streamed chunk; empty for chunks that only carry metadata (usage, finish reason). */
+    private static String extractChunkText(JsonNode root) {
+        String blockReason = root.path("promptFeedback").path("blockReason").asText(null);
+        if (blockReason != null) {
+            throw new RuntimeException("Gemini returned no text (reason: " + blockReason + ")");
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (JsonNode part : root.path("candidates").path(0).path("content").path("parts")) {
+            text.append(part.path("text").asText(""));
+        }
+        return text.toString();
+    }
+
+    // usageMetadata yoksa (hata gövdesi, eski model) null → önceki değer korunur
+    static GeminiCallMetrics.Usage usageOf(JsonNode root) {
+        JsonNode usage = root.path("usageMetadata");
+        if (!usage.isObject()) return null;
+        return new GeminiCallMetrics.Usage(
+                usage.path("promptTokenCount").asLong(0),
+                usage.path("candidatesTokenCount").asLong(0),
+                usage.path("thoughtsTokenCount").asLong(0));
+    }
+
+    static String stripCodeFence(String text) {
+        String cleaned = text.trim();
+        if (cleaned.startsWith("```")) {
+            int lineEnd = cleaned.indexOf('\n');
+            cleaned = lineEnd < 0 ? cleaned.substring(3) : cleaned.substring(lineEnd + 1);
+        }
+        if (cleaned.endsWith("```")) {
+            cleaned = cleaned.substring(0, cleaned.length() - 3);
+        }
+        return cleaned.trim();
+    }
+
+    // 400/403 gibi hatalar isteğin kendisinden → tekrar denenmez
+    private static boolean isRetryable(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == 429 || isUpstreamDegraded(e);
+        }
+        return isUpstreamDegraded(e);
+    }
+
+    // 429 kota sinyali, arıza değil: kısa bir 429 patlaması eşzamanlı istekler yüzünden devreyi açmasın
+    private static boolean isUpstreamDegraded(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private static String outcome(Throwable e) {
+        if (e instanceof GeminiUnavailableException) return GeminiCallMetrics.UNAVAILABLE;
+        if (e instanceof TimeoutException) return GeminiCallMetrics.TIMEOUT;
+        if (e instanceof WebClientResponseException response && response.getStatusCode().value() == 429) {
+            return GeminiCallMetrics.RATE_LIMITED;
+        }
+        return GeminiCallMetrics.ERROR;
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return "HTTP " + response.getStatusCode().value();
+        }
+        return e instanceof TimeoutException ? "timed out" : e.getMessage();
+    }
+
+    /**
+     * Token bucket that hands out reservations: a caller may borrow a future
+     * token and wait for it, as long as the wait stays under the given limit.
+     */
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double tokensPerNano;
+        private final LongSupplier clock;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int requestsPerMinute, int burst, LongSupplier clock) {
+            this.capacity = Math.max(1, burst);
+            this.tokensPerNano = Math.max(1, requestsPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+            this.clock = clock;
+            this.tokens = capacity;
+            this.refilledAt = clock.getAsLong();
+        }
+
+        /** Nanos to wait before sending, or -1 if that would exceed maxWaitNanos (nothing reserved then). */
+        synchronized long reserve(long maxWaitNanos) {
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long wait = (long) Math.ceil((1 - tokens) / tokensPerNano);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return wait;
+        }
+
+        synchronized int available() {
+            refill();
+            return (int) Math.max(0, Math.floor(tokens));
+        }
+
+        private void refill() {
+            long now = clock.getAsLong();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+
+    /**
+     * Opens after a run of consecutive upstream failures, rejects calls for
+     * the open period, then lets a single probe through: its success closes
+     * the circuit, its failure opens it again.
+     */
+    static final class CircuitBreaker {
+
+        enum State { CLOSED, OPEN, HALF_OPEN }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private final LongSupplier clock;
+        private State state = State.CLOSED;
+        private int failures;
+        private long openedAt;
+        private boolean probing;
+
+        CircuitBreaker(int failureThreshold, long openMs, LongSupplier clock) {
+            this.failureThreshold = Math.max(1, failureThreshold);
+            this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+            this.clock = clock;
+        }
+
+        /** True when a call would be rejected right now; acquires nothing. */
+        synchronized boolean rejecting() {
+            return switch (state) {
+                case CLOSED -> false;
+                case OPEN -> clock.getAsLong() - openedAt < openNanos;
+                case HALF_OPEN -> probing;
+            };
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == State.OPEN) {
+                if (clock.getAsLong() - openedAt < openNanos) return false;
+                state = State.HALF_OPEN;
+                probing = false;
+            }
+            if (state == State.HALF_OPEN) {
+                if (probing) return false;
+                probing = true;
+            }
+            return true;
+        }
+
+        synchronized void onSuccess() {
+            // Açıkken gelen geç cevap devreyi kapatmaz; karar deneme isteğinde
+            if (state == State.OPEN) return;
+            if (state == State.HALF_OPEN) {
+                log.info("Gemini circuit closed");
+            }
+            state = State.CLOSED;
+            failures = 0;
+            probing = false;
+        }
+
+        synchronized void onFailure() {
+            if (state == State.OPEN) return;
+            if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+                log.warn("Gemini circuit opened for {} ms after {} failure(s)",
+                        TimeUnit.NANOSECONDS.toMillis(openNanos), state == State.HALF_OPEN ? 1 : failures);
+                state = State.OPEN;
+                openedAt = clock.getAsLong();
+                failures = 0;
+                probing = false;
+            }
+        }
+
+        // Deneme isteği iptal edildi (dış timeout) → sonuç yok, başka bir deneme yapılabilsin
+        synchronized void onCancel() {
+            probing = false;
+        }
+
+        synchronized long remainingOpenMs() {
+            if (state != State.OPEN) return 0;
+            return TimeUnit.NANOSECONDS.toMillis(Math.max(0, openNanos - (clock.getAsLong() - openedAt)));
+        }
+
+        synchronized State state() {
+            return state;
+        }
+    }
+}
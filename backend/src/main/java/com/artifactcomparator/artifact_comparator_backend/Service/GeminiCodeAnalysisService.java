@@ -1,5 +1,6 @@
 package com.artifactcomparator.artifact_comparator_backend.Service;
 
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisBatchResponse;
 import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisRequest;
 import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisResponse;
 import com.artifactcomparator.artifact_comparator_backend.DTO.ComplexityMetric;
@@ -8,52 +9,130 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 public class GeminiCodeAnalysisService {
 
-    @Value("${gemini.api.key}")
-    private String apiKey;
+    // GeminiCallMetrics'teki caller etiketleri
+    private static final String COMPLEXITY_CALLER = "code-complexity";
+    private static final String DIAGRAM_CALLER = "code-diagram";
 
-    @Value("${gemini.api.timeout:30000}")
-    private int timeout;
+    // Batch'te aynı anda Gemini'de bekleyen en fazla istek
+    @Value("${gemini.batch.max-concurrency:4}")
+    private int batchMaxConcurrency;
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    // Batch'te dosya başına süre sınırı (ms); aşan dosya başarısız sayılır
+    @Value("${gemini.batch.file-timeout-ms:60000}")
+    private long batchFileTimeoutMs;
+
+    // Desteklenen dillerde (Java, Python, JS/TS, C/C++) karmaşıklık yerel hesaplanır
+    @Value("${code-analysis.native.enabled:true}")
+    private boolean nativeEnabled;
+
+    // Desteklenen dillerde akış diyagramı yerel üretilir (deterministik, milisaniyeler)
+    @Value("${code-analysis.native.diagram-enabled:true}")
+    private boolean nativeDiagramEnabled;
 
-    public GeminiCodeAnalysisService(WebClient geminiWebClient) {
-        this.webClient = geminiWebClient;
+    private final GeminiClient gemini;
+    private final ObjectMapper objectMapper;
+    private final CodeAnalysisCache cache;
+    private final CyclomaticComplexityAnalyzer nativeAnalyzer;
+    private final ControlFlowDiagramBuilder diagramBuilder;
+
+    public GeminiCodeAnalysisService(GeminiClient gemini,
+                                     CodeAnalysisCache cache,
+                                     CyclomaticComplexityAnalyzer nativeAnalyzer,
+                                     ControlFlowDiagramBuilder diagramBuilder) {
+        this.gemini = gemini;
         this.objectMapper = new ObjectMapper();
+        this.cache = cache;
+        this.nativeAnalyzer = nativeAnalyzer;
+        this.diagramBuilder = diagramBuilder;
     }
 
     public CodeAnalysisResponse analyzeCyclomaticComplexity(CodeAnalysisRequest request) {
         log.info("Starting cyclomatic complexity analysis for code of length: {}",
                 request.getCode().length());
 
-        String prompt = buildCyclomaticComplexityPrompt(request.getCode());
+        Optional<CodeAnalysisResponse> local = analyzeNatively(request);
+        if (local.isPresent()) {
+            return local.get();
+        }
 
-        String responseText = callGeminiApi(prompt);
+        // 📦 Aynı kod daha önce analiz edildiyse Gemini'ye gidilmez (parse edilemeyen cevap cache'e girmez)
+        return cache.getOrCompute(CodeAnalysisCache.Kind.CYCLOMATIC, request.getCode(),
+                () -> callGeminiApi(COMPLEXITY_CALLER, buildCyclomaticComplexityPrompt(request.getCode())),
+                this::parseAnalysisResponse);
+    }
 
-        return parseAnalysisResponse(responseText);
+    // Non-blocking sürüm (batch için): thread beklemeden Gemini cevabını parse eder
+    private Mono<CodeAnalysisResponse> analyzeCyclomaticComplexityAsync(CodeAnalysisRequest request) {
+        Optional<CodeAnalysisResponse> local = analyzeNatively(request);
+        if (local.isPresent()) {
+            return Mono.just(local.get());
+        }
+
+        return cache.getOrComputeAsync(CodeAnalysisCache.Kind.CYCLOMATIC, request.getCode(),
+                () -> callGeminiApiAsync(COMPLEXITY_CALLER, buildCyclomaticComplexityPrompt(request.getCode())),
+                this::parseAnalysisResponse);
+    }
+
+    // Yerel analiz hata verirse (beklenmeyen sözdizimi) Gemini'ye düşülür
+    private Optional<CodeAnalysisResponse> analyzeNatively(CodeAnalysisRequest request) {
+        if (!nativeEnabled) {
+            return Optional.empty();
+        }
+        try {
+            return nativeAnalyzer.analyze(request.getCode(), request.getFileName(), request.getLanguage());
+        } catch (RuntimeException e) {
+            log.warn("Native complexity analysis failed for {}, falling back to Gemini: {}",
+                    request.getFileName(), e.getMessage());
+            return Optional.empty();
+        }
     }
 
     public String generateControlFlowDiagram(String code) {
+        return generateControlFlowDiagram(code, null, null);
+    }
+
+    public String generateControlFlowDiagram(String code, String fileName, String language) {
         log.info("Generating control flow diagram");
 
-        String prompt = buildControlFlowDiagramPrompt(code);
-        String response = callGeminiApi(prompt);
+        Optional<String> local = buildDiagramNatively(code, fileName, language);
+        if (local.isPresent()) {
+            return local.get();
+        }
+
+        return cache.getOrCompute(CodeAnalysisCache.Kind.DIAGRAM, code,
+                () -> cleanMermaidCode(callGeminiApi(DIAGRAM_CALLER, buildControlFlowDiagramPrompt(code))));
+    }
 
-        return cleanMermaidCode(response);
+    // Yerel diyagram cache'e yazılmaz: yeniden üretmek DB'den okumaktan ucuz
+    private Optional<String> buildDiagramNatively(String code, String fileName, String language) {
+        if (!nativeDiagramEnabled) {
+            return Optional.empty();
+        }
+        try {
+            return diagramBuilder.build(code, fileName, language);
+        } catch (RuntimeException | StackOverflowError e) {
+            log.warn("Native control flow diagram failed for {}, falling back to Gemini: {}",
+                    fileName, e.getMessage());
+            return Optional.empty();
+        }
     }
 
+    // Prompt metni değişirse CodeAnalysisCache.Kind.CYCLOMATIC versiyonunu artır
     private String buildCyclomaticComplexityPrompt(String code) {
         return """
         You are an expert code analyzer. Calculate the cyclomatic complexity of the following code.
@@ -106,57 +185,72 @@ public class GeminiCodeAnalysisService {
     }
 
     /**
-     * Batch analysis for multiple code files
+     * Batch analysis for multiple code files.
+     * Files are sent to Gemini concurrently (at most gemini.batch.max-concurrency
+     * in flight), each with its own timeout; results keep the request order and
+     * a failed file does not fail the batch.
      */
-    public List<CodeAnalysisResponse> analyzeBatch(List<CodeAnalysisRequest> requests) {
-        log.info("Starting batch analysis for {} files", requests.size());
-
-        List<CodeAnalysisResponse> responses = new ArrayList<>();
-
-        for (CodeAnalysisRequest request : requests) {
-            try {
-                CodeAnalysisResponse response = analyzeCyclomaticComplexity(request);
-                response.setFileName(request.getFileName());
-                responses.add(response);
-            } catch (Exception e) {
-                log.error("Failed to analyze file: {}", request.getFileName(), e);
-                CodeAnalysisResponse errorResponse = new CodeAnalysisResponse();
-                errorResponse.setFileName(request.getFileName());
-                errorResponse.setSummary("Analysis failed: " + e.getMessage());
-                responses.add(errorResponse);
-            }
+    public CodeAnalysisBatchResponse analyzeBatch(List<CodeAnalysisRequest> requests) {
+        log.info("Starting batch analysis for {} files (max in flight: {})",
+                requests.size(), batchMaxConcurrency);
+
+        long start = System.nanoTime();
+        List<CodeAnalysisBatchResponse.FailedFile> failures = new ArrayList<>();
+
+        // flatMapSequential → paralel çalışır ama sonuçları istek sırasıyla verir
+        List<CodeAnalysisResponse> results = Flux.range(0, requests.size())
+                .flatMapSequential(i -> analyzeBatchItem(i, requests.get(i), failures),
+                        Math.max(1, batchMaxConcurrency))
+                .collectList()
+                .block();
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        int failed;
+        synchronized (failures) {
+            failures.sort((a, b) -> Integer.compare(a.getIndex(), b.getIndex()));
+            failed = failures.size();
         }
 
-        return responses;
-    }
+        log.info("Batch analysis finished: {} ok, {} failed in {} ms",
+                requests.size() - failed, failed, durationMs);
 
-    private String callGeminiApi(String prompt) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("contents", List.of(
-                Map.of("parts", List.of(Map.of("text", prompt)))
-        ));
+        return new CodeAnalysisBatchResponse(results, requests.size() - failed, failed, failures, durationMs);
+    }
 
-        Map<String, Object> generationConfig = new HashMap<>();
-        generationConfig.put("temperature", 0.2);  // Lower for consistent factual analysis
-        generationConfig.put("maxOutputTokens", 4000);
-        generationConfig.put("topP", 0.95);
-        generationConfig.put("topK", 40);
-        requestBody.put("generationConfig", generationConfig);
+    private Mono<CodeAnalysisResponse> analyzeBatchItem(int index,
+                                                        CodeAnalysisRequest request,
+                                                        List<CodeAnalysisBatchResponse.FailedFile> failures) {
+        return analyzeCyclomaticComplexityAsync(request)
+                .timeout(Duration.ofMillis(batchFileTimeoutMs))
+                .map(response -> {
+                    response.setFileName(request.getFileName());
+                    return response;
+                })
+                .onErrorResume(e -> {
+                    String message = (e instanceof TimeoutException)
+                            ? "Timed out after " + batchFileTimeoutMs + " ms"
+                            : e.getMessage();
+                    log.error("Failed to analyze file: {} ({})", request.getFileName(), message);
+
+                    synchronized (failures) {
+                        failures.add(new CodeAnalysisBatchResponse.FailedFile(index, request.getFileName(), message));
+                    }
+
+                    CodeAnalysisResponse errorResponse = new CodeAnalysisResponse();
+                    errorResponse.setFileName(request.getFileName());
+                    errorResponse.setSummary("Analysis failed: " + message);
+                    return Mono.just(errorResponse);
+                });
+    }
 
+    private String callGeminiApi(String caller, String prompt) {
         try {
             log.info("Calling Gemini API for code analysis...");
 
-            String response = webClient.post()
-                    .uri(uriBuilder -> uriBuilder.queryParam("key", apiKey).build())
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
+            String response = callGeminiApiAsync(caller, prompt).block();
 
             log.info("Received response from Gemini");
-            return extractTextFromResponse(response);
+            return response;
 
         } catch (Exception e) {
             log.error("Error calling Gemini API: {}", e.getMessage());
@@ -164,26 +258,17 @@ public class GeminiCodeAnalysisService {
         }
     }
 
-    private String extractTextFromResponse(String response) throws Exception {
-        JsonNode root = objectMapper.readTree(response);
-        String text = root.path("candidates")
-                .get(0)
-                .path("content")
-                .path("parts")
-                .get(0)
-                .path("text")
-                .asText();
-
-        // Clean markdown formatting
-        String cleaned = text.trim()
-                .replace("```json", "")
-                .replace("```", "")
-                .trim();
+    private Mono<String> callGeminiApiAsync(String caller, String prompt) {
+        Map<String, Object> generationConfig = new HashMap<>();
+        generationConfig.put("temperature", 0.2);  // Lower for consistent factual analysis
+        generationConfig.put("maxOutputTokens", 4000);
+        generationConfig.put("topP", 0.95);
+        generationConfig.put("topK", 40);
 
-        log.debug("Cleaned response: {}", cleaned);
-        return cleaned;
+        return gemini.generate(caller, prompt, generationConfig);
     }
 
+    // Prompt metni değişirse CodeAnalysisCache.Kind.DIAGRAM versiyonunu artır
     private String buildControlFlowDiagramPrompt(String code) {
         return """
             Analyze the following code and create a control flow diagram in Mermaid syntax.
@@ -223,10 +308,12 @@ public class GeminiCodeAnalysisService {
             // Parse complex methods
             response.setComplexMethods(parseComplexMethodsArray(root.path("complexMethods")));
 
+            response.setAnalyzer("gemini");
             log.info("Successfully parsed code analysis response");
             return response;
 
         } catch (Exception e) {
+            gemini.recordParseFailure(COMPLEXITY_CALLER);
             log.error("Error parsing analysis response: {}", e.getMessage());
             log.error("JSON text was: {}", jsonText);
             throw new RuntimeException("Failed to parse code analysis: " + e.getMessage());
@@ -253,7 +340,7 @@ public class GeminiCodeAnalysisService {
             metric.setDecisionPoints(decisionPoints);
 
             // Auto-calculate risk level based on complexity
-            metric.setRiskLevel(calculateRiskLevel(metric.getComplexity()));
+            metric.setRiskLevel(ComplexityMetric.riskLevelFor(metric.getComplexity()));
 
             methods.add(metric);
         }
@@ -285,18 +372,6 @@ public class GeminiCodeAnalysisService {
 
     // ==================== HELPER METHODS ====================
 
-    private String calculateRiskLevel(int complexity) {
-        if (complexity <= 5) {
-            return "LOW";
-        } else if (complexity <= 10) {
-            return "MEDIUM";
-        } else if (complexity <= 20) {
-            return "HIGH";
-        } else {
-            return "CRITICAL";
-        }
-    }
-
     private String cleanMermaidCode(String response) {
         return response.trim()
                 .replace("```mermaid", "")
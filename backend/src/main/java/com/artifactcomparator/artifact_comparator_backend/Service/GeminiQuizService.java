@@ -6,11 +6,9 @@ import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -20,17 +18,15 @@ import java.util.Map;
 @Slf4j
 public class GeminiQuizService {
 
-    @Value("${gemini.api.key}")
-    private String apiKey;
+    // GeminiCallMetrics'teki caller etiketleri
+    private static final String CALLER = "quiz";
+    private static final String STREAM_CALLER = "quiz-stream";
 
-    @Value("${gemini.api.timeout:30000}")
-    private int timeout;
-
-    private final WebClient webClient;
+    private final GeminiClient gemini;
     private final ObjectMapper objectMapper;
 
-    public GeminiQuizService(WebClient geminiWebClient) {
-        this.webClient = geminiWebClient;
+    public GeminiQuizService(GeminiClient gemini) {
+        this.gemini = gemini;
         this.objectMapper = new ObjectMapper();
     }
 
@@ -45,6 +41,40 @@ public class GeminiQuizService {
         return parseQuestionsFromResponse(responseText, questionType);
     }
 
+    /**
+     * Streaming variant of {@link #generateQuestions}: each question is
+     * emitted as soon as the model has finished writing it. Malformed
+     * questions are skipped; the stream fails only if none could be parsed.
+     */
+    public Flux<Question> streamQuestions(String topic, int numberOfQuestions,
+                                          String difficulty, String questionType) {
+        log.info("Streaming {} {} questions about: {}, difficulty: {}",
+                numberOfQuestions, questionType, topic, difficulty);
+
+        String prompt = buildPrompt(topic, numberOfQuestions, difficulty, questionType);
+
+        return Flux.defer(() -> {
+            QuestionStreamParser parser = new QuestionStreamParser();
+            return gemini.stream(STREAM_CALLER, prompt, generationConfig())
+                    .concatMapIterable(parser::feed)
+                    .<Question>handle((json, sink) -> {
+                        Question question = parseQuestion(json, questionType);
+                        if (question != null) sink.next(question);
+                    })
+                    // Fazlası istenmedi; akış erken kapanır
+                    .take(numberOfQuestions)
+                    .switchIfEmpty(Flux.defer(() -> {
+                        gemini.recordParseFailure(STREAM_CALLER);
+                        return Flux.error(new RuntimeException("No questions found in Gemini response"));
+                    }))
+                    .doOnComplete(() -> {
+                        if (parser.hasPartialQuestion()) {
+                            log.warn("Gemini stream ended inside a question after {} questions", parser.emitted());
+                        }
+                    });
+        });
+    }
+
     private String buildPrompt(String topic, int numQuestions, String difficulty, String questionType) {
         if ("MULTIPLE_CHOICE".equals(questionType)) {
             return String.format("""
@@ -151,34 +181,24 @@ public class GeminiQuizService {
         }
     }
 
-    private String callGeminiApi(String prompt) {
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("contents", List.of(
-                Map.of("parts", List.of(Map.of("text", prompt)))
-        ));
-
+    private Map<String, Object> generationConfig() {
         // IMPROVED: Better generation config
         Map<String, Object> generationConfig = new HashMap<>();
         generationConfig.put("temperature", 0.8);      // Increased for more variety
         generationConfig.put("maxOutputTokens", 3000); // Increased for longer responses
         generationConfig.put("topP", 0.95);
         generationConfig.put("topK", 40);
-        requestBody.put("generationConfig", generationConfig);
+        return generationConfig;
+    }
 
+    private String callGeminiApi(String prompt) {
         try {
             log.info("Calling Gemini API...");
 
-            String response = webClient.post()
-                    .uri(uriBuilder -> uriBuilder.queryParam("key", apiKey).build())
-                    .header("Content-Type", "application/json")
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofMillis(timeout))
-                    .block();
+            String text = gemini.generate(CALLER, prompt, generationConfig()).block();
 
             log.info("Received response from Gemini");
-            return extractTextFromResponse(response);
+            return text;
 
         } catch (Exception e) {
             log.error("Error calling Gemini API: {}", e.getMessage());
@@ -186,46 +206,18 @@ public class GeminiQuizService {
         }
     }
 
-    private String extractTextFromResponse(String response) throws Exception {
-        JsonNode root = objectMapper.readTree(response);
-        String text = root.path("candidates")
-                .get(0)
-                .path("content")
-                .path("parts")
-                .get(0)
-                .path("text")
-                .asText();
-
-        String cleaned = text.trim()
-                .replace("```json", "")
-                .replace("`" + "`" + "`", "")  // Alternative way
-                .trim();
-
-        log.debug("Cleaned response: {}", cleaned);
-        return cleaned;
-    }
-
-
     private List<Question> parseQuestionsFromResponse(String jsonText, String questionType) {
         List<Question> questions = new ArrayList<>();
 
         try {
-            JsonNode root = objectMapper.readTree(jsonText);
-            JsonNode questionsArray = root.path("questions");
-
-            if (questionsArray.isMissingNode() || questionsArray.isEmpty()) {
-                throw new RuntimeException("No questions found in Gemini response");
+            // Akışla aynı ayrıştırıcı: bozuk bir soru yalnızca kendisini düşürür
+            for (String json : new QuestionStreamParser().feed(jsonText)) {
+                Question question = parseQuestion(json, questionType);
+                if (question != null) questions.add(question);
             }
 
-            for (JsonNode questionNode : questionsArray) {
-                String type = questionNode.has("type") ?
-                        questionNode.get("type").asText() : questionType;
-
-                if ("MULTIPLE_CHOICE".equals(type)) {
-                    questions.add(parseMultipleChoiceQuestion(questionNode));
-                } else if ("OPEN_ENDED".equals(type)) {
-                    questions.add(parseOpenEndedQuestion(questionNode));
-                }
+            if (questions.isEmpty()) {
+                throw new RuntimeException("No questions found in Gemini response");
             }
 
             log.info("Successfully parsed {} questions", questions.size());
@@ -241,12 +233,32 @@ public class GeminiQuizService {
             return questions;
 
         } catch (Exception e) {
+            gemini.recordParseFailure(CALLER);
             log.error("Error parsing questions from JSON: {}", e.getMessage());
             log.error("JSON text was: {}", jsonText);
             throw new RuntimeException("Failed to parse generated questions: " + e.getMessage());
         }
     }
 
+    // Eksik alan, boş seçenek listesi vb. → null (soru atlanır)
+    private Question parseQuestion(String json, String questionType) {
+        try {
+            JsonNode questionNode = objectMapper.readTree(json);
+            String type = questionNode.has("type") ?
+                    questionNode.get("type").asText() : questionType;
+
+            if ("MULTIPLE_CHOICE".equals(type)) {
+                return parseMultipleChoiceQuestion(questionNode);
+            } else if ("OPEN_ENDED".equals(type)) {
+                return parseOpenEndedQuestion(questionNode);
+            }
+            log.warn("Skipping question of unknown type: {}", type);
+        } catch (Exception e) {
+            log.warn("Skipping malformed question ({}): {}", e.getMessage(), json);
+        }
+        return null;
+    }
+
     private MultipleChoiceQuestion parseMultipleChoiceQuestion(JsonNode node) {
         MultipleChoiceQuestion question = new MultipleChoiceQuestion();
 
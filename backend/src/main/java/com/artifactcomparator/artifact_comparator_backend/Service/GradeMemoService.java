@@ -0,0 +1,140 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.GradingResult;
+import com.artifactcomparator.artifact_comparator_backend.Repository.GradeMemoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Remembers AI grades of open-ended answers so an answer identical to one
+ * already graded (after normalization) reuses that score and feedback
+ * instead of calling Gemini. The key covers the question id, a hash of the
+ * question text and the max points, so an edited question never serves an
+ * old grade; QuizService also drops a question's entries when it is edited
+ * or deleted.
+ */
+@Service
+@Slf4j
+public class GradeMemoService {
+
+    /** A remembered grade and the quiz result it was first given to. */
+    public record Memo(GradingResult grade, Long sourceResultId) {
+    }
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final GradeMemoRepository repo;
+    private final boolean enabled;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stored = new AtomicLong();
+
+    public GradeMemoService(GradeMemoRepository repo,
+                            @Value("${grading.memo.enabled:true}") boolean enabled) {
+        this.repo = repo;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<Memo> lookup(Long questionId, String questionText, Integer maxPoints, String answer) {
+        if (!enabled || questionId == null || maxPoints == null) return Optional.empty();
+
+        Optional<Memo> memo = repo.findByQuestionIdAndQuestionHashAndMaxPointsAndAnswerHash(
+                        questionId, sha256(questionText), maxPoints, answerHash(answer))
+                .map(e -> new Memo(new GradingResult(e.getScore(), e.getFeedback()), e.getSourceResultId()));
+
+        (memo.isPresent() ? hits : misses).incrementAndGet();
+        return memo;
+    }
+
+    /** Like {@link #lookup} without loading the grade or counting a hit. */
+    public boolean isRemembered(Long questionId, String questionText, Integer maxPoints, String answer) {
+        if (!enabled || questionId == null || maxPoints == null) return false;
+
+        return repo.existsByQuestionIdAndQuestionHashAndMaxPointsAndAnswerHash(
+                questionId, sha256(questionText), maxPoints, answerHash(answer));
+    }
+
+    /** Stores a grade given by Gemini; the first grade stored for a key wins. */
+    public void remember(Long questionId, String questionText, Integer maxPoints, String answer,
+                         GradingResult grade, Long resultId) {
+        if (!enabled || questionId == null || maxPoints == null || grade.getScore() == null) return;
+
+        int inserted = repo.insertIfAbsent(questionId, sha256(questionText), maxPoints, answerHash(answer),
+                grade.getScore(), grade.getFeedback() == null ? "" : grade.getFeedback(),
+                resultId, LocalDateTime.now());
+        if (inserted > 0) stored.incrementAndGet();
+    }
+
+    /** Forgets the grade remembered for one answer, e.g. after a researcher corrected it. */
+    public void forget(Long questionId, String questionText, Integer maxPoints, String answer) {
+        if (!enabled || questionId == null || maxPoints == null || answer == null) return;
+
+        repo.deleteByKey(questionId, sha256(questionText), maxPoints, answerHash(answer));
+    }
+
+    /** Forgets every remembered grade of the given questions. */
+    public int invalidate(Collection<Long> questionIds) {
+        if (questionIds.isEmpty()) return 0;
+
+        int removed = repo.deleteByQuestionIds(questionIds);
+        if (removed > 0) {
+            log.info("Dropped {} remembered grades of questions {}", removed, questionIds);
+        }
+        return removed;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("stored", stored.get());
+        stats.put("entries", repo.count());
+        return stats;
+    }
+
+    /**
+     * Same value for answers that differ only in case, Unicode form or
+     * whitespace; anything else (punctuation, wording) counts as a new answer.
+     */
+    static String normalizeAnswer(String answer) {
+        if (answer == null) return "";
+
+        String normalized = Normalizer.normalize(answer, Normalizer.Form.NFKC);
+        return WHITESPACE.matcher(normalized.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    static String answerHash(String answer) {
+        return sha256(normalizeAnswer(answer));
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(
+                    (text == null ? "" : text).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
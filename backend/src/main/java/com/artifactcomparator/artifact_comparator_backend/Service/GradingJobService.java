@@ -0,0 +1,357 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.GradingJob;
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingJobStatus;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
+import com.artifactcomparator.artifact_comparator_backend.Event.GradingJobQueuedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Repository.GradingJobRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Durable queue for quiz auto-grading.
+ * Submitting a quiz only stores a grading_jobs row; a poller claims due jobs
+ * and hands them to a fixed worker pool. Failed jobs are retried with
+ * exponential backoff and dead-lettered after max-attempts; jobs left RUNNING
+ * by a crashed or restarted node are picked up again once their lease expires.
+ * A worker only writes its outcome while it still holds the lease, so a slow
+ * worker whose job was re-queued cannot overwrite the newer run. Jobs taken by
+ * a batch grading run are held as BATCH, with a separate (longer) lease.
+ */
+@Service
+@Slf4j
+public class GradingJobService {
+
+    private final GradingJobRepository jobRepository;
+    private final QuizResultRepository quizResultRepository;
+    private final GradingService gradingService;
+    private final NotificationService notificationService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int threads;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long leaseMs;
+    private final long batchLeaseMs;
+
+    // Poll tek thread'de; worker slotu kadar iş claim edilir, fazlası DB'de bekler
+    private final ScheduledExecutorService poller;
+    private final ExecutorService workers;
+    private final Semaphore freeWorkers;
+
+    public GradingJobService(GradingJobRepository jobRepository,
+                             QuizResultRepository quizResultRepository,
+                             GradingService gradingService,
+                             NotificationService notificationService,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${grading.jobs.threads:2}") int threads,
+                             @Value("${grading.jobs.max-attempts:5}") int maxAttempts,
+                             @Value("${grading.jobs.poll-interval-ms:5000}") long pollIntervalMs,
+                             @Value("${grading.jobs.backoff-base-ms:10000}") long backoffBaseMs,
+                             @Value("${grading.jobs.backoff-max-ms:600000}") long backoffMaxMs,
+                             @Value("${grading.jobs.lease-ms:600000}") long leaseMs,
+                             @Value("${grading.jobs.batch-lease-ms:10800000}") long batchLeaseMs) {
+        this.jobRepository = jobRepository;
+        this.quizResultRepository = quizResultRepository;
+        this.gradingService = gradingService;
+        this.notificationService = notificationService;
+        this.eventPublisher = eventPublisher;
+        this.threads = threads;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMs = pollIntervalMs;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.leaseMs = leaseMs;
+        this.batchLeaseMs = batchLeaseMs;
+
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "grading-job-poller");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "grading-job");
+            t.setDaemon(true);
+            return t;
+        });
+        this.freeWorkers = new Semaphore(threads);
+    }
+
+    // DB hazır olunca başlar → restart öncesi kalan işler de bu poll'larla işlenir
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Grading job workers started ({} threads, max {} attempts)", threads, maxAttempts);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Yarım kalan işler RUNNING kalır, lease dolunca tekrar alınır
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // ==========================================
+    // Public API
+    // ==========================================
+
+    /**
+     * Stores a grading job for the result; runs in the caller's transaction.
+     * A job that is being graded right now is marked to run again once the
+     * current run ends, so the new answers are not left with the old grade.
+     */
+    @Transactional
+    public void enqueue(Long quizResultId) {
+        GradingJob job = jobRepository.findByQuizResultId(quizResultId).orElse(null);
+
+        if (job == null) {
+            jobRepository.save(new GradingJob(quizResultId));
+        } else if (jobRepository.requestRerun(job.getId(), List.of(GradingJobStatus.RUNNING, GradingJobStatus.BATCH)) == 1) {
+            log.info("QuizResult {} resubmitted while grading, it will be graded again", quizResultId);
+            return;
+        } else if (!requeue(job, GradingJobStatus.DONE, GradingJobStatus.DEAD)) {
+            return; // zaten kuyrukta (PENDING)
+        }
+
+        eventPublisher.publishEvent(new GradingJobQueuedEvent(this, quizResultId));
+    }
+
+    /** Puts a dead-lettered result back in the queue with a fresh attempt budget. */
+    @Transactional
+    public void retry(Long quizResultId) {
+        GradingJob job = jobRepository.findByQuizResultId(quizResultId)
+                .orElseThrow(() -> new RuntimeException("No grading job for QuizResult id: " + quizResultId));
+
+        if (job.getStatus() != GradingJobStatus.DEAD) {
+            throw new RuntimeException("Grading job is " + job.getStatus() + ", only failed jobs can be retried");
+        }
+
+        if (!requeue(job, GradingJobStatus.DEAD)) {
+            throw new RuntimeException("Grading job was changed meanwhile, please reload and try again");
+        }
+        quizResultRepository.updateGradingStatus(quizResultId, GradingStatus.GRADING);
+        eventPublisher.publishEvent(new GradingJobQueuedEvent(this, quizResultId));
+    }
+
+    /**
+     * Takes a result away from the individual workers before batch grading it.
+     * False when a worker is already grading it.
+     */
+    public boolean claimForBatch(Long quizResultId) {
+        GradingJob job = jobRepository.findByQuizResultId(quizResultId).orElse(null);
+        if (job == null) return true; // toplu modda submit edilmiş → kuyrukta hiç yok
+
+        return jobRepository.claimForBatch(job.getId(), LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS),
+                List.of(GradingJobStatus.PENDING, GradingJobStatus.DEAD), GradingJobStatus.BATCH) == 1;
+    }
+
+    /** Batch grading saved the result: close its job and notify the participant. */
+    public void batchGraded(QuizResult graded) {
+        GradingJob job = jobRepository.findByQuizResultId(graded.getId()).orElse(null);
+        if (job != null && !finish(job, GradingJobStatus.DONE, null)) return;
+        notifyParticipant(graded);
+    }
+
+    /** Batch grading could not finish the result: hand it to the workers (retry + backoff). */
+    public void batchFailed(Long quizResultId) {
+        GradingJob job = jobRepository.findByQuizResultId(quizResultId).orElse(null);
+        if (job == null) {
+            enqueue(quizResultId);
+            return;
+        }
+        if (!requeue(job, GradingJobStatus.BATCH)) return; // lease doldu, iş zaten kuyrukta
+        quizResultRepository.updateGradingStatus(quizResultId, GradingStatus.GRADING);
+        wakeUp();
+    }
+
+    /** Triggers a poll right away instead of waiting for the next interval. */
+    public void wakeUp() {
+        try {
+            poller.execute(this::poll);
+        } catch (RejectedExecutionException e) {
+            // Kapanıyor → iş DB'de, bir sonraki açılışta işlenir
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (GradingJobStatus status : GradingJobStatus.values()) {
+            stats.put(status.name().toLowerCase(), jobRepository.countByStatus(status));
+        }
+        stats.put("busyWorkers", threads - freeWorkers.availablePermits());
+        // lastError ham Gemini/HTTP gövdesi içerebilir → dışarı verilmez, log'da var
+        stats.put("recentFailures", jobRepository.findByStatusOrderByIdDesc(GradingJobStatus.DEAD, Limit.of(20))
+                .stream()
+                .map(j -> Map.of(
+                        "quizResultId", j.getQuizResultId(),
+                        "attempts", j.getAttempts()))
+                .toList());
+        return stats;
+    }
+
+    // ==========================================
+    // Poller & worker
+    // ==========================================
+
+    private void poll() {
+        try {
+            // DB timestamp hassasiyeti → lease karşılaştırması (lockedAt = :lockedAt) birebir tutsun
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+            int released = jobRepository.releaseExpired(now.minusNanos(leaseMs * 1_000_000), now,
+                    GradingJobStatus.PENDING, GradingJobStatus.RUNNING);
+            if (released > 0) {
+                log.warn("Re-queued {} grading jobs whose worker did not finish in time", released);
+            }
+            int releasedBatch = jobRepository.releaseExpired(now.minusNanos(batchLeaseMs * 1_000_000), now,
+                    GradingJobStatus.PENDING, GradingJobStatus.BATCH);
+            if (releasedBatch > 0) {
+                log.warn("Re-queued {} grading jobs whose batch run did not finish in time", releasedBatch);
+            }
+
+            int free = freeWorkers.availablePermits();
+            if (free == 0) return;
+
+            List<GradingJob> due = jobRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByNextAttemptAtAsc(
+                    GradingJobStatus.PENDING, now, Limit.of(free));
+
+            for (GradingJob job : due) {
+                if (!freeWorkers.tryAcquire()) break;
+
+                // Başka node / önceki poll aldıysa 0 döner
+                if (jobRepository.claim(job.getId(), now, GradingJobStatus.PENDING, GradingJobStatus.RUNNING) == 0) {
+                    freeWorkers.release();
+                    continue;
+                }
+                job.setStatus(GradingJobStatus.RUNNING);
+                job.setLockedAt(now);
+                job.setAttempts(job.getAttempts() + 1);
+
+                workers.execute(() -> {
+                    try {
+                        process(job);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            // DB geçici olarak yoksa bir sonraki poll dener
+            log.error("Grading job poll failed: {}", e.getMessage());
+        }
+    }
+
+    private void process(GradingJob job) {
+        Long resultId = job.getQuizResultId();
+
+        try {
+            if (!quizResultRepository.existsById(resultId)) {
+                // Study silinmiş → yapılacak iş yok
+                finish(job, GradingJobStatus.DONE, "QuizResult not found");
+                return;
+            }
+
+            QuizResult graded = gradingService.gradeQuizResult(resultId, true);
+            if (!finish(job, GradingJobStatus.DONE, null)) return;
+            log.info("Grading job for QuizResult {} completed on attempt {}", resultId, job.getAttempts());
+
+            notifyParticipant(graded);
+        } catch (Exception e) {
+            failed(job, e);
+        }
+    }
+
+    private void failed(GradingJob job, Exception e) {
+        Long resultId = job.getQuizResultId();
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+
+        if (job.getAttempts() >= maxAttempts) {
+            log.error("Grading job for QuizResult {} failed {} times, giving up: {}",
+                    resultId, job.getAttempts(), error);
+            if (finish(job, GradingJobStatus.DEAD, error)) {
+                quizResultRepository.updateGradingStatus(resultId, GradingStatus.FAILED);
+            }
+            return;
+        }
+
+        long delayMs = backoffMs(job.getAttempts());
+        log.warn("Grading job for QuizResult {} failed (attempt {}/{}), retrying in {} ms: {}",
+                resultId, job.getAttempts(), maxAttempts, delayMs, error);
+
+        complete(job, GradingJobStatus.PENDING, error, null, LocalDateTime.now().plusNanos(delayMs * 1_000_000));
+    }
+
+    private void notifyParticipant(QuizResult result) {
+        try {
+            notificationService.notifyParticipantQuizGraded(result.getParticipant().getId(), result.getStudy().getId());
+        } catch (Exception e) {
+            // Puanlama kaydedildi; bildirim hatası işi tekrar çalıştırmamalı
+            log.warn("Could not notify participant about graded QuizResult {}: {}", result.getId(), e.getMessage());
+        }
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    /** Closes the job as DONE / DEAD; false when the outcome was discarded (see {@link #complete}). */
+    private boolean finish(GradingJob job, GradingJobStatus status, String error) {
+        return complete(job, status, error, LocalDateTime.now(), job.getNextAttemptAt());
+    }
+
+    /**
+     * Writes the outcome of a run only while this run still holds the job's lease.
+     * A job resubmitted during the run goes back to the queue instead; a job whose
+     * lease expired and was claimed again is left to the newer run.
+     */
+    private boolean complete(GradingJob job, GradingJobStatus status, String error,
+                             LocalDateTime finishedAt, LocalDateTime nextAttemptAt) {
+        // Worker için RUNNING, toplu çalıştırma için BATCH (batchGraded işi DB'den okur)
+        GradingJobStatus held = job.getStatus();
+
+        if (jobRepository.complete(job.getId(), job.getLockedAt(), held,
+                status, error, finishedAt, nextAttemptAt) == 1) {
+            return true;
+        }
+
+        if (jobRepository.restartRequested(job.getId(), job.getLockedAt(), LocalDateTime.now(),
+                held, GradingJobStatus.PENDING) == 1) {
+            log.info("QuizResult {} was resubmitted while grading, grading it again", job.getQuizResultId());
+            quizResultRepository.updateGradingStatus(job.getQuizResultId(), GradingStatus.GRADING);
+            wakeUp();
+        } else {
+            log.warn("Grading job for QuizResult {} lost its lease, discarding this run's outcome",
+                    job.getQuizResultId());
+        }
+        return false;
+    }
+
+    private boolean requeue(GradingJob job, GradingJobStatus... from) {
+        return jobRepository.requeue(job.getId(), LocalDateTime.now(), List.of(from), GradingJobStatus.PENDING) == 1;
+    }
+
+    // base · 2^(attempt-1), üst sınırlı; %20'ye kadar jitter → aynı anda düşen işler Gemini'ye birlikte dönmez
+    private long backoffMs(int attempt) {
+        long delay = backoffBaseMs << Math.min(attempt - 1, 20);
+        delay = Math.min(delay, backoffMaxMs);
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+}
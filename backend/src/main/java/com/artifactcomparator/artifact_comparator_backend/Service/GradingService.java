@@ -7,14 +7,21 @@ import com.artifactcomparator.artifact_comparator_backend.Entity.OpenEndedQuesti
 import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
 import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
 import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,11 +31,35 @@ public class GradingService {
 
     private final QuizResultRepository quizResultRepository;
     private final GeminiGradingService geminiGradingService;
+    private final GradeMemoService gradeMemoService;
 
-
+    // Bir quiz result'ın açık uçlu soruları için aynı anda Gemini'de bekleyen en fazla istek
+    @Value("${grading.ai.max-concurrency:4}")
+    private int aiMaxConcurrency;
 
     @Transactional
     public QuizResult gradeQuizResult(Long resultId) {
+        return gradeQuizResult(resultId, false);
+    }
+
+    /**
+     * Grades a submitted result. With failOnAiError a Gemini failure aborts
+     * the whole grading (nothing is saved) so the grading job can retry it;
+     * otherwise the question gets 0 points and the error as feedback.
+     */
+    @Transactional
+    public QuizResult gradeQuizResult(Long resultId, boolean failOnAiError) {
+        return gradeQuizResult(resultId, Map.of(), failOnAiError);
+    }
+
+    /**
+     * Same as above, but open-ended questions found in openEndedGrades
+     * (questionId → grade, e.g. from batch grading) are not sent to Gemini again.
+     * An answer identical to one graded before reuses that grade (see
+     * GradeMemoService); the source result is kept in gradeSources.
+     */
+    @Transactional
+    public QuizResult gradeQuizResult(Long resultId, Map<Long, GradingResult> openEndedGrades, boolean failOnAiError) {
         log.info("Starting grading for QuizResult id: {}", resultId);
 
         QuizResult result = quizResultRepository.findById(resultId)
@@ -47,6 +78,9 @@ public class GradingService {
 
         Quiz quiz = result.getQuiz();
 
+        // Open-ended answers are collected here and sent to Gemini together below
+        List<OpenEndedAnswer> openEnded = new ArrayList<>();
+
         // Grade each question
         for (Question question : quiz.getQuestions()) {
             Long questionId = question.getId();
@@ -62,14 +96,36 @@ public class GradingService {
             // Grade based on question type
             if (question instanceof MultipleChoiceQuestion) {
                 gradeMultipleChoice(result, (MultipleChoiceQuestion) question, participantAnswer);
+            } else if (question instanceof OpenEndedQuestion && openEndedGrades.containsKey(questionId)) {
+                GradingResult grade = openEndedGrades.get(questionId);
+                result.getPointsEarned().put(questionId, grade.getScore());
+                result.getAiFeedback().put(questionId, grade.getFeedback());
+                gradeMemoService.remember(questionId, question.getQuestionText(), question.getPoints(),
+                        participantAnswer, grade, resultId);
             } else if (question instanceof OpenEndedQuestion) {
-                gradeOpenEnded(result, (OpenEndedQuestion) question, participantAnswer);
+                Optional<GradeMemoService.Memo> memo = gradeMemoService.lookup(
+                        questionId, question.getQuestionText(), question.getPoints(), participantAnswer);
+
+                if (memo.isPresent()) {
+                    // Aynı (normalize) cevap daha önce puanlandı → Gemini'ye gidilmez
+                    result.getPointsEarned().put(questionId, memo.get().grade().getScore());
+                    result.getAiFeedback().put(questionId, memo.get().grade().getFeedback());
+                    result.getGradeSources().put(questionId, memo.get().sourceResultId());
+                    log.info("Open-Ended Question {}: reused grade of identical answer in QuizResult {}",
+                            questionId, memo.get().sourceResultId());
+                } else {
+                    openEnded.add(new OpenEndedAnswer(
+                            questionId, question.getQuestionText(), participantAnswer, question.getPoints()));
+                }
             }
         }
 
+        gradeOpenEnded(result, openEnded, failOnAiError);
+
         // Calculate total score
         result.calculateTotalPoints();
         result.setGradedAt(LocalDateTime.now());
+        result.setGradingStatus(GradingStatus.GRADED);
 
         QuizResult gradedResult = quizResultRepository.save(result);
         log.info("Completed grading for QuizResult id: {}. Total score: {}/{}",
@@ -91,33 +147,64 @@ public class GradingService {
                 points, question.getPoints());
     }
 
-    private void gradeOpenEnded(QuizResult result, OpenEndedQuestion question, String participantAnswer) {
-        Long questionId = question.getId();
+    /**
+     * Grades the open-ended answers concurrently (at most aiMaxConcurrency
+     * Gemini calls in flight), then writes scores and feedback into the result
+     * on this thread in question order, so the outcome does not depend on
+     * which call finished first.
+     */
+    private void gradeOpenEnded(QuizResult result, List<OpenEndedAnswer> answers, boolean failOnAiError) {
+        if (answers.isEmpty()) return;
 
-        try {
-            log.info("Sending Open-Ended Question {} to Gemini for grading", questionId);
+        log.info("Sending {} Open-Ended Questions to Gemini for grading (max in flight: {})",
+                answers.size(), aiMaxConcurrency);
 
-            // Call Gemini to grade the answer
-            GradingResult gradingResult = geminiGradingService.gradeOpenEndedAnswer(
-                    question.getQuestionText(),
-                    participantAnswer,
-                    question.getPoints()
-            );
+        // flatMapSequential → paralel çalışır, sonuçlar soru sırasıyla gelir
+        List<OpenEndedGrade> grades = Flux.fromIterable(answers)
+                .flatMapSequential(answer -> gradeOpenEndedAsync(answer, failOnAiError), Math.max(1, aiMaxConcurrency))
+                .collectList()
+                .block();
+
+        for (int i = 0; i < answers.size(); i++) {
+            OpenEndedAnswer answer = answers.get(i);
+            GradingResult gradingResult = grades.get(i).grade();
 
             // Store points and feedback
-            result.getPointsEarned().put(questionId, gradingResult.getScore());
-            result.getAiFeedback().put(questionId, gradingResult.getFeedback());
+            result.getPointsEarned().put(answer.questionId(), gradingResult.getScore());
+            result.getAiFeedback().put(answer.questionId(), gradingResult.getFeedback());
 
             log.info("Open-Ended Question {} graded by Gemini: {}/{} points",
-                    questionId, gradingResult.getScore(), question.getPoints());
+                    answer.questionId(), gradingResult.getScore(), answer.maxPoints());
 
-        } catch (Exception e) {
+            // Hata yüzünden verilen 0 puan hatırlanmaz
+            if (grades.get(i).fromAi()) {
+                gradeMemoService.remember(answer.questionId(), answer.questionText(), answer.maxPoints(),
+                        answer.answer(), gradingResult, result.getId());
+            }
+        }
+    }
+
+    private Mono<OpenEndedGrade> gradeOpenEndedAsync(OpenEndedAnswer answer, boolean failOnAiError) {
+        Long questionId = answer.questionId();
+
+        Mono<OpenEndedGrade> grading = Mono.defer(() -> geminiGradingService.gradeOpenEndedAnswerAsync(
+                answer.questionText(),
+                answer.answer(),
+                answer.maxPoints()
+        )).map(grade -> new OpenEndedGrade(grade, true));
+
+        // Job kuyruğundan çağrıldıysa → hata yukarı (diğer istekler iptal), iş backoff ile tekrar denenir
+        if (failOnAiError) {
+            return grading.onErrorMap(e -> new RuntimeException(
+                    "Open-Ended Question " + questionId + ": " + e.getMessage(), e));
+        }
+
+        return grading.onErrorResume(e -> {
             log.error("Error grading Open-Ended Question {}: {}", questionId, e.getMessage());
 
             // On error, assign 0 points and store error message
-            result.getPointsEarned().put(questionId, 0.0);
-            result.getAiFeedback().put(questionId, "Grading failed: " + e.getMessage());
-        }
+            return Mono.just(new OpenEndedGrade(new GradingResult(0.0, "Grading failed: " + e.getMessage()), false));
+        });
     }
 
     @Transactional
@@ -141,6 +228,13 @@ public class GradingService {
 
             Question question = questionMap.get(questionId);
             result.getPointsEarned().put(questionId, newGrade);
+
+            // Araştırmacı AI puanını düzeltti → bu cevabın hatırlanan puanı artık kullanılmaz
+            if (question instanceof OpenEndedQuestion) {
+                gradeMemoService.forget(questionId, question.getQuestionText(), question.getPoints(),
+                        result.getAnswers().get(questionId));
+                result.getGradeSources().remove(questionId);
+            }
         }
 
         result.calculateTotalPoints();
@@ -148,4 +242,11 @@ public class GradingService {
         return quizResultRepository.save(result);
     }
 
+    // Gemini'ye giden soru bilgisi; entity'ye paralel thread'lerden dokunulmaz
+    private record OpenEndedAnswer(Long questionId, String questionText, String answer, Integer maxPoints) {
+    }
+
+    // fromAi = false → hata yüzünden verilen 0 puan
+    private record OpenEndedGrade(GradingResult grade, boolean fromAi) {
+    }
 }
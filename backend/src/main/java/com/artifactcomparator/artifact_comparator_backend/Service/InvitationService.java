@@ -105,5 +105,7 @@ public class InvitationService {
                 notificationRepository.save(notification);
             }
         }
+        // 🔔 Okunmamış sayısı değişti
+        notificationService.notificationsChanged(userId);
     }
 }
\ No newline at end of file
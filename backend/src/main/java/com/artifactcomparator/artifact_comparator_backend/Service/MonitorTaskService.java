@@ -14,11 +14,17 @@ public class MonitorTaskService {
 
     private final EvaluationTaskRepository taskRepo;
     private final ParticipantTaskResponseRepository respRepo;
+    private final ResultAggregateService resultAggregateService;
+    private final StudyResultsCubeService cubeService;
 
     public MonitorTaskService(EvaluationTaskRepository taskRepo,
-                              ParticipantTaskResponseRepository respRepo) {
+                              ParticipantTaskResponseRepository respRepo,
+                              ResultAggregateService resultAggregateService,
+                              StudyResultsCubeService cubeService) {
         this.taskRepo = taskRepo;
         this.respRepo = respRepo;
+        this.resultAggregateService = resultAggregateService;
+        this.cubeService = cubeService;
     }
 
     public MonitorTaskDetailsDTO getTaskDetails(Long taskId) {
@@ -46,9 +52,43 @@ public class MonitorTaskService {
         }
 
         // ============================================================
-        // Responses
+        // Özetler + participant cevapları
+        // → results cube varsa bellekten, yoksa DB'den
         // ============================================================
-        List<ParticipantTaskResponse> responses = respRepo.findByTask_Id(taskId);
+        Map<Long, CriterionResultAggregate> aggregates;
+        List<MonitorTaskDetailsDTO.ParticipantAnswerDTO> participantRows = new ArrayList<>();
+
+        StudyResultsCube cube = cubeService.findCube(study);
+
+        if (cube != null && cube.hasTask(taskId)) {
+            aggregates = cube.aggregates(taskId);
+            cube.forEachResponse(taskId, (username, answers) ->
+                    participantRows.add(new MonitorTaskDetailsDTO.ParticipantAnswerDTO(username, answers)));
+        } else {
+            // Dağılım DB'de GROUP BY ile, participant satırları projection ile
+            aggregates = resultAggregateService.summarizeTask(task);
+
+            // [responseId, username, answerIndex, answer] — response sırasıyla
+            Long currentResponse = null;
+            List<String> answers = null;
+
+            for (Object[] row : respRepo.findAnswerCellsForTask(taskId)) {
+                Long responseId = (Long) row[0];
+
+                if (!responseId.equals(currentResponse)) {
+                    currentResponse = responseId;
+                    answers = new ArrayList<>();
+                    participantRows.add(
+                            new MonitorTaskDetailsDTO.ParticipantAnswerDTO((String) row[1], answers));
+                }
+
+                Integer index = (Integer) row[2];
+                if (index == null) continue;
+
+                while (answers.size() <= index) answers.add("");
+                answers.set(index, row[3] != null ? (String) row[3] : "");
+            }
+        }
 
         // ============================================================
         // CRITERIA LIST → includes correctAnswer
@@ -70,38 +110,26 @@ public class MonitorTaskService {
         // ============================================================
         List<MonitorTaskDetailsDTO.CriterionDistributionDTO> distribution = new ArrayList<>();
 
+        ResultAggregateService.FirstSeenAnswers firstSeen = new ResultAggregateService.FirstSeenAnswers();
+        for (MonitorTaskDetailsDTO.ParticipantAnswerDTO row : participantRows) {
+            firstSeen.addResponse(row.getAnswers(), criteria.size());
+        }
+
         for (int i = 0; i < criteria.size(); i++) {
 
             EvaluationCriterion crit = criteria.get(i);
+            CriterionResultAggregate agg = aggregates.getOrDefault(
+                    crit.getId(), new CriterionResultAggregate());
 
             // ✅ 3A) Eğer bu kriter CODE_EDIT ise: Correct/Wrong/Pending say
             if (crit.getType() == CriterionType.CODE_EDIT) {
 
-                int correct = 0, wrong = 0, pending = 0;
-
                 String correctAnswer = correctMap.getOrDefault(crit.getId(), "");
 
-                for (ParticipantTaskResponse r : responses) {
-                    String ans = "";
-                    if (r.getAnswers() != null && r.getAnswers().size() > i) {
-                        ans = r.getAnswers().get(i);
-                    }
-
-                    if (ans == null || ans.isBlank()) {
-                        pending++;
-                        continue;
-                    }
-
-                    boolean ok = normalizeCode(extractEditedCode(ans))
-                            .equals(normalizeCode(correctAnswer));
-                    if (ok) correct++;
-                    else wrong++;
-                }
-
                 Map<String, Integer> options = new LinkedHashMap<>();
-                options.put("Correct", correct);
-                options.put("Wrong", wrong);
-                options.put("Pending", pending);
+                options.put("Correct", agg.getCorrectCount());
+                options.put("Wrong", agg.getWrongCount());
+                options.put("Pending", agg.getBlankCount());
 
                 distribution.add(
                         new MonitorTaskDetailsDTO.CriterionDistributionDTO(
@@ -115,19 +143,9 @@ public class MonitorTaskService {
                 continue; // 🔥 aşağıdaki eski freq mantığına girmesin
             }
 
-            Map<String, Integer> freq = new LinkedHashMap<>();
-
-            for (ParticipantTaskResponse r : responses) {
-
-                String ans = "";
-                if (r.getAnswers() != null && r.getAnswers().size() > i) {
-                    ans = r.getAnswers().get(i);
-                }
-
-                if (ans == null || ans.isBlank()) ans = "—";
-
-                freq.put(ans, freq.getOrDefault(ans, 0) + 1);
-            }
+            // Seçenekler ilk görüldükleri sırayla (participant satırları response sırasında),
+            // trim edilmiş cevaba göre gruplanır, boş cevaplar "—"; sayılar özetten
+            Map<String, Integer> freq = firstSeen.distribution(i, agg, "—");
 
             distribution.add(
                     new MonitorTaskDetailsDTO.CriterionDistributionDTO(
@@ -139,20 +157,6 @@ public class MonitorTaskService {
             );
         }
 
-        // ============================================================
-        // PARTICIPANT ANSWERS
-        // ============================================================
-        List<MonitorTaskDetailsDTO.ParticipantAnswerDTO> participantRows = new ArrayList<>();
-
-        for (ParticipantTaskResponse r : responses) {
-            participantRows.add(
-                    new MonitorTaskDetailsDTO.ParticipantAnswerDTO(
-                            r.getParticipant().getUsername(),
-                            r.getAnswers()
-                    )
-            );
-        }
-
         // ============================================================
         // RETURN DTO
         // ============================================================
@@ -164,38 +168,4 @@ public class MonitorTaskService {
                 participantRows
         );
     }
-
-    private String normalizeCode(String s) {
-        if (s == null) return "";
-        return s
-                .replaceAll("//.*", "")
-                .replaceAll("/\\*(.|\\R)*?\\*/", "")
-                .replaceAll("\\s+", "")
-                .trim();
-    }
-
-    private String extractEditedCode(String raw) {
-        if (raw == null || raw.isBlank()) return "";
-
-        String trimmed = raw.trim();
-
-        // JSON gibi duruyorsa
-        if (trimmed.startsWith("{")) {
-            try {
-                com.fasterxml.jackson.databind.ObjectMapper mapper =
-                        new com.fasterxml.jackson.databind.ObjectMapper();
-                com.fasterxml.jackson.databind.JsonNode node =
-                        mapper.readTree(trimmed);
-
-                if (node.has("editedCode")) {
-                    return node.get("editedCode").asText("");
-                }
-            } catch (Exception e) {
-                // parse edilemezse fallback
-            }
-        }
-
-        // JSON değilse direkt code kabul et
-        return raw;
-    }
 }
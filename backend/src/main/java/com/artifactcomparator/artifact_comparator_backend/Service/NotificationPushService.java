@@ -0,0 +1,137 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events channel for user notifications.
+ * A user may have several open tabs; each gets new notifications and the
+ * unread count as they change, so idle clients cause no database queries.
+ */
+@Service
+@Slf4j
+public class NotificationPushService {
+
+    private final int maxSubscribers;
+    private final long timeoutMs;
+
+    // userId → açık bağlantılar
+    private final Map<Long, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Gönderimler tek thread'de → yavaş client submit eden isteği bekletmez
+    private final ScheduledExecutorService executor;
+
+    public NotificationPushService(@Value("${notifications.push.max-subscribers:1000}") int maxSubscribers,
+                                   @Value("${notifications.push.heartbeat-seconds:25}") long heartbeatSeconds,
+                                   @Value("${notifications.push.timeout-ms:1800000}") long timeoutMs) {
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-push");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        emitters.values().forEach(set -> set.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Opens a channel for the user and sends the current unread count first.
+     * Returns null when this node already serves max-subscribers clients.
+     */
+    public SseEmitter subscribe(Long userId, long unreadCount) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            log.warn("Notification push subscriber limit ({}) reached, rejecting user {}", maxSubscribers, userId);
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        // compute → aynı anda boşalan set'in haritadan silinmesiyle yarışmaz
+        emitters.compute(userId, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+
+        Runnable remove = () -> remove(userId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        executor.execute(() -> send(userId, emitter, "unread", Map.of("count", unreadCount)));
+        return emitter;
+    }
+
+    public boolean isConnected(Long userId) {
+        Set<SseEmitter> set = emitters.get(userId);
+        return set != null && !set.isEmpty();
+    }
+
+    public Set<Long> connectedUsers() {
+        return new HashSet<>(emitters.keySet());
+    }
+
+    /** Sends an event to every open channel of the user (no-op when offline). */
+    public void push(Long userId, String name, Object data) {
+        Set<SseEmitter> set = emitters.get(userId);
+        if (set == null || set.isEmpty()) return;
+
+        List<SseEmitter> targets = new ArrayList<>(set);
+        executor.execute(() -> {
+            for (SseEmitter emitter : targets) {
+                send(userId, emitter, name, data);
+            }
+        });
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    private void send(Long userId, SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Bağlantı kopmuş → client EventSource ile yeniden bağlanır
+            remove(userId, emitter);
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void heartbeat() {
+        emitters.forEach((userId, set) -> {
+            for (SseEmitter emitter : new ArrayList<>(set)) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(userId, emitter);
+                    emitter.completeWithError(e);
+                }
+            }
+        });
+    }
+
+    private void remove(Long userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (k, set) -> {
+            if (set.remove(emitter)) subscriberCount.decrementAndGet();
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
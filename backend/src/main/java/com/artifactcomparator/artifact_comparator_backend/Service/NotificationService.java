@@ -1,22 +1,28 @@
 package com.artifactcomparator.artifact_comparator_backend.Service;
 
 import com.artifactcomparator.artifact_comparator_backend.DTO.NotificationDto;
+import com.artifactcomparator.artifact_comparator_backend.DTO.NotificationPageDto;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Notification;
 import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
 import com.artifactcomparator.artifact_comparator_backend.Enums.NotificationTypes;
 import com.artifactcomparator.artifact_comparator_backend.Enums.QuizStatus;
+import com.artifactcomparator.artifact_comparator_backend.Event.NotificationChangedEvent;
 import com.artifactcomparator.artifact_comparator_backend.Repository.NotificationRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @Slf4j
@@ -26,6 +32,12 @@ public class NotificationService {
     private final UserRepository userRepository;
     private final StudyRepository studyRepository;
     private final QuizResultRepository quizResultRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // userId → okunmamış bildirim sayısı (değişince commit sonrası silinir)
+    private final Map<Long, Long> unreadCounts = new ConcurrentHashMap<>();
+    // Sayım sürerken gelen değişiklik stale değeri cache'e yazdırmasın
+    private final AtomicLong unreadVersion = new AtomicLong();
 
 //    import com.artifactcomparator.artifact_comparator_backend.Service.NotificationService;
 //    private final NotificationService notificationService;
@@ -34,11 +46,13 @@ public class NotificationService {
     public NotificationService(NotificationRepository notificationRepository,
                                UserRepository userRepository,
                                StudyRepository studyRepository,
-                               QuizResultRepository quizResultRepository) {
+                               QuizResultRepository quizResultRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.notificationRepository = notificationRepository;
         this.userRepository = userRepository;
         this.studyRepository = studyRepository;
         this.quizResultRepository = quizResultRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // ==========================================
@@ -50,6 +64,11 @@ public class NotificationService {
         createNotification(userId, studyId, NotificationTypes.ACCEPTED_TO_STUDY_PARTICIPANT, null);
     }
 
+    @Transactional
+    public void notifyParticipantQuizGraded(Long userId, Long studyId) {
+        createNotification(userId, studyId, NotificationTypes.QUIZ_GRADED_PARTICIPANT, null);
+    }
+
     @Transactional
     public void notifyParticipantInvitation(Long userId, Long studyId) {
         createNotification(userId, studyId, NotificationTypes.INVITATION_TO_STUDY_PARTICIPANT, null);
@@ -131,6 +150,7 @@ public class NotificationService {
             if(type == NotificationTypes.WAITING_FOR_QUIZ_APPROVAL_RESEARCHER) userCount = quizResultRepository.countByStudyIdAndStatus(studyId, QuizStatus.PENDING) ;
             finalMessage = switch (type) {
                 case ACCEPTED_TO_STUDY_PARTICIPANT -> "You have been accepted into the study: " + studyTitle;
+                case QUIZ_GRADED_PARTICIPANT -> "Your quiz for the study '" + studyTitle + "' has been graded.";
                 case INVITATION_TO_STUDY_PARTICIPANT ->
                         "You have received an invitation to join the study: " + studyTitle;
                 case WAITING_FOR_QUIZ_APPROVAL_RESEARCHER ->
@@ -162,6 +182,9 @@ public class NotificationService {
 
         log.info("New notification created: {}", notification);
         notificationRepository.save(notification);
+
+        // 📣 Commit sonrası açık bağlantılara gönderilsin
+        eventPublisher.publishEvent(new NotificationChangedEvent(this, userId, toDto(notification)));
     }
 
     // ==========================================
@@ -173,24 +196,71 @@ public class NotificationService {
     public List<NotificationDto> getUserNotificationsDto(Long userId) {
         return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId)
                 .stream()
-                .map(n -> new NotificationDto(
-                        n.getId(),
-                        n.getMessage(),
-                        n.isRead(),
-                        n.isAnswered(),
-                        n.getUser() != null ? n.getUser().getId() : null,
-                        n.getStudy() != null ? n.getStudy().getId() : null,
-                        n.getType().name(),
-                        n.getCreatedAt()
-                ))
+                .map(this::toDto)
                 .toList();
     }
+
+    /**
+     * Newest-first page of a user's notifications (keyset pagination).
+     * before is the previous page's nextCursor, null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public NotificationPageDto getUserNotificationsPage(Long userId, Long before, int limit) {
+        int size = Math.max(1, Math.min(limit, 100));
+
+        // Bir fazla çek → sonraki sayfa var mı anlaşılsın
+        List<Notification> rows = (before == null)
+                ? notificationRepository.findByUserIdOrderByIdDesc(userId, Limit.of(size + 1))
+                : notificationRepository.findByUserIdAndIdLessThanOrderByIdDesc(userId, before, Limit.of(size + 1));
+
+        boolean hasMore = rows.size() > size;
+        List<NotificationDto> items = rows.stream().limit(size).map(this::toDto).toList();
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        return new NotificationPageDto(items, nextCursor);
+    }
+
+    /** Unread count of a user, cached until their notifications change. */
+    @Transactional(readOnly = true)
+    public long getUnreadCount(Long userId) {
+        Long cached = unreadCounts.get(userId);
+        if (cached != null) return cached;
+
+        long version = unreadVersion.get();
+        long count = notificationRepository.countByUserIdAndIsReadFalse(userId);
+
+        unreadCounts.put(userId, count);
+        // Sayım sırasında değişiklik geldiyse yazılan değer bayat olabilir
+        if (unreadVersion.get() != version) unreadCounts.remove(userId);
+        return count;
+    }
+
+    /** Drops the cached unread count; userId null → every user. */
+    public void evictUnreadCount(Long userId) {
+        unreadVersion.incrementAndGet();
+        if (userId == null) unreadCounts.clear();
+        else unreadCounts.remove(userId);
+    }
+
+    /**
+     * Notifications were changed outside this service (e.g. invitation answered,
+     * study deleted); userId null → many users.
+     */
+    public void notificationsChanged(Long userId) {
+        eventPublisher.publishEvent(new NotificationChangedEvent(this, userId, null));
+    }
+
     @Transactional
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
+        boolean wasUnread = !notification.isRead();
         notification.setRead(true);
         notificationRepository.save(notification);
+
+        if (wasUnread) {
+            notificationsChanged(notification.getUser().getId());
+        }
     }
 
     @Transactional
@@ -200,4 +270,17 @@ public class NotificationService {
         notification.setAnswered(true);
         notificationRepository.save(notification);
     }
+
+    private NotificationDto toDto(Notification n) {
+        return new NotificationDto(
+                n.getId(),
+                n.getMessage(),
+                n.isRead(),
+                n.isAnswered(),
+                n.getUser() != null ? n.getUser().getId() : null,
+                n.getStudy() != null ? n.getStudy().getId() : null,
+                n.getType().name(),
+                n.getCreatedAt()
+        );
+    }
 }
\ No newline at end of file
@@ -3,11 +3,15 @@ package com.artifactcomparator.artifact_comparator_backend.Service;
 import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
 import com.artifactcomparator.artifact_comparator_backend.Entity.ParticipantTaskResponse;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
 import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,9 +24,17 @@ public class ParticipantTaskResponseService {
     @Autowired
     private ParticipantTaskResponseRepository responseRepo;
 
+    @Autowired
+    private ResultAggregateService resultAggregateService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Transactional
     public void saveResponse(User participant, Long taskId, List<String> answers) {
 
-        EvaluationTask task = taskRepo.findById(taskId)
+        // 🔒 Aynı task'a eşzamanlı submit'ler sonuç özetini sırayla güncellesin
+        EvaluationTask task = taskRepo.findByIdForUpdate(taskId)
                 .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // 🔍 VAR MI BAK
@@ -35,16 +47,47 @@ public class ParticipantTaskResponseService {
                             return r;
                         });
 
+        // Önceki cevap varsa özetten düşmek için kopyala
+        List<String> previousAnswers =
+                (response.getId() != null && response.getAnswers() != null)
+                        ? new ArrayList<>(response.getAnswers())
+                        : null;
+
         // 🔁 ÜSTÜNE YAZ
         response.setAnswers(answers);
         responseRepo.save(response);
 
+        // 📊 Task × criterion özetini güncelle
+        resultAggregateService.applyResponse(task, response.getId(), previousAnswers, answers);
+
+        // 📡 Live feed için değişen monitor kutucukları
+        List<ResponseSubmittedEvent.CriterionChange> changes =
+                resultAggregateService.bucketChanges(task, response.getId(), previousAnswers, answers);
+
         // ✅ TASK COMPLETION EKLE
         if (!task.getCompletedParticipants().contains(participant)) {
             task.getCompletedParticipants().add(participant);
-            taskRepo.save(task);
         }
 
+        // 🔖 Cache'lenmiş raporlar artık bayat
+        task.bumpResultsVersion();
+        taskRepo.save(task);
+
+        // 📣 Commit sonrası dinleyenler (results cube, live feed) güncellensin
+        eventPublisher.publishEvent(new ResponseSubmittedEvent(
+                this,
+                task.getStudy().getId(),
+                task.getId(),
+                response.getId(),
+                task.getResultsVersion(),
+                participant.getId(),
+                participant.getUsername(),
+                previousAnswers,
+                answers != null ? new ArrayList<>(answers) : List.of(),
+                task.getCompletedParticipants().size(),
+                changes
+        ));
+
     }
 
     public Optional<ParticipantTaskResponse> getResponseForParticipant(
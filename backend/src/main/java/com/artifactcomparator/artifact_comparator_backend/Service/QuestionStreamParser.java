@@ -0,0 +1,124 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental scanner for the quiz generator output
+ * ({@code {"questions": [ {...}, {...} ]}}, or a bare array). Text is fed
+ * chunk by chunk as the model streams it; every element object is returned
+ * as raw JSON as soon as its closing brace arrives, so one malformed
+ * question only loses itself. Text around the array (code fences, chatter)
+ * is ignored. Not thread-safe: one instance per response.
+ */
+final class QuestionStreamParser {
+
+    private static final String ARRAY_KEY = "questions";
+
+    // Yalnızca işlenmemiş kısım tutulur; tamamlanan soru nesneleri buradan silinir
+    private final StringBuilder buffer = new StringBuilder();
+    private int scanned;
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private int stringStart = -1;
+    private String lastString;
+
+    // questions dizisinin içindeki derinlik; -1 → dizi henüz görülmedi
+    private int arrayDepth = -1;
+    private int objectStart = -1;
+    private boolean closed;
+    private int emitted;
+
+    /** Question objects completed by this chunk, in order. */
+    List<String> feed(String chunk) {
+        List<String> completed = new ArrayList<>();
+        if (closed || chunk == null || chunk.isEmpty()) return completed;
+
+        buffer.append(chunk);
+        for (int i = scanned; i < buffer.length() && !closed; i++) {
+            scan(buffer.charAt(i), i, completed);
+        }
+        scanned = buffer.length();
+        compact();
+        return completed;
+    }
+
+    /** True once the closing bracket of the question array has been seen. */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /** True if an element object was cut off (e.g. the output token limit was hit). */
+    boolean hasPartialQuestion() {
+        return objectStart >= 0;
+    }
+
+    int emitted() {
+        return emitted;
+    }
+
+    private void scan(char c, int i, List<String> completed) {
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+                // Dizi bulunana kadar son anahtarı hatırla ("questions": [ için)
+                if (arrayDepth < 0 && i - stringStart <= ARRAY_KEY.length()) {
+                    lastString = buffer.substring(stringStart, i);
+                }
+                stringStart = -1;
+            }
+            return;
+        }
+
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                stringStart = i + 1;
+            }
+            case '{', '[' -> {
+                if (arrayDepth < 0) {
+                    if (c == '[' && (depth == 0 || ARRAY_KEY.equals(lastString))) {
+                        arrayDepth = depth + 1;
+                    }
+                } else if (c == '{' && depth == arrayDepth) {
+                    objectStart = i;
+                }
+                depth++;
+            }
+            case '}', ']' -> {
+                if (depth == 0) return; // dizi dışındaki başıboş kapanış
+                depth--;
+                if (arrayDepth < 0) return;
+
+                if (c == '}' && depth == arrayDepth && objectStart >= 0) {
+                    completed.add(buffer.substring(objectStart, i + 1));
+                    objectStart = -1;
+                    emitted++;
+                } else if (depth < arrayDepth) {
+                    objectStart = -1;
+                    // Boş dizi ("[x]" gibi açıklama metni olabilir) → aramaya devam
+                    if (emitted > 0) closed = true;
+                    else arrayDepth = -1;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void compact() {
+        int keepFrom = objectStart >= 0 ? objectStart : stringStart >= 0 ? stringStart : buffer.length();
+        if (keepFrom == 0) return;
+
+        buffer.delete(0, keepFrom);
+        scanned -= keepFrom;
+        if (objectStart >= 0) objectStart -= keepFrom;
+        if (stringStart >= 0) stringStart -= keepFrom;
+    }
+}
@@ -0,0 +1,97 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server-Sent Events for AI quiz generation. Each question is pushed as a
+ * "question" event while Gemini is still writing the rest; when the model
+ * finishes, the quiz is saved with every question that parsed and a "done"
+ * event carries its id. Failures end the stream with an "error" event.
+ * Nothing is saved if the client disconnects first.
+ */
+@Service
+@Slf4j
+public class QuizGenerationStreamService {
+
+    private final GeminiQuizService geminiQuizService;
+    private final QuizService quizService;
+    private final long timeoutMs;
+
+    public QuizGenerationStreamService(GeminiQuizService geminiQuizService,
+                                       QuizService quizService,
+                                       @Value("${quiz.generation.stream.timeout-ms:300000}") long timeoutMs) {
+        this.geminiQuizService = geminiQuizService;
+        this.quizService = quizService;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public SseEmitter generate(String title, String description, String topic,
+                               String difficulty, int numberOfQuestions, String questionType) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Disposable.Swap subscription = Disposables.swap();
+
+        emitter.onCompletion(subscription::dispose);
+        emitter.onTimeout(subscription::dispose);
+        emitter.onError(e -> subscription.dispose());
+
+        // Reactor sinyalleri sıralı gelir → liste senkronizasyon gerektirmez
+        List<Question> questions = new ArrayList<>();
+
+        subscription.update(geminiQuizService.streamQuestions(topic, numberOfQuestions, difficulty, questionType)
+                // Kayıt (JPA) ve emitter yazımı Netty event loop'unu bloklamasın
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(
+                        question -> {
+                            questions.add(question);
+                            if (!send(emitter, "question", Map.of("index", questions.size() - 1, "question", question))) {
+                                subscription.dispose();
+                            }
+                        },
+                        error -> {
+                            log.error("Error streaming AI quiz '{}': {}", title, error.getMessage());
+                            send(emitter, "error", Map.of("message", "Failed to generate questions: " + error.getMessage()));
+                            emitter.complete();
+                        },
+                        () -> {
+                            try {
+                                Quiz quiz = quizService.createQuiz(title, description, topic, difficulty, questions);
+                                send(emitter, "done", Map.of(
+                                        "quizId", quiz.getId(),
+                                        "questionCount", questions.size(),
+                                        "requestedCount", numberOfQuestions,
+                                        "totalPoints", quiz.getTotalPoints()));
+                            } catch (RuntimeException e) {
+                                log.error("Error saving streamed AI quiz '{}': {}", title, e.getMessage());
+                                send(emitter, "error", Map.of("message", "Failed to save quiz: " + e.getMessage()));
+                            }
+                            emitter.complete();
+                        }));
+
+        return emitter;
+    }
+
+    private static boolean send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client sayfadan ayrıldı → üretim iptal edilir
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.artifactcomparator.artifact_comparator_backend.Service;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.*;
+import com.artifactcomparator.artifact_comparator_backend.Enums.GradingStatus;
 import com.artifactcomparator.artifact_comparator_backend.Enums.QuizStatus;
 import com.artifactcomparator.artifact_comparator_backend.Repository.QuizRepository;
 import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
@@ -29,6 +30,7 @@ public class QuizResultService {
     private final StudyRepository studyRepository;
     private final UserRepository userRepository;
     private final GradingService gradingService;
+    private final GradingJobService gradingJobService;
     private final NotificationService notificationService;
 
     @Transactional
@@ -81,6 +83,12 @@ public class QuizResultService {
     }
 
 
+    /**
+     * Stores the answers and queues the result for grading.
+     * Returns right away with gradingStatus GRADING; GradingJobService (or
+     * BatchGradingService for batch-graded quizzes) fills in the scores and
+     * notifies the participant.
+     */
     @Transactional
     public QuizResult submitAnswers(Long resultId, Map<Long, String> answers) {
         log.info("Submitting answers for QuizResult id: {}", resultId);
@@ -95,6 +103,7 @@ public class QuizResultService {
         // Update answers Map
         result.getAnswers().putAll(answers);
         result.setSubmittedAt(LocalDateTime.now());
+        result.setGradingStatus(GradingStatus.GRADING);
 
         QuizResult savedResult = quizResultRepository.save(result);
         log.info("Answers submitted for QuizResult id: {}", resultId);
@@ -106,16 +115,17 @@ public class QuizResultService {
         for (Researcher researcher : researchers) {
             notificationService.notifyResearcherQuizApproval(researcher.getId(), study.getId());
         }
-        try {
-            QuizResult gradedResult = gradingService.gradeQuizResult(savedResult.getId());
-            log.info("Auto-grading completed for QuizResult id: {}", resultId);
-            return gradedResult;
-        } catch (Exception e) {
-            log.error("Auto-grading failed for QuizResult id: {}", resultId, e);
-            // Return submitted result even if grading fails
-            // Researcher can manually trigger grading later
+
+        // Toplu puanlama modunda araştırmacı tetikleyene kadar bekler (BatchGradingService)
+        if (Boolean.TRUE.equals(result.getQuiz().getBatchGrading())) {
+            log.info("QuizResult id: {} waiting for batch grading", resultId);
             return savedResult;
         }
+
+        // ⏳ Gemini çağrıları istek / transaction dışında, job worker'ında
+        gradingJobService.enqueue(savedResult.getId());
+        log.info("QuizResult id: {} queued for grading", resultId);
+        return savedResult;
     }
 
     /**
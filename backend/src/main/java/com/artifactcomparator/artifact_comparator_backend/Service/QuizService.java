@@ -21,6 +21,7 @@ public class QuizService {
     private final QuizRepository quizRepository;
     private final GeminiQuizService geminiQuizService;
     private final StudyRepository studyRepository;
+    private final GradeMemoService gradeMemoService;
 
     @Transactional
     public Quiz createQuiz(String title, String description, String topic,
@@ -172,6 +173,8 @@ public class QuizService {
         if (points != null) oeq.setPoints(points);
 
         Quiz savedQuiz = quizRepository.save(quiz);
+        // Eski soruya verilmiş puanlar yeni cevaplara taşınmasın
+        gradeMemoService.invalidate(List.of(questionId));
         log.info("Open-ended question ID: {} updated successfully", questionId);
 
         return savedQuiz;
@@ -217,6 +220,8 @@ public class QuizService {
             studyRepository.save(study);
         }
 
+        gradeMemoService.invalidate(quiz.getQuestions().stream().map(Question::getId).toList());
+
         // Delete quiz
         quizRepository.delete(quiz);
         log.info("Quiz deleted successfully");
@@ -236,6 +241,7 @@ public class QuizService {
         }
 
         Quiz savedQuiz = quizRepository.save(quiz);
+        gradeMemoService.invalidate(List.of(questionId));
         log.info("Question deleted. Quiz now has {} questions", savedQuiz.getQuestionCount());
 
         return savedQuiz;
@@ -0,0 +1,264 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.ReportJobDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Background study PDF report jobs.
+ * Finished reports are cached on disk as study-{id}-{resultsVersion}.pdf,
+ * so an unchanged study is served without rendering again, and concurrent
+ * requests for the same study + version share a single render.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    public enum JobStatus { QUEUED, RUNNING, DONE, FAILED }
+
+    // Bitmiş job kayıtları bu süreden sonra hafızadan silinir (PDF cache'te kalır)
+    private static final Duration JOB_RETENTION = Duration.ofHours(1);
+
+    private final StudyPdfExportService pdfExportService;
+    private final ResultAggregateService resultAggregateService;
+    private final ThreadPoolExecutor executor;
+    private final Path cacheDir;
+
+    // jobId → job
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // studyId:version → render eden job (aynı rapor için tek render)
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>();
+
+    public ReportJobService(StudyPdfExportService pdfExportService,
+                            ResultAggregateService resultAggregateService,
+                            @Value("${report.jobs.threads:2}") int threads,
+                            @Value("${report.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${report.cache-dir:}") String cacheDir) throws IOException {
+        this.pdfExportService = pdfExportService;
+        this.resultAggregateService = resultAggregateService;
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-job");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.cacheDir = (cacheDir == null || cacheDir.isBlank())
+                ? Path.of(System.getProperty("java.io.tmpdir"), "artifact-comparator-reports")
+                : Path.of(cacheDir);
+        Files.createDirectories(this.cacheDir);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ==========================================
+    // Public API
+    // ==========================================
+
+    /**
+     * Returns a job for the study's current results version.
+     * Already cached → DONE immediately; already rendering → the running job.
+     */
+    public ReportJobDTO submit(Long studyId) {
+        purgeOldJobs();
+
+        String version = resultAggregateService.getResultsVersion(studyId);
+        Path file = reportFile(studyId, version);
+
+        if (Files.exists(file)) {
+            ReportJob cached = new ReportJob(studyId, version);
+            cached.status = JobStatus.DONE;
+            cached.pagesDone = cached.totalPages = 1;
+            cached.finishedAt = LocalDateTime.now();
+            jobs.put(cached.id, cached);
+            return toDto(cached);
+        }
+
+        String key = studyId + ":" + version;
+        ReportJob job = inFlight.computeIfAbsent(key, k -> {
+            ReportJob created = new ReportJob(studyId, version);
+            jobs.put(created.id, created);
+            try {
+                executor.execute(() -> render(created, key));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(created.id);
+                throw new RuntimeException("Report queue is full, please try again later");
+            }
+            return created;
+        });
+
+        return toDto(job);
+    }
+
+    public ReportJobDTO getJob(String jobId) {
+        return toDto(findJob(jobId));
+    }
+
+    /**
+     * Opens the finished PDF; fails if the job is not DONE yet. The caller
+     * closes the channel, which stays readable even if a newer version of the
+     * report deletes the file meanwhile.
+     */
+    public FileChannel openReportFile(String jobId) {
+        ReportJob job = findJob(jobId);
+
+        if (job.status != JobStatus.DONE) {
+            throw new RuntimeException("Report is not ready yet (status: " + job.status + ")");
+        }
+
+        FileChannel file = open(reportFile(job.studyId, job.version));
+        if (file == null) {
+            throw new RuntimeException("Report file expired, please export again");
+        }
+        return file;
+    }
+
+    /** Opens the cached report for the study's current version; null if there is none. */
+    public FileChannel openCachedReport(Long studyId) {
+        return open(reportFile(studyId, resultAggregateService.getResultsVersion(studyId)));
+    }
+
+    // ==========================================
+    // Worker
+    // ==========================================
+
+    private void render(ReportJob job, String key) {
+        job.status = JobStatus.RUNNING;
+        Path target = reportFile(job.studyId, job.version);
+        Path tmp = target.resolveSibling(target.getFileName() + "." + job.id + ".tmp");
+
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp))) {
+                pdfExportService.generateStudyReport(job.studyId, out, (done, total) -> {
+                    job.pagesDone = done;
+                    job.totalPages = total;
+                });
+            }
+
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            deleteOtherVersions(job.studyId, target);
+
+            job.status = JobStatus.DONE;
+        } catch (Exception e) {
+            log.error("Report job {} for study {} failed", job.id, job.studyId, e);
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // temp dosya silinemezse bir sonraki render üstüne yazar
+            }
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            inFlight.remove(key, job);
+        }
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    private ReportJob findJob(String jobId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Report job not found");
+        }
+        return job;
+    }
+
+    private Path reportFile(Long studyId, String version) {
+        return cacheDir.resolve("study-" + studyId + "-" + version + ".pdf");
+    }
+
+    // Aynı study'nin eski sürüm raporları artık kullanılmaz
+    // Açık kanal dosya silinse de okunabilir → indirme sırasında yeni versiyonun temizliği onu kesmez
+    private static FileChannel open(Path file) {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read report file", e);
+        }
+    }
+
+    private void deleteOtherVersions(Long studyId, Path keep) {
+        String prefix = "study-" + studyId + "-";
+        try (Stream<Path> files = Files.list(cacheDir)) {
+            files.filter(p -> p.getFileName().toString().startsWith(prefix))
+                    .filter(p -> p.getFileName().toString().endsWith(".pdf"))
+                    .filter(p -> !p.equals(keep))
+                    .forEach(p -> {
+                        try {
+                            Files.deleteIfExists(p);
+                        } catch (IOException e) {
+                            log.warn("Could not delete old report {}", p);
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("Could not clean old reports for study {}", studyId);
+        }
+    }
+
+    private void purgeOldJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(JOB_RETENTION);
+        jobs.values().removeIf(j -> j.finishedAt != null && j.finishedAt.isBefore(cutoff));
+    }
+
+    private ReportJobDTO toDto(ReportJob job) {
+        int percent = job.totalPages > 0 ? (job.pagesDone * 100) / job.totalPages : 0;
+        return new ReportJobDTO(
+                job.id,
+                job.studyId,
+                job.version,
+                job.status.name(),
+                job.pagesDone,
+                job.totalPages,
+                percent,
+                job.error,
+                job.createdAt,
+                job.finishedAt
+        );
+    }
+
+    private static class ReportJob {
+        final String id = UUID.randomUUID().toString();
+        final Long studyId;
+        final String version;
+        final LocalDateTime createdAt = LocalDateTime.now();
+
+        volatile JobStatus status = JobStatus.QUEUED;
+        volatile int pagesDone;
+        volatile int totalPages;
+        volatile String error;
+        volatile LocalDateTime finishedAt;
+
+        ReportJob(Long studyId, String version) {
+            this.studyId = studyId;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,522 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.*;
+import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Event.StudyResultsInvalidatedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CriterionResultAggregateRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Keeps the task × criterion result counts in {@link CriterionResultAggregate}
+ * in sync with participant submissions, so the monitor, task details and
+ * PDF export never have to rescan raw {@link ParticipantTaskResponse} rows.
+ *
+ * The persisted aggregates are the authoritative counts: they are updated in
+ * the submit transaction and survive restarts. {@link StudyResultsCube} is a
+ * disposable in-memory copy that serves reads while it fits the memory budget,
+ * and {@link #summarizeTask} is the task-details fallback when no cube is loaded.
+ */
+@Service
+@Slf4j
+public class ResultAggregateService {
+
+    /** How a single answer cell is counted. */
+    public enum AnswerOutcome { BLANK, UNKNOWN, CORRECT, WRONG }
+
+    private final CriterionResultAggregateRepository aggregateRepo;
+    private final ParticipantTaskResponseRepository respRepo;
+    private final EvaluationTaskRepository taskRepo;
+    private final StudyRepository studyRepo;
+    private final CodeAnswerNormalizer codeNormalizer;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ResultAggregateService(CriterionResultAggregateRepository aggregateRepo,
+                                  ParticipantTaskResponseRepository respRepo,
+                                  EvaluationTaskRepository taskRepo,
+                                  StudyRepository studyRepo,
+                                  CodeAnswerNormalizer codeNormalizer,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.aggregateRepo = aggregateRepo;
+        this.respRepo = respRepo;
+        this.taskRepo = taskRepo;
+        this.studyRepo = studyRepo;
+        this.codeNormalizer = codeNormalizer;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // ==========================================
+    // Write path
+    // ==========================================
+
+    /**
+     * Applies a single submission to the task's aggregates.
+     * previousAnswers is null for a first submission; otherwise the old
+     * answers are subtracted before the new ones are counted.
+     * Caller must hold the task row lock (EvaluationTaskRepository.findByIdForUpdate).
+     */
+    @Transactional
+    public void applyResponse(EvaluationTask task,
+                              Long responseId,
+                              List<String> previousAnswers,
+                              List<String> newAnswers) {
+
+        List<EvaluationCriterion> criteria = task.getStudy().getCriteriaSorted();
+        if (criteria.isEmpty()) return;
+
+        Map<Long, CriterionResultAggregate> byCriterion =
+                indexByCriterion(aggregateRepo.findByTaskId(task.getId()));
+
+        // Özet yoksa ya da criterion yapısı değişmişse baştan hesapla
+        if (!matchesCriteria(byCriterion, criteria)) {
+            rebuildTask(task);
+            return;
+        }
+
+        Map<Long, String> correctMap = correctAnswerMap(task);
+
+        for (int i = 0; i < criteria.size(); i++) {
+            EvaluationCriterion crit = criteria.get(i);
+            CriterionResultAggregate agg = byCriterion.get(crit.getId());
+            String correctValue = correctMap.getOrDefault(crit.getId(), "");
+
+            if (previousAnswers != null) {
+                count(agg, responseId, answerAt(previousAnswers, i), correctValue, crit.getType(), -1);
+            }
+            count(agg, responseId, answerAt(newAnswers, i), correctValue, crit.getType(), 1);
+        }
+
+        aggregateRepo.saveAll(byCriterion.values());
+    }
+
+    /**
+     * Criteria whose bucket on the monitor page changes with this submission.
+     * Buckets follow the progress endpoint: no correct answer → unknown,
+     * blank or mismatching → wrong.
+     */
+    public List<ResponseSubmittedEvent.CriterionChange> bucketChanges(EvaluationTask task,
+                                                                      Long responseId,
+                                                                      List<String> previousAnswers,
+                                                                      List<String> newAnswers) {
+
+        List<EvaluationCriterion> criteria = task.getStudy().getCriteriaSorted();
+        Map<Long, String> correctMap = correctAnswerMap(task);
+        List<ResponseSubmittedEvent.CriterionChange> changes = new ArrayList<>();
+
+        for (int i = 0; i < criteria.size(); i++) {
+            EvaluationCriterion crit = criteria.get(i);
+            String correctValue = correctMap.getOrDefault(crit.getId(), "");
+
+            String from = previousAnswers == null ? "pending"
+                    : bucket(score(task.getId(), crit.getId(), i, crit.getType(), correctValue,
+                    responseId, answerAt(previousAnswers, i)), correctValue);
+            String to = bucket(score(task.getId(), crit.getId(), i, crit.getType(), correctValue,
+                    responseId, answerAt(newAnswers, i)), correctValue);
+
+            if (!from.equals(to)) {
+                changes.add(new ResponseSubmittedEvent.CriterionChange(crit.getId(), from, to));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Recomputes every aggregate of a task from its stored responses.
+     * Needed whenever the correct answers or the study criteria change.
+     */
+    @Transactional
+    public void rebuildTask(Long taskId) {
+        EvaluationTask task = taskRepo.findByIdForUpdate(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        rebuildTask(task);
+    }
+
+    @Transactional
+    public int rebuildStudy(Long studyId) {
+        Study study = studyRepo.findById(studyId)
+                .orElseThrow(() -> new RuntimeException("Study not found"));
+
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            rebuildTask(task.getId());
+        }
+        return study.getEvaluationTasks().size();
+    }
+
+    @Transactional
+    public int rebuildAll() {
+        int rebuilt = 0;
+        for (Study study : studyRepo.findAll()) {
+            rebuilt += rebuildStudy(study.getId());
+        }
+        log.info("Rebuilt result aggregates for {} tasks", rebuilt);
+        return rebuilt;
+    }
+
+    @Transactional
+    public void deleteForTask(EvaluationTask task) {
+        aggregateRepo.deleteByTaskId(task.getId());
+        codeNormalizer.evictTask(task.getId());
+        eventPublisher.publishEvent(new StudyResultsInvalidatedEvent(this, task.getStudy().getId()));
+    }
+
+    private void rebuildTask(EvaluationTask task) {
+
+        aggregateRepo.deleteByTaskId(task.getId());
+        eventPublisher.publishEvent(new StudyResultsInvalidatedEvent(this, task.getStudy().getId()));
+
+        if (task.getStudy().getCriteriaSorted().isEmpty()) return;
+
+        aggregateRepo.saveAll(summarizeTask(task).values());
+    }
+
+    // ==========================================
+    // Read path
+    // ==========================================
+
+    /**
+     * Computes the task's criterion results straight from the database:
+     * answers are grouped by (answer index, value) in SQL, so only one row
+     * per distinct answer is loaded and every distinct value is scored once.
+     * Option counts keep the order in which the answers were first submitted.
+     * Nothing is persisted.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, CriterionResultAggregate> summarizeTask(EvaluationTask task) {
+
+        List<EvaluationCriterion> criteria = task.getStudy().getCriteriaSorted();
+        Map<Long, String> correctMap = correctAnswerMap(task);
+        int responses = (int) respRepo.countByTask_Id(task.getId());
+
+        List<CriterionResultAggregate> byIndex = new ArrayList<>();
+        for (int i = 0; i < criteria.size(); i++) {
+            byIndex.add(new CriterionResultAggregate(
+                    task.getStudy().getId(), task.getId(), criteria.get(i).getId(), i));
+        }
+
+        // [answerIndex, answer, count]
+        for (Object[] row : respRepo.countAnswersByIndexForTask(task.getId())) {
+            Integer index = (Integer) row[0];
+            if (index == null || index >= criteria.size()) continue;
+
+            EvaluationCriterion crit = criteria.get(index);
+            count(byIndex.get(index), null, (String) row[1],
+                    correctMap.getOrDefault(crit.getId(), ""), crit.getType(), ((Long) row[2]).intValue());
+        }
+
+        Map<Long, CriterionResultAggregate> result = new HashMap<>();
+        for (CriterionResultAggregate agg : byIndex) {
+            // Cevap listesi kısa olan response'ların eksik hücreleri boş sayılır
+            agg.setBlankCount(agg.getBlankCount() + responses - agg.getResponseCount());
+            agg.setResponseCount(responses);
+            result.put(agg.getCriterionId(), agg);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the precomputed results of every task of a study.
+     * Tasks whose aggregates are missing or out of date (e.g. data created
+     * before the aggregate table existed) are rebuilt on the fly.
+     */
+    @Transactional
+    public StudyResults getStudyResults(Study study) {
+
+        Map<Long, Integer> completedCounts = new HashMap<>();
+        for (Object[] row : respRepo.countResponsesPerTaskForStudy(study.getId())) {
+            completedCounts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+
+        Map<Long, Map<Long, CriterionResultAggregate>> byTask = new HashMap<>();
+        for (CriterionResultAggregate agg : aggregateRepo.findByStudyId(study.getId())) {
+            byTask.computeIfAbsent(agg.getTaskId(), k -> new HashMap<>())
+                    .put(agg.getCriterionId(), agg);
+        }
+
+        List<EvaluationCriterion> criteria = study.getCriteriaSorted();
+
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            int completed = completedCounts.getOrDefault(task.getId(), 0);
+            Map<Long, CriterionResultAggregate> current =
+                    byTask.getOrDefault(task.getId(), Collections.emptyMap());
+
+            if (isStale(current, criteria, completed)) {
+                rebuildTask(task.getId());
+                byTask.put(task.getId(), indexByCriterion(aggregateRepo.findByTaskId(task.getId())));
+            }
+        }
+
+        return new StudyResults(completedCounts, byTask);
+    }
+
+    /**
+     * Fingerprint of everything the study report depends on: per-task
+     * results versions, criteria (with their question text and options),
+     * participant count and the study's own fields. Changes whenever a
+     * response, task, criterion or correct answer changes.
+     */
+    @Transactional(readOnly = true)
+    public String getResultsVersion(Long studyId) {
+        Study study = studyRepo.findById(studyId)
+                .orElseThrow(() -> new RuntimeException("Study not found"));
+
+        StringBuilder sb = new StringBuilder()
+                .append(study.getUpdatedAt()).append('|')
+                .append(study.getStatus()).append('|')
+                .append(study.getParticipants().size());
+
+        study.getEvaluationTasks().stream()
+                .sorted(Comparator.comparing(EvaluationTask::getId))
+                .forEach(t -> sb.append("|t").append(t.getId()).append(':').append(t.getResultsVersion()));
+
+        for (EvaluationCriterion c : study.getCriteriaSorted()) {
+            sb.append("|c").append(c.getId()).append(':').append(c.getPriorityOrder())
+                    .append(':').append(criterionContent(c));
+        }
+
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    // Raporda görünen kriter içeriği: soru / seçenek düzenlenince cache'teki PDF eskir
+    private static String criterionContent(EvaluationCriterion c) {
+        StringBuilder sb = new StringBuilder()
+                .append(c.getType()).append('\u0000')
+                .append(c.getQuestion()).append('\u0000')
+                .append(c.getDescription());
+
+        if (c instanceof MultipleChoiceCriterion mc) {
+            sb.append('\u0000').append(mc.getNumberOfOptions())
+                    .append('\u0000').append(mc.isMultipleSelection())
+                    .append('\u0000').append(mc.getOptions() == null ? "" : String.join("\u0001", mc.getOptions()));
+        } else if (c instanceof RatingCriterion rc) {
+            sb.append('\u0000').append(rc.getStartValue()).append('\u0000').append(rc.getEndValue());
+        } else if (c instanceof OpenEndedCriterion oc) {
+            sb.append('\u0000').append(oc.getMinLength()).append('\u0000').append(oc.getMaxLength());
+        } else if (c instanceof OpenEndedNumericCriterion nc) {
+            sb.append('\u0000').append(nc.isIntegerOnly())
+                    .append('\u0000').append(nc.getMinValue()).append('\u0000').append(nc.getMaxValue());
+        } else if (c instanceof ImageHighlightCriterion ic) {
+            sb.append('\u0000').append(ic.getNumberOfAnnotations());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Scores one answer cell against the task's correct answer: blank answers
+     * are BLANK; CODE_EDIT answers are compared after code normalization (an
+     * empty correct answer is empty code); other answers without a correct
+     * answer are UNKNOWN, the rest are compared verbatim as the monitor page
+     * always has. Callers that show "unknown" for tasks without a correct
+     * answer check the correct answer themselves.
+     */
+    public AnswerOutcome score(Long taskId,
+                               Long criterionId,
+                               int criterionIndex,
+                               CriterionType type,
+                               String correctValue,
+                               Long responseId,
+                               String rawAnswer) {
+
+        if (rawAnswer == null || rawAnswer.isBlank()) return AnswerOutcome.BLANK;
+
+        // CODE_EDIT her zaman karşılaştırılır: correct answer boşsa boş koda göre (task details Correct/Wrong)
+        if (type == CriterionType.CODE_EDIT) {
+            return codeNormalizer.matches(taskId, criterionId, correctValue, responseId, criterionIndex, rawAnswer)
+                    ? AnswerOutcome.CORRECT : AnswerOutcome.WRONG;
+        }
+
+        if (correctValue == null || correctValue.isBlank()) return AnswerOutcome.UNKNOWN;
+
+        // Doğruluk monitor ile aynı: ham değer correct answer ile birebir karşılaştırılır (trim yok)
+        return rawAnswer.equals(correctValue) ? AnswerOutcome.CORRECT : AnswerOutcome.WRONG;
+    }
+
+    private static String bucket(AnswerOutcome outcome, String correctValue) {
+        if (correctValue == null || correctValue.isBlank()) return "unknown";
+        return outcome == AnswerOutcome.CORRECT ? "correct" : "wrong";
+    }
+
+    private void count(CriterionResultAggregate agg,
+                       Long responseId,
+                       String rawAnswer,
+                       String correctValue,
+                       CriterionType type,
+                       int delta) {
+
+        AnswerOutcome outcome = score(agg.getTaskId(), agg.getCriterionId(), agg.getCriterionIndex(),
+                type, correctValue, responseId, rawAnswer);
+
+        agg.setResponseCount(agg.getResponseCount() + delta);
+
+        // Cevap içeriği dağılımı (A, B, ...); CODE_EDIT cevapları kod bloğu, sayılmaz
+        // Dağılım trim edilmiş değere göre gruplanır: " A" ile "A" aynı seçenek (doğruluktan farklı)
+        if (outcome != AnswerOutcome.BLANK && type != CriterionType.CODE_EDIT) {
+            String userValue = rawAnswer.trim();
+            Integer newCount = agg.getOptionCounts().merge(userValue, delta, Integer::sum);
+            if (newCount != null && newCount <= 0) {
+                agg.getOptionCounts().remove(userValue);
+            }
+        }
+
+        switch (outcome) {
+            case BLANK -> agg.setBlankCount(agg.getBlankCount() + delta);
+            case UNKNOWN -> agg.setUnknownCount(agg.getUnknownCount() + delta);
+            case CORRECT -> agg.setCorrectCount(agg.getCorrectCount() + delta);
+            case WRONG -> agg.setWrongCount(agg.getWrongCount() + delta);
+        }
+    }
+
+    private boolean isStale(Map<Long, CriterionResultAggregate> current,
+                            List<EvaluationCriterion> criteria,
+                            int completedCount) {
+        if (criteria.isEmpty()) return false;
+        if (!matchesCriteria(current, criteria)) return completedCount > 0 || !current.isEmpty();
+
+        for (CriterionResultAggregate agg : current.values()) {
+            if (agg.getResponseCount() != completedCount) return true;
+        }
+        return false;
+    }
+
+    private boolean matchesCriteria(Map<Long, CriterionResultAggregate> current,
+                                    List<EvaluationCriterion> criteria) {
+        if (current.size() != criteria.size()) return false;
+
+        for (int i = 0; i < criteria.size(); i++) {
+            CriterionResultAggregate agg = current.get(criteria.get(i).getId());
+            if (agg == null || agg.getCriterionIndex() != i) return false;
+        }
+        return true;
+    }
+
+    private Map<Long, CriterionResultAggregate> indexByCriterion(List<CriterionResultAggregate> rows) {
+        Map<Long, CriterionResultAggregate> map = new HashMap<>();
+        for (CriterionResultAggregate agg : rows) {
+            map.put(agg.getCriterionId(), agg);
+        }
+        return map;
+    }
+
+    // criterionId → correct answer ("" if none)
+    public Map<Long, String> correctAnswerMap(EvaluationTask task) {
+        Map<Long, String> correctMap = new HashMap<>();
+
+        if (task.getCorrectAnswers() != null) {
+            for (CorrectAnswerEntry entry : task.getCorrectAnswers()) {
+                if (entry != null && entry.getCriterionId() != null) {
+                    correctMap.put(
+                            entry.getCriterionId(),
+                            entry.getAnswerValue() != null ? entry.getAnswerValue() : ""
+                    );
+                }
+            }
+        }
+        return correctMap;
+    }
+
+    private String answerAt(List<String> answers, int index) {
+        if (answers == null || index >= answers.size()) return "";
+        String value = answers.get(index);
+        return value != null ? value : "";
+    }
+
+    // ==========================================
+    // Read model
+    // ==========================================
+
+    public static class StudyResults {
+
+        private final Map<Long, Integer> completedCounts;
+        private final Map<Long, Map<Long, CriterionResultAggregate>> aggregates;
+
+        StudyResults(Map<Long, Integer> completedCounts,
+                     Map<Long, Map<Long, CriterionResultAggregate>> aggregates) {
+            this.completedCounts = completedCounts;
+            this.aggregates = aggregates;
+        }
+
+        public int completedCount(Long taskId) {
+            return completedCounts.getOrDefault(taskId, 0);
+        }
+
+        public int totalSubmissions() {
+            return completedCounts.values().stream().mapToInt(Integer::intValue).sum();
+        }
+
+        // Hiç submission yoksa boş (sıfır) özet döner
+        public CriterionResultAggregate get(Long taskId, Long criterionId) {
+            CriterionResultAggregate agg = aggregates
+                    .getOrDefault(taskId, Collections.emptyMap())
+                    .get(criterionId);
+            return agg != null ? agg : new CriterionResultAggregate();
+        }
+    }
+
+    /**
+     * Distinct answers per criterion index in the order they were first
+     * submitted (trimmed, "" for blank), used to order answer charts.
+     */
+    public static class FirstSeenAnswers {
+
+        private final List<Set<String>> byIndex = new ArrayList<>();
+
+        public void add(int index, String answer) {
+            while (byIndex.size() <= index) byIndex.add(new LinkedHashSet<>());
+            byIndex.get(index).add(answer == null || answer.isBlank() ? "" : answer.trim());
+        }
+
+        // Eksik hücreler boş cevap sayılır
+        public void addResponse(List<String> answers, int criteriaCount) {
+            for (int i = 0; i < criteriaCount; i++) {
+                add(i, answers != null && i < answers.size() ? answers.get(i) : null);
+            }
+        }
+
+        /**
+         * Answer counts of one criterion in first-seen order, blank answers
+         * under blankLabel. Counts come from the aggregate; options it has
+         * that were not seen here are appended in the aggregate's order.
+         */
+        public Map<String, Integer> distribution(int index,
+                                                 CriterionResultAggregate agg,
+                                                 String blankLabel) {
+            Map<String, Integer> options = new LinkedHashMap<>();
+            Set<String> seen = index < byIndex.size() ? byIndex.get(index) : Set.of();
+
+            for (String key : seen) {
+                if (key.isEmpty()) {
+                    if (agg.getBlankCount() > 0) options.put(blankLabel, agg.getBlankCount());
+                } else {
+                    Integer count = agg.getOptionCounts().get(key);
+                    if (count != null && count > 0) options.put(key, count);
+                }
+            }
+
+            for (Map.Entry<String, Integer> e : agg.getOptionCounts().entrySet()) {
+                if (e.getValue() > 0) options.putIfAbsent(e.getKey(), e.getValue());
+            }
+            if (agg.getBlankCount() > 0) options.putIfAbsent(blankLabel, agg.getBlankCount());
+            return options;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-Sent Events feed for the study monitor page.
+ * Every committed submission is pushed to the study's subscribers as a small
+ * delta, and idle connections get a heartbeat comment. The last deltas of each
+ * study are kept so a client reconnecting with Last-Event-ID receives what it
+ * missed, or a "resync" event when it is too far behind. A study's feed is
+ * dropped once it has had no subscribers for monitor.live.idle-feed-ttl-ms.
+ */
+@Service
+@Slf4j
+public class StudyLiveFeedService {
+
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final int replaySize;
+    private final long idleFeedTtlMs;
+
+    // Event id = "<epoch>-<seq>"; başka bir açılıştan gelen id → resync
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    // seq tüm study'ler için ortak → silinip yeniden açılan feed eski id'lere replay yapmaz
+    private final AtomicLong sequence = new AtomicLong();
+
+    // studyId → abone listesi + son delta'lar
+    private final Map<Long, StudyFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    // Tüm gönderimler tek thread'de → her abone event'leri sırayla alır
+    private final ScheduledExecutorService executor;
+
+    public StudyLiveFeedService(@Value("${monitor.live.max-subscribers:200}") int maxSubscribers,
+                                @Value("${monitor.live.heartbeat-seconds:20}") long heartbeatSeconds,
+                                @Value("${monitor.live.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${monitor.live.replay-size:256}") int replaySize,
+                                @Value("${monitor.live.idle-feed-ttl-ms:300000}") long idleFeedTtlMs) {
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.replaySize = replaySize;
+        this.idleFeedTtlMs = idleFeedTtlMs;
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "monitor-live-feed");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (StudyFeed feed : feeds.values()) {
+            feed.emitters.forEach(SseEmitter::complete);
+        }
+    }
+
+    // ==========================================
+    // Subscribe
+    // ==========================================
+
+    /**
+     * Opens a feed for the study, replaying deltas after lastEventId.
+     * Returns null when this node already serves max-subscribers clients.
+     */
+    public SseEmitter subscribe(Long studyId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            log.warn("Live feed subscriber limit ({}) reached, rejecting study {}", maxSubscribers, studyId);
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+
+        // Kayıt + replay aynı kilitte: arada yayınlanan delta kaybolmaz, iki kez de gelmez
+        while (true) {
+            StudyFeed feed = feeds.computeIfAbsent(studyId, k -> new StudyFeed());
+            synchronized (feed) {
+                if (feed.removed) continue; // boşta kaldığı için az önce silindi → yenisini al
+                feed.emitters.add(emitter);
+                feed.idleSince = 0;
+
+                Runnable remove = () -> {
+                    if (feed.emitters.remove(emitter)) subscriberCount.decrementAndGet();
+                };
+                emitter.onCompletion(remove);
+                emitter.onTimeout(remove);
+                emitter.onError(e -> remove.run());
+
+                replay(feed, emitter, studyId, lastEventId);
+                return emitter;
+            }
+        }
+    }
+
+    /**
+     * Sequence number of the study's last published event; deltas with a
+     * higher number are newer than anything read after this call.
+     */
+    public long currentVersion(Long studyId) {
+        StudyFeed feed = feeds.get(studyId);
+        if (feed == null) return sequence.get();
+        synchronized (feed) {
+            return feed.lastSeq;
+        }
+    }
+
+    // synchronized (feed) içinde çağrılır
+    private void replay(StudyFeed feed, SseEmitter emitter, Long studyId, String lastEventId) {
+        List<FeedEvent> missed = feed.since(lastEventId);
+        long seq = feed.lastSeq;
+
+        executor.execute(() -> {
+            if (missed == null) {
+                send(feed, emitter, new FeedEvent(seq, "resync", Map.of("studyId", studyId)));
+                return;
+            }
+            for (FeedEvent event : missed) {
+                if (!send(feed, emitter, event)) return;
+            }
+            // Yeni bağlanan client reconnect için bir başlangıç id'si alsın
+            if (lastEventId == null || lastEventId.isBlank()) {
+                send(feed, emitter, new FeedEvent(seq, "ready", Map.of("studyId", studyId)));
+            }
+        });
+    }
+
+    // ==========================================
+    // Publish (after commit)
+    // ==========================================
+
+    public void publish(ResponseSubmittedEvent event) {
+        StudyFeed feed = feeds.get(event.getStudyId());
+        if (feed == null) return; // bu study hiç izlenmedi
+
+        List<Map<String, Object>> changes = new ArrayList<>();
+        for (ResponseSubmittedEvent.CriterionChange change : event.getChanges()) {
+            Map<String, Object> c = new LinkedHashMap<>();
+            c.put("criterionId", change.criterionId());
+            c.put("from", change.from());
+            c.put("to", change.to());
+            changes.add(c);
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("taskId", event.getTaskId());
+        delta.put("completedCount", event.getCompletedCount());
+        delta.put("changes", changes);
+
+        broadcast(feed, "delta", delta);
+    }
+
+    /** Results were recomputed (e.g. correct answers changed) → clients reload the progress. */
+    public void resync(Long studyId) {
+        StudyFeed feed = feeds.get(studyId);
+        if (feed == null) return;
+
+        broadcast(feed, "resync", Map.of("studyId", studyId));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    private void broadcast(StudyFeed feed, String name, Object data) {
+        synchronized (feed) {
+            FeedEvent event = feed.append(name, data);
+            List<SseEmitter> targets = new ArrayList<>(feed.emitters);
+            if (targets.isEmpty()) return;
+
+            executor.execute(() -> {
+                for (SseEmitter emitter : targets) {
+                    send(feed, emitter, event);
+                }
+            });
+        }
+    }
+
+    private boolean send(StudyFeed feed, SseEmitter emitter, FeedEvent event) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .id(epoch + "-" + event.seq())
+                    .name(event.name())
+                    .data(event.data(), MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Bağlantı kopmuş → aboneyi bırak, client Last-Event-ID ile geri gelir
+            if (feed.emitters.remove(emitter)) subscriberCount.decrementAndGet();
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void heartbeat() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Long, StudyFeed> entry : feeds.entrySet()) {
+            StudyFeed feed = entry.getValue();
+            if (feed.emitters.isEmpty()) {
+                prune(entry.getKey(), feed, now);
+                continue;
+            }
+            for (SseEmitter emitter : new ArrayList<>(feed.emitters)) {
+                try {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    if (feed.emitters.remove(emitter)) subscriberCount.decrementAndGet();
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    // Abonesi kalmayan feed replay süresi boyunca tutulur (reconnect için), sonra silinir
+    private void prune(Long studyId, StudyFeed feed, long now) {
+        synchronized (feed) {
+            if (!feed.emitters.isEmpty()) return;
+            if (feed.idleSince == 0) {
+                feed.idleSince = now;
+            } else if (now - feed.idleSince >= idleFeedTtlMs) {
+                feed.removed = true;
+                feeds.remove(studyId, feed);
+            }
+        }
+    }
+
+    private record FeedEvent(long seq, String name, Object data) {
+    }
+
+    private class StudyFeed {
+        final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+
+        // Son replaySize event (eskiden yeniye)
+        final ArrayDeque<FeedEvent> recent = new ArrayDeque<>();
+        long lastSeq = sequence.get();
+        // Bu seq'e kadarki event'ler artık replay edilemez (feed'den önce ya da buffer'dan düşmüş)
+        long droppedSeq = lastSeq;
+
+        // Aboneler ayrıldığından beri (ms, 0 = abonesi var); silinen feed'e kayıt yapılmaz
+        long idleSince;
+        boolean removed;
+
+        // synchronized (feed) içinde çağrılır
+        FeedEvent append(String name, Object data) {
+            lastSeq = sequence.incrementAndGet();
+            FeedEvent event = new FeedEvent(lastSeq, name, data);
+            recent.addLast(event);
+            if (recent.size() > replaySize) droppedSeq = recent.removeFirst().seq();
+            return event;
+        }
+
+        /** Events after lastEventId; empty for a fresh client, null when a resync is needed. */
+        List<FeedEvent> since(String lastEventId) {
+            if (lastEventId == null || lastEventId.isBlank()) return List.of();
+
+            int dash = lastEventId.lastIndexOf('-');
+            if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) return null;
+
+            long seq;
+            try {
+                seq = Long.parseLong(lastEventId.substring(dash + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            if (seq > lastSeq) return null;
+            if (seq < droppedSeq) return null; // aradaki delta'lar artık tutulmuyor
+
+            List<FeedEvent> missed = new ArrayList<>();
+            for (FeedEvent event : recent) {
+                if (event.seq() > seq) missed.add(event);
+            }
+            return missed;
+        }
+    }
+}
@@ -1,28 +1,43 @@
 package com.artifactcomparator.artifact_comparator_backend.Service;
 
 import com.artifactcomparator.artifact_comparator_backend.Entity.*;
-import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
 import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
 import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
 import org.jfree.data.category.DefaultCategoryDataset;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.awt.Color;
 import java.awt.Paint;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.stream.Collectors;
+import java.util.zip.DeflaterOutputStream;
 
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.plot.CategoryPlot;
@@ -33,16 +48,54 @@ import org.jfree.chart.renderer.category.StandardBarPainter;
 public class StudyPdfExportService {
 
     private final StudyRepository studyRepo;
-    private final ParticipantTaskResponseRepository respRepo;
+    private final StudyResultsCubeService cubeService;
+
+    // PDF scratch buffer: bu kadar MB heap'te, fazlası temp dosyada
+    @Value("${report.pdf.max-main-memory-mb:16}")
+    private long maxMainMemoryMb;
+
+    @Value("${report.pdf.temp-dir:}")
+    private String tempDir;
+
+    // Grafik render havuzu; aynı anda en fazla bu kadar sayfa grafiği bellekte
+    private static final int RENDER_WINDOW = 64;
+    private static final int CHART_WIDTH = 360;
+    private static final int CHART_HEIGHT = 160;
+
+    private final ForkJoinPool renderPool;
 
     public StudyPdfExportService(StudyRepository studyRepo,
-                                 ParticipantTaskResponseRepository respRepo) {
+                                 StudyResultsCubeService cubeService,
+                                 @Value("${report.pdf.render-threads:0}") int renderThreads) {
         this.studyRepo = studyRepo;
-        this.respRepo = respRepo;
+        this.cubeService = cubeService;
+
+        // 0 → çekirdek sayısı kadar
+        int parallelism = renderThreads > 0
+                ? renderThreads
+                : Runtime.getRuntime().availableProcessors();
+        this.renderPool = new ForkJoinPool(parallelism);
     }
 
-    public byte[] generateStudyReport(Long studyId) {
-        try (PDDocument doc = new PDDocument()) {
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    /**
+     * Renders the study report straight into the given stream.
+     * Page content and chart images are buffered in a PDFBox scratch file
+     * (at most maxMainMemoryMb in heap), so peak memory does not grow with
+     * the number of tasks × criteria.
+     */
+    @Transactional
+    public void generateStudyReport(Long studyId, OutputStream out) {
+        generateStudyReport(studyId, out, (pagesDone, totalPages) -> { });
+    }
+
+    @Transactional
+    public void generateStudyReport(Long studyId, OutputStream out, ProgressListener progress) {
+        try (PDDocument doc = new PDDocument(scratchMemorySetting())) {
 
             Study study = studyRepo.findById(studyId)
                     .orElseThrow(() -> new RuntimeException("Study not found"));
@@ -50,28 +103,29 @@ public class StudyPdfExportService {
             int totalParticipants = study.getParticipants().size();
             List<EvaluationTask> tasks = study.getEvaluationTasks();
 
-            // Tüm cevaplar
-            List<ParticipantTaskResponse> allResponses =
-                    respRepo.findByTask_Study_Id(studyId);
+            // 📊 Önceden hesaplanmış task × criterion özetleri
+            ResultAggregateService.StudyResults results =
+                    cubeService.getStudyResults(study);
 
             // Study kriterleri (ortak, sıralı)
             List<EvaluationCriterion> sortedCriteria = study.getCriteriaSorted();
             int totalCriteria = sortedCriteria.size();
-            int totalSubmissions = allResponses.size();
+            int totalSubmissions = results.totalSubmissions();
 
             // Study overview için overall completion hesabı
             double overallCompletion = 0.0;
             if (!tasks.isEmpty() && totalParticipants > 0) {
                 int sum = 0;
                 for (EvaluationTask t : tasks) {
-                    long completed = allResponses.stream()
-                            .filter(r -> r.getTask().getId().equals(t.getId()))
-                            .count();
+                    long completed = results.completedCount(t.getId());
                     sum += Math.round((completed * 100.0) / totalParticipants);
                 }
                 overallCompletion = sum / (double) tasks.size();
             }
 
+            int totalPages = 1 + tasks.size() * sortedCriteria.size();
+            int pagesDone = 0;
+
             // ============================
             // 1) OVERVIEW SAYFASI
             // ============================
@@ -84,19 +138,17 @@ public class StudyPdfExportService {
                     totalCriteria,
                     totalSubmissions
             );
+            progress.onProgress(++pagesDone, totalPages);
 
             // ============================
             // 2) HER TASK / CRITERION İÇİN SAYFA
             //    → 1 task'taki her criterion için 1 sayfa
             // ============================
-            for (EvaluationTask task : tasks) {
+            List<CriterionPage> pages = new ArrayList<>();
 
-                // Bu task'a ait cevaplar
-                List<ParticipantTaskResponse> taskResponses = allResponses.stream()
-                        .filter(r -> r.getTask().getId().equals(task.getId()))
-                        .toList();
+            for (EvaluationTask task : tasks) {
 
-                int completedCount = taskResponses.size();
+                int completedCount = results.completedCount(task.getId());
                 int pendingParticipants = totalParticipants - completedCount;
 
                 // Correct answer map (criterionId → correctValue)
@@ -111,88 +163,102 @@ public class StudyPdfExportService {
                                 c -> Optional.ofNullable(c.getAnswerValue()).orElse("")
                         ));
 
-                // Her criterion için ayrı stats hesapla → ayrı sayfa yaz
+                // Seçenek sırası monitor ile aynı: ilk görüldükleri sırayla
+                ResultAggregateService.FirstSeenAnswers firstSeen =
+                        cubeService.firstSeenAnswers(study, task.getId());
+
+                // Her criterion için ayrı stats → ayrı sayfa yaz
                 for (int i = 0; i < sortedCriteria.size(); i++) {
 
-                    // Study kriterleri sıralı
                     EvaluationCriterion crit = sortedCriteria.get(i);
 
-                    // Correct answer'ı criterionId üzerinden bul (frontend ile birebir aynı)
-                    // Correct answer index-based alınmalı (frontend ile birebir aynı)
-                    String correctValue = "";
-                    if (i < correctAnswers.size()) {
-                        CorrectAnswerEntry entry = correctAnswers.get(i);
-                        if (entry != null && entry.getAnswerValue() != null) {
-                            correctValue = entry.getAnswerValue().trim();
-                        }
-                    }
+                    // Correct answer'ı criterionId üzerinden bul (monitor ile birebir aynı)
+                    String correctValue = correctMap.getOrDefault(crit.getId(), "").trim();
+                    boolean correctEmpty = correctValue.isBlank();
+
+                    CriterionResultAggregate agg = results.get(task.getId(), crit.getId());
 
                     CriterionStats stats = new CriterionStats();
                     stats.criterionId = crit.getId();
                     stats.label = crit.getQuestion();
-                    stats.correct = 0;
-                    stats.wrong = 0;
-                    stats.unknown = 0;
+                    stats.correctKey = correctEmpty ? "—" : correctValue;
                     stats.pending = pendingParticipants;
-                    stats.optionCounts = new LinkedHashMap<>();
-
-                    boolean correctEmpty = (correctValue == null || correctValue.isBlank());
-
-                    for (ParticipantTaskResponse r : taskResponses) {
-
-                        List<String> userAns = (r.getAnswers() != null)
-                                ? r.getAnswers()
-                                : Collections.emptyList();
-
-                        String rawUserValue = (i < userAns.size() && userAns.get(i) != null)
-                                ? userAns.get(i)
-                                : "";
-                        String userValue = rawUserValue.trim();
-
-                        boolean userEmpty = userValue.isEmpty();
-
-                        // -------------------------------
-                        // 1) Cevap içeriği dağılımı (A, B, "— (blank)" vb.)
-                        // -------------------------------
-                        String optionKey = userEmpty ? "— (blank)" : userValue;
-                        stats.optionCounts.merge(optionKey, 1, Integer::sum);
-
-                        // Doğruluk mantığı (frontend ile birebir aynı)
-                        if (correctEmpty) {
-                            stats.unknown++;
-                        } else {
-                            if (userEmpty) {
-                                stats.wrong++;
-                            } else if (userValue.equals(correctValue)) {
-                                stats.correct++;
-                            } else {
-                                stats.wrong++;
-                            }
-                        }
+
+                    // Doğruluk mantığı (monitor ile birebir aynı)
+                    if (correctEmpty) {
+                        stats.unknown = agg.getResponseCount();
+                    } else {
+                        stats.correct = agg.getCorrectCount();
+                        stats.wrong = agg.getWrongCount() + agg.getBlankCount();
                     }
 
+                    if (crit.getType() == CriterionType.CODE_EDIT) {
+                        // Kod cevapları tek tek sayılmaz → doğruluk sayaçları
+                        stats.optionCounts.put("Correct", agg.getCorrectCount());
+                        stats.optionCounts.put("Wrong", agg.getWrongCount());
+                        stats.optionCounts.put("Blank", agg.getBlankCount());
+                        stats.optionCounts.put("Pending", pendingParticipants);
+                    } else {
+                        // Cevap içeriği dağılımı (A, B, "— (blank)" vb.)
+                        stats.optionCounts = firstSeen.distribution(i, agg, "— (blank)");
+                    }
+
+                    pages.add(new CriterionPage(task, stats, completedCount));
+                }
+            }
+
+            // ============================
+            // 3) GRAFİKLER paralel render → sayfalar sırayla yazılır
+            //    Pencere pencere ilerle ki heap'te tüm grafikler birikmesin
+            // ============================
+            Map<String, PDImageXObject> imageCache = new HashMap<>();
+
+            for (int from = 0; from < pages.size(); from += RENDER_WINDOW) {
+
+                List<CriterionPage> window =
+                        pages.subList(from, Math.min(from + RENDER_WINDOW, pages.size()));
+
+                Map<String, EncodedChart> rendered = renderCharts(window, imageCache.keySet());
+
+                for (CriterionPage page : window) {
+                    PDImageXObject correctXImg =
+                            toImageXObject(doc, imageCache, rendered, page.correctnessKey);
+                    PDImageXObject answerXImg =
+                            toImageXObject(doc, imageCache, rendered, page.answerKey);
+
                     // Bu criterion için ayrı bir sayfa oluştur
                     addCriterionPage(
                             doc,
                             study,
-                            task,
-                            stats,
+                            page.task,
+                            page.stats,
                             totalParticipants,
-                            completedCount,
-                            sortedCriteria
+                            page.completedCount,
+                            sortedCriteria,
+                            correctXImg,
+                            answerXImg
                     );
+                    progress.onProgress(++pagesDone, totalPages);
                 }
             }
 
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            doc.save(baos);
-            return baos.toByteArray();
+            doc.save(out);
 
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate PDF", e);
         }
     }
 
+    private MemoryUsageSetting scratchMemorySetting() {
+        MemoryUsageSetting setting =
+                MemoryUsageSetting.setupMixed(maxMainMemoryMb * 1024L * 1024L);
+
+        if (tempDir != null && !tempDir.isBlank()) {
+            setting.setTempDir(new File(tempDir));
+        }
+        return setting;
+    }
+
     // ============================
     // OVERVIEW PAGE
     // ============================
@@ -428,7 +494,9 @@ public class StudyPdfExportService {
             CriterionStats stats,
             int totalParticipants,
             int completedCount,
-            List<EvaluationCriterion> sortedCriteria
+            List<EvaluationCriterion> sortedCriteria,
+            PDImageXObject correctXImg,
+            PDImageXObject answerXImg
     ) throws IOException {
 
         PDPage page = new PDPage(PDRectangle.A4);
@@ -537,15 +605,7 @@ public class StudyPdfExportService {
                     margin, y, 480, 14);
 
             // Correct answer
-            String correctKey = "—";
-            List<CorrectAnswerEntry> answerList = task.getCorrectAnswers();
-            for (int j = 0; j < answerList.size(); j++) {
-                if (Objects.equals(sortedCriteria.get(j).getId(), stats.criterionId)) {
-                    String v = answerList.get(j).getAnswerValue();
-                    correctKey = (v == null || v.isBlank()) ? "—" : v.trim();
-                    break;
-                }
-            }
+            String correctKey = stats.correctKey;
 
             y = writeWrappedText(cs,
                     "• Correct Answer: " + correctKey,
@@ -556,16 +616,10 @@ public class StudyPdfExportService {
             // ============================================
             // CHART 1 — Correct/Wrong/Unknown/Pending
             // ============================================
-            float chartWidth = 360f;
-            float chartHeight = 160f;
+            float chartWidth = CHART_WIDTH;
+            float chartHeight = CHART_HEIGHT;
             float centerX = (pageWidth - chartWidth) / 2f;
 
-            JFreeChart correctnessChart = buildCorrectnessChart(stats);
-            BufferedImage correctnessImage = correctnessChart.createBufferedImage(
-                    (int) chartWidth, (int) chartHeight
-            );
-            PDImageXObject correctXImg = LosslessFactory.createFromImage(doc, correctnessImage);
-
             float chartY1 = y - chartHeight;
             cs.drawImage(correctXImg, centerX, chartY1, chartWidth, chartHeight);
 
@@ -582,12 +636,6 @@ public class StudyPdfExportService {
             // ============================================
             // CHART 2 — Answer Distribution
             // ============================================
-            JFreeChart answerChart = buildAnswerDistributionChart(stats);
-            BufferedImage answerImage = answerChart.createBufferedImage(
-                    (int) chartWidth, (int) chartHeight
-            );
-            PDImageXObject answerXImg = LosslessFactory.createFromImage(doc, answerImage);
-
             float chartY2 = y - chartHeight;
             cs.drawImage(answerXImg, centerX, chartY2, chartWidth, chartHeight);
 
@@ -620,6 +668,109 @@ public class StudyPdfExportService {
         }
     }
 
+    // ============================
+    // PARALEL GRAFİK RENDER
+    // ============================
+
+    /**
+     * Rasterizes and deflates the charts of a window of pages on the render pool.
+     * Charts already in the document (skip) or repeated inside the window are
+     * rendered once; identical charts later share a single image XObject.
+     */
+    private Map<String, EncodedChart> renderCharts(List<CriterionPage> window, Set<String> skip) {
+
+        // key → grafik üretici (ekleme sırası korunur)
+        Map<String, Callable<JFreeChart>> unique = new LinkedHashMap<>();
+        for (CriterionPage page : window) {
+            if (!skip.contains(page.correctnessKey)) {
+                unique.putIfAbsent(page.correctnessKey, () -> buildCorrectnessChart(page.stats));
+            }
+            if (!skip.contains(page.answerKey)) {
+                unique.putIfAbsent(page.answerKey, () -> buildAnswerDistributionChart(page.stats));
+            }
+        }
+
+        Map<String, ForkJoinTask<EncodedChart>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Callable<JFreeChart>> e : unique.entrySet()) {
+            Callable<JFreeChart> chart = e.getValue();
+            futures.put(e.getKey(), renderPool.submit(() -> encodeChart(chart.call())));
+        }
+
+        Map<String, EncodedChart> rendered = new HashMap<>();
+        for (Map.Entry<String, ForkJoinTask<EncodedChart>> e : futures.entrySet()) {
+            rendered.put(e.getKey(), e.getValue().join());
+        }
+        return rendered;
+    }
+
+    // JFreeChart → RGB pikseller → Flate (thread-safe, PDDocument'a dokunmaz)
+    private EncodedChart encodeChart(JFreeChart chart) throws IOException {
+        BufferedImage image = chart.createBufferedImage(
+                CHART_WIDTH, CHART_HEIGHT, BufferedImage.TYPE_INT_RGB, null);
+
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        byte[] rgb = new byte[width * 3];
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(16 * 1024);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed)) {
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int px = row[x];
+                    rgb[x * 3] = (byte) (px >> 16);
+                    rgb[x * 3 + 1] = (byte) (px >> 8);
+                    rgb[x * 3 + 2] = (byte) px;
+                }
+                deflate.write(rgb);
+            }
+        }
+        return new EncodedChart(compressed.toByteArray(), width, height);
+    }
+
+    // Aynı grafik (aynı sayılar + label'lar) dokümanda tek XObject olarak tutulur
+    private PDImageXObject toImageXObject(PDDocument doc,
+                                          Map<String, PDImageXObject> imageCache,
+                                          Map<String, EncodedChart> rendered,
+                                          String key) throws IOException {
+        PDImageXObject cached = imageCache.get(key);
+        if (cached != null) return cached;
+
+        EncodedChart chart = rendered.get(key);
+        PDImageXObject image = new PDImageXObject(
+                doc,
+                new ByteArrayInputStream(chart.data),
+                COSName.FLATE_DECODE,
+                chart.width,
+                chart.height,
+                8,
+                PDDeviceRGB.INSTANCE
+        );
+        imageCache.put(key, image);
+        return image;
+    }
+
+    private static String correctnessKey(CriterionStats stats) {
+        return "C|" + stats.correct + "|" + stats.wrong + "|" + stats.unknown + "|" + stats.pending;
+    }
+
+    // Label'lar serbest metin → uzunluk önekli, sonra hash (kod cevapları uzun olabilir)
+    private static String answerKey(CriterionStats stats) {
+        StringBuilder sb = new StringBuilder("A");
+        for (Map.Entry<String, Integer> e : stats.optionCounts.entrySet()) {
+            sb.append('|').append(e.getKey().length()).append(':').append(e.getKey())
+                    .append('=').append(e.getValue());
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return "A|" + HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     // ============================
     // GRAFİK: Correct / Wrong / Unknown / Pending
     // Apple Numbers tarzı: ince barlar, pastel renkler, light-gray grid
@@ -809,16 +960,42 @@ public class StudyPdfExportService {
         return lines;
     }
 
+    // Arka plan rapor job'ları için sayfa ilerlemesi
+    public interface ProgressListener {
+        void onProgress(int pagesDone, int totalPages);
+    }
+
     // ============================
     // KÜÇÜK İÇ CLASS
     // ============================
     private static class CriterionStats {
         Long criterionId;
         String label;
+        String correctKey;
         int correct;
         int wrong;
         int unknown;
         int pending;
         Map<String, Integer> optionCounts = new LinkedHashMap<>();
     }
+
+    // Sayfa planı: grafikler render edilmeden önce sıralı liste
+    private static class CriterionPage {
+        final EvaluationTask task;
+        final CriterionStats stats;
+        final int completedCount;
+        final String correctnessKey;
+        final String answerKey;
+
+        CriterionPage(EvaluationTask task, CriterionStats stats, int completedCount) {
+            this.task = task;
+            this.stats = stats;
+            this.completedCount = completedCount;
+            this.correctnessKey = correctnessKey(stats);
+            this.answerKey = answerKey(stats);
+        }
+    }
+
+    private record EncodedChart(byte[] data, int width, int height) {
+    }
 }
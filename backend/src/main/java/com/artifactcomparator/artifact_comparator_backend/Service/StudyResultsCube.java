@@ -0,0 +1,395 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService.AnswerOutcome;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Columnar, dictionary-encoded copy of every answer of one study:
+ * participant × task × criterion → int code into a shared string dictionary,
+ * with bitsets marking blank / correct / unknown cells.
+ *
+ * Built by {@link StudyResultsCubeService} and updated in place on submit;
+ * reads and writes are guarded by a read-write lock. A cache only: the
+ * persisted aggregates of {@link ResultAggregateService} stay authoritative.
+ */
+public class StudyResultsCube {
+
+    // Cevap göndermemiş participant hücresi
+    private static final int NO_RESPONSE = -1;
+
+    private final Long studyId;
+    private final Long[] criterionIds;
+    private final int criteriaCount;
+
+    // CODE_EDIT kriterleri: cevaplar kod bloğu, seçenek dağılımına girmez
+    private final boolean[] codeCriteria;
+
+    // Ortak sözlük: code → ham cevap, code → trim edilmiş cevabın code'u
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private int[] trimmedCodes = new int[64];
+    private long dictionaryBytes;
+
+    // participantId → slot
+    private final Map<Long, Integer> participantSlots = new HashMap<>();
+    private final List<Long> participantIds = new ArrayList<>();
+    private final List<String> usernames = new ArrayList<>();
+
+    private final Map<Long, TaskColumn> tasks = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * codeCriterionIds are the CODE_EDIT criteria, whose answers are only
+     * scored and not counted per value.
+     */
+    public StudyResultsCube(Long studyId, List<Long> criterionIds, Set<Long> codeCriterionIds) {
+        this.studyId = studyId;
+        this.criterionIds = criterionIds.toArray(new Long[0]);
+        this.criteriaCount = criterionIds.size();
+        this.codeCriteria = new boolean[criteriaCount];
+        for (int c = 0; c < criteriaCount; c++) {
+            codeCriteria[c] = codeCriterionIds.contains(this.criterionIds[c]);
+        }
+        encode("");
+    }
+
+    public Long getStudyId() {
+        return studyId;
+    }
+
+    // ==========================================
+    // Write path
+    // ==========================================
+
+    public void addTask(Long taskId) {
+        addTask(taskId, 0);
+    }
+
+    /** loadedVersion is the task's results version the loaded rows reflect. */
+    public void addTask(Long taskId, long loadedVersion) {
+        lock.writeLock().lock();
+        try {
+            tasks.putIfAbsent(taskId, new TaskColumn(Math.max(participantIds.size(), 16), loadedVersion));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stores (or overwrites) one participant's answers for a task, as loaded
+     * at the task's loaded version. outcomes[i] is how answers[i] was scored.
+     */
+    public void put(Long taskId,
+                    Long participantId,
+                    String username,
+                    List<String> answers,
+                    AnswerOutcome[] outcomes) {
+        lock.writeLock().lock();
+        try {
+            TaskColumn column = column(taskId);
+            write(column, participantId, username, answers, outcomes, column.loadedVersion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a submission committed at the given task results version.
+     * Returns false and keeps the stored answers when they are already as
+     * new (submissions can be delivered out of commit order).
+     */
+    public boolean put(Long taskId,
+                       Long participantId,
+                       String username,
+                       List<String> answers,
+                       AnswerOutcome[] outcomes,
+                       long version) {
+        lock.writeLock().lock();
+        try {
+            TaskColumn column = column(taskId);
+            Integer slot = participantSlots.get(participantId);
+            if (slot != null && slot < column.versions.length && version <= column.versions[slot]) {
+                return false;
+            }
+            write(column, participantId, username, answers, outcomes, version);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private TaskColumn column(Long taskId) {
+        TaskColumn column = tasks.get(taskId);
+        if (column == null) {
+            throw new IllegalArgumentException("Task " + taskId + " is not part of study " + studyId);
+        }
+        return column;
+    }
+
+    private void write(TaskColumn column,
+                       Long participantId,
+                       String username,
+                       List<String> answers,
+                       AnswerOutcome[] outcomes,
+                       long version) {
+        int slot = slotFor(participantId, username);
+        column.ensureCapacity(slot + 1);
+
+        for (int c = 0; c < criteriaCount; c++) {
+            int cell = slot * criteriaCount + c;
+            String raw = (answers != null && c < answers.size() && answers.get(c) != null)
+                    ? answers.get(c) : "";
+
+            column.cells[cell] = encode(raw);
+            column.blank.set(cell, outcomes[c] == AnswerOutcome.BLANK);
+            column.correct.set(cell, outcomes[c] == AnswerOutcome.CORRECT);
+            column.unknown.set(cell, outcomes[c] == AnswerOutcome.UNKNOWN);
+        }
+        column.responded.set(slot);
+        column.versions[slot] = version;
+        column.snapshot = null;
+    }
+
+    // ==========================================
+    // Read path
+    // ==========================================
+
+    public boolean hasTask(Long taskId) {
+        lock.readLock().lock();
+        try {
+            return tasks.containsKey(taskId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int completedCount(Long taskId) {
+        lock.readLock().lock();
+        try {
+            TaskColumn column = tasks.get(taskId);
+            return column != null ? column.responded.cardinality() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Answers of one participant for a task, or null if they have not submitted. */
+    public List<String> answers(Long taskId, Long participantId) {
+        lock.readLock().lock();
+        try {
+            TaskColumn column = tasks.get(taskId);
+            Integer slot = participantSlots.get(participantId);
+            if (column == null || slot == null || !column.responded.get(slot)) return null;
+
+            return decodeRow(column, slot);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Calls action(username, answers) for every participant who submitted the task. */
+    public void forEachResponse(Long taskId, BiConsumer<String, List<String>> action) {
+        lock.readLock().lock();
+        try {
+            TaskColumn column = tasks.get(taskId);
+            if (column == null) return;
+
+            for (int slot = column.responded.nextSetBit(0); slot >= 0; slot = column.responded.nextSetBit(slot + 1)) {
+                action.accept(usernames.get(slot), decodeRow(column, slot));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Group-by over every criterion column of a task: outcome counts plus
+     * trimmed answer → count, in the same shape as the persisted aggregate.
+     * Memoized until the task's next submission; callers must not modify
+     * the returned aggregates.
+     */
+    public Map<Long, CriterionResultAggregate> aggregates(Long taskId) {
+        lock.readLock().lock();
+        try {
+            TaskColumn column = tasks.get(taskId);
+            if (column == null) {
+                Map<Long, CriterionResultAggregate> empty = new HashMap<>();
+                for (int c = 0; c < criteriaCount; c++) {
+                    empty.put(criterionIds[c], new CriterionResultAggregate(studyId, taskId, criterionIds[c], c));
+                }
+                return empty;
+            }
+
+            // Write lock'u tutan yokken hesaplanır → aynı anda iki okuyucu aynı sonucu yazar
+            Map<Long, CriterionResultAggregate> snapshot = column.snapshot;
+            if (snapshot == null) {
+                snapshot = groupBy(taskId, column);
+                column.snapshot = snapshot;
+            }
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public CriterionResultAggregate aggregate(Long taskId, int criterionIndex) {
+        return aggregates(taskId).get(criterionIds[criterionIndex]);
+    }
+
+    /** Rough heap footprint, used for the cache's memory budget. */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = dictionaryBytes + (long) trimmedCodes.length * 4;
+            bytes += participantIds.size() * 96L;
+            for (TaskColumn column : tasks.values()) {
+                bytes += column.estimatedBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    private int slotFor(Long participantId, String username) {
+        Integer slot = participantSlots.get(participantId);
+        if (slot != null) return slot;
+
+        slot = participantIds.size();
+        participantSlots.put(participantId, slot);
+        participantIds.add(participantId);
+        usernames.add(username);
+        return slot;
+    }
+
+    private int encode(String raw) {
+        Integer code = dictionary.get(raw);
+        if (code != null) return code;
+
+        code = values.size();
+        dictionary.put(raw, code);
+        values.add(raw);
+        dictionaryBytes += 64 + raw.length() * 2L;
+
+        if (code >= trimmedCodes.length) {
+            trimmedCodes = Arrays.copyOf(trimmedCodes, trimmedCodes.length * 2);
+        }
+
+        // encode(trimmed) diziyi büyütebilir → önce hesapla, sonra yaz
+        String trimmed = raw.trim();
+        int trimmedCode = trimmed.equals(raw) ? code : encode(trimmed);
+        trimmedCodes[code] = trimmedCode;
+        return code;
+    }
+
+    // Tek geçiş: participant satırları sırayla, her criterion için trim code'ları toplanır
+    private Map<Long, CriterionResultAggregate> groupBy(Long taskId, TaskColumn column) {
+        int responded = column.responded.cardinality();
+
+        int[][] codes = new int[criteriaCount][responded];
+        int[] filled = new int[criteriaCount];
+        int[] blank = new int[criteriaCount];
+        int[] correct = new int[criteriaCount];
+        int[] unknown = new int[criteriaCount];
+
+        for (int slot = column.responded.nextSetBit(0); slot >= 0; slot = column.responded.nextSetBit(slot + 1)) {
+            int base = slot * criteriaCount;
+
+            for (int c = 0; c < criteriaCount; c++) {
+                int cell = base + c;
+
+                if (column.blank.get(cell)) {
+                    blank[c]++;
+                    continue;
+                }
+                if (column.correct.get(cell)) correct[c]++;
+                else if (column.unknown.get(cell)) unknown[c]++;
+
+                if (!codeCriteria[c]) codes[c][filled[c]++] = trimmedCodes[column.cells[cell]];
+            }
+        }
+
+        Map<Long, CriterionResultAggregate> byCriterion = new HashMap<>();
+
+        for (int c = 0; c < criteriaCount; c++) {
+            CriterionResultAggregate agg = new CriterionResultAggregate(studyId, taskId, criterionIds[c], c);
+            agg.setResponseCount(responded);
+            agg.setBlankCount(blank[c]);
+            agg.setCorrectCount(correct[c]);
+            agg.setUnknownCount(unknown[c]);
+            agg.setWrongCount(responded - blank[c] - correct[c] - unknown[c]);
+
+            // Sırala + say → kutulama yok, sözlük boyutundan bağımsız
+            int[] sorted = codes[c];
+            Arrays.sort(sorted, 0, filled[c]);
+            for (int i = 0; i < filled[c]; ) {
+                int j = i;
+                while (j < filled[c] && sorted[j] == sorted[i]) j++;
+                agg.getOptionCounts().put(values.get(sorted[i]), j - i);
+                i = j;
+            }
+            byCriterion.put(criterionIds[c], agg);
+        }
+        return Collections.unmodifiableMap(byCriterion);
+    }
+
+    private List<String> decodeRow(TaskColumn column, int slot) {
+        List<String> row = new ArrayList<>(criteriaCount);
+        for (int c = 0; c < criteriaCount; c++) {
+            row.add(values.get(column.cells[slot * criteriaCount + c]));
+        }
+        return row;
+    }
+
+    private class TaskColumn {
+        int[] cells;
+        // slot → uygulanan son submit'in task results version'ı (-1: yok)
+        long[] versions;
+        final long loadedVersion;
+        final BitSet responded = new BitSet();
+        final BitSet blank = new BitSet();
+        final BitSet correct = new BitSet();
+        final BitSet unknown = new BitSet();
+
+        // Son group-by sonucu; put() ile sıfırlanır
+        volatile Map<Long, CriterionResultAggregate> snapshot;
+
+        TaskColumn(int participantCapacity, long loadedVersion) {
+            this.loadedVersion = loadedVersion;
+            cells = new int[participantCapacity * criteriaCount];
+            Arrays.fill(cells, NO_RESPONSE);
+            versions = new long[participantCapacity];
+            Arrays.fill(versions, -1);
+        }
+
+        void ensureCapacity(int participants) {
+            if (participants > versions.length) {
+                int oldSlots = versions.length;
+                versions = Arrays.copyOf(versions, Math.max(participants, oldSlots * 2));
+                Arrays.fill(versions, oldSlots, versions.length, -1);
+            }
+
+            int needed = participants * criteriaCount;
+            if (needed <= cells.length) return;
+
+            int oldLength = cells.length;
+            cells = Arrays.copyOf(cells, Math.max(needed, oldLength * 2));
+            Arrays.fill(cells, oldLength, cells.length, NO_RESPONSE);
+        }
+
+        long estimatedBytes() {
+            long bits = (long) responded.size() + blank.size() + correct.size() + unknown.size();
+            return 16 + (long) cells.length * 4 + (long) versions.length * 8 + bits / 8;
+        }
+    }
+}
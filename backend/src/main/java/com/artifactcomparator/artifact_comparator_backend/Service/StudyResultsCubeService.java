@@ -0,0 +1,324 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService.AnswerOutcome;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a {@link StudyResultsCube} per recently used study.
+ * Cubes are loaded from the database on first read, updated after each
+ * committed submission and evicted least-recently-used once the total
+ * estimated size exceeds results.cube.max-memory-mb. Studies that would not
+ * fit at all are served from the persisted aggregates instead.
+ */
+@Service
+@Slf4j
+public class StudyResultsCubeService {
+
+    // Hücre başına tahmini byte (int code + bitset'ler) → yükleme öncesi boyut kontrolü
+    private static final int BYTES_PER_CELL = 5;
+
+    private final ParticipantTaskResponseRepository respRepo;
+    private final ResultAggregateService resultAggregateService;
+    private final boolean enabled;
+    private final long maxBytes;
+
+    // studyId → cube, erişim sırasına göre (LRU)
+    private final LinkedHashMap<Long, StudyResultsCube> cubes = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Long> cubeBytes = new HashMap<>();
+    private long totalBytes;
+
+    // studyId → değişiklik sayacı; yükleme sırasında değişen cube cache'e girmez
+    private final Map<Long, AtomicLong> modCounts = new ConcurrentHashMap<>();
+    private final Map<Long, Object> loadLocks = new ConcurrentHashMap<>();
+
+    // studyId → taskId → puanlama bilgisi (submit'te entity yüklemeden puanlamak için)
+    private final Map<Long, Map<Long, TaskScoring>> scoringByStudy = new ConcurrentHashMap<>();
+
+    public StudyResultsCubeService(ParticipantTaskResponseRepository respRepo,
+                                   ResultAggregateService resultAggregateService,
+                                   @Value("${results.cube.enabled:true}") boolean enabled,
+                                   @Value("${results.cube.max-memory-mb:64}") long maxMemoryMb) {
+        this.respRepo = respRepo;
+        this.resultAggregateService = resultAggregateService;
+        this.enabled = enabled;
+        this.maxBytes = maxMemoryMb * 1024L * 1024L;
+    }
+
+    // ==========================================
+    // Read API
+    // ==========================================
+
+    /**
+     * Cube of the study, loading it if needed; null when the cube is
+     * disabled or the study is too large for the memory budget.
+     */
+    @Transactional(readOnly = true)
+    public StudyResultsCube findCube(Study study) {
+        if (!enabled) return null;
+
+        StudyResultsCube cached = cached(study.getId());
+        if (cached != null) return cached;
+
+        synchronized (loadLocks.computeIfAbsent(study.getId(), k -> new Object())) {
+            cached = cached(study.getId());
+            return cached != null ? cached : load(study);
+        }
+    }
+
+    /** Study-wide results from the cube, or from the persisted aggregates as fallback. */
+    @Transactional
+    public ResultAggregateService.StudyResults getStudyResults(Study study) {
+        StudyResultsCube cube = findCube(study);
+        if (cube == null) {
+            return resultAggregateService.getStudyResults(study);
+        }
+
+        Map<Long, Integer> completed = new HashMap<>();
+        Map<Long, Map<Long, CriterionResultAggregate>> byTask = new HashMap<>();
+
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            completed.put(task.getId(), cube.completedCount(task.getId()));
+            byTask.put(task.getId(), cube.aggregates(task.getId()));
+        }
+        return new ResultAggregateService.StudyResults(completed, byTask);
+    }
+
+    /**
+     * First-seen answer order of a task's criteria, from the cube when it is
+     * loaded, otherwise from the grouped answer counts (ordered by first response).
+     */
+    @Transactional(readOnly = true)
+    public ResultAggregateService.FirstSeenAnswers firstSeenAnswers(Study study, Long taskId) {
+        ResultAggregateService.FirstSeenAnswers seen = new ResultAggregateService.FirstSeenAnswers();
+        int criteriaCount = study.getCriteriaSorted().size();
+
+        StudyResultsCube cube = findCube(study);
+        if (cube != null && cube.hasTask(taskId)) {
+            cube.forEachResponse(taskId, (username, answers) -> seen.addResponse(answers, criteriaCount));
+            return seen;
+        }
+
+        // [answerIndex, answer, count] — min(response id) sırasıyla
+        for (Object[] row : respRepo.countAnswersByIndexForTask(taskId)) {
+            Integer index = (Integer) row[0];
+            if (index != null && index < criteriaCount) seen.add(index, (String) row[1]);
+        }
+        return seen;
+    }
+
+    // ==========================================
+    // Updates (after commit)
+    // ==========================================
+
+    public void applyResponse(ResponseSubmittedEvent event) {
+        modCount(event.getStudyId()).incrementAndGet();
+
+        StudyResultsCube cube = cached(event.getStudyId());
+        if (cube == null) return;
+
+        // Cube yüklendikten sonra eklenen task → baştan yükle
+        if (!cube.hasTask(event.getTaskId())) {
+            invalidate(event.getStudyId());
+            return;
+        }
+
+        TaskScoring scoring = scoringByStudy.getOrDefault(event.getStudyId(), Map.of()).get(event.getTaskId());
+        if (scoring == null) {
+            invalidate(event.getStudyId());
+            return;
+        }
+
+        // AFTER_COMMIT sırası commit sırası değil → eski bir submit yenisinin üstüne yazmasın
+        boolean applied = cube.put(event.getTaskId(),
+                event.getParticipantId(),
+                event.getParticipantUsername(),
+                event.getAnswers(),
+                score(scoring, event.getResponseId(), event.getAnswers()),
+                event.getResultsVersion());
+
+        if (!applied) {
+            log.debug("Skipped out-of-order submission {} (task {} version {})",
+                    event.getResponseId(), event.getTaskId(), event.getResultsVersion());
+            return;
+        }
+        resize(cube);
+    }
+
+    public void invalidate(Long studyId) {
+        modCount(studyId).incrementAndGet();
+
+        synchronized (this) {
+            if (cubes.remove(studyId) != null) {
+                totalBytes -= cubeBytes.remove(studyId);
+            }
+            scoringByStudy.remove(studyId);
+        }
+    }
+
+    // ==========================================
+    // Loading
+    // ==========================================
+
+    private StudyResultsCube load(Study study) {
+        Long studyId = study.getId();
+        long modCount = modCount(studyId).get();
+
+        List<EvaluationCriterion> criteria = study.getCriteriaSorted();
+
+        long responses = 0;
+        for (Object[] row : respRepo.countResponsesPerTaskForStudy(studyId)) {
+            responses += (Long) row[1];
+        }
+        long estimate = responses * Math.max(criteria.size(), 1) * BYTES_PER_CELL;
+        if (estimate > maxBytes) {
+            log.info("Study {} results ({} cells) exceed the cube budget, using aggregates", studyId,
+                    responses * criteria.size());
+            return null;
+        }
+
+        StudyResultsCube cube = new StudyResultsCube(
+                studyId,
+                criteria.stream().map(EvaluationCriterion::getId).toList(),
+                criteria.stream()
+                        .filter(c -> c.getType() == CriterionType.CODE_EDIT)
+                        .map(EvaluationCriterion::getId)
+                        .collect(Collectors.toSet()));
+
+        Map<Long, TaskScoring> tasks = new HashMap<>();
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            // Task satırı hücrelerden önce okunur → yüklenen hücreler en az bu version kadar yeni
+            cube.addTask(task.getId(), task.getResultsVersion());
+            tasks.put(task.getId(), new TaskScoring(task.getId(), criteria,
+                    resultAggregateService.correctAnswerMap(task)));
+        }
+
+        // [responseId, taskId, participantId, username, answerIndex, answer] — response sırasıyla
+        Long currentResponse = null;
+        Object[] header = null;
+        List<String> answers = new ArrayList<>();
+
+        for (Object[] row : respRepo.findAnswerCellsForStudy(studyId)) {
+            Long responseId = (Long) row[0];
+
+            if (!responseId.equals(currentResponse)) {
+                if (header != null) putRow(cube, tasks, header, answers);
+                currentResponse = responseId;
+                header = row;
+                answers = new ArrayList<>(Collections.nCopies(criteria.size(), ""));
+            }
+
+            Integer index = (Integer) row[4];
+            if (index != null && index < answers.size() && row[5] != null) {
+                answers.set(index, (String) row[5]);
+            }
+        }
+        if (header != null) putRow(cube, tasks, header, answers);
+
+        long bytes = cube.estimatedBytes();
+        if (bytes > maxBytes) {
+            log.info("Study {} results cube ({} KB) exceeds the budget, not cached", studyId, bytes / 1024);
+            return cube;
+        }
+
+        synchronized (this) {
+            // Yükleme sırasında submit / invalidation geldiyse bu kopya eksik olabilir
+            if (modCount(studyId).get() != modCount) return cube;
+
+            cubes.put(studyId, cube);
+            cubeBytes.put(studyId, bytes);
+            totalBytes += bytes;
+            scoringByStudy.put(studyId, tasks);
+            evictOverBudget();
+        }
+
+        log.debug("Loaded results cube for study {} ({} KB)", studyId, bytes / 1024);
+        return cube;
+    }
+
+    private void putRow(StudyResultsCube cube,
+                        Map<Long, TaskScoring> tasks,
+                        Object[] header,
+                        List<String> answers) {
+        TaskScoring scoring = tasks.get((Long) header[1]);
+        if (scoring == null) return;
+
+        cube.put(scoring.taskId(), (Long) header[2], (String) header[3], answers,
+                score(scoring, (Long) header[0], answers));
+    }
+
+    private AnswerOutcome[] score(TaskScoring scoring, Long responseId, List<String> answers) {
+        int size = scoring.criterionIds().size();
+        AnswerOutcome[] outcomes = new AnswerOutcome[size];
+
+        for (int i = 0; i < size; i++) {
+            Long criterionId = scoring.criterionIds().get(i);
+            String raw = (answers != null && i < answers.size()) ? answers.get(i) : "";
+
+            outcomes[i] = resultAggregateService.score(scoring.taskId(), criterionId, i,
+                    scoring.types().get(i), scoring.correct().getOrDefault(criterionId, ""), responseId, raw);
+        }
+        return outcomes;
+    }
+
+    // ==========================================
+    // Cache bookkeeping
+    // ==========================================
+
+    private synchronized StudyResultsCube cached(Long studyId) {
+        return cubes.get(studyId);
+    }
+
+    private synchronized void resize(StudyResultsCube cube) {
+        Long old = cubeBytes.get(cube.getStudyId());
+        if (old == null) return;
+
+        long bytes = cube.estimatedBytes();
+        cubeBytes.put(cube.getStudyId(), bytes);
+        totalBytes += bytes - old;
+        evictOverBudget();
+    }
+
+    // En uzun süredir okunmayan study'ler atılır (en son kullanılan hep kalır)
+    private void evictOverBudget() {
+        Iterator<Map.Entry<Long, StudyResultsCube>> it = cubes.entrySet().iterator();
+        while (totalBytes > maxBytes && cubes.size() > 1 && it.hasNext()) {
+            Long studyId = it.next().getKey();
+            it.remove();
+            totalBytes -= cubeBytes.remove(studyId);
+            scoringByStudy.remove(studyId);
+            log.debug("Evicted results cube for study {}", studyId);
+        }
+    }
+
+    private AtomicLong modCount(Long studyId) {
+        return modCounts.computeIfAbsent(studyId, k -> new AtomicLong());
+    }
+
+    private record TaskScoring(Long taskId,
+                               List<Long> criterionIds,
+                               List<CriterionType> types,
+                               Map<Long, String> correct) {
+
+        TaskScoring(Long taskId, List<EvaluationCriterion> criteria, Map<Long, String> correct) {
+            this(taskId,
+                    criteria.stream().map(EvaluationCriterion::getId).toList(),
+                    criteria.stream().map(EvaluationCriterion::getType).toList(),
+                    correct);
+        }
+    }
+}
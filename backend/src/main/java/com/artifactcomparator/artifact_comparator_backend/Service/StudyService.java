@@ -446,6 +446,7 @@ public class StudyService {
 
         // 4️⃣ NOTIFICATIONS
         notificationRepository.deleteByStudy(study);
+        notificationService.notificationsChanged(null);
 
         // 5️⃣ CO-RESEARCHERS
         researcherRepository.deleteByStudy(study);
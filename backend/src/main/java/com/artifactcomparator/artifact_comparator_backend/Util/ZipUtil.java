@@ -3,7 +3,7 @@ package com.artifactcomparator.artifact_comparator_backend.Util;
 import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactFolder;
 import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
 import com.artifactcomparator.artifact_comparator_backend.Entity.User;
-import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactStorage;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
@@ -14,23 +14,16 @@ import java.util.zip.ZipInputStream;
 
 public class ZipUtil {
 
-    // Her user'ın klasörüne kaydedilecek
-    private static final String UPLOAD_ROOT = "uploads/";
-
     public static Map<String, ArtifactUpload> extractAndSaveArtifacts(
             MultipartFile zipFile,
             String zipPrefix,
-            ArtifactUploadRepository repo,
+            ArtifactStorage storage,
             User researcher,
             ArtifactFolder folder  // ⭐ NEW PARAMETER
     ) throws Exception {
 
         Map<String, ArtifactUpload> created = new HashMap<>();
 
-        // Kullanıcı klasörü
-        String userFolder = UPLOAD_ROOT + researcher.getUsername() + "/";
-        Files.createDirectories(Paths.get(userFolder));
-
         try (InputStream fis = zipFile.getInputStream();
              ZipInputStream zis = new ZipInputStream(fis)) {
 
@@ -60,23 +53,17 @@ public class ZipUtil {
                 String finalName = base + "_" + zipPrefix + ext;
 
                 // -----------------------------
-                // 3) Dosyayı yaz
-                // -----------------------------
-                Path outputPath = Paths.get(userFolder, finalName);
-                Files.copy(zis, outputPath, StandardCopyOption.REPLACE_EXISTING);
-
-                // -----------------------------
-                // 4) DB kaydı - ⭐ FOLDER EKLE
+                // 3) DB kaydı + içerik - ⭐ FOLDER EKLE
+                //    Her ZIP'te tekrar gelen aynı dosya blob store'da tek kopya kalır
                 // -----------------------------
                 ArtifactUpload art = new ArtifactUpload();
                 art.setFilename(finalName);
-                art.setFilepath("/uploads/" + researcher.getUsername() + "/" + finalName);
                 art.setCategory(null);
                 art.setTags(null);
                 art.setResearcher(researcher);
                 art.setFolder(folder);  // ⭐ SET THE FOLDER
 
-                repo.save(art);
+                storage.store(art, zis);
 
                 // CSV'de "artifact1.java" şeklinde aranan key → orijinal isim
                 created.put(original, art);
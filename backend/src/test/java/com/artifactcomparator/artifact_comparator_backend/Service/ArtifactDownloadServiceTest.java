@@ -0,0 +1,133 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Config.ZeroCopyResourceConfig;
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ArtifactDownloadServiceTest {
+
+    private static final String HASH = "ab".repeat(32);
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    @TempDir
+    Path dir;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = Files.writeString(dir.resolve(HASH), CONTENT);
+        ArtifactStorage storage = mock(ArtifactStorage.class);
+        when(storage.open(any())).thenReturn(Optional.of(new FileSystemResource(file)));
+
+        ArtifactUpload artifact = new ArtifactUpload();
+        artifact.setFilename("Main.java");
+        artifact.setContentHash(HASH);
+
+        // 0 → MockMvc'de sendfile yok, transferTo yolu çalışır
+        mvc = MockMvcBuilders.standaloneSetup(new DownloadController(new ArtifactDownloadService(storage), artifact))
+                .setMessageConverters(
+                        new ZeroCopyResourceConfig.FileResourceHttpMessageConverter(0),
+                        new ZeroCopyResourceConfig.FileRegionHttpMessageConverter(0))
+                .build();
+    }
+
+    @Test
+    void servesContentWithStrongEtagAndAnswersConditionalRequestsWith304() throws Exception {
+        MvcResult full = mvc.perform(get("/file"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + HASH + "\""))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(CONTENT))
+                .andReturn();
+
+        mvc.perform(get("/file").header(HttpHeaders.IF_NONE_MATCH, "\"" + HASH + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mvc.perform(get("/file").header(HttpHeaders.IF_MODIFIED_SINCE,
+                        full.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)))
+                .andExpect(status().isNotModified());
+
+        mvc.perform(get("/file").header(HttpHeaders.IF_NONE_MATCH, "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void contentAddressedUrlIsCachedAsImmutable() throws Exception {
+        mvc.perform(get("/file").param("v", HASH))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, private, immutable"));
+
+        // Eski hash'li adres içeriği değişmiş olabilir → yeniden doğrulanır
+        mvc.perform(get("/file").param("v", "stale"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"));
+    }
+
+    @Test
+    void servesSingleAndMultipleRanges() throws Exception {
+        mvc.perform(get("/file").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(content().string("2345"));
+
+        mvc.perform(get("/file").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("hij"));
+
+        String multi = mvc.perform(get("/file").header(HttpHeaders.RANGE, "bytes=0-1,10-12"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE,
+                        startsWith("multipart/byteranges")))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(multi.contains("Content-Range: bytes 0-1/20"));
+        assertTrue(multi.contains("Content-Range: bytes 10-12/20"));
+        assertTrue(multi.contains("abc"));
+
+        mvc.perform(get("/file").header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @RestController
+    static class DownloadController {
+        private final ArtifactDownloadService downloads;
+        private final ArtifactUpload artifact;
+
+        DownloadController(ArtifactDownloadService downloads, ArtifactUpload artifact) {
+            this.downloads = downloads;
+            this.artifact = artifact;
+        }
+
+        @GetMapping("/file")
+        ResponseEntity<Resource> file(@RequestParam(required = false) String v) throws IOException {
+            return downloads.inline(artifact, MediaType.TEXT_PLAIN, v);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.GradingResult;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiGradingService.BatchAnswer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Batch grading must never attribute a grade to the wrong answer: anything
+ * ambiguous is dropped so the answer is graded on its own instead.
+ */
+class BatchGradingParsingTest {
+
+    private final GeminiGradingService gemini = new GeminiGradingService(mock(GeminiClient.class));
+
+    @Test
+    void keepsOnlyValidItemsWithKnownIds() throws Exception {
+        String text = """
+                [
+                  {"id": "r1", "score": 8, "feedback": "Good."},
+                  {"id": "r2", "score": 12, "feedback": "Out of range."},
+                  {"id": "r3", "score": "7", "feedback": "Score is a string."},
+                  {"id": "r4", "score": 5, "feedback": "  "},
+                  {"id": "r9", "score": 5, "feedback": "Unknown id."},
+                  {"id": "r5", "score": 3, "feedback": "First."},
+                  {"id": "r5", "score": 9, "feedback": "Duplicate."},
+                  {"id": "r5", "score": 1, "feedback": "Third."},
+                  {"score": 4, "feedback": "No id."}
+                ]
+                """;
+
+        Map<String, GradingResult> grades = gemini.parseBatchGrades(
+                text, Set.of("r1", "r2", "r3", "r4", "r5", "r6"), 10);
+
+        assertEquals(Set.of("r1"), grades.keySet());
+        assertEquals(8.0, grades.get("r1").getScore());
+        assertEquals("Good.", grades.get("r1").getFeedback());
+    }
+
+    @Test
+    void treatsNullScoresAndUnscoredQuestionsAsMissing() throws Exception {
+        String text = """
+                [
+                  {"id": "r1", "score": null, "feedback": "No score."},
+                  {"id": "r2", "score": 4, "feedback": "Fine."}
+                ]
+                """;
+
+        assertEquals(Set.of("r2"), gemini.parseBatchGrades(text, Set.of("r1", "r2"), 10).keySet());
+        // Sorunun puanı yok → aralık doğrulanamaz, hepsi tek tek puanlanır
+        assertTrue(gemini.parseBatchGrades(text, Set.of("r1", "r2"), null).isEmpty());
+    }
+
+    @Test
+    void rejectsNonArrayResponse() {
+        assertThrows(RuntimeException.class,
+                () -> gemini.parseBatchGrades("{\"id\": \"r1\", \"score\": 1, \"feedback\": \"x\"}", Set.of("r1"), 10));
+    }
+
+    @Test
+    void chunksRespectTokenBudgetAndAnswerCap() {
+        // 500 token bütçe, istek başına en fazla 3 cevap; 100 karakterlik cevap ≈ 25 + 12 token
+        BatchGradingService service = new BatchGradingService(
+                null, null, null, null, null, null, 500, 3, 1);
+
+        List<BatchAnswer> answers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            answers.add(new BatchAnswer("r" + i, "x".repeat(100)));
+        }
+        answers.add(new BatchAnswer("r99", "y".repeat(4000)));
+
+        List<List<BatchAnswer>> chunks = service.chunk("Why?", answers);
+
+        // 3'lük sınır → 3 + 3 + 1; bütçeyi tek başına aşan cevap ayrı istekte
+        assertEquals(List.of(3, 3, 1, 1), chunks.stream().map(List::size).toList());
+        assertEquals("r99", chunks.get(3).get(0).id());
+    }
+}
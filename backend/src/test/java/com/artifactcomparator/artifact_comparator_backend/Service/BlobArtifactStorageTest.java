@@ -0,0 +1,253 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Exception.GlobalExceptionHandler;
+import com.artifactcomparator.artifact_comparator_backend.Exception.StorageBusyException;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactBlobRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BlobArtifactStorageTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void identicalContentIsStoredOnceAndRemovedWithItsLastReference() throws Exception {
+        ArtifactUploadRepository uploads = mock(ArtifactUploadRepository.class);
+        when(uploads.save(any(ArtifactUpload.class))).thenAnswer(inv -> inv.getArgument(0));
+        ArtifactBlobRepository blobs = mock(ArtifactBlobRepository.class);
+        BlobArtifactStorage storage = new BlobArtifactStorage(uploads, blobs, dir.resolve("store").toString(), 4, 30_000);
+
+        // Aynı içerik, farklı ad ve araştırmacı
+        ArtifactUpload first = storage.store(artifact("alice", "Main.java"), content("class Main {}"));
+        ArtifactUpload second = storage.store(artifact("bob", "Main_bulk1.java"), content("class Main {}"));
+
+        assertEquals(first.getContentHash(), second.getContentHash());
+        assertEquals(13L, first.getSizeBytes());
+        verify(blobs, times(2)).acquire(eq(first.getContentHash()), eq(13L), any());
+
+        Path blob = storage.blobPath(first.getContentHash());
+        assertEquals("class Main {}", Files.readString(blob));
+        assertEquals(blob, storage.open(second).orElseThrow().getFile().toPath());
+        try (Stream<Path> files = Files.walk(dir.resolve("store"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count(), "one copy, no temp files left");
+        }
+
+        // İlk silmede başka referans var → dosya kalır
+        when(blobs.deleteIfUnreferenced(first.getContentHash())).thenReturn(0);
+        storage.delete(first);
+        assertTrue(Files.exists(blob));
+
+        when(blobs.deleteIfUnreferenced(first.getContentHash())).thenReturn(1);
+        storage.delete(second);
+        assertFalse(Files.exists(blob));
+        verify(blobs, times(2)).release(first.getContentHash());
+        verify(uploads).delete(first);
+        verify(uploads).delete(second);
+    }
+
+    @Test
+    void resolvesLegacyFilesByOwnerFolderThenStoredPath() throws Exception {
+        Path legacyRoot = dir.resolve("uploads");
+        Files.createDirectories(legacyRoot.resolve("alice"));
+        Path byOwner = Files.writeString(legacyRoot.resolve("alice").resolve("a.txt"), "a");
+        Path absolute = Files.writeString(dir.resolve("b.txt"), "b");
+
+        ArtifactUpload uploaded = artifact("alice", "a.txt");
+        uploaded.setFilepath("/uploads/alice/a.txt");
+        assertEquals(byOwner, BlobArtifactStorage.legacyPath(uploaded, legacyRoot));
+
+        // ArtifactUploadController mutlak yolu saklıyordu
+        ArtifactUpload fromHome = artifact("alice", "b.txt");
+        fromHome.setFilepath(absolute.toString());
+        assertEquals(absolute, BlobArtifactStorage.legacyPath(fromHome, legacyRoot));
+
+        ArtifactUpload missing = artifact("alice", "gone.txt");
+        missing.setFilepath("/uploads/alice/gone.txt");
+        assertNull(BlobArtifactStorage.legacyPath(missing, legacyRoot));
+    }
+
+    @Test
+    void streamsLargeUploadsWithAtMostTheConfiguredNumberInFlight() throws Exception {
+        ArtifactUploadRepository uploads = mock(ArtifactUploadRepository.class);
+        when(uploads.save(any(ArtifactUpload.class))).thenAnswer(inv -> inv.getArgument(0));
+        BlobArtifactStorage storage = new BlobArtifactStorage(uploads, mock(ArtifactBlobRepository.class),
+                dir.resolve("store").toString(), 2, 60_000);
+
+        int files = 6;
+        long size = 24L * 1024 * 1024;
+        AtomicInteger reading = new AtomicInteger();
+        AtomicInteger maxReading = new AtomicInteger();
+
+        ExecutorService pool = Executors.newFixedThreadPool(files);
+        try {
+            List<Future<ArtifactUpload>> results = new ArrayList<>();
+            for (int i = 0; i < files; i++) {
+                int seed = i + 1;
+                results.add(pool.submit(() -> storage.store(artifact("alice", "big" + seed + ".bin"),
+                        new GeneratedStream(seed, size, reading, maxReading))));
+            }
+            for (int i = 0; i < files; i++) {
+                ArtifactUpload stored = results.get(i).get(60, TimeUnit.SECONDS);
+                assertEquals(size, stored.getSizeBytes());
+                assertEquals(expectedHash(i + 1, size), stored.getContentHash());
+                assertEquals(size, Files.size(storage.blobPath(stored.getContentHash())));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Sıra dışındaki yüklemeler akışlarını okumaya başlamaz
+        assertTrue(maxReading.get() <= 2, "at most 2 writes in flight, saw " + maxReading.get());
+        try (Stream<Path> tmp = Files.list(dir.resolve("store").resolve("tmp"))) {
+            assertEquals(0, tmp.count());
+        }
+    }
+
+    @Test
+    void rejectsUploadWhenNoWriteSlotFreesUpInTime() throws Exception {
+        ArtifactUploadRepository uploads = mock(ArtifactUploadRepository.class);
+        when(uploads.save(any(ArtifactUpload.class))).thenAnswer(inv -> inv.getArgument(0));
+        BlobArtifactStorage storage = new BlobArtifactStorage(uploads, mock(ArtifactBlobRepository.class),
+                dir.resolve("store").toString(), 1, 100);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch unblock = new CountDownLatch(1);
+        InputStream slow = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                started.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+        };
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<ArtifactUpload> first = pool.submit(() -> storage.store(artifact("alice", "slow.txt"), slow));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            StorageBusyException e = assertThrows(StorageBusyException.class,
+                    () -> storage.store(artifact("bob", "b.txt"), content("b")));
+            assertTrue(e.getMessage().contains("Too many uploads"));
+            assertEquals(1, e.getRetryAfterSeconds());
+
+            ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler().handleStorageBusy(e);
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+            unblock.countDown();
+            assertEquals(0L, first.get(5, TimeUnit.SECONDS).getSizeBytes());
+            assertEquals(1L, storage.store(artifact("bob", "b.txt"), content("b")).getSizeBytes());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static String expectedHash(int seed, long size) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[8192];
+        try (InputStream in = new GeneratedStream(seed, size, new AtomicInteger(), new AtomicInteger())) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Pseudo-random content produced while read, never held as a whole. */
+    private static final class GeneratedStream extends InputStream {
+        private final long size;
+        private final AtomicInteger reading;
+        private final AtomicInteger maxReading;
+        private long state;
+        private long position;
+        private boolean started;
+        private boolean finished;
+
+        GeneratedStream(int seed, long size, AtomicInteger reading, AtomicInteger maxReading) {
+            this.state = 0x9E3779B97F4A7C15L * seed;
+            this.size = size;
+            this.reading = reading;
+            this.maxReading = maxReading;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!started) {
+                started = true;
+                maxReading.accumulateAndGet(reading.incrementAndGet(), Math::max);
+            }
+            if (position >= size) {
+                if (!finished) {
+                    finished = true;
+                    reading.decrementAndGet();
+                }
+                return -1;
+            }
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) {
+                state ^= state << 13;
+                state ^= state >>> 7;
+                state ^= state << 17;
+                b[off + i] = (byte) state;
+            }
+            position += n;
+            return n;
+        }
+    }
+
+    private static ArtifactUpload artifact(String username, String filename) {
+        User researcher = new User();
+        researcher.setUsername(username);
+        ArtifactUpload artifact = new ArtifactUpload();
+        artifact.setFilename(filename);
+        artifact.setResearcher(researcher);
+        return artifact;
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
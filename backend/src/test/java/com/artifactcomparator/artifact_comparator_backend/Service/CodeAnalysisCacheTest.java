@@ -0,0 +1,54 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Repository.CodeAnalysisCacheRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CodeAnalysisCacheTest {
+
+    private final CodeAnalysisCacheRepository repo = mock(CodeAnalysisCacheRepository.class);
+    private final CodeAnalysisCache cache = new CodeAnalysisCache(repo, true, 10, "test-model", "");
+
+    CodeAnalysisCacheTest() {
+        when(repo.findByCacheKey(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void missParsesLoaderResultOnce() {
+        AtomicInteger parses = new AtomicInteger();
+        Function<String, Integer> parse = text -> {
+            parses.incrementAndGet();
+            return text.length();
+        };
+
+        assertEquals(3, cache.getOrCompute(CodeAnalysisCache.Kind.CYCLOMATIC, "int x;", () -> "abc", parse));
+        assertEquals(1, parses.get());
+
+        // Hit → cache'teki metin parse edilir, loader çağrılmaz
+        assertEquals(3, cache.getOrCompute(CodeAnalysisCache.Kind.CYCLOMATIC, "int x;", () -> fail("loader"), parse));
+        assertEquals(2, parses.get());
+
+        assertEquals(4, cache.getOrComputeAsync(CodeAnalysisCache.Kind.CYCLOMATIC, "int y;",
+                () -> Mono.just("abcd"), parse).block());
+        assertEquals(3, parses.get());
+    }
+
+    @Test
+    void unparseableResultIsNotStored() {
+        assertThrows(IllegalStateException.class, () ->
+                cache.getOrCompute(CodeAnalysisCache.Kind.CYCLOMATIC, "int x;", () -> "not json", text -> {
+                    throw new IllegalStateException("bad");
+                }));
+
+        verify(repo, never()).save(any());
+        assertEquals("ok", cache.getOrCompute(CodeAnalysisCache.Kind.CYCLOMATIC, "int x;", () -> "ok"));
+    }
+}
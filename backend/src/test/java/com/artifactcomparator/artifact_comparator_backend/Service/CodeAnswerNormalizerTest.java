@@ -0,0 +1,82 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeAnswerNormalizerTest {
+
+    private final CodeAnswerNormalizer normalizer = new CodeAnswerNormalizer(new ObjectMapper(), 0);
+
+    @Test
+    void indentationOnlyDifferencesMatch() {
+        assertEquals(
+                normalizer.normalize("if (x) {\n    return 1;\n}"),
+                normalizer.normalize("if (x) {\r\n\treturn 1;\r\n}\r\n"));
+        assertEquals(
+                normalizer.normalize("def f(x):\n    return x\n"),
+                normalizer.normalize("def f(x):\n  return x"));
+    }
+
+    @Test
+    void commentsAreDropped() {
+        assertEquals("intx=1;", normalizer.normalize("int x = 1; // set x"));
+        assertEquals("intx=1;", normalizer.normalize("/* setup */ int x /* inline */ = 1;"));
+        assertEquals("a;b;", normalizer.normalize("a; /* multi\n line */ b;"));
+        // Kapanmamış blok yorum kod gibi kalır
+        assertEquals("a;/*b;", normalizer.normalize("a; /* b;"));
+    }
+
+    @Test
+    void literalsAreNotSpecialLikeBefore() {
+        // Literal içindeki boşluklar da atılır → "a b" ile "ab" eşleşir
+        assertEquals(normalizer.normalize("print(\"a b\")"), normalizer.normalize("print(\"ab\")"));
+        // Literal içindeki // de yorum sayılır
+        assertEquals("url=\"http:", normalizer.normalize("url = \"http://example.com\""));
+    }
+
+    @Test
+    void matchesTheFormerRegexNormalization() {
+        List<String> samples = List.of(
+                "",
+                "   ",
+                "int x = 1; // a\nint y = 2;",
+                "a /* b // c */ d",
+                "a // b /* c\n*/ d",
+                "/*/ x */ y",
+                "s = \"/* not a comment */\";",
+                "x // y z",
+                "\u0001 code \u0002",
+                "// only a comment",
+                "a /* one */ b /* two",
+                "{\n\tfoo(\"a  b\", 'c');\n}\n");
+
+        for (String sample : samples) {
+            assertEquals(regexNormalize(sample), normalizer.normalize(sample), sample);
+        }
+    }
+
+    @Test
+    void editedCodeIsReadFromJsonAnswers() {
+        assertEquals("int x = 1;", normalizer.extractEditedCode("{\"editedCode\":\"int x = 1;\"}"));
+        assertEquals("{ not json", normalizer.extractEditedCode("{ not json"));
+        assertEquals("", normalizer.extractEditedCode("  "));
+
+        assertTrue(normalizer.matches(1L, 2L, "int x = 1;",
+                3L, 0, "{\"editedCode\":\"int x=1; // done\"}"));
+        assertFalse(normalizer.matches(1L, 2L, "int x = 1;",
+                3L, 0, "{\"editedCode\":\"int x = 2;\"}"));
+    }
+
+    // Eski MonitorTaskService / MonitorController normalizasyonu
+    private static String regexNormalize(String s) {
+        return s
+                .replaceAll("//.*", "")
+                .replaceAll("/\\*(.|\\R)*?\\*/", "")
+                .replaceAll("\\s+", "")
+                .trim();
+    }
+}
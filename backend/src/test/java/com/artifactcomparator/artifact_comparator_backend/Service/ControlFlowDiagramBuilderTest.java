@@ -0,0 +1,237 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Language;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControlFlowDiagramBuilderTest {
+
+    private static final Pattern NODE = Pattern.compile("^\\s+(f\\d+_\\w+)[\\[({]");
+    private static final Pattern NODE_LABEL = Pattern.compile("^\\s+(f\\d+_\\w+)[\\[({]+\"(.*)\"[\\])}]+$");
+    private static final Pattern EDGE = Pattern.compile("^\\s+(f\\d+_\\w+) -\\.?->(?:\\|\"([^\"]*)\"\\|)? (f\\d+_\\w+)$");
+
+    private final CyclomaticComplexityAnalyzer analyzer = new CyclomaticComplexityAnalyzer();
+    private final ControlFlowDiagramBuilder builder = new ControlFlowDiagramBuilder(analyzer, 60, 20);
+
+    @Test
+    void java() {
+        String code = """
+                public class Orders {
+                    public int total(List<Order> orders) {
+                        int sum = 0;
+                        for (Order o : orders) {
+                            if (o.isPaid() && !o.isRefunded()) {
+                                sum += o.amount();
+                            } else if (o.isLate()) {
+                                continue;
+                            } else {
+                                break;
+                            }
+                        }
+                        return sum;
+                    }
+
+                    public String label(Status s) {
+                        switch (s) {
+                            case NEW:
+                            case DRAFT:
+                                return "new";
+                            case PAID: log("paid"); break;
+                        }
+                        try (var in = open()) {
+                            do { in.read(); } while (in.ready());
+                        } catch (IOException e) {
+                            throw new IllegalStateException("x > \\"y\\"", e);
+                        } finally {
+                            close();
+                        }
+                        return "?";
+                    }
+                }
+                """;
+
+        String mermaid = builder.build(code, Language.JAVA);
+        assertWellFormed(mermaid);
+
+        assertTrue(mermaid.contains("subgraph f0 [\"total (lines 2-14)\"]"));
+        assertEdge(mermaid, "o.isPaid() #amp;#amp; !o.isRefunded()", "no", "o.isLate()");
+        assertEdge(mermaid, "o.isLate()", "yes", "for (Order o : orders)");   // continue
+        assertEdge(mermaid, "o.isLate()", "no", "return sum");                // break
+        assertEdge(mermaid, "for (Order o : orders)", "done", "return sum");
+        assertEdge(mermaid, "sum += o.amount()", null, "for (Order o : orders)");
+
+        assertEdge(mermaid, "switch (s)", "NEW", "return #quot;new#quot;");
+        assertEdge(mermaid, "switch (s)", "DRAFT", "return #quot;new#quot;");   // boş case düşer
+        assertEdge(mermaid, "log(#quot;paid#quot;)", null, "try");              // break → switch sonrası
+        assertEdge(mermaid, "switch (s)", "no match", "try");
+        assertEdge(mermaid, "while (in.ready())", "loop", "do");
+        assertEdge(mermaid, "try", "exception", "catch (IOException e)");
+        assertEdge(mermaid, "while (in.ready())", "done", "finally");
+        assertTrue(mermaid.contains("-->|\"throws\"| f1_e"));
+        assertTrue(mermaid.contains("[[\"close()\"]]"), "calls use the subroutine shape");
+    }
+
+    @Test
+    void python() {
+        String code = """
+                import os
+
+                def grade(score, curve=0):
+                    \"\"\"Letter grade.\"\"\"
+                    total = score + curve
+                    if total >= 90: return "A"
+                    elif total >= 80:
+                        return "B"
+                    for attempt in range(3):
+                        if retry(attempt):
+                            break
+                    else:
+                        log("no retry")
+                    return "C"
+
+                class Report:
+                    def rows(self, items):
+                        try:
+                            with open(self.path) as fh:
+                                data = fh.read()
+                        except (IOError, OSError):
+                            raise
+                        else:
+                            parse(data)
+                        match data:
+                            case "x":
+                                pass
+                            case _:
+                                return None
+                """;
+
+        String mermaid = builder.build(code, Language.PYTHON);
+        assertWellFormed(mermaid);
+
+        assertFalse(mermaid.contains("Letter grade"), "docstrings are not statements");
+        assertEdge(mermaid, "total #gt;= 90", "yes", "return #quot;A#quot;");
+        assertEdge(mermaid, "total #gt;= 90", "no", "total #gt;= 80");
+        assertEdge(mermaid, "for attempt in range(3)", "done", "log(#quot;no retry#quot;)");
+        assertEdge(mermaid, "retry(attempt)", "yes", "return #quot;C#quot;"); // break else'i atlar
+        assertEdge(mermaid, "try", "exception", "except (IOError, OSError)");
+        assertEdge(mermaid, "match data", "_", "return None");
+        assertTrue(mermaid.contains("subgraph f1 [\"rows (lines 17-29)\"]"));
+    }
+
+    @Test
+    void collapsesAndTruncatesLargeFunctions() {
+        StringBuilder code = new StringBuilder("void big(int x) {\n");
+        for (int i = 0; i < 40; i++) {
+            code.append("    if (x > ").append(i).append(") { for (int j = 0; j < x; j++) { if (j == ")
+                    .append(i).append(") call").append(i).append("(j); } }\n");
+        }
+        code.append("}\n");
+
+        ControlFlowDiagramBuilder small = new ControlFlowDiagramBuilder(analyzer, 30, 20);
+
+        String mermaid = small.build(code.toString(), Language.JAVA);
+        assertWellFormed(mermaid);
+        assertTrue(mermaid.contains("(simplified)"));
+        assertTrue(mermaid.contains("more statements"));
+        assertTrue(nodeCount(mermaid) <= 30, mermaid);
+
+        // Sığan fonksiyon aynen çizilir
+        String shallow = small.build("void f(int x) { if (x > 0) { for (;;) { if (x == 1) g(); } } }", Language.JAVA);
+        assertFalse(shallow.contains("(simplified)"));
+        assertEdge(shallow, "x == 1", "yes", "g()");
+    }
+
+    @Test
+    void deeplyNestedCodeIsCollapsedInsteadOfOverflowingTheStack() {
+        int levels = 5_000;
+
+        StringBuilder java = new StringBuilder("void deep(int x) {\n");
+        for (int i = 0; i < levels; i++) java.append("if (x > ").append(i).append(") {\n");
+        java.append("x++;\n");
+        for (int i = 0; i < levels; i++) java.append("}\n");
+        java.append("}\n");
+
+        String mermaid = builder.build(java.toString(), Language.JAVA);
+        assertWellFormed(mermaid);
+        assertTrue(mermaid.contains("more statements"), mermaid);
+        assertTrue(nodeCount(mermaid) <= 60, mermaid);
+
+        // Parantezsiz zincir de aynı sınıra takılır
+        String chain = "void chain(int x) { " + "if (x > 0) ".repeat(levels) + "x++; }";
+        String chained = builder.build(chain, Language.JAVA);
+        assertWellFormed(chained);
+        assertTrue(chained.contains("(simplified)"), chained);
+
+        StringBuilder python = new StringBuilder("def deep(x):\n");
+        for (int i = 0; i < levels; i++) {
+            python.append(" ".repeat(i + 1)).append("if x > ").append(i).append(":\n");
+        }
+        python.append(" ".repeat(levels + 1)).append("x += 1\n");
+
+        mermaid = builder.build(python.toString(), Language.PYTHON);
+        assertWellFormed(mermaid);
+        assertTrue(mermaid.contains("(simplified)"), mermaid);
+        assertTrue(nodeCount(mermaid) <= 60, mermaid);
+    }
+
+    @Test
+    void snippetsAndUnsupportedLanguages() {
+        String snippet = builder.build("for (const x of items) {\n  if (x.ok) send(x)\n  else skip(x)\n}\n", Language.JAVASCRIPT);
+        assertTrue(snippet.contains("(top-level code)"));
+        assertEdge(snippet, "x.ok", "no", "skip(x)");
+
+        assertTrue(builder.build("public class Empty { int x; }", Language.JAVA).contains("no functions"));
+        assertTrue(builder.build("fn main() {}", "main.rs", null).isEmpty());
+    }
+
+    private static void assertEdge(String mermaid, String from, String label, String to) {
+        Map<String, String> labels = new HashMap<>();
+        for (String line : mermaid.lines().toList()) {
+            Matcher node = NODE_LABEL.matcher(line);
+            if (node.matches()) labels.put(node.group(1), node.group(2));
+        }
+        for (String line : mermaid.lines().toList()) {
+            Matcher edge = EDGE.matcher(line);
+            if (edge.matches() && from.equals(labels.get(edge.group(1))) && to.equals(labels.get(edge.group(3)))
+                    && Objects.equals(label, edge.group(2))) {
+                return;
+            }
+        }
+        fail("no edge " + from + " -" + label + "-> " + to + " in\n" + mermaid);
+    }
+
+    private static long nodeCount(String mermaid) {
+        return mermaid.lines().filter(l -> NODE_LABEL.matcher(l).matches()).count();
+    }
+
+    private static void assertWellFormed(String mermaid) {
+        List<String> lines = mermaid.lines().toList();
+        assertEquals("flowchart TD", lines.get(0));
+        long subgraphs = lines.stream().filter(l -> l.trim().startsWith("subgraph ")).count();
+        long ends = lines.stream().filter(l -> l.trim().equals("end")).count();
+        assertEquals(subgraphs, ends);
+
+        Set<String> nodes = new HashSet<>();
+        for (String line : lines) {
+            Matcher node = NODE.matcher(line);
+            if (node.find() && !line.contains("-->") && !line.contains("-.->")) nodes.add(node.group(1));
+        }
+        for (String line : lines) {
+            if (!line.contains("-->") && !line.contains("-.->")) continue;
+            Matcher edge = EDGE.matcher(line);
+            assertTrue(edge.matches(), line);
+            assertTrue(nodes.contains(edge.group(1)), line);
+            assertTrue(nodes.contains(edge.group(3)), line);
+        }
+    }
+}
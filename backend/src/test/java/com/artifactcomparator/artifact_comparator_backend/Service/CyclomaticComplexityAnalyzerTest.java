@@ -0,0 +1,247 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisResponse;
+import com.artifactcomparator.artifact_comparator_backend.DTO.ComplexityMetric;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer.Language;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parity samples: expected values are hand-counted McCabe numbers
+ * (1 + decision points per function), with literals and comments that
+ * must not be counted.
+ */
+class CyclomaticComplexityAnalyzerTest {
+
+    private final CyclomaticComplexityAnalyzer analyzer = new CyclomaticComplexityAnalyzer();
+
+    @Test
+    void java() {
+        String code = """
+                package demo;
+
+                public class Orders<T> {
+                    // if (commented) { while (true) }
+                    private static final String NOTE = "if (a && b) { case x: }";
+                    private final char brace = '{';
+
+                    public Orders(int size) {
+                        this.size = size > 0 ? size : 10;
+                    }
+
+                    public int total(List<Order> orders) throws IOException, SQLException {
+                        int sum = 0;
+                        for (Order o : orders) {
+                            if (o.isPaid() && !o.isRefunded()) {
+                                sum += o.amount();
+                            } else if (o.isPending() || o.isLate()) {
+                                sum -= 1;
+                            }
+                        }
+                        return sum;
+                    }
+
+                    public String label(Status s) {
+                        switch (s) {
+                            case NEW: return "new";
+                            case PAID: return "paid";
+                            default: return "?";
+                        }
+                    }
+
+                    public <R> R safely(Supplier<R> body, List<? extends R> fallback) {
+                        try {
+                            Runnable r = new Runnable() {
+                                @Override
+                                public void run() {
+                                    while (busy()) { wait(); }
+                                }
+                            };
+                            return body.get();
+                        } catch (IllegalStateException | IllegalArgumentException e) {
+                            return fallback.isEmpty() ? null : fallback.get(0);
+                        }
+                    }
+
+                    abstract void noBody();
+                }
+                """;
+
+        CodeAnalysisResponse response = analyzer.analyze(code, Language.JAVA);
+
+        assertEquals(Map.of("Orders", 2, "total", 6, "label", 3, "run", 2, "safely", 3), complexities(response));
+        assertEquals(5, response.getNumberOfMethods());
+        assertEquals(16, response.getOverallComplexity());
+        assertEquals("native", response.getAnalyzer());
+
+        ComplexityMetric total = method(response, "total");
+        assertEquals(12, total.getStartLine());
+        assertEquals(22, total.getEndLine());
+        assertEquals("for (line 14)", total.getDecisionPoints().get(0));
+    }
+
+    @Test
+    void python() {
+        String code = """
+                import os
+
+                DEBUG = os.environ.get("DEBUG") or False
+
+                def grade(score, curve=0):
+                    \"\"\"if this were code: while True\"\"\"
+                    total = score + curve  # if ignored
+                    if total >= 90 and not late:
+                        return "A"
+                    elif total >= 80:
+                        return "B"
+                    return "C" if total > 50 else "F"
+
+                class Report:
+                    def rows(self, items):
+                        out = [i for i in items if i.visible]
+                        try:
+                            for row in out:
+                                while row.pending():
+                                    row.flush()
+                        except (IOError, OSError):
+                            pass
+                        return out
+
+                    async def match_kind(self, value):
+                        def inner(x):
+                            return x or 0
+                        match value:
+                            case 1:
+                                return "one"
+                            case _:
+                                return inner(value)
+                """;
+
+        CodeAnalysisResponse response = analyzer.analyze(code, Language.PYTHON);
+
+        assertEquals(Map.of(CyclomaticComplexityAnalyzer.TOP_LEVEL, 2, "grade", 5, "rows", 6,
+                "match_kind", 3, "inner", 2), complexities(response));
+        assertEquals(4, response.getNumberOfMethods());
+
+        ComplexityMetric grade = method(response, "grade");
+        assertEquals(5, grade.getStartLine());
+        assertEquals(12, grade.getEndLine());
+        ComplexityMetric rows = method(response, "rows");
+        assertEquals(15, rows.getStartLine());
+        assertEquals(23, rows.getEndLine());
+    }
+
+    @Test
+    void javascriptAndTypeScript() {
+        String code = """
+                const pattern = /if\\s*\\(/g;
+                const msg = `total: ${items.length > 0 ? items.length : "none"} // not a comment`;
+
+                function sum(values) {
+                  let t = 0;
+                  for (const v of values) {
+                    if (v > 0 && v < 10) t += v;
+                  }
+                  return t;
+                }
+
+                export const load = async (id: number): Promise<Item | null> => {
+                  try {
+                    const res = await fetch(`/api/${id}`);
+                    return res.ok ? res.json() : null;
+                  } catch (e) {
+                    return null;
+                  }
+                };
+
+                class Cart {
+                  add(item?: Item) {
+                    const price = item?.price ?? 0;
+                    items.forEach((i) => {
+                      if (i.id === item.id) i.qty++;
+                    });
+                    return price / 2 / 1;
+                  }
+                }
+
+                export default function () {
+                  return <div>{open && <Panel />}</div>;
+                }
+                """;
+
+        CodeAnalysisResponse response = analyzer.analyze(code, Language.JAVASCRIPT);
+
+        assertEquals(Map.of("sum", 4, "load", 3, "add", 2, "default", 2), complexities(response));
+    }
+
+    @Test
+    void cAndCpp() {
+        String code = """
+                #include <vector>
+                #if defined(DEBUG) && DEBUG
+                #define LOG(x) if (x) { printf("%d", x); }
+                #endif
+
+                static int clamp(int v, int lo, int hi) {
+                    return v < lo ? lo : (v > hi ? hi : v);
+                }
+
+                Buffer::Buffer(size_t n) : data_(n), size_{n} {
+                    if (n == 0) throw std::invalid_argument("empty");
+                }
+
+                bool Buffer::contains(int x) const noexcept {
+                    auto match = [x](int y) { return x == y || y < 0; };
+                    for (size_t i = 0; i < size_; i++) {
+                        if (match(data_[i])) return true;
+                    }
+                    do { x--; } while (x > 0);
+                    return false;
+                }
+
+                Buffer::~Buffer() {
+                    delete[] raw_;
+                }
+                """;
+
+        CodeAnalysisResponse response = analyzer.analyze(code, Language.C_CPP);
+
+        assertEquals(Map.of("clamp", 3, "Buffer::Buffer", 2, "Buffer::contains", 5, "Buffer::~Buffer", 1),
+                complexities(response));
+    }
+
+    @Test
+    void detectsLanguageOrDefersToGemini() {
+        assertEquals(Optional.of(Language.JAVA), analyzer.detectLanguage("", "Main.java", null));
+        assertEquals(Optional.of(Language.JAVASCRIPT), analyzer.detectLanguage("", "App.tsx", null));
+        assertEquals(Optional.of(Language.PYTHON), analyzer.detectLanguage("x = 1", null, "Python"));
+        assertEquals(Optional.of(Language.C_CPP), analyzer.detectLanguage("#include <stdio.h>\nint main() {}", null, null));
+        assertEquals(Optional.of(Language.PYTHON), analyzer.detectLanguage("def f(x):\n    return x", null, null));
+        assertEquals(Optional.of(Language.JAVA),
+                analyzer.detectLanguage("public class A {\n  public int f() { return 1; }\n}", null, null));
+        assertEquals(Optional.of(Language.JAVASCRIPT), analyzer.detectLanguage("const f = (a) => a + 1;", null, null));
+
+        assertTrue(analyzer.analyze("fn main() {}", "main.rs", null).isEmpty());
+        assertTrue(analyzer.analyze("SELECT 1", null, null).isEmpty());
+    }
+
+    private static Map<String, Integer> complexities(CodeAnalysisResponse response) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (ComplexityMetric metric : response.getMethods()) {
+            result.put(metric.getMethodName(), metric.getComplexity());
+        }
+        return result;
+    }
+
+    private static ComplexityMetric method(CodeAnalysisResponse response, String name) {
+        return response.getMethods().stream()
+                .filter(m -> m.getMethodName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,161 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiClient.CircuitBreaker;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiClient.TokenBucket;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeminiClientTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final GeminiCallMetrics metrics = new GeminiCallMetrics(registry, 0.10, 0.40, 10);
+
+    @Test
+    void tokenBucketBorrowsAheadOnlyWithinMaxWait() {
+        // Dakikada 60 istek → saniyede 1 token, 2'lik patlama payı
+        TokenBucket bucket = new TokenBucket(60, 2, now::get);
+        long second = TimeUnit.SECONDS.toNanos(1);
+
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(0, bucket.reserve(0));
+        assertEquals(-1, bucket.reserve(second / 2));
+        assertEquals(second, bucket.reserve(second), 1_000);
+        // Ödünç alınan token geri gelmeden sıradaki iki saniye bekler
+        assertEquals(2 * second, bucket.reserve(5 * second), 1_000);
+
+        now.addAndGet(3 * second);
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test
+    void circuitOpensAfterThresholdAndLetsOneProbeThrough() {
+        CircuitBreaker circuit = new CircuitBreaker(3, 1000, now::get);
+
+        circuit.onFailure();
+        circuit.onFailure();
+        circuit.onSuccess(); // ardışık sayım sıfırlanır
+        circuit.onFailure();
+        circuit.onFailure();
+        assertTrue(circuit.tryAcquire());
+        circuit.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuit.state());
+        assertTrue(circuit.rejecting());
+        assertFalse(circuit.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(circuit.tryAcquire());
+        assertFalse(circuit.tryAcquire(), "only one probe while half-open");
+        circuit.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, circuit.state());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1000));
+        assertTrue(circuit.tryAcquire());
+        circuit.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, circuit.state());
+    }
+
+    @Test
+    void retriesServerErrorsButNotBadRequestsAndRecordsTheCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            int call = calls.incrementAndGet();
+            boolean keyed = "k".equals(exchange.getRequestHeaders().getFirst("x-goog-api-key"));
+            int status = !keyed ? 400 : call <= 2 ? 503 : 200;
+            byte[] body = ("{\"candidates\":[{\"content\":{\"parts\":[{\"text\":"
+                    + "\"```json\\n{\\\"ok\\\": true}\\n```\"}]}}],"
+                    + "\"usageMetadata\":{\"promptTokenCount\":1200,\"candidatesTokenCount\":300}}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+
+        try {
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                    .build();
+
+            GeminiClient client = new GeminiClient(webClient, metrics, "k", 5000, 6000, 100, 0, 10, 1000, 3, 1, 5);
+            assertEquals("{\"ok\": true}", client.generate("grading", "prompt").block());
+            assertEquals(3, calls.get());
+
+            calls.set(10);
+            GeminiClient wrongKey = new GeminiClient(webClient, metrics, "x", 5000, 6000, 100, 0, 10, 1000, 3, 1, 5);
+            assertThrows(WebClientResponseException.BadRequest.class, () -> wrongKey.generate("grading", "prompt").block());
+            assertEquals(11, calls.get());
+
+            // İki 503 tekrar denendi; 400 tekrar denenmez, hata olarak kaydedilir
+            Map<?, ?> grading = (Map<?, ?>) ((Map<?, ?>) metrics.summary().get("callers")).get("grading");
+            assertEquals(2L, grading.get("calls"));
+            assertEquals(Map.of("error", 1L, "ok", 1L), grading.get("outcomes"));
+            assertEquals(Map.of("error", 2L), grading.get("retries"));
+            assertEquals(Map.of("prompt", 1200L, "response", 300L, "thoughts", 0L), grading.get("tokens"));
+            assertEquals(0.0002, (double) grading.get("estimatedCostUsd"), 1e-9);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamsChunksFromTheSseEndpoint() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicReference<URI> requested = new AtomicReference<>();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            requested.set(exchange.getRequestURI());
+            if (calls.incrementAndGet() == 1) {
+                // İlk parçadan önceki hata tekrar denenir
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String text : List.of("{\\\"questions\\\": [", "", "{}]}")) {
+                    out.write(("data: {\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"" + text
+                            + "\"}]}}]}\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+                out.write("data: {\"usageMetadata\":{}}\n\n".getBytes(StandardCharsets.UTF_8));
+            }
+        });
+        server.start();
+
+        try {
+            WebClient webClient = WebClient.builder()
+                    .baseUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/models/m:generateContent")
+                    .build();
+
+            GeminiClient client = new GeminiClient(webClient, metrics, "k", 5000, 6000, 100, 0, 10, 1000, 3, 1, 5);
+            assertEquals(List.of("{\"questions\": [", "{}]}"), client.stream("quiz-stream", "prompt", null).collectList().block());
+            assertEquals(2, calls.get());
+            assertEquals("/v1/models/m:streamGenerateContent?alt=sse", requested.get().toString());
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.GradingResult;
+import com.artifactcomparator.artifact_comparator_backend.Entity.GradeMemoEntry;
+import com.artifactcomparator.artifact_comparator_backend.Entity.OpenEndedQuestion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Repository.GradeMemoRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GradeMemoServiceTest {
+
+    @Test
+    void normalizesCaseUnicodeAndWhitespaceOnly() {
+        assertEquals(GradeMemoService.answerHash("Because it keeps\nmodules apart"),
+                GradeMemoService.answerHash("  because IT\tkeeps   modules apart "));
+        assertEquals(GradeMemoService.normalizeAnswer("ｍｏｄｕｌｅ"), "module");
+        assertNotEquals(GradeMemoService.answerHash("modules apart"), GradeMemoService.answerHash("modules apart."));
+    }
+
+    @Test
+    void gradingReusesRememberedGradeAndRecordsNewOnes() {
+        Quiz quiz = new Quiz();
+        List<Question> questions = new ArrayList<>();
+        for (long id = 1; id <= 2; id++) {
+            OpenEndedQuestion question = new OpenEndedQuestion();
+            question.setId(id);
+            question.setQuestionText("Explain decision #" + id);
+            question.setPoints(10);
+            questions.add(question);
+        }
+        quiz.setQuestions(questions);
+
+        QuizResult result = new QuizResult();
+        result.setId(42L);
+        result.setQuiz(quiz);
+        result.setSubmittedAt(LocalDateTime.now());
+        result.setAnswers(new HashMap<>(Map.of(1L, "Same  ANSWER", 2L, "A new answer")));
+
+        QuizResultRepository results = mock(QuizResultRepository.class);
+        when(results.findById(42L)).thenReturn(Optional.of(result));
+        when(results.save(any(QuizResult.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Soru 1'in bu cevabı daha önce result #7'de puanlandı
+        GradeMemoEntry remembered = new GradeMemoEntry();
+        remembered.setScore(6);
+        remembered.setFeedback("Reused feedback");
+        remembered.setSourceResultId(7L);
+        GradeMemoRepository memoRepo = mock(GradeMemoRepository.class);
+        when(memoRepo.findByQuestionIdAndQuestionHashAndMaxPointsAndAnswerHash(
+                eq(1L), anyString(), eq(10), eq(GradeMemoService.answerHash("same answer"))))
+                .thenReturn(Optional.of(remembered));
+
+        GeminiGradingService gemini = mock(GeminiGradingService.class);
+        when(gemini.gradeOpenEndedAnswerAsync(anyString(), anyString(), anyInt()))
+                .thenReturn(Mono.just(new GradingResult(9.0, "Fresh feedback")));
+
+        GradingService service = new GradingService(results, gemini, new GradeMemoService(memoRepo, true));
+        QuizResult graded = service.gradeQuizResult(42L, true);
+
+        assertEquals(6.0, graded.getPointsEarned().get(1L));
+        assertEquals("Reused feedback", graded.getAiFeedback().get(1L));
+        assertEquals(Map.of(1L, 7L), graded.getGradeSources());
+        assertEquals(9.0, graded.getPointsEarned().get(2L));
+
+        verify(gemini, times(1)).gradeOpenEndedAnswerAsync(anyString(), anyString(), anyInt());
+        verify(memoRepo).insertIfAbsent(eq(2L), anyString(), eq(10), eq(GradeMemoService.answerHash("a new answer")),
+                eq(9.0), eq("Fresh feedback"), eq(42L), any());
+    }
+}
@@ -0,0 +1,106 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.MonitorTaskDetailsDTO;
+import com.artifactcomparator.artifact_comparator_backend.Entity.CodeEditCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.CorrectAnswerEntry;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.MultipleChoiceCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CriterionResultAggregateRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MonitorTaskServiceTest {
+
+    private static final Long TASK = 10L;
+    private static final Long CHOICE = 100L;
+    private static final Long CODE = 101L;
+
+    @Test
+    void distributionFromGroupBySummaryKeepsFirstSeenOrder() {
+        EvaluationTaskRepository taskRepo = mock(EvaluationTaskRepository.class);
+        ParticipantTaskResponseRepository respRepo = mock(ParticipantTaskResponseRepository.class);
+        StudyResultsCubeService cubeService = mock(StudyResultsCubeService.class);
+
+        ResultAggregateService aggregates = new ResultAggregateService(
+                mock(CriterionResultAggregateRepository.class),
+                respRepo,
+                taskRepo,
+                mock(StudyRepository.class),
+                new CodeAnswerNormalizer(new ObjectMapper(), 0),
+                mock(ApplicationEventPublisher.class));
+
+        EvaluationTask task = task();
+        when(taskRepo.findById(TASK)).thenReturn(Optional.of(task));
+        when(cubeService.findCube(any())).thenReturn(null);
+
+        // [responseId, username, answerIndex, answer] — response sırasıyla
+        when(respRepo.findAnswerCellsForTask(TASK)).thenReturn(List.of(
+                new Object[]{1L, "p1", 0, "B"}, new Object[]{1L, "p1", 1, "// fixed"},
+                new Object[]{2L, "p2", 0, ""}, new Object[]{2L, "p2", 1, "int x = 1;"},
+                new Object[]{3L, "p3", 0, "A"}, new Object[]{3L, "p3", 1, ""},
+                new Object[]{4L, "p4", 0, " B"}, new Object[]{4L, "p4", 1, "// still empty"}));
+
+        // Aynı cevaplar GROUP BY ile → [answerIndex, answer, count]
+        when(respRepo.countByTask_Id(TASK)).thenReturn(4L);
+        when(respRepo.countAnswersByIndexForTask(TASK)).thenReturn(List.of(
+                new Object[]{0, "B", 1L}, new Object[]{1, "// fixed", 1L},
+                new Object[]{0, "", 1L}, new Object[]{1, "int x = 1;", 1L},
+                new Object[]{0, "A", 1L}, new Object[]{1, "", 1L},
+                new Object[]{0, " B", 1L}, new Object[]{1, "// still empty", 1L}));
+
+        MonitorTaskDetailsDTO details =
+                new MonitorTaskService(taskRepo, respRepo, aggregates, cubeService).getTaskDetails(TASK);
+
+        Map<String, Integer> choice = details.getDistribution().get(0).getOptions();
+        assertEquals(List.of("B", "—", "A"), new ArrayList<>(choice.keySet()));
+        assertEquals(Map.of("B", 2, "—", 1, "A", 1), choice);
+
+        // Correct answer boş → boş koda eşit olanlar Correct, diğerleri Wrong
+        Map<String, Integer> code = details.getDistribution().get(1).getOptions();
+        assertEquals(List.of("Correct", "Wrong", "Pending"), new ArrayList<>(code.keySet()));
+        assertEquals(Map.of("Correct", 2, "Wrong", 1, "Pending", 1), code);
+
+        assertEquals(4, details.getParticipants().size());
+        assertEquals(List.of(" B", "// still empty"), details.getParticipants().get(3).getAnswers());
+    }
+
+    private static EvaluationTask task() {
+        MultipleChoiceCriterion choice = new MultipleChoiceCriterion();
+        choice.setId(CHOICE);
+        choice.setType(CriterionType.MULTIPLE_CHOICE);
+        choice.setPriorityOrder(0);
+
+        CodeEditCriterion code = new CodeEditCriterion("Fix the bug", null, 1);
+        code.setId(CODE);
+
+        Study study = new Study();
+        study.setId(1L);
+        study.setEvaluationCriteria(new ArrayList<EvaluationCriterion>(List.of(choice, code)));
+
+        CorrectAnswerEntry correct = new CorrectAnswerEntry();
+        correct.setCriterionId(CHOICE);
+        correct.setAnswerValue("A");
+
+        EvaluationTask task = new EvaluationTask();
+        task.setId(TASK);
+        task.setStudy(study);
+        task.getCorrectAnswers().add(correct);
+        return task;
+    }
+}
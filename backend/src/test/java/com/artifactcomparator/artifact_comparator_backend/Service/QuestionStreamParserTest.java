@@ -0,0 +1,57 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuestionStreamParserTest {
+
+    private static final String RESPONSE = """
+            ```json
+            {
+              "questions": [
+                {"type": "MULTIPLE_CHOICE", "questionText": "Which brace is \\"{\\" here?",
+                 "options": ["{", "}", "[", "]"], "correctAnswer": "{", "points": 2},
+                {"type": "OPEN_ENDED", "questionText": "Explain [arrays] and {objects}.", "points": 5},
+                {"type": "OPEN_ENDED", "questionText": broken, "points": 5},
+                {"type": "OPEN_ENDED", "questionText": "Last one", "points": 3}
+              ]
+            }
+            ```
+            """;
+
+    @Test
+    void emitsEachQuestionAsSoonAsItCloses() {
+        // Her karakter ayrı parça → sınırlar string ve escape'lerin ortasına düşer
+        QuestionStreamParser parser = new QuestionStreamParser();
+        List<String> questions = new ArrayList<>();
+        int firstAt = -1;
+        for (int i = 0; i < RESPONSE.length(); i++) {
+            questions.addAll(parser.feed(RESPONSE.substring(i, i + 1)));
+            if (firstAt < 0 && !questions.isEmpty()) firstAt = i;
+        }
+
+        assertEquals(4, questions.size());
+        assertTrue(questions.get(0).startsWith("{\"type\": \"MULTIPLE_CHOICE\""));
+        assertTrue(questions.get(0).endsWith("\"points\": 2}"));
+        assertEquals(RESPONSE.indexOf("\"points\": 2}") + 11, firstAt);
+        assertTrue(questions.get(2).contains("broken"), "malformed JSON is left to the caller to skip");
+        assertTrue(parser.isClosed());
+        assertFalse(parser.hasPartialQuestion());
+    }
+
+    @Test
+    void toleratesChatterAndTruncation() {
+        QuestionStreamParser parser = new QuestionStreamParser();
+        List<String> questions = new ArrayList<>(parser.feed("Sure [see below]! Here you go:\n[{\"questionText\": \"A\", \"points\": 1}, "));
+        questions.addAll(parser.feed("{\"questionText\": \"B\", \"poi"));
+
+        assertEquals(List.of("{\"questionText\": \"A\", \"points\": 1}"), questions);
+        assertFalse(parser.isClosed());
+        assertTrue(parser.hasPartialQuestion());
+        assertEquals(1, parser.emitted());
+    }
+}
@@ -0,0 +1,201 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CodeEditCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.CorrectAnswerEntry;
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.MultipleChoiceCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Enums.CriterionType;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CriterionResultAggregateRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ResultAggregateServiceTest {
+
+    private static final Long TASK = 10L;
+    private static final Long CHOICE = 100L;
+    private static final Long CODE = 101L;
+
+    private static final String CODE_ANSWER = "{\"editedCode\":\"int x = 1; // fixed\"}";
+
+    private final CriterionResultAggregateRepository aggregateRepo = mock(CriterionResultAggregateRepository.class);
+    private final ParticipantTaskResponseRepository respRepo = mock(ParticipantTaskResponseRepository.class);
+
+    private final ResultAggregateService service = new ResultAggregateService(
+            aggregateRepo,
+            respRepo,
+            mock(EvaluationTaskRepository.class),
+            mock(StudyRepository.class),
+            new CodeAnswerNormalizer(new ObjectMapper(), 0),
+            mock(ApplicationEventPublisher.class));
+
+    private final EvaluationTask task = task();
+
+    private final CriterionResultAggregate choice = new CriterionResultAggregate(1L, TASK, CHOICE, 0);
+    private final CriterionResultAggregate code = new CriterionResultAggregate(1L, TASK, CODE, 1);
+
+    ResultAggregateServiceTest() {
+        when(aggregateRepo.findByTaskId(TASK)).thenReturn(List.of(choice, code));
+    }
+
+    @Test
+    void firstSubmissionComparesVerbatimAndSkipsCodeOptions() {
+        service.applyResponse(task, 1L, null, List.of("A", CODE_ANSWER));
+        service.applyResponse(task, 2L, null, List.of(" A", "int x=1;"));
+
+        assertEquals(2, choice.getResponseCount());
+        assertEquals(1, choice.getCorrectCount());
+        // Baştaki boşluk → eşleşmez, monitor ile aynı
+        assertEquals(1, choice.getWrongCount());
+        assertEquals(Map.of("A", 2), choice.getOptionCounts());
+
+        assertEquals(2, code.getResponseCount());
+        assertEquals(2, code.getCorrectCount());
+        assertTrue(code.getOptionCounts().isEmpty());
+    }
+
+    @Test
+    void resubmissionReplacesPreviousAnswers() {
+        service.applyResponse(task, 1L, null, List.of("A", CODE_ANSWER));
+        service.applyResponse(task, 1L, List.of("A", CODE_ANSWER), List.of("B", "int y = 2;"));
+
+        assertEquals(1, choice.getResponseCount());
+        assertEquals(0, choice.getCorrectCount());
+        assertEquals(1, choice.getWrongCount());
+        assertEquals(Map.of("B", 1), choice.getOptionCounts());
+
+        assertEquals(1, code.getResponseCount());
+        assertEquals(0, code.getCorrectCount());
+        assertEquals(1, code.getWrongCount());
+        assertTrue(code.getOptionCounts().isEmpty());
+    }
+
+    @Test
+    void blankAnswersMoveOutOfBlankWhenFilled() {
+        service.applyResponse(task, 1L, null, Arrays.asList("  ", null));
+
+        assertEquals(1, choice.getBlankCount());
+        assertEquals(1, code.getBlankCount());
+        assertTrue(choice.getOptionCounts().isEmpty());
+
+        service.applyResponse(task, 1L, Arrays.asList("  ", null), List.of("A", CODE_ANSWER));
+
+        assertEquals(0, choice.getBlankCount());
+        assertEquals(1, choice.getCorrectCount());
+        assertEquals(Map.of("A", 1), choice.getOptionCounts());
+        assertEquals(0, code.getBlankCount());
+        assertEquals(1, code.getCorrectCount());
+        assertEquals(1, code.getResponseCount());
+    }
+
+    @Test
+    void answersWithoutCorrectAnswerAreUnknown() {
+        task.getCorrectAnswers().removeIf(e -> e.getCriterionId().equals(CHOICE));
+
+        service.applyResponse(task, 1L, null, List.of("A", CODE_ANSWER));
+
+        assertEquals(1, choice.getUnknownCount());
+        assertEquals(0, choice.getWrongCount());
+        assertEquals(Map.of("A", 1), choice.getOptionCounts());
+    }
+
+    @Test
+    void emptyCodeCorrectAnswerIsComparedAsEmptyCode() {
+        task.getCorrectAnswers().removeIf(e -> e.getCriterionId().equals(CODE));
+
+        service.applyResponse(task, 1L, null, List.of("A", CODE_ANSWER));
+        service.applyResponse(task, 2L, null, List.of("A", "{\"editedCode\":\"// nothing to fix\"}"));
+
+        assertEquals(0, code.getUnknownCount());
+        assertEquals(1, code.getWrongCount());
+        assertEquals(1, code.getCorrectCount());
+    }
+
+    @Test
+    void groupBySummaryKeepsFirstSeenOrder() {
+        when(respRepo.countByTask_Id(TASK)).thenReturn(6L);
+        // [answerIndex, answer, count] — ilk gönderilme sırasıyla; 6. response'un cevap listesi boş
+        when(respRepo.countAnswersByIndexForTask(TASK)).thenReturn(List.of(
+                new Object[]{0, "B", 2L},
+                new Object[]{1, CODE_ANSWER, 3L},
+                new Object[]{0, " ", 1L},
+                new Object[]{0, "A", 1L},
+                new Object[]{0, " B", 1L}));
+
+        Map<Long, CriterionResultAggregate> summary = service.summarizeTask(task);
+
+        CriterionResultAggregate choiceSummary = summary.get(CHOICE);
+        assertEquals(6, choiceSummary.getResponseCount());
+        assertEquals(1, choiceSummary.getCorrectCount());
+        assertEquals(3, choiceSummary.getWrongCount());
+        assertEquals(2, choiceSummary.getBlankCount());
+        assertEquals(List.of("B", "A"), new ArrayList<>(choiceSummary.getOptionCounts().keySet()));
+        assertEquals(Map.of("B", 3, "A", 1), choiceSummary.getOptionCounts());
+
+        CriterionResultAggregate codeSummary = summary.get(CODE);
+        assertEquals(3, codeSummary.getCorrectCount());
+        assertEquals(3, codeSummary.getBlankCount());
+        assertTrue(codeSummary.getOptionCounts().isEmpty());
+        verify(aggregateRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void distributionFollowsFirstSeenOrderWithAggregateCounts() {
+        service.applyResponse(task, 1L, null, List.of("B", CODE_ANSWER));
+        service.applyResponse(task, 2L, null, List.of(" ", CODE_ANSWER));
+        service.applyResponse(task, 3L, null, List.of("A", CODE_ANSWER));
+        service.applyResponse(task, 4L, null, List.of("C", CODE_ANSWER));
+
+        ResultAggregateService.FirstSeenAnswers seen = new ResultAggregateService.FirstSeenAnswers();
+        seen.addResponse(List.of("B"), 2);
+        seen.addResponse(List.of(), 2);
+        seen.addResponse(List.of(" A "), 2);
+
+        // "C" görülmedi → özetteki sırayla sona eklenir
+        Map<String, Integer> options = seen.distribution(0, choice, "—");
+        assertEquals(List.of("B", "—", "A", "C"), new ArrayList<>(options.keySet()));
+        assertEquals(Map.of("B", 1, "—", 1, "A", 1, "C", 1), options);
+    }
+
+    private static EvaluationTask task() {
+        MultipleChoiceCriterion choice = new MultipleChoiceCriterion();
+        choice.setId(CHOICE);
+        choice.setType(CriterionType.MULTIPLE_CHOICE);
+        choice.setPriorityOrder(0);
+
+        CodeEditCriterion code = new CodeEditCriterion("Fix the bug", null, 1);
+        code.setId(CODE);
+
+        Study study = new Study();
+        study.setId(1L);
+        study.setEvaluationCriteria(new ArrayList<EvaluationCriterion>(List.of(choice, code)));
+
+        EvaluationTask task = new EvaluationTask();
+        task.setId(TASK);
+        task.setStudy(study);
+        task.getCorrectAnswers().add(correct(CHOICE, "A"));
+        task.getCorrectAnswers().add(correct(CODE, "int x = 1;"));
+        return task;
+    }
+
+    private static CorrectAnswerEntry correct(Long criterionId, String value) {
+        CorrectAnswerEntry entry = new CorrectAnswerEntry();
+        entry.setCriterionId(criterionId);
+        entry.setAnswerValue(value);
+        return entry;
+    }
+}
@@ -0,0 +1,120 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationCriterion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Study;
+import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The bounded-heap test runs in its own surefire execution with a fixed -Xmx
+ * (see pom.xml), so a 2,000-page report only passes if pages and chart images
+ * are spilled to the PDFBox scratch file.
+ */
+class StudyPdfExportServiceTest {
+
+    private static final int TASKS = 200;
+    private static final int CRITERIA = 10;
+    private static final int PARTICIPANTS = 500;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @Tag("bounded-heap")
+    void largeReportIsStreamedWithBoundedHeap() throws Exception {
+        Study study = StudyReportFixtures.syntheticStudy(TASKS, CRITERIA, PARTICIPANTS);
+
+        StudyRepository studyRepo = mock(StudyRepository.class);
+        when(studyRepo.findById(study.getId())).thenReturn(Optional.of(study));
+
+        StudyResultsCubeService results = mock(StudyResultsCubeService.class);
+        when(results.getStudyResults(any()))
+                .thenReturn(StudyReportFixtures.syntheticResults(study, PARTICIPANTS));
+        when(results.firstSeenAnswers(any(), any())).thenReturn(new ResultAggregateService.FirstSeenAnswers());
+
+        StudyPdfExportService service = new StudyPdfExportService(studyRepo, results, 0);
+        ReflectionTestUtils.setField(service, "maxMainMemoryMb", 4L);
+        ReflectionTestUtils.setField(service, "tempDir", tempDir.toString());
+
+        Path pdf = tempDir.resolve("report.pdf");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pdf))) {
+            service.generateStudyReport(study.getId(), out);
+        }
+
+        try (PDDocument doc = PDDocument.load(pdf.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            // overview + her task × criterion için bir sayfa
+            assertEquals(1 + TASKS * CRITERIA, doc.getNumberOfPages());
+        }
+    }
+
+    @Test
+    void identicalChartsShareOneImageXObject() throws Exception {
+        Study study = StudyReportFixtures.syntheticStudy(5, 2, 10);
+
+        // Her task × criterion aynı sayılar → 1 correctness + 1 answer grafiği
+        Map<Long, Integer> completed = new HashMap<>();
+        Map<Long, Map<Long, CriterionResultAggregate>> byTask = new HashMap<>();
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            completed.put(task.getId(), 8);
+            Map<Long, CriterionResultAggregate> byCriterion = new HashMap<>();
+            for (EvaluationCriterion crit : study.getCriteriaSorted()) {
+                CriterionResultAggregate agg = new CriterionResultAggregate(
+                        study.getId(), task.getId(), crit.getId(), crit.getPriorityOrder());
+                agg.setResponseCount(8);
+                agg.setCorrectCount(5);
+                agg.setWrongCount(3);
+                agg.getOptionCounts().put("A", 5);
+                agg.getOptionCounts().put("B", 3);
+                byCriterion.put(crit.getId(), agg);
+            }
+            byTask.put(task.getId(), byCriterion);
+        }
+
+        StudyRepository studyRepo = mock(StudyRepository.class);
+        when(studyRepo.findById(study.getId())).thenReturn(Optional.of(study));
+        StudyResultsCubeService results = mock(StudyResultsCubeService.class);
+        when(results.getStudyResults(any()))
+                .thenReturn(new ResultAggregateService.StudyResults(completed, byTask));
+        when(results.firstSeenAnswers(any(), any())).thenReturn(new ResultAggregateService.FirstSeenAnswers());
+
+        StudyPdfExportService service = new StudyPdfExportService(studyRepo, results, 2);
+        ReflectionTestUtils.setField(service, "maxMainMemoryMb", 4L);
+
+        Path pdf = tempDir.resolve("dedup.pdf");
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(pdf))) {
+            service.generateStudyReport(study.getId(), out);
+        }
+
+        try (PDDocument doc = PDDocument.load(pdf.toFile())) {
+            Set<COSBase> images = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (PDPage page : doc.getPages()) {
+                for (COSName name : page.getResources().getXObjectNames()) {
+                    images.add(page.getResources().getXObject(name).getCOSObject());
+                }
+            }
+            assertEquals(1 + 5 * 2, doc.getNumberOfPages());
+            assertEquals(2, images.size());
+        }
+    }
+}
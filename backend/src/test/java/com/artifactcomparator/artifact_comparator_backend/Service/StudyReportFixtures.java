@@ -0,0 +1,95 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.*;
+import com.artifactcomparator.artifact_comparator_backend.Enums.StudyStatus;
+import com.artifactcomparator.artifact_comparator_backend.Enums.StudyType;
+
+import java.util.*;
+
+/**
+ * In-memory study + precomputed results for exercising the PDF export
+ * without a database.
+ */
+final class StudyReportFixtures {
+
+    private StudyReportFixtures() {
+    }
+
+    static Study syntheticStudy(int taskCount, int criterionCount, int participantCount) {
+        Study study = new Study();
+        study.setId(1L);
+        study.setTitle("Synthetic study");
+        study.setDescription("Generated for the PDF export memory test");
+        study.setStatus(StudyStatus.ACTIVE);
+        study.setStudyType(StudyType.CUSTOM);
+
+        List<User> participants = new ArrayList<>();
+        for (int p = 0; p < participantCount; p++) {
+            User u = new User();
+            u.setId((long) p);
+            participants.add(u);
+        }
+        study.setParticipants(participants);
+
+        List<EvaluationCriterion> criteria = new ArrayList<>();
+        for (int c = 0; c < criterionCount; c++) {
+            EvaluationCriterion crit = new MultipleChoiceCriterion(
+                    "Criterion " + c, "Which artifact is better?", c,
+                    4, List.of("A", "B", "C", "D"), false);
+            crit.setId(100L + c);
+            crit.setStudy(study);
+            criteria.add(crit);
+        }
+        study.setEvaluationCriteria(criteria);
+
+        List<EvaluationTask> tasks = new ArrayList<>();
+        for (int t = 0; t < taskCount; t++) {
+            EvaluationTask task = new EvaluationTask();
+            task.setId(1000L + t);
+            task.setQuestionText("Task " + t);
+            task.setStudy(study);
+
+            List<CorrectAnswerEntry> correct = new ArrayList<>();
+            for (EvaluationCriterion crit : criteria) {
+                correct.add(new CorrectAnswerEntry(crit.getId(), "A"));
+            }
+            task.setCorrectAnswers(correct);
+            tasks.add(task);
+        }
+        study.setEvaluationTasks(tasks);
+
+        return study;
+    }
+
+    static ResultAggregateService.StudyResults syntheticResults(Study study, int participantCount) {
+        Random random = new Random(42);
+        Map<Long, Integer> completed = new HashMap<>();
+        Map<Long, Map<Long, CriterionResultAggregate>> byTask = new HashMap<>();
+
+        for (EvaluationTask task : study.getEvaluationTasks()) {
+            int responses = participantCount - random.nextInt(50);
+            completed.put(task.getId(), responses);
+
+            Map<Long, CriterionResultAggregate> byCriterion = new HashMap<>();
+            for (EvaluationCriterion crit : study.getCriteriaSorted()) {
+                CriterionResultAggregate agg = new CriterionResultAggregate(
+                        study.getId(), task.getId(), crit.getId(), crit.getPriorityOrder());
+
+                int remaining = responses;
+                for (String option : List.of("A", "B", "C")) {
+                    int n = random.nextInt(remaining / 2 + 1);
+                    agg.getOptionCounts().put(option, n);
+                    remaining -= n;
+                }
+                agg.getOptionCounts().put("D", remaining);
+
+                agg.setResponseCount(responses);
+                agg.setCorrectCount(agg.getOptionCounts().get("A"));
+                agg.setWrongCount(responses - agg.getCorrectCount());
+                byCriterion.put(crit.getId(), agg);
+            }
+            byTask.put(task.getId(), byCriterion);
+        }
+        return new ResultAggregateService.StudyResults(completed, byTask);
+    }
+}
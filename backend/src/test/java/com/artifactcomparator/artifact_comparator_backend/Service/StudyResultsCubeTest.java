@@ -0,0 +1,127 @@
+package com.artifactcomparator.artifact_comparator_backend.Service;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService.AnswerOutcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.artifactcomparator.artifact_comparator_backend.Service.ResultAggregateService.AnswerOutcome.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudyResultsCubeTest {
+
+    private static final Long TASK = 10L;
+    private static final Long FIRST = 100L;
+    private static final Long SECOND = 101L;
+
+    private final StudyResultsCube cube = new StudyResultsCube(1L, List.of(FIRST, SECOND), Set.of());
+
+    StudyResultsCubeTest() {
+        cube.addTask(TASK);
+    }
+
+    @Test
+    void countsOutcomesPerCriterion() {
+        put(1L, List.of("A", ""), CORRECT, BLANK);
+        put(2L, List.of("B", "x"), WRONG, UNKNOWN);
+        put(3L, List.of("A", "y"), CORRECT, UNKNOWN);
+
+        assertEquals(3, cube.completedCount(TASK));
+
+        CriterionResultAggregate first = cube.aggregates(TASK).get(FIRST);
+        assertEquals(3, first.getResponseCount());
+        assertEquals(2, first.getCorrectCount());
+        assertEquals(1, first.getWrongCount());
+        assertEquals(0, first.getBlankCount());
+        assertEquals(0, first.getUnknownCount());
+
+        CriterionResultAggregate second = cube.aggregates(TASK).get(SECOND);
+        assertEquals(1, second.getBlankCount());
+        assertEquals(2, second.getUnknownCount());
+        assertEquals(0, second.getCorrectCount());
+        assertEquals(0, second.getWrongCount());
+        // Boş cevap seçenek olarak sayılmaz
+        assertEquals(Map.of("x", 1, "y", 1), second.getOptionCounts());
+    }
+
+    @Test
+    void groupsOptionsByTrimmedAnswer() {
+        put(1L, List.of(" A", "z"), CORRECT, WRONG);
+        put(2L, List.of("A  ", "z"), CORRECT, WRONG);
+        put(3L, List.of("B", "z"), WRONG, WRONG);
+
+        assertEquals(Map.of("A", 2, "B", 1), cube.aggregates(TASK).get(FIRST).getOptionCounts());
+        // Ham cevap aynen saklanır
+        assertEquals(List.of(" A", "z"), cube.answers(TASK, 1L));
+    }
+
+    @Test
+    void codeCriteriaAreScoredButNotCountedPerValue() {
+        StudyResultsCube codeCube = new StudyResultsCube(1L, List.of(FIRST, SECOND), Set.of(SECOND));
+        codeCube.addTask(TASK);
+        codeCube.put(TASK, 1L, "p1", List.of("A", "{\"editedCode\":\"int x;\"}"),
+                new AnswerOutcome[]{CORRECT, CORRECT});
+
+        CriterionResultAggregate second = codeCube.aggregates(TASK).get(SECOND);
+        assertEquals(1, second.getCorrectCount());
+        assertTrue(second.getOptionCounts().isEmpty());
+        assertEquals(Map.of("A", 1), codeCube.aggregates(TASK).get(FIRST).getOptionCounts());
+    }
+
+    @Test
+    void resubmissionOverwritesPreviousAnswers() {
+        put(1L, List.of("A", ""), CORRECT, BLANK);
+        Map<Long, CriterionResultAggregate> before = cube.aggregates(TASK);
+        assertSame(before, cube.aggregates(TASK)); // put olmadan tekrar hesaplanmaz
+
+        put(1L, List.of("B", "filled"), WRONG, UNKNOWN);
+
+        Map<Long, CriterionResultAggregate> after = cube.aggregates(TASK);
+        assertNotSame(before, after);
+        assertEquals(1, cube.completedCount(TASK));
+
+        assertEquals(0, after.get(FIRST).getCorrectCount());
+        assertEquals(1, after.get(FIRST).getWrongCount());
+        assertEquals(Map.of("B", 1), after.get(FIRST).getOptionCounts());
+        assertEquals(0, after.get(SECOND).getBlankCount());
+        assertEquals(1, after.get(SECOND).getUnknownCount());
+        assertEquals(List.of("B", "filled"), cube.answers(TASK, 1L));
+    }
+
+    @Test
+    void olderSubmissionDeliveredLateIsDropped() {
+        StudyResultsCube loaded = new StudyResultsCube(1L, List.of(FIRST, SECOND), Set.of());
+        loaded.addTask(TASK, 5);
+        loaded.put(TASK, 1L, "p1", List.of("A", "x"), new AnswerOutcome[]{CORRECT, UNKNOWN});
+
+        // Yüklenen satır zaten version 5'i içeriyor
+        assertFalse(loaded.put(TASK, 1L, "p1", List.of("B", "x"), new AnswerOutcome[]{WRONG, UNKNOWN}, 5));
+
+        assertTrue(loaded.put(TASK, 1L, "p1", List.of("C", "y"), new AnswerOutcome[]{WRONG, UNKNOWN}, 7));
+        assertFalse(loaded.put(TASK, 1L, "p1", List.of("B", "x"), new AnswerOutcome[]{WRONG, UNKNOWN}, 6));
+        assertEquals(List.of("C", "y"), loaded.answers(TASK, 1L));
+        assertEquals(Map.of("C", 1), loaded.aggregates(TASK).get(FIRST).getOptionCounts());
+
+        // Yeni participant → ilk submit her zaman uygulanır
+        assertTrue(loaded.put(TASK, 2L, "p2", List.of("A", ""), new AnswerOutcome[]{CORRECT, BLANK}, 6));
+        assertEquals(2, loaded.completedCount(TASK));
+    }
+
+    @Test
+    void missingTasksAndParticipants() {
+        assertNull(cube.answers(TASK, 1L));
+        assertEquals(0, cube.aggregates(TASK).get(FIRST).getResponseCount());
+        assertEquals(0, cube.completedCount(99L));
+        assertEquals(0, cube.aggregates(99L).get(SECOND).getResponseCount());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> cube.put(99L, 1L, "p1", List.of("A", "B"), new AnswerOutcome[]{WRONG, WRONG}));
+    }
+
+    private void put(Long participantId, List<String> answers, AnswerOutcome... outcomes) {
+        cube.put(TASK, participantId, "p" + participantId, answers, outcomes);
+    }
+}
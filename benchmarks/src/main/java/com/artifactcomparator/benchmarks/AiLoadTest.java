@@ -0,0 +1,344 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisRequest;
+import com.artifactcomparator.artifact_comparator_backend.Entity.OpenEndedQuestion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CodeAnalysisCacheRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.GradeMemoRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.CodeAnalysisCache;
+import com.artifactcomparator.artifact_comparator_backend.Service.ControlFlowDiagramBuilder;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCallMetrics;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiClient;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCodeAnalysisService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiGradingService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiQuizService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradeMemoService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradingService;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Closed-loop load test of the AI paths (quiz grading, quiz generation,
+ * streamed quiz generation, code analysis) end to end through GeminiClient against a local GeminiStubServer.
+ * Each virtual user repeats one operation until the duration is over; the
+ * report gives throughput, latency percentiles and the failure breakdown.
+ * Runs fully offline, nothing reaches the real API.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.artifactcomparator.benchmarks.AiLoadTest \
+ *      grading --users=32 --duration-s=30 --latency=lognormal:800:0.5 --error-rate=0.02
+ * </pre>
+ */
+public final class AiLoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("users", "16");
+        DEFAULTS.put("duration-s", "30");
+        DEFAULTS.put("warmup-s", "5");
+        // fixed:<ms> | uniform:<min>:<max> | lognormal:<median>:<sigma>
+        DEFAULTS.put("latency", "lognormal:800:0.5");
+        DEFAULTS.put("error-rate", "0.0");
+        // <periyot ms>:<429 süresi ms>, 0:0 = kapalı
+        DEFAULTS.put("throttle", "0:0");
+        DEFAULTS.put("fuzz-rate", "0.0");
+        // Başarısız işlemden sonra kullanıcının beklemesi; açık devrede boş döngüyü önler
+        DEFAULTS.put("failure-pause-ms", "200");
+        // Backend logları (OFF | ERROR | WARN | INFO)
+        DEFAULTS.put("log", "OFF");
+        // GeminiClient ayarları (application.properties ile aynı anlamda)
+        DEFAULTS.put("rpm", "1000000");
+        DEFAULTS.put("burst", "10000");
+        DEFAULTS.put("max-wait-ms", "15000");
+        DEFAULTS.put("retries", "3");
+        DEFAULTS.put("circuit-threshold", "5");
+        DEFAULTS.put("circuit-open-ms", "30000");
+        DEFAULTS.put("attempt-timeout-ms", "30000");
+        // Grading senaryosu: result başına açık uçlu soru ve aynı anda bekleyen soru
+        DEFAULTS.put("questions", "5");
+        DEFAULTS.put("grading-concurrency", "4");
+    }
+
+    private AiLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> scenarios = new ArrayList<>();
+        Map<String, String> opts = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                String key = arg.substring(2, arg.indexOf('='));
+                if (!DEFAULTS.containsKey(key)) {
+                    throw new IllegalArgumentException("Unknown option --" + key + ", known: " + DEFAULTS.keySet());
+                }
+                opts.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                scenarios.add(arg);
+            }
+        }
+        if (scenarios.isEmpty() || scenarios.contains("all")) {
+            scenarios = List.of("grading", "quiz", "quiz-sse", "analysis");
+        }
+
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.toLevel(opts.get("log"), Level.OFF));
+
+        System.out.println("Options: " + new TreeMap<>(opts));
+        System.out.printf("%-9s %7s %7s %7s %8s %8s %8s %8s %8s%n",
+                "scenario", "ops", "ok", "failed", "ok/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+        for (String scenario : scenarios) {
+            run(scenario, opts);
+        }
+    }
+
+    private static void run(String scenario, Map<String, String> opts) throws Exception {
+        try (GeminiStubServer stub = GeminiStubServer.builder()
+                .latency(latency(opts.get("latency")))
+                .errorRate(Double.parseDouble(opts.get("error-rate")))
+                .throttle(part(opts.get("throttle"), 0), part(opts.get("throttle"), 1))
+                .fuzzRate(Double.parseDouble(opts.get("fuzz-rate")))
+                .start()) {
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            GeminiCallMetrics metrics = new GeminiCallMetrics(registry, 0.10, 0.40, 0);
+            GeminiClient client = new GeminiClient(
+                    WebClient.builder().baseUrl(stub.url()).build(), metrics, "stub",
+                    num(opts, "attempt-timeout-ms"),
+                    (int) num(opts, "rpm"), (int) num(opts, "burst"), num(opts, "max-wait-ms"),
+                    (int) num(opts, "circuit-threshold"), num(opts, "circuit-open-ms"),
+                    (int) num(opts, "retries"), 500, 8_000);
+
+            Runnable operation = switch (scenario) {
+                case "grading" -> grading(client, opts);
+                case "quiz" -> quiz(client);
+                case "quiz-sse" -> quizFirstQuestion(client);
+                case "analysis" -> analysis(client, stub);
+                default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+            };
+
+            int users = (int) num(opts, "users");
+            long pauseMs = num(opts, "failure-pause-ms");
+            drive(operation, users, num(opts, "warmup-s") * 1000, pauseMs, null, null);
+            registry.clear();
+
+            List<Long> latencies = new ArrayList<>();
+            Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+            long start = System.nanoTime();
+            drive(operation, users, num(opts, "duration-s") * 1000, pauseMs, latencies, failures);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(scenario, latencies, failures, seconds);
+            System.out.println("          stub: " + new TreeMap<>(stub.stats())
+                    + ", client: " + client.stats());
+            System.out.println("          gemini calls: " + metrics.summary().get("totals"));
+            ((Map<?, ?>) metrics.summary().get("callers")).forEach((caller, summary) ->
+                    System.out.println("          " + caller + ": " + summary));
+        }
+    }
+
+    /** Runs the operation in a loop on each user thread until the deadline; records only when given lists. */
+    private static void drive(Runnable operation, int users, long durationMs, long failurePauseMs,
+                              List<Long> latencies, Map<String, AtomicLong> failures) throws InterruptedException {
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+        CountDownLatch done = new CountDownLatch(users);
+
+        for (int u = 0; u < users; u++) {
+            Thread user = new Thread(() -> {
+                List<Long> local = new ArrayList<>();
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long t0 = System.nanoTime();
+                        try {
+                            operation.run();
+                            local.add(System.nanoTime() - t0);
+                        } catch (RuntimeException e) {
+                            if (failures != null) {
+                                failures.computeIfAbsent(summary(e), k -> new AtomicLong()).incrementAndGet();
+                            }
+                            pause(failurePauseMs);
+                        }
+                    }
+                } finally {
+                    if (latencies != null) {
+                        synchronized (latencies) {
+                            latencies.addAll(local);
+                        }
+                    }
+                    done.countDown();
+                }
+            }, "load-user-" + u);
+            user.setDaemon(true);
+            user.start();
+        }
+        done.await();
+    }
+
+    private static void report(String scenario, List<Long> latencies,
+                               Map<String, AtomicLong> failures, double seconds) {
+        latencies.sort(Long::compare);
+        long failed = failures.values().stream().mapToLong(AtomicLong::get).sum();
+
+        System.out.printf("%-9s %7d %7d %7d %8.1f %8.0f %8.0f %8.0f %8.0f%n",
+                scenario, latencies.size() + failed, latencies.size(), failed,
+                latencies.size() / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 1.0));
+
+        failures.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .limit(5)
+                .forEach(e -> System.out.printf("          %6d x %s%n", e.getValue().get(), e.getKey()));
+    }
+
+    // ==================== SCENARIOS ====================
+
+    private static Runnable grading(GeminiClient client, Map<String, String> opts) {
+        int questions = (int) num(opts, "questions");
+        GeminiGradingService gemini = new GeminiGradingService(client);
+        Fields.set(gemini, "questionTimeoutMs", 120_000L);
+
+        Quiz quiz = new Quiz();
+        List<Question> list = new ArrayList<>();
+        for (int q = 0; q < questions; q++) {
+            OpenEndedQuestion question = new OpenEndedQuestion();
+            question.setId((long) q);
+            question.setQuestionText("Explain design decision #" + q + " of the artifact.");
+            question.setPoints(10);
+            list.add(question);
+        }
+        quiz.setQuestions(list);
+
+        // Her çağrıda puanlanmamış yeni bir result
+        QuizResultRepository repo = mock(QuizResultRepository.class);
+        when(repo.findById(any())).thenAnswer(inv -> {
+            QuizResult result = new QuizResult();
+            result.setId(inv.getArgument(0));
+            result.setQuiz(quiz);
+            result.setSubmittedAt(LocalDateTime.now());
+            result.setMaxPossiblePoints(questions * 10);
+            for (Question question : list) {
+                result.getAnswers().put(question.getId(), "Because it keeps the module boundaries explicit.");
+            }
+            return Optional.of(result);
+        });
+        when(repo.save(any(QuizResult.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        GradingService service = new GradingService(repo, gemini,
+                new GradeMemoService(mock(GradeMemoRepository.class), false));
+        Fields.set(service, "aiMaxConcurrency", (int) num(opts, "grading-concurrency"));
+
+        AtomicLong ids = new AtomicLong();
+        return () -> service.gradeQuizResult(ids.incrementAndGet(), true);
+    }
+
+    private static Runnable quiz(GeminiClient client) {
+        GeminiQuizService service = new GeminiQuizService(client);
+        return () -> {
+            if (service.generateQuestions("Spring Boot", 5, "medium", "MIXED").size() != 5) {
+                throw new IllegalStateException("Unexpected question count");
+            }
+        };
+    }
+
+    // Akışlı üretim: ölçülen süre ilk sorunun gelişine kadar (kullanıcının beklediği kısım)
+    private static Runnable quizFirstQuestion(GeminiClient client) {
+        GeminiQuizService service = new GeminiQuizService(client);
+        return () -> {
+            if (service.streamQuestions("Spring Boot", 5, "medium", "MIXED").blockFirst() == null) {
+                throw new IllegalStateException("No question streamed");
+            }
+        };
+    }
+
+    private static Runnable analysis(GeminiClient client, GeminiStubServer stub) {
+        // Cache kapalı → her istek gerçekten modele gider
+        CodeAnalysisCache cache = new CodeAnalysisCache(
+                mock(CodeAnalysisCacheRepository.class), false, 0, "stub", stub.url());
+        CyclomaticComplexityAnalyzer analyzer = new CyclomaticComplexityAnalyzer();
+        GeminiCodeAnalysisService service = new GeminiCodeAnalysisService(client, cache, analyzer,
+                new ControlFlowDiagramBuilder(analyzer, 60, 20));
+        // Yerel analiz ve diyagram kapalı → ölçülen yol Gemini
+        Fields.set(service, "nativeEnabled", false);
+        Fields.set(service, "nativeDiagramEnabled", false);
+
+        CodeAnalysisRequest request = new CodeAnalysisRequest();
+        request.setFileName("Sum.java");
+        request.setCode("public int sum(int[] v) { int t = 0; for (int x : v) if (x > 0 && x < 10) t += x; return t; }");
+
+        AtomicLong n = new AtomicLong();
+        // Karmaşıklık analizi ve akış diyagramı sırayla
+        return () -> {
+            if (n.incrementAndGet() % 2 == 0) {
+                service.generateControlFlowDiagram(request.getCode());
+            } else {
+                service.analyzeCyclomaticComplexity(request);
+            }
+        };
+    }
+
+    // ==================== HELPERS ====================
+
+    private static void pause(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static GeminiStubServer.Latency latency(String spec) {
+        String[] p = spec.split(":");
+        return switch (p[0]) {
+            case "fixed" -> GeminiStubServer.Latency.fixed(Long.parseLong(p[1]));
+            case "uniform" -> GeminiStubServer.Latency.uniform(Long.parseLong(p[1]), Long.parseLong(p[2]));
+            case "lognormal" -> GeminiStubServer.Latency.logNormal(Long.parseLong(p[1]), Double.parseDouble(p[2]));
+            default -> throw new IllegalArgumentException("Unknown latency: " + spec);
+        };
+    }
+
+    private static long part(String spec, int index) {
+        return Long.parseLong(spec.split(":")[index]);
+    }
+
+    private static long num(Map<String, String> opts, String key) {
+        return Long.parseLong(opts.get(key));
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index)) / 1e6;
+    }
+
+    // Mesajdaki id/sayı farkları ayrı satır açmasın
+    private static String summary(Throwable e) {
+        String message = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+        message = message.replaceAll("\\d+", "#").replaceAll("\\s+", " ");
+        return message.length() > 100 ? message.substring(0, 100) + "..." : message;
+    }
+}
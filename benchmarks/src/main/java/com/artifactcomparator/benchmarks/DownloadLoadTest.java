@@ -0,0 +1,359 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Config.ZeroCopyResourceConfig;
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactBlobRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.ArtifactDownloadService;
+import com.artifactcomparator.artifact_comparator_backend.Service.BlobArtifactStorage;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.apache.catalina.Context;
+import org.apache.catalina.startup.Tomcat;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Repeated task page loads against an embedded Tomcat serving artifacts
+ * through ArtifactDownloadService and the zero-copy converters. A page load
+ * fetches every artifact of one task (two source files, an image, a PDF):
+ * {@code full} downloads everything each time (the UI before ETags),
+ * {@code revalidate} sends the ETag of the first load back (304s) and
+ * {@code range} fetches the PDF's first {@code --range-kb} like a PDF viewer.
+ * Authentication and the database are left out.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.artifactcomparator.benchmarks.DownloadLoadTest \
+ *      all --users=16 --duration-s=20 --zero-copy=true
+ * </pre>
+ */
+public final class DownloadLoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    // Tomcat JUL ile loglar; referans tutulmazsa seviye ayarı GC ile kaybolur
+    private static final java.util.logging.Logger TOMCAT_LOG = java.util.logging.Logger.getLogger("org.apache");
+
+    static {
+        DEFAULTS.put("users", "16");
+        DEFAULTS.put("duration-s", "20");
+        DEFAULTS.put("warmup-s", "3");
+        // Görevdeki artifact boyutları (KB): iki kaynak dosya, görsel, PDF
+        DEFAULTS.put("sizes-kb", "12,40,600,4096");
+        DEFAULTS.put("range-kb", "256");
+        // false → Spring'in varsayılan (akış kopyalı) resource converter'ları
+        DEFAULTS.put("zero-copy", "true");
+        // application.properties: artifacts.download.sendfile-min-bytes
+        DEFAULTS.put("sendfile-min-bytes", "49152");
+        DEFAULTS.put("log", "OFF");
+    }
+
+    /** One artifact of the task page and the ETag the client remembers. */
+    private record Artifact(long id, String filename, String etag) {
+    }
+
+    private interface PageLoad {
+        long run() throws IOException, InterruptedException;
+    }
+
+    private DownloadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> scenarios = new ArrayList<>();
+        Map<String, String> opts = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                String key = arg.substring(2, arg.indexOf('='));
+                if (!DEFAULTS.containsKey(key)) {
+                    throw new IllegalArgumentException("Unknown option --" + key + ", known: " + DEFAULTS.keySet());
+                }
+                opts.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                scenarios.add(arg);
+            }
+        }
+        if (scenarios.isEmpty() || scenarios.contains("all")) {
+            scenarios = List.of("full", "revalidate", "range");
+        }
+
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.toLevel(opts.get("log"), Level.OFF));
+        if ("OFF".equalsIgnoreCase(opts.get("log"))) {
+            TOMCAT_LOG.setLevel(java.util.logging.Level.OFF);
+        }
+
+        Path dir = Files.createTempDirectory("download-load-");
+        Tomcat tomcat = null;
+        try {
+            BlobArtifactStorage storage = storage(dir.resolve("store"));
+            Map<Long, ArtifactUpload> artifacts = task(storage, opts.get("sizes-kb"));
+            tomcat = start(dir.resolve("tomcat"), new DownloadController(new ArtifactDownloadService(storage), artifacts), opts);
+            String base = "http://localhost:" + tomcat.getConnector().getLocalPort() + "/file/";
+
+            System.out.println("Options: " + new TreeMap<>(opts));
+            System.out.printf("%-11s %7s %7s %9s %8s %8s %8s %9s%n",
+                    "scenario", "pages", "failed", "pages/s", "p50 ms", "p90 ms", "p99 ms", "MB/s");
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            List<Artifact> page = firstLoad(client, base, artifacts);
+            for (String scenario : scenarios) {
+                run(scenario, client, base, page, opts);
+            }
+        } finally {
+            if (tomcat != null) {
+                tomcat.stop();
+                tomcat.destroy();
+            }
+            deleteRecursively(dir);
+        }
+    }
+
+    private static void run(String scenario, HttpClient client, String base, List<Artifact> page,
+                            Map<String, String> opts) throws Exception {
+        PageLoad load = switch (scenario) {
+            case "full" -> () -> {
+                long bytes = 0;
+                for (Artifact a : page) bytes += fetch(client, base + a.id(), null, null, 200);
+                return bytes;
+            };
+            case "revalidate" -> () -> {
+                long bytes = 0;
+                for (Artifact a : page) bytes += fetch(client, base + a.id(), a.etag(), null, 304);
+                return bytes;
+            };
+            case "range" -> {
+                Artifact pdf = page.stream().filter(a -> a.filename().endsWith(".pdf")).findFirst().orElseThrow();
+                String range = "bytes=0-" + (num(opts, "range-kb") * 1024 - 1);
+                yield () -> fetch(client, base + pdf.id(), null, range, 206);
+            }
+            default -> throw new IllegalArgumentException("Unknown scenario " + scenario
+                    + " (full | revalidate | range)");
+        };
+
+        drive(load, (int) num(opts, "users"), num(opts, "warmup-s") * 1000, null, null, null);
+
+        List<Long> latencies = new ArrayList<>();
+        Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+        AtomicLong bytes = new AtomicLong();
+        long t0 = System.nanoTime();
+        drive(load, (int) num(opts, "users"), num(opts, "duration-s") * 1000, latencies, failures, bytes);
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        latencies.sort(Long::compare);
+        long failed = failures.values().stream().mapToLong(AtomicLong::get).sum();
+        System.out.printf("%-11s %7d %7d %9.1f %8.2f %8.2f %8.2f %9.1f%n",
+                scenario, latencies.size(), failed, latencies.size() / seconds,
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                bytes.get() / seconds / (1024 * 1024));
+        failures.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .limit(5)
+                .forEach(e -> System.out.printf("            %6d x %s%n", e.getValue().get(), e.getKey()));
+    }
+
+    private static void drive(PageLoad load, int users, long durationMs, List<Long> latencies,
+                              Map<String, AtomicLong> failures, AtomicLong bytes) throws InterruptedException {
+        long deadline = System.nanoTime() + durationMs * 1_000_000;
+        CountDownLatch done = new CountDownLatch(users);
+
+        for (int u = 0; u < users; u++) {
+            Thread user = new Thread(() -> {
+                List<Long> local = new ArrayList<>();
+                long received = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        long t0 = System.nanoTime();
+                        try {
+                            received += load.run();
+                            local.add(System.nanoTime() - t0);
+                        } catch (IOException | InterruptedException | RuntimeException e) {
+                            if (failures != null) {
+                                failures.computeIfAbsent(e.getClass().getSimpleName() + ": " + e.getMessage(),
+                                        k -> new AtomicLong()).incrementAndGet();
+                            }
+                        }
+                    }
+                } finally {
+                    if (latencies != null) {
+                        synchronized (latencies) {
+                            latencies.addAll(local);
+                        }
+                        bytes.addAndGet(received);
+                    }
+                    done.countDown();
+                }
+            }, "page-user-" + u);
+            user.setDaemon(true);
+            user.start();
+        }
+        done.await();
+    }
+
+    /** Body bytes received; fails unless the status is the expected one. */
+    private static long fetch(HttpClient client, String url, String etag, String range, int expected)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (etag != null) request.header("If-None-Match", etag);
+        if (range != null) request.header("Range", range);
+
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expected) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " (expected " + expected + ")");
+        }
+        return response.body().length;
+    }
+
+    // İlk ziyaret: tam içerik ve tarayıcının saklayacağı ETag
+    private static List<Artifact> firstLoad(HttpClient client, String base, Map<Long, ArtifactUpload> artifacts)
+            throws IOException, InterruptedException {
+        List<Artifact> page = new ArrayList<>();
+        for (ArtifactUpload artifact : artifacts.values()) {
+            HttpResponse<byte[]> response = client.send(
+                    HttpRequest.newBuilder(URI.create(base + artifact.getId())).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.body().length != artifact.getSizeBytes()) {
+                throw new IllegalStateException(artifact.getFilename() + ": got " + response.body().length
+                        + " bytes, expected " + artifact.getSizeBytes());
+            }
+            page.add(new Artifact(artifact.getId(), artifact.getFilename(),
+                    response.headers().firstValue("ETag").orElseThrow()));
+        }
+        return page;
+    }
+
+    // ==================== SERVER ====================
+
+    @RestController
+    static class DownloadController {
+        private final ArtifactDownloadService downloads;
+        private final Map<Long, ArtifactUpload> artifacts;
+
+        DownloadController(ArtifactDownloadService downloads, Map<Long, ArtifactUpload> artifacts) {
+            this.downloads = downloads;
+            this.artifacts = artifacts;
+        }
+
+        @GetMapping("/file/{id}")
+        ResponseEntity<Resource> file(@PathVariable Long id, @RequestParam(required = false) String v) throws IOException {
+            ArtifactUpload artifact = artifacts.get(id);
+            if (artifact == null) return ResponseEntity.notFound().build();
+            MediaType type = artifact.getFilename().endsWith(".pdf") ? MediaType.APPLICATION_PDF
+                    : artifact.getFilename().endsWith(".png") ? MediaType.IMAGE_PNG
+                    : MediaType.TEXT_PLAIN;
+            return downloads.inline(artifact, type, v);
+        }
+    }
+
+    @Configuration
+    @EnableWebMvc
+    static class WebConfig {
+    }
+
+    private static Tomcat start(Path baseDir, DownloadController controller, Map<String, String> opts) throws Exception {
+        // ZeroCopyResourceConfig @Value'su ortam değişkeninden / sistem özelliğinden okunur
+        System.setProperty("artifacts.download.sendfile-min-bytes", opts.get("sendfile-min-bytes"));
+
+        AnnotationConfigWebApplicationContext app = new AnnotationConfigWebApplicationContext();
+        app.register(WebConfig.class);
+        if (Boolean.parseBoolean(opts.get("zero-copy"))) {
+            app.register(ZeroCopyResourceConfig.class);
+        }
+        app.addBeanFactoryPostProcessor(factory -> factory.registerSingleton("downloadController", controller));
+
+        Files.createDirectories(baseDir);
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+        tomcat.setPort(0);
+        Context context = tomcat.addContext("", baseDir.toString());
+        Tomcat.addServlet(context, "dispatcher", new DispatcherServlet(app)).setLoadOnStartup(1);
+        context.addServletMappingDecoded("/", "dispatcher");
+        tomcat.getConnector();
+        tomcat.start();
+        return tomcat;
+    }
+
+    private static BlobArtifactStorage storage(Path root) throws IOException {
+        ArtifactUploadRepository uploads = mock(ArtifactUploadRepository.class);
+        when(uploads.save(any(ArtifactUpload.class))).thenAnswer(inv -> inv.getArgument(0));
+        return new BlobArtifactStorage(uploads, mock(ArtifactBlobRepository.class), root.toString(), 4, 30_000);
+    }
+
+    private static Map<Long, ArtifactUpload> task(BlobArtifactStorage storage, String sizesKb) throws IOException {
+        String[] names = {"Main.java", "Service.java", "diagram.png", "report.pdf"};
+        String[] sizes = sizesKb.split(",");
+        User researcher = new User();
+        researcher.setUsername("bench");
+        Random random = new Random(42);
+
+        Map<Long, ArtifactUpload> artifacts = new LinkedHashMap<>();
+        for (int i = 0; i < sizes.length; i++) {
+            byte[] content = new byte[Integer.parseInt(sizes[i].trim()) * 1024];
+            random.nextBytes(content);
+
+            ArtifactUpload artifact = new ArtifactUpload();
+            artifact.setId((long) i + 1);
+            artifact.setFilename(names[Math.min(i, names.length - 1)]);
+            artifact.setResearcher(researcher);
+            storage.store(artifact, new ByteArrayInputStream(content));
+            artifacts.put(artifact.getId(), artifact);
+        }
+        return artifacts;
+    }
+
+    // ==================== HELPERS ====================
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1))) / 1e6;
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static long num(Map<String, String> opts, String key) {
+        return Long.parseLong(opts.get(key));
+    }
+}
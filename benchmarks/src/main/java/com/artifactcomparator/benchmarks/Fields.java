@@ -0,0 +1,31 @@
+package com.artifactcomparator.benchmarks;
+
+import java.lang.reflect.Field;
+
+/** Sets private fields that Spring / JPA would normally fill in. */
+final class Fields {
+
+    private Fields() {
+    }
+
+    static void set(Object target, String name, Object value) {
+        try {
+            Class<?> type = target.getClass();
+            Field field = null;
+            while (field == null && type != null) {
+                try {
+                    field = type.getDeclaredField(name);
+                } catch (NoSuchFieldException e) {
+                    type = type.getSuperclass();
+                }
+            }
+            if (field == null) {
+                throw new NoSuchFieldException(name);
+            }
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
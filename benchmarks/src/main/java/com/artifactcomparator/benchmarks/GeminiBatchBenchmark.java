@@ -0,0 +1,82 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisBatchResponse;
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisRequest;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CodeAnalysisCacheRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.CodeAnalysisCache;
+import com.artifactcomparator.artifact_comparator_backend.Service.ControlFlowDiagramBuilder;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCodeAnalysisService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Batch cyclomatic complexity analysis (GeminiCodeAnalysisService.analyzeBatch)
+ * against a local stub model with fixed latency. maxConcurrency=1 is the
+ * old one-file-at-a-time behaviour.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeminiBatchBenchmark {
+
+    @Param({"40"})
+    int files;
+
+    @Param({"50"})
+    long latencyMs;
+
+    @Param({"1", "4", "16"})
+    int maxConcurrency;
+
+    private GeminiStubServer stub;
+    private GeminiCodeAnalysisService service;
+    private List<CodeAnalysisRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new GeminiStubServer(latencyMs);
+
+        // Cache kapalı → her dosya gerçekten modele gider
+        CodeAnalysisCache cache = new CodeAnalysisCache(
+                mock(CodeAnalysisCacheRepository.class), false, 0, "stub", stub.url());
+        CyclomaticComplexityAnalyzer analyzer = new CyclomaticComplexityAnalyzer();
+        service = new GeminiCodeAnalysisService(stub.client(), cache, analyzer,
+                new ControlFlowDiagramBuilder(analyzer, 60, 20));
+        // @Value alanları Spring olmadan doldurulur; yerel analiz kapalı → ölçülen yol Gemini
+        Fields.set(service, "nativeEnabled", false);
+        Fields.set(service, "batchMaxConcurrency", maxConcurrency);
+        Fields.set(service, "batchFileTimeoutMs", 60_000L);
+
+        requests = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            CodeAnalysisRequest r = new CodeAnalysisRequest();
+            r.setFileName("File" + i + ".java");
+            r.setCode("public int sum(int[] v) { int t = 0; for (int x : v) if (x > 0 && x < 10) t += x; return t; }");
+            requests.add(r);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public CodeAnalysisBatchResponse analyzeBatch() {
+        CodeAnalysisBatchResponse response = service.analyzeBatch(requests);
+        if (response.getFailed() > 0) {
+            throw new IllegalStateException("Batch had failures: " + response.getFailures());
+        }
+        return response;
+    }
+}
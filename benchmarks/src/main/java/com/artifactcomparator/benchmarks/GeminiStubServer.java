@@ -0,0 +1,335 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiCallMetrics;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Gemini generateContent endpoint. By default it waits
+ * a fixed latency, then answers every request with the same model text (a
+ * complexity analysis unless given). On streamGenerateContent the text is
+ * sent as SSE chunks spread over that latency. Responses carry usageMetadata
+ * estimated at ~4 characters per token. Through {@link #builder()} it can also
+ * draw latency from a distribution, fail a share of requests, return 429
+ * bursts and answer each prompt kind (grading, batch grading, quiz
+ * generation, analysis, diagram) with matching or deliberately broken JSON.
+ */
+public final class GeminiStubServer implements AutoCloseable {
+
+    static final String ANALYSIS = """
+            {"overallComplexity": 4, "totalLines": 12, "numberOfMethods": 1, "averageComplexity": 4.0,
+             "methods": [{"methodName": "sum", "complexity": 4, "startLine": 1, "endLine": 12,
+                          "decisionPoints": ["for", "if", "&&"], "calculation": "1 base + 3 decision points = 4"}],
+             "complexMethods": [], "calculation": "3 decision points + 1 method"}
+            """;
+
+    static final String GRADE = """
+            {"score": 7, "feedback": "Mostly correct, but the answer misses one edge case."}
+            """;
+
+    static final String DIAGRAM = """
+            ```mermaid
+            graph TD
+                A[sum] --> B{x > 0 && x < 10}
+                B -->|yes| C[t += x]
+                B -->|no| D[next]
+            ```
+            """;
+
+    private static final int STREAM_CHUNKS = 8;
+
+    private static final Pattern QUESTION_COUNT = Pattern.compile("Create (\\d+) ");
+    private static final Pattern ANSWER_ID = Pattern.compile("\"id\":\"(r\\d+)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "gemini-stub");
+        t.setDaemon(true);
+        return t;
+    });
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Builder options;
+    private final long startedAt = System.nanoTime();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong fuzzed = new AtomicLong();
+
+    public GeminiStubServer(long latencyMs) throws IOException {
+        this(latencyMs, ANALYSIS);
+    }
+
+    public GeminiStubServer(long latencyMs, String modelText) throws IOException {
+        this(builder().latency(Latency.fixed(latencyMs)).responder(prompt -> modelText));
+    }
+
+    private GeminiStubServer(Builder options) throws IOException {
+        this.options = options;
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Client against the stub; quota high enough never to throttle a benchmark. */
+    public GeminiClient client() {
+        return new GeminiClient(WebClient.builder().baseUrl(url()).build(),
+                new GeminiCallMetrics(new SimpleMeterRegistry(), 0.10, 0.40, 0), "stub",
+                30_000, 1_000_000, 10_000, 0, 5, 30_000, 0, 500, 8_000);
+    }
+
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/models/stub:generateContent";
+    }
+
+    public Map<String, Long> stats() {
+        return Map.of("requests", requests.get(), "throttled", throttled.get(),
+                "errors", errors.get(), "fuzzed", fuzzed.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        requests.incrementAndGet();
+        Random random = ThreadLocalRandom.current();
+        boolean streaming = exchange.getRequestURI().getPath().endsWith(":streamGenerateContent");
+
+        // Akışta gecikme parçalara bölünür: ilk parça erken gelir
+        long latencyMs = options.latency.nextMs(random);
+        sleep(streaming ? latencyMs / STREAM_CHUNKS : latencyMs);
+
+        // Periyodik 429 penceresi: kota aşımı patlamaları
+        if (options.throttlePeriodMs > 0) {
+            long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+            if (elapsedMs % options.throttlePeriodMs < options.throttleBurstMs) {
+                throttled.incrementAndGet();
+                send(exchange, 429, error(429, "RESOURCE_EXHAUSTED", "Quota exceeded"));
+                return;
+            }
+        }
+
+        if (random.nextDouble() < options.errorRate) {
+            errors.incrementAndGet();
+            send(exchange, 503, error(503, "UNAVAILABLE", "The model is overloaded"));
+            return;
+        }
+
+        String prompt = promptOf(requestBody);
+        String text = options.responder.apply(prompt);
+        if (streaming) {
+            boolean truncate = random.nextDouble() < options.fuzzRate;
+            if (truncate) fuzzed.incrementAndGet();
+            stream(exchange, truncate ? text.substring(0, text.length() / 2) : text,
+                    tokens(prompt), latencyMs / STREAM_CHUNKS);
+            return;
+        }
+        if (random.nextDouble() < options.fuzzRate) {
+            fuzzed.incrementAndGet();
+            send(exchange, 200, fuzz(text, tokens(prompt), random));
+            return;
+        }
+        send(exchange, 200, candidate(text, tokens(prompt), tokens(text)));
+    }
+
+    private void stream(HttpExchange exchange, String text, int promptTokens, long chunkDelayMs) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            int size = Math.max(1, (text.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS);
+            for (int from = 0; from < text.length(); from += size) {
+                if (from > 0) sleep(chunkDelayMs);
+                int to = Math.min(text.length(), from + size);
+                // Gemini gibi her parçada o ana kadarki toplam
+                String chunk = candidate(text.substring(from, to), promptTokens, tokens(text.substring(0, to)));
+                out.write(("data: " + chunk + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String promptOf(String requestBody) {
+        try {
+            return objectMapper.readTree(requestBody)
+                    .path("contents").path(0).path("parts").path(0).path("text").asText();
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    // Geçerli gövde ama bozuk/eksik model çıktısı → parse ve fallback yolları denenir
+    private String fuzz(String text, int promptTokens, Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> candidate(text.substring(0, text.length() / 2), promptTokens, tokens(text) / 2);
+            case 1 -> candidate("Sure! Here is the result:\n" + text, promptTokens, tokens(text) + 7);
+            case 2 -> candidate("```json\n" + text.replace("\"feedback\"", "\"comment\"") + "\n```",
+                    promptTokens, tokens(text) + 4);
+            default -> "{\"promptFeedback\":{\"blockReason\":\"SAFETY\"}}";
+        };
+    }
+
+    private String candidate(String text, int promptTokens, int outputTokens) {
+        return "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":" + quote(text) + "}]},"
+                + "\"finishReason\":\"STOP\"}],"
+                + "\"usageMetadata\":{\"promptTokenCount\":" + promptTokens
+                + ",\"candidatesTokenCount\":" + outputTokens
+                + ",\"totalTokenCount\":" + (promptTokens + outputTokens) + "}}";
+    }
+
+    private static int tokens(String text) {
+        return (text.length() + 3) / 4;
+    }
+
+    private static String error(int code, String status, String message) {
+        return "{\"error\":{\"code\":" + code + ",\"message\":" + quote(message)
+                + ",\"status\":\"" + status + "\"}}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    /**
+     * Picks a canned answer from the prompt wording of the backend services,
+     * so one stub can serve grading, batch grading, quiz generation,
+     * complexity analysis and control flow diagrams.
+     */
+    static String cannedAnswer(String prompt) {
+        if (prompt.contains("JSON array of student answers")) {
+            List<String> items = new ArrayList<>();
+            Matcher ids = ANSWER_ID.matcher(prompt);
+            while (ids.find()) {
+                items.add("{\"id\": \"" + ids.group(1) + "\", \"score\": 7, \"feedback\": \"Mostly correct.\"}");
+            }
+            return "[" + String.join(",", items) + "]";
+        }
+        if (prompt.contains("expert grader")) {
+            return GRADE;
+        }
+        if (prompt.contains("quiz generator")) {
+            Matcher count = QUESTION_COUNT.matcher(prompt);
+            int n = count.find() ? Integer.parseInt(count.group(1)) : 5;
+            List<String> items = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                items.add(i % 2 == 0
+                        ? "{\"type\": \"MULTIPLE_CHOICE\", \"questionText\": \"Which pattern is #" + i + "?\","
+                          + " \"options\": [\"A\", \"B\", \"C\", \"D\"], \"correctAnswer\": \"C\", \"points\": 2}"
+                        : "{\"type\": \"OPEN_ENDED\", \"questionText\": \"Explain concept #" + i + ".\", \"points\": 5}");
+            }
+            return "{\"questions\": [" + String.join(",", items) + "]}";
+        }
+        if (prompt.contains("Mermaid")) {
+            return DIAGRAM;
+        }
+        return ANALYSIS;
+    }
+
+    /** Model latency in milliseconds. */
+    public interface Latency {
+
+        long nextMs(Random random);
+
+        static Latency fixed(long ms) {
+            return random -> ms;
+        }
+
+        static Latency uniform(long minMs, long maxMs) {
+            return random -> minMs + (long) (random.nextDouble() * (maxMs - minMs));
+        }
+
+        /** Long-tailed like real model latency: median plus a log-space spread (0.5 ≈ p99 at 3.2x median). */
+        static Latency logNormal(long medianMs, double sigma) {
+            return random -> Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    public static final class Builder {
+
+        private Latency latency = Latency.fixed(50);
+        private double errorRate;
+        private long throttlePeriodMs;
+        private long throttleBurstMs;
+        private double fuzzRate;
+        private Function<String, String> responder = GeminiStubServer::cannedAnswer;
+
+        public Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** Share of requests answered with 503 UNAVAILABLE. */
+        public Builder errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /** Every periodMs, answer all requests with 429 for burstMs. */
+        public Builder throttle(long periodMs, long burstMs) {
+            this.throttlePeriodMs = periodMs;
+            this.throttleBurstMs = burstMs;
+            return this;
+        }
+
+        /** Share of successful answers whose model text is truncated, chatty, renamed or blocked. */
+        public Builder fuzzRate(double fuzzRate) {
+            this.fuzzRate = fuzzRate;
+            return this;
+        }
+
+        /** Prompt → model text; defaults to {@link GeminiStubServer#cannedAnswer(String)}. */
+        public Builder responder(Function<String, String> responder) {
+            this.responder = responder;
+            return this;
+        }
+
+        public GeminiStubServer start() throws IOException {
+            return new GeminiStubServer(this);
+        }
+    }
+}
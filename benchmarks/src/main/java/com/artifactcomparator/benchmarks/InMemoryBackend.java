@@ -0,0 +1,165 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Controller.MonitorController;
+import com.artifactcomparator.artifact_comparator_backend.Entity.CriterionResultAggregate;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.ParticipantTaskResponse;
+import com.artifactcomparator.artifact_comparator_backend.Repository.CriterionResultAggregateRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.EvaluationTaskRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ParticipantTaskResponseRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.StudyRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.*;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Wires the real monitor / aggregate / PDF services on top of repositories
+ * that serve a {@link SyntheticStudy} from memory. Aggregate rows written by
+ * ResultAggregateService are kept in a map, so rebuilds and incremental
+ * updates behave as they would against Postgres, minus the I/O.
+ */
+public final class InMemoryBackend {
+
+    private final SyntheticStudy data;
+
+    // taskId → criterionId → özet
+    private final Map<Long, Map<Long, CriterionResultAggregate>> aggregates = new HashMap<>();
+
+    public final ResultAggregateService resultAggregateService;
+    public final StudyResultsCubeService cubeService;
+    public final MonitorController monitorController;
+    public final MonitorTaskService monitorTaskService;
+    public final StudyPdfExportService pdfExportService;
+
+    /**
+     * @param cubeEnabled false → reads fall back to the persisted aggregates
+     */
+    public InMemoryBackend(SyntheticStudy data, int renderThreads, boolean cubeEnabled) {
+        this.data = data;
+
+        Map<Long, EvaluationTask> tasksById = new HashMap<>();
+        for (EvaluationTask task : data.tasks()) {
+            tasksById.put(task.getId(), task);
+        }
+
+        StudyRepository studyRepo = mock(StudyRepository.class);
+        when(studyRepo.findById(SyntheticStudy.STUDY_ID)).thenReturn(Optional.of(data.study()));
+        when(studyRepo.existsById(SyntheticStudy.STUDY_ID)).thenReturn(true);
+
+        EvaluationTaskRepository taskRepo = mock(EvaluationTaskRepository.class);
+        when(taskRepo.findById(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(tasksById.get(inv.<Long>getArgument(0))));
+        when(taskRepo.findByIdForUpdate(anyLong()))
+                .thenAnswer(inv -> Optional.ofNullable(tasksById.get(inv.<Long>getArgument(0))));
+
+        ParticipantTaskResponseRepository respRepo = mock(ParticipantTaskResponseRepository.class);
+        when(respRepo.countByTask_Id(anyLong()))
+                .thenAnswer(inv -> (long) data.responses(inv.getArgument(0)).size());
+        when(respRepo.countAnswersByIndexForTask(anyLong()))
+                .thenAnswer(inv -> answerCounts(inv.getArgument(0)));
+        when(respRepo.findAnswerCellsForTask(anyLong()))
+                .thenAnswer(inv -> taskAnswerCells(inv.getArgument(0)));
+        when(respRepo.countResponsesPerTaskForStudy(SyntheticStudy.STUDY_ID))
+                .thenAnswer(inv -> responseCounts());
+        when(respRepo.findAnswerCellsForStudy(SyntheticStudy.STUDY_ID))
+                .thenAnswer(inv -> answerCells());
+
+        CriterionResultAggregateRepository aggregateRepo = mock(CriterionResultAggregateRepository.class);
+        when(aggregateRepo.findByTaskId(anyLong()))
+                .thenAnswer(inv -> new ArrayList<>(
+                        aggregates.getOrDefault(inv.<Long>getArgument(0), Map.of()).values()));
+        when(aggregateRepo.findByStudyId(SyntheticStudy.STUDY_ID))
+                .thenAnswer(inv -> aggregates.values().stream()
+                        .flatMap(m -> m.values().stream())
+                        .toList());
+        when(aggregateRepo.saveAll(anyIterable())).thenAnswer(inv -> {
+            Iterable<CriterionResultAggregate> rows = inv.getArgument(0);
+            List<CriterionResultAggregate> saved = new ArrayList<>();
+            for (CriterionResultAggregate row : rows) {
+                aggregates.computeIfAbsent(row.getTaskId(), k -> new HashMap<>())
+                        .put(row.getCriterionId(), row);
+                saved.add(row);
+            }
+            return saved;
+        });
+        doAnswer(inv -> aggregates.remove(inv.<Long>getArgument(0)))
+                .when(aggregateRepo).deleteByTaskId(anyLong());
+
+        CodeAnswerNormalizer normalizer = new CodeAnswerNormalizer(new ObjectMapper(), 0);
+
+        // Event'ler (cube invalidation) benchmark'ta dinlenmez
+        this.resultAggregateService = new ResultAggregateService(
+                aggregateRepo, respRepo, taskRepo, studyRepo, normalizer, event -> { });
+        this.cubeService = new StudyResultsCubeService(respRepo, resultAggregateService, cubeEnabled, 512);
+        this.monitorTaskService =
+                new MonitorTaskService(taskRepo, respRepo, resultAggregateService, cubeService);
+
+        this.pdfExportService =
+                new StudyPdfExportService(studyRepo, cubeService, renderThreads);
+        // @Value alanları Spring olmadan varsayılanlarına çekilir
+        Fields.set(pdfExportService, "maxMainMemoryMb", 16L);
+
+        // Cache'li rapor kullanılmaz, benchmark her seferinde gerçek işi ölçer
+        this.monitorController = new MonitorController(
+                studyRepo, resultAggregateService, cubeService, pdfExportService, mock(ReportJobService.class),
+                mock(StudyLiveFeedService.class));
+    }
+
+    public void shutdown() {
+        pdfExportService.shutdown();
+    }
+
+    private List<Object[]> responseCounts() {
+        List<Object[]> rows = new ArrayList<>();
+        for (EvaluationTask task : data.tasks()) {
+            rows.add(new Object[]{task.getId(), (long) data.responses(task.getId()).size()});
+        }
+        return rows;
+    }
+
+    // countAnswersByIndexForTask satır biçimi: GROUP BY index, answer
+    private List<Object[]> answerCounts(Long taskId) {
+        Map<List<Object>, Long> counts = new LinkedHashMap<>();
+        for (ParticipantTaskResponse r : data.responses(taskId)) {
+            List<String> answers = r.getAnswers();
+            for (int i = 0; i < answers.size(); i++) {
+                counts.merge(List.of(i, answers.get(i)), 1L, Long::sum);
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        counts.forEach((key, n) -> rows.add(new Object[]{key.get(0), key.get(1), n}));
+        return rows;
+    }
+
+    // findAnswerCellsForTask satır biçimi
+    private List<Object[]> taskAnswerCells(Long taskId) {
+        List<Object[]> rows = new ArrayList<>();
+        for (ParticipantTaskResponse r : data.responses(taskId)) {
+            List<String> answers = r.getAnswers();
+            for (int i = 0; i < answers.size(); i++) {
+                rows.add(new Object[]{r.getId(), r.getParticipant().getUsername(), i, answers.get(i)});
+            }
+        }
+        return rows;
+    }
+
+    // findAnswerCellsForStudy satır biçimi
+    private List<Object[]> answerCells() {
+        List<Object[]> rows = new ArrayList<>();
+        for (EvaluationTask task : data.tasks()) {
+            for (ParticipantTaskResponse r : data.responses(task.getId())) {
+                List<String> answers = r.getAnswers();
+                for (int i = 0; i < answers.size(); i++) {
+                    rows.add(new Object[]{r.getId(), task.getId(), r.getParticipant().getId(),
+                            r.getParticipant().getUsername(), i, answers.get(i)});
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,59 @@
+package com.artifactcomparator.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Study monitor: the read path served from the aggregates, and a full
+ * rescore of every response (what each monitor refresh used to do).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonitorBenchmark {
+
+    @Param({"100", "1000"})
+    int participants;
+
+    @Param({"20"})
+    int tasks;
+
+    @Param({"10"})
+    int criteria;
+
+    @Param({"0.3"})
+    double codeEditRatio;
+
+    // false → persisted aggregate'ler üzerinden okuma
+    @Param({"true", "false"})
+    boolean cube;
+
+    private InMemoryBackend backend;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticStudy data = SyntheticStudy.generate(participants, tasks, criteria, codeEditRatio, 42);
+        backend = new InMemoryBackend(data, 1, cube);
+        backend.resultAggregateService.rebuildStudy(SyntheticStudy.STUDY_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backend.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> studyMonitor() {
+        return backend.monitorController.getStudyMonitor(SyntheticStudy.STUDY_ID);
+    }
+
+    @Benchmark
+    public int rebuildStudyAggregates() {
+        return backend.resultAggregateService.rebuildStudy(SyntheticStudy.STUDY_ID);
+    }
+}
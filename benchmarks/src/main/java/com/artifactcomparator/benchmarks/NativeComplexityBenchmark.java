@@ -0,0 +1,62 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.CodeAnalysisResponse;
+import com.artifactcomparator.artifact_comparator_backend.Service.ControlFlowDiagramBuilder;
+import com.artifactcomparator.artifact_comparator_backend.Service.CyclomaticComplexityAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cyclomatic complexity (CyclomaticComplexityAnalyzer.analyze)
+ * and control flow diagram (ControlFlowDiagramBuilder.build) on a generated
+ * Java class, the paths that replace a Gemini round trip for supported
+ * languages.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NativeComplexityBenchmark {
+
+    @Param({"10", "100"})
+    int methods;
+
+    private CyclomaticComplexityAnalyzer analyzer;
+    private ControlFlowDiagramBuilder diagramBuilder;
+    private String code;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        analyzer = new CyclomaticComplexityAnalyzer();
+        diagramBuilder = new ControlFlowDiagramBuilder(analyzer, 60, 20);
+
+        StringBuilder sb = new StringBuilder("public class Generated {\n");
+        for (int i = 0; i < methods; i++) {
+            sb.append("    // method ").append(i).append(": if (x) { }\n")
+              .append("    public int m").append(i).append("(int[] v, String s) {\n")
+              .append("        int t = 0;\n")
+              .append("        for (int x : v) {\n")
+              .append("            if (x > 0 && x < 10 || s.isEmpty()) t += x;\n")
+              .append("            else t -= x > 100 ? 2 : 1;\n")
+              .append("        }\n")
+              .append("        switch (t) { case 0: return -1; case 1: return 0; default: break; }\n")
+              .append("        try { return Integer.parseInt(\"if (\" + s); }\n")
+              .append("        catch (NumberFormatException e) { return t; }\n")
+              .append("    }\n\n");
+        }
+        code = sb.append("}\n").toString();
+    }
+
+    @Benchmark
+    public CodeAnalysisResponse analyze() {
+        return analyzer.analyze(code, "Generated.java", null).orElseThrow();
+    }
+
+    @Benchmark
+    public String controlFlowDiagram() {
+        return diagramBuilder.build(code, "Generated.java", null).orElseThrow();
+    }
+}
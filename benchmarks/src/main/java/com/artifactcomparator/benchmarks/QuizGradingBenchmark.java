@@ -0,0 +1,111 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.OpenEndedQuestion;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Question;
+import com.artifactcomparator.artifact_comparator_backend.Entity.Quiz;
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Repository.GradeMemoRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.QuizResultRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.GeminiGradingService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradeMemoService;
+import com.artifactcomparator.artifact_comparator_backend.Service.GradingService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Grading one quiz result with only open-ended questions
+ * (GradingService.gradeQuizResult) against a local stub model with fixed
+ * latency. maxConcurrency=1 is the old one-question-at-a-time behaviour.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizGradingBenchmark {
+
+    private static final long RESULT_ID = 1L;
+
+    private static final String GRADE = """
+            {"score": 7, "feedback": "Mostly correct, but the answer misses one edge case."}
+            """;
+
+    @Param({"10"})
+    int questions;
+
+    @Param({"50"})
+    long latencyMs;
+
+    @Param({"1", "4", "10"})
+    int maxConcurrency;
+
+    private GeminiStubServer stub;
+    private GradingService service;
+    private Quiz quiz;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new GeminiStubServer(latencyMs, GRADE);
+
+        GeminiGradingService gemini = new GeminiGradingService(stub.client());
+        // @Value alanları Spring olmadan doldurulur
+        Fields.set(gemini, "questionTimeoutMs", 30_000L);
+
+        quiz = new Quiz();
+        List<Question> list = new ArrayList<>();
+        for (int q = 0; q < questions; q++) {
+            OpenEndedQuestion question = new OpenEndedQuestion();
+            question.setId((long) q);
+            question.setQuestionText("Explain design decision #" + q + " of the artifact.");
+            question.setPoints(10);
+            list.add(question);
+        }
+        quiz.setQuestions(list);
+
+        // Her çağrıda puanlanmamış yeni bir result → gradedAt kısa devresi olmaz
+        QuizResultRepository repo = mock(QuizResultRepository.class);
+        when(repo.findById(RESULT_ID)).thenAnswer(inv -> Optional.of(newResult()));
+        when(repo.save(any(QuizResult.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        // Hafıza kapalı → her soru gerçekten modele gider
+        service = new GradingService(repo, gemini, new GradeMemoService(mock(GradeMemoRepository.class), false));
+        Fields.set(service, "aiMaxConcurrency", maxConcurrency);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public QuizResult gradeQuizResult() {
+        QuizResult graded = service.gradeQuizResult(RESULT_ID, true);
+        if (graded.getTotalPointsEarned() != questions * 7.0) {
+            throw new IllegalStateException("Unexpected total: " + graded.getTotalPointsEarned());
+        }
+        return graded;
+    }
+
+    private QuizResult newResult() {
+        QuizResult result = new QuizResult();
+        result.setId(RESULT_ID);
+        result.setQuiz(quiz);
+        result.setSubmittedAt(LocalDateTime.now());
+        result.setMaxPossiblePoints(questions * 10);
+        for (Question question : quiz.getQuestions()) {
+            result.getAnswers().put(question.getId(), "Because it keeps the module boundaries explicit.");
+        }
+        return result;
+    }
+}
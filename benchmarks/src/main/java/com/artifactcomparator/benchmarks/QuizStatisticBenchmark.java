@@ -0,0 +1,51 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.QuizResult;
+import com.artifactcomparator.artifact_comparator_backend.Service.QuizResultService;
+import com.artifactcomparator.artifact_comparator_backend.Service.QuizStatisticService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per-question quiz averages (QuizStatisticService.computePerQuestionAverage
+ * through its public entry point).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuizStatisticBenchmark {
+
+    private static final long QUIZ_ID = 1L;
+
+    @Param({"100", "1000", "10000"})
+    int participants;
+
+    @Param({"20"})
+    int questions;
+
+    private QuizStatisticService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<QuizResult> results = SyntheticStudy.quizResults(participants, questions, 42);
+
+        QuizResultService quizResultService = mock(QuizResultService.class);
+        when(quizResultService.getAllResultsForQuiz(QUIZ_ID)).thenReturn(results);
+
+        service = new QuizStatisticService(quizResultService);
+    }
+
+    @Benchmark
+    public Map<Long, Double> perQuestionAverage() {
+        return service.getQuizPerQuestionAverage(QUIZ_ID);
+    }
+}
@@ -0,0 +1,53 @@
+package com.artifactcomparator.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full study PDF report written to a null stream; renderThreads 0 uses
+ * every core for chart rendering, 1 is the sequential baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StudyPdfExportBenchmark {
+
+    @Param({"200"})
+    int participants;
+
+    @Param({"20"})
+    int tasks;
+
+    @Param({"5"})
+    int criteria;
+
+    @Param({"0.3"})
+    double codeEditRatio;
+
+    @Param({"1", "0"})
+    int renderThreads;
+
+    private InMemoryBackend backend;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticStudy data = SyntheticStudy.generate(participants, tasks, criteria, codeEditRatio, 42);
+        backend = new InMemoryBackend(data, renderThreads, true);
+        backend.resultAggregateService.rebuildStudy(SyntheticStudy.STUDY_ID);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backend.shutdown();
+    }
+
+    @Benchmark
+    public void generateStudyReport() {
+        backend.pdfExportService.generateStudyReport(SyntheticStudy.STUDY_ID, OutputStream.nullOutputStream());
+    }
+}
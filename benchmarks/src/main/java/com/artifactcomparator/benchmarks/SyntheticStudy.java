@@ -0,0 +1,200 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.*;
+import com.artifactcomparator.artifact_comparator_backend.Enums.StudyStatus;
+import com.artifactcomparator.artifact_comparator_backend.Enums.StudyType;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Deterministic in-memory study: participants, tasks, criteria (a share of
+ * them CODE_EDIT), correct answers and one response per participant × task.
+ * Same parameters + seed → same data, so benchmark runs are comparable.
+ */
+public final class SyntheticStudy {
+
+    public static final long STUDY_ID = 1L;
+
+    private static final List<String> OPTIONS = List.of("A", "B", "C", "D");
+
+    // Doğru cevap; participant varyantları yorum/boşluk farkıyla buna eşitlenir
+    private static final String REFERENCE_CODE = """
+            public int sum(int[] values) {
+                int total = 0;
+                for (int v : values) {
+                    total += v;
+                }
+                return total;
+            }
+            """;
+
+    private static final String WRONG_CODE = """
+            public int sum(int[] values) {
+                int total = 1; // off by one
+                for (int v : values) total += v;
+                return total;
+            }
+            """;
+
+    private final Study study;
+    private final Map<Long, List<ParticipantTaskResponse>> responsesByTask;
+
+    private SyntheticStudy(Study study, Map<Long, List<ParticipantTaskResponse>> responsesByTask) {
+        this.study = study;
+        this.responsesByTask = responsesByTask;
+    }
+
+    public Study study() {
+        return study;
+    }
+
+    public List<EvaluationTask> tasks() {
+        return study.getEvaluationTasks();
+    }
+
+    public List<ParticipantTaskResponse> responses(Long taskId) {
+        return responsesByTask.getOrDefault(taskId, List.of());
+    }
+
+    /**
+     * @param codeEditRatio share of criteria that are CODE_EDIT (0.0 – 1.0)
+     */
+    public static SyntheticStudy generate(int participants,
+                                          int tasks,
+                                          int criteria,
+                                          double codeEditRatio,
+                                          long seed) {
+        Random random = new Random(seed);
+
+        Study study = new Study();
+        study.setId(STUDY_ID);
+        study.setTitle("Synthetic study");
+        study.setDescription(participants + " participants, " + tasks + " tasks, " + criteria + " criteria");
+        study.setStatus(StudyStatus.ACTIVE);
+        study.setStudyType(StudyType.CUSTOM);
+
+        List<User> users = new ArrayList<>();
+        for (int p = 0; p < participants; p++) {
+            User u = new User();
+            u.setId(10_000L + p);
+            u.setUsername("participant-" + p);
+            users.add(u);
+        }
+        study.setParticipants(users);
+
+        List<EvaluationCriterion> criterionList = new ArrayList<>();
+        for (int c = 0; c < criteria; c++) {
+            EvaluationCriterion crit = isCodeEdit(c, codeEditRatio)
+                    ? new CodeEditCriterion("Fix the method " + c, "Edit the code", c)
+                    : new MultipleChoiceCriterion("Criterion " + c, "Which artifact is better?", c,
+                    OPTIONS.size(), OPTIONS, false);
+            crit.setId(100L + c);
+            crit.setStudy(study);
+            criterionList.add(crit);
+        }
+        study.setEvaluationCriteria(criterionList);
+
+        List<EvaluationTask> taskList = new ArrayList<>();
+        Map<Long, List<ParticipantTaskResponse>> responsesByTask = new HashMap<>();
+        long responseId = 1;
+
+        for (int t = 0; t < tasks; t++) {
+            EvaluationTask task = new EvaluationTask();
+            task.setId(1000L + t);
+            task.setQuestionText("Task " + t);
+            task.setStudy(study);
+
+            List<CorrectAnswerEntry> correct = new ArrayList<>();
+            for (EvaluationCriterion crit : criterionList) {
+                correct.add(new CorrectAnswerEntry(crit.getId(), correctAnswer(crit)));
+            }
+            task.setCorrectAnswers(correct);
+            taskList.add(task);
+
+            List<ParticipantTaskResponse> responses = new ArrayList<>();
+            for (User u : users) {
+                ParticipantTaskResponse r = new ParticipantTaskResponse();
+                // id JPA tarafından atanır, setter yok
+                Fields.set(r, "id", responseId++);
+                r.setParticipant(u);
+                r.setTask(task);
+                r.setAnswers(answers(criterionList, random));
+                responses.add(r);
+            }
+            responsesByTask.put(task.getId(), responses);
+        }
+        study.setEvaluationTasks(taskList);
+
+        return new SyntheticStudy(study, responsesByTask);
+    }
+
+    /** A fresh answer list for the study's criteria (e.g. a resubmission). */
+    public List<String> randomAnswers(Random random) {
+        return answers(study.getCriteriaSorted(), random);
+    }
+
+    /** Submitted quiz results with pointsEarned for every question. */
+    public static List<QuizResult> quizResults(int participants, int questions, long seed) {
+        Random random = new Random(seed);
+        List<QuizResult> results = new ArrayList<>(participants);
+
+        for (int p = 0; p < participants; p++) {
+            QuizResult r = new QuizResult();
+            r.setId((long) p);
+            r.setSubmittedAt(LocalDateTime.now());
+
+            Map<Long, Double> points = new HashMap<>();
+            for (int q = 0; q < questions; q++) {
+                // %5 henüz puanlanmamış
+                points.put((long) q, random.nextInt(20) == 0 ? null : (double) random.nextInt(11));
+            }
+            r.setPointsEarned(points);
+            results.add(r);
+        }
+        return results;
+    }
+
+    // ==========================================
+    // Helpers
+    // ==========================================
+
+    // Oranı criterion listesine eşit aralıklarla yayar (0.3 → her ~3 kriterden biri)
+    private static boolean isCodeEdit(int index, double ratio) {
+        return Math.floor((index + 1) * ratio) > Math.floor(index * ratio);
+    }
+
+    private static String correctAnswer(EvaluationCriterion crit) {
+        return crit instanceof CodeEditCriterion ? REFERENCE_CODE : "A";
+    }
+
+    private static List<String> answers(List<EvaluationCriterion> criteria, Random random) {
+        List<String> answers = new ArrayList<>(criteria.size());
+
+        for (EvaluationCriterion crit : criteria) {
+            // %5 boş bırakılmış
+            if (random.nextInt(20) == 0) {
+                answers.add("");
+            } else if (crit instanceof CodeEditCriterion) {
+                answers.add(codeAnswer(random));
+            } else {
+                answers.add(OPTIONS.get(random.nextInt(OPTIONS.size())));
+            }
+        }
+        return answers;
+    }
+
+    // Frontend'in gönderdiği {"editedCode": "..."} biçimi
+    private static String codeAnswer(Random random) {
+        String code = switch (random.nextInt(3)) {
+            case 0 -> REFERENCE_CODE;
+            case 1 -> "/* participant edit */\n" + REFERENCE_CODE.replace("    ", "\t") + "// done\n";
+            default -> WRONG_CODE;
+        };
+        return "{\"editedCode\":\"" + code
+                .replace("\\", "\\\\")
+                .replace("\"", "\\\"")
+                .replace("\n", "\\n")
+                .replace("\t", "\\t") + "\"}";
+    }
+}
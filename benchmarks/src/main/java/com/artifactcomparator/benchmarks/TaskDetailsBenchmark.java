@@ -0,0 +1,82 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.DTO.MonitorTaskDetailsDTO;
+import com.artifactcomparator.artifact_comparator_backend.Entity.EvaluationTask;
+import com.artifactcomparator.artifact_comparator_backend.Entity.ParticipantTaskResponse;
+import com.artifactcomparator.artifact_comparator_backend.Event.ResponseSubmittedEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task details page and the incremental aggregate + results cube update
+ * done on every participant submission.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskDetailsBenchmark {
+
+    @Param({"100", "1000"})
+    int participants;
+
+    @Param({"10"})
+    int criteria;
+
+    @Param({"0.3"})
+    double codeEditRatio;
+
+    // false → persisted aggregate'ler üzerinden okuma
+    @Param({"true", "false"})
+    boolean cube;
+
+    private InMemoryBackend backend;
+    private EvaluationTask task;
+    private ParticipantTaskResponse response;
+
+    // Aynı participant iki cevap seti arasında gidip gelir → sayılar sabit kalır
+    private List<String> firstAnswers;
+    private List<String> secondAnswers;
+    private boolean flip;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticStudy data = SyntheticStudy.generate(participants, 1, criteria, codeEditRatio, 42);
+        backend = new InMemoryBackend(data, 1, cube);
+        backend.resultAggregateService.rebuildStudy(SyntheticStudy.STUDY_ID);
+
+        task = data.tasks().get(0);
+        response = data.responses(task.getId()).get(0);
+        firstAnswers = response.getAnswers();
+        secondAnswers = data.randomAnswers(new Random(7));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backend.shutdown();
+    }
+
+    @Benchmark
+    public MonitorTaskDetailsDTO taskDetails() {
+        return backend.monitorTaskService.getTaskDetails(task.getId());
+    }
+
+    @Benchmark
+    public void resubmitResponse() {
+        List<String> previous = flip ? secondAnswers : firstAnswers;
+        List<String> next = flip ? firstAnswers : secondAnswers;
+        flip = !flip;
+
+        backend.resultAggregateService.applyResponse(task, response.getId(), previous, next);
+        // Commit sonrası listener'ın yaptığı cube güncellemesi
+        backend.cubeService.applyResponse(new ResponseSubmittedEvent(this, SyntheticStudy.STUDY_ID,
+                task.getId(), response.getId(), response.getParticipant().getId(),
+                response.getParticipant().getUsername(), previous, next,
+                task.getStudy().getParticipants().size(), List.of()));
+    }
+}
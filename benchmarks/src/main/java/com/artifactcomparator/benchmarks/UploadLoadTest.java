@@ -0,0 +1,257 @@
+package com.artifactcomparator.benchmarks;
+
+import com.artifactcomparator.artifact_comparator_backend.Entity.ArtifactUpload;
+import com.artifactcomparator.artifact_comparator_backend.Entity.User;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactBlobRepository;
+import com.artifactcomparator.artifact_comparator_backend.Repository.ArtifactUploadRepository;
+import com.artifactcomparator.artifact_comparator_backend.Service.BlobArtifactStorage;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Upload burst against the artifact store: {@code --users} threads write
+ * {@code --files} generated files of {@code --size-mb} each. {@code stream}
+ * goes through BlobArtifactStorage (fixed copy buffer, write cap);
+ * {@code buffered} is the old controller path (whole file as byte[], then
+ * Files.write). Run it with a small heap to see the difference; the report
+ * gives throughput, peak heap and GC work.
+ *
+ * <pre>
+ * java -Xmx64m -cp target/benchmarks.jar com.artifactcomparator.benchmarks.UploadLoadTest \
+ *      stream buffered --files=64 --size-mb=50 --users=8
+ * </pre>
+ */
+public final class UploadLoadTest {
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("files", "64");
+        DEFAULTS.put("size-mb", "50");
+        DEFAULTS.put("users", "8");
+        // application.properties: artifacts.storage.max-concurrent-writes / write-wait-ms
+        DEFAULTS.put("max-concurrent-writes", "4");
+        DEFAULTS.put("write-wait-ms", "600000");
+        // Boş = geçici klasör (çalışma sonunda silinir)
+        DEFAULTS.put("dir", "");
+        DEFAULTS.put("log", "OFF");
+    }
+
+    private interface Upload {
+        void run(int seed, long size, Path dir) throws IOException;
+    }
+
+    private UploadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> modes = new ArrayList<>();
+        Map<String, String> opts = new HashMap<>(DEFAULTS);
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                String key = arg.substring(2, arg.indexOf('='));
+                if (!DEFAULTS.containsKey(key)) {
+                    throw new IllegalArgumentException("Unknown option --" + key + ", known: " + DEFAULTS.keySet());
+                }
+                opts.put(key, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                modes.add(arg);
+            }
+        }
+        if (modes.isEmpty() || modes.contains("all")) {
+            modes = List.of("stream", "buffered");
+        }
+
+        Logger root = (Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.toLevel(opts.get("log"), Level.OFF));
+
+        System.out.println("Options: " + new TreeMap<>(opts));
+        System.out.printf("Max heap: %d MB%n", Runtime.getRuntime().maxMemory() >> 20);
+        System.out.printf("%-9s %6s %6s %8s %8s %10s %6s %8s%n",
+                "mode", "ok", "failed", "seconds", "MB/s", "peak heap", "GCs", "GC ms");
+
+        for (String mode : modes) {
+            Path dir = opts.get("dir").isBlank()
+                    ? Files.createTempDirectory("upload-load-")
+                    : Files.createDirectories(Path.of(opts.get("dir")).resolve(mode));
+            try {
+                run(mode, dir, opts);
+            } finally {
+                if (opts.get("dir").isBlank()) deleteRecursively(dir);
+            }
+        }
+    }
+
+    private static void run(String mode, Path dir, Map<String, String> opts) throws Exception {
+        Upload upload = switch (mode) {
+            case "stream" -> streamed(dir, opts);
+            case "buffered" -> buffered();
+            default -> throw new IllegalArgumentException("Unknown mode " + mode + " (stream | buffered)");
+        };
+
+        int files = (int) num(opts, "files");
+        int users = (int) num(opts, "users");
+        long size = num(opts, "size-mb") * 1024 * 1024;
+
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        long gcCount = gcCount(), gcMillis = gcMillis();
+
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger ok = new AtomicInteger();
+        Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+        CountDownLatch done = new CountDownLatch(users);
+        long t0 = System.nanoTime();
+
+        for (int u = 0; u < users; u++) {
+            Thread user = new Thread(() -> {
+                try {
+                    for (int i = next.getAndIncrement(); i < files; i = next.getAndIncrement()) {
+                        try {
+                            upload.run(i + 1, size, dir);
+                            ok.incrementAndGet();
+                        } catch (IOException | RuntimeException | OutOfMemoryError e) {
+                            failures.computeIfAbsent(e.getClass().getSimpleName() + ": " + e.getMessage(),
+                                    k -> new AtomicLong()).incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "upload-user-" + u);
+            user.setDaemon(true);
+            user.start();
+        }
+        done.await();
+
+        double seconds = (System.nanoTime() - t0) / 1e9;
+        long failed = failures.values().stream().mapToLong(AtomicLong::get).sum();
+        System.out.printf("%-9s %6d %6d %8.1f %8.1f %7d MB %6d %8d%n",
+                mode, ok.get(), failed, seconds, (ok.get() * (size >> 20)) / seconds,
+                peakHeap() >> 20, gcCount() - gcCount, gcMillis() - gcMillis);
+
+        failures.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+                .limit(5)
+                .forEach(e -> System.out.printf("          %6d x %s%n", e.getValue().get(), e.getKey()));
+    }
+
+    // ==================== MODES ====================
+
+    private static Upload streamed(Path dir, Map<String, String> opts) throws IOException {
+        ArtifactUploadRepository uploads = mock(ArtifactUploadRepository.class);
+        when(uploads.save(any(ArtifactUpload.class))).thenAnswer(inv -> inv.getArgument(0));
+        BlobArtifactStorage storage = new BlobArtifactStorage(uploads, mock(ArtifactBlobRepository.class),
+                dir.toString(), (int) num(opts, "max-concurrent-writes"), num(opts, "write-wait-ms"));
+
+        User researcher = new User();
+        researcher.setUsername("load");
+        return (seed, size, target) -> {
+            ArtifactUpload artifact = new ArtifactUpload();
+            artifact.setFilename("upload-" + seed + ".bin");
+            artifact.setResearcher(researcher);
+            try (InputStream in = new GeneratedStream(seed, size)) {
+                storage.store(artifact, in);
+            }
+        };
+    }
+
+    // Blob store öncesi FileUploadController: file.getBytes() + Files.write
+    private static Upload buffered() {
+        return (seed, size, target) -> {
+            try (InputStream in = new GeneratedStream(seed, size)) {
+                byte[] bytes = in.readAllBytes();
+                Files.write(target.resolve("upload-" + seed + ".bin"), bytes);
+            }
+        };
+    }
+
+    /** Pseudo-random content produced while read, like a multipart part read from disk. */
+    private static final class GeneratedStream extends InputStream {
+        private final long size;
+        private long state;
+        private long position;
+
+        GeneratedStream(int seed, long size) {
+            this.state = 0x9E3779B97F4A7C15L * seed;
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= size) return -1;
+            int n = (int) Math.min(len, size - position);
+            for (int i = 0; i < n; i++) {
+                state ^= state << 13;
+                state ^= state >>> 7;
+                state ^= state << 17;
+                b[off + i] = (byte) state;
+            }
+            position += n;
+            return n;
+        }
+    }
+
+    // ==================== HELPERS ====================
+
+    private static long peakHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static long num(Map<String, String> opts, String key) {
+        return Long.parseLong(opts.get(key));
+    }
+}
@@ -367,7 +367,7 @@ function AddTaskPage() {
     const handlePreview = async (artifact) => {
         try {
             const token = localStorage.getItem("token");
-            const url = `http://localhost:8080/researcher/artifact/${artifact.id}`;
+            const url = `http://localhost:8080/researcher/artifact/${artifact.id}${artifact.contentHash ? `?v=${artifact.contentHash}` : ""}`;
 
             setPreviewArtifact(artifact);
             setPreviewLoading(true);
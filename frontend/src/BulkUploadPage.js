@@ -181,6 +181,13 @@ export default function BulkUploadPage() {
                     "success"
                 );
                 setTimeout(() => navigate(`/manage-tasks/${studyId}`), 1800);
+            } else if (res.status === 503) {
+                // Sunucu yükleme kuyruğu dolu → girdi hatası değil, biraz sonra tekrar denenir
+                const retryAfter = res.headers.get("Retry-After");
+                showToast(
+                    `Server is busy storing other uploads. Please try again${retryAfter ? ` in ${retryAfter} seconds` : " shortly"}.`,
+                    "error"
+                );
             } else {
                 showToast(data.error || "Bulk upload failed.", "error");
             }
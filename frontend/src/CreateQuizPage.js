@@ -59,6 +59,8 @@ function CreateQuizPage() {
     const navigate = useNavigate();
     const [mode, setMode] = useState(null);
     const [loading, setLoading] = useState(false);
+    // AI üretiminde akıştan gelen sorular (hazır oldukça eklenir)
+    const [streamedQuestions, setStreamedQuestions] = useState([]);
 
     const [formData, setFormData] = useState({
         title: '',
@@ -171,10 +173,41 @@ function CreateQuizPage() {
         }
     };
 
+    /*
+       SSE gövdesini satır satır oku: "event:" + "data:" blokları boş satırla ayrılır.
+       EventSource POST gönderemediği için fetch akışı kullanılıyor.
+    */
+    const readEventStream = async (response, onEvent) => {
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = '';
+
+        while (true) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary;
+            while ((boundary = buffer.indexOf('\n\n')) >= 0) {
+                const block = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+
+                let name = 'message';
+                const data = [];
+                block.split('\n').forEach((line) => {
+                    if (line.startsWith('event:')) name = line.slice(6).trim();
+                    else if (line.startsWith('data:')) data.push(line.slice(5));
+                });
+                if (data.length > 0) onEvent(name, JSON.parse(data.join('\n')));
+            }
+        }
+    };
+
     const handleGenerateAI = async () => {
         setLoading(true);
+        setStreamedQuestions([]);
         try {
-            const response = await fetch('http://localhost:8080/api/quiz/generate', {
+            const response = await fetch('http://localhost:8080/api/quiz/generate/stream', {
                 method: 'POST',
                 headers: { 'Content-Type': 'application/json' },
                 body: JSON.stringify({
@@ -187,10 +220,23 @@ function CreateQuizPage() {
                 throw new Error('Failed to generate quiz');
             }
 
-            const quiz = await response.json();
-            console.log('Quiz generated:', quiz);
+            let result = null;
+            await readEventStream(response, (name, data) => {
+                if (name === 'question') {
+                    setStreamedQuestions((prev) => [...prev, data.question]);
+                } else if (name === 'done') {
+                    result = data;
+                } else if (name === 'error') {
+                    throw new Error(data.message);
+                }
+            });
 
-            const assignResponse = await fetch(`http://localhost:8080/api/studies/${studyId}/assign-quiz/${quiz.id}`, {
+            if (!result) {
+                throw new Error('Generation stopped before the quiz was saved');
+            }
+            console.log('Quiz generated:', result);
+
+            const assignResponse = await fetch(`http://localhost:8080/api/studies/${studyId}/assign-quiz/${result.quizId}`, {
                 method: 'POST'
             });
 
@@ -199,8 +245,10 @@ function CreateQuizPage() {
             }
 
             console.log('Quiz assigned to study successfully');
-            alert('Quiz generated successfully with AI!');
-            navigate(`/edit-quiz/${studyId}/${quiz.id}`);
+            alert(result.questionCount < result.requestedCount
+                ? `Quiz generated with ${result.questionCount} of ${result.requestedCount} questions (some could not be parsed).`
+                : 'Quiz generated successfully with AI!');
+            navigate(`/edit-quiz/${studyId}/${result.quizId}`);
         } catch (error) {
             console.error('Error generating quiz:', error);
             alert('Failed to generate quiz: ' + error.message);
@@ -555,6 +603,23 @@ function CreateQuizPage() {
                         </div>
                     )}
 
+                    {mode === 'ai' && streamedQuestions.length > 0 && (
+                        <div style={styles.streamPanel}>
+                            <div style={styles.label}>
+                                Generated {streamedQuestions.length} of {formData.numberOfQuestions} questions
+                            </div>
+                            {streamedQuestions.map((q, i) => (
+                                <div key={i} style={styles.streamItem}>
+                                    <span style={styles.streamIndex}>{i + 1}.</span>
+                                    <span>{q.questionText}</span>
+                                    <span style={styles.streamMeta}>
+                                        {q.questionType === 'MULTIPLE_CHOICE' ? 'Multiple choice' : 'Open ended'} · {q.points} pt
+                                    </span>
+                                </div>
+                            ))}
+                        </div>
+                    )}
+
                     <div style={styles.formActions}>
                         <button
                             className="btn-cancel-glow"
@@ -882,6 +947,34 @@ const styles = {
         fontWeight: '500',
         transition: 'all 0.3s ease',
     },
+    streamPanel: {
+        marginTop: '1rem',
+        padding: '1.25rem',
+        background: 'rgba(74, 158, 255, 0.05)',
+        border: '1px solid rgba(74, 158, 255, 0.2)',
+        borderRadius: '14px',
+        maxHeight: '320px',
+        overflowY: 'auto',
+    },
+    streamItem: {
+        display: 'flex',
+        gap: '0.625rem',
+        alignItems: 'baseline',
+        padding: '0.5rem 0',
+        color: 'rgba(255, 255, 255, 0.85)',
+        fontSize: '0.9rem',
+        borderTop: '1px solid rgba(255, 255, 255, 0.05)',
+    },
+    streamIndex: {
+        color: '#4a9eff',
+        fontWeight: '600',
+    },
+    streamMeta: {
+        marginLeft: 'auto',
+        whiteSpace: 'nowrap',
+        color: 'rgba(255, 255, 255, 0.45)',
+        fontSize: '0.8rem',
+    },
     formActions: {
         display: 'flex',
         gap: '1.25rem',
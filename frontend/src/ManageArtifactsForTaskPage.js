@@ -162,7 +162,7 @@ function ManageArtifactsForTaskPage() {
     ----------------------------------------------------------- */
     const handlePreview = async (artifact) => {
         const token = localStorage.getItem("token");
-        const url = `http://localhost:8080/researcher/artifact/${artifact.id}`;
+        const url = `http://localhost:8080/researcher/artifact/${artifact.id}${artifact.contentHash ? `?v=${artifact.contentHash}` : ""}`;
 
         setPreviewArtifact(artifact);
         setPreviewLoading(true);
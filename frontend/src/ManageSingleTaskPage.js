@@ -209,7 +209,7 @@ function ManageSingleTaskPage() {
     ============================================================ */
     const handlePreview = async (artifact) => {
         const token = localStorage.getItem("token");
-        const url = `http://localhost:8080/researcher/artifact/${artifact.id}`;
+        const url = `http://localhost:8080/researcher/artifact/${artifact.id}${artifact.contentHash ? `?v=${artifact.contentHash}` : ""}`;
 
         setPreviewArtifact(artifact);
         setPreviewLoading(true);
@@ -114,10 +114,54 @@ export default function MonitorStudyProgressPage() {
 
 
     /* ============================================================
-       FETCH STUDY PROGRESS DATA
+       LIVE FEED (SSE) + STUDY PROGRESS SNAPSHOT
+       Önce akış açılır, delta'lar snapshot gelene kadar bekletilir;
+       snapshot'ın feedVersion'ına kadarki delta'lar zaten içinde → atlanır.
+       EventSource koparsa kendisi Last-Event-ID ile yeniden bağlanır.
     ============================================================= */
     useEffect(() => {
+        let closed = false;
+        let version = null; // null → snapshot bekleniyor, delta'lar buffer'da
+        let buffered = [];
+        let fetchId = 0;
+
+        const seqOf = (e) => Number((e.lastEventId || "").split("-").pop());
+
+        const applyDelta = (delta) => {
+            setOverview((prev) => {
+                if (!prev) return prev;
+
+                const taskStats = prev.taskStats.map((task) => {
+                    if (task.taskId !== delta.taskId) return task;
+
+                    const pending = task.totalParticipants - delta.completedCount;
+
+                    const criteriaStats = (task.criteriaStats || []).map((crit) => {
+                        const updated = { ...crit, pending };
+                        delta.changes
+                            .filter((c) => c.criterionId === crit.criterionId)
+                            .forEach((c) => {
+                                if (c.from !== "pending") updated[c.from] = (updated[c.from] || 0) - 1;
+                                updated[c.to] = (updated[c.to] || 0) + 1;
+                            });
+                        return updated;
+                    });
+
+                    return {
+                        ...task,
+                        completedCount: delta.completedCount,
+                        pendingCount: pending,
+                        criteriaStats,
+                    };
+                });
+
+                return { ...prev, taskStats };
+            });
+        };
+
         const fetchProgress = async () => {
+            const id = ++fetchId;
+            version = null;
             try {
                 setLoading(true);
 
@@ -133,16 +177,55 @@ export default function MonitorStudyProgressPage() {
                 if (!res.ok) throw new Error("Failed to fetch study progress");
 
                 const data = await res.json();
+                if (closed || id !== fetchId) return; // daha yeni bir snapshot istendi
+
                 setOverview(data);
+                version = data.feedVersion ?? 0;
+                buffered
+                    .filter((d) => d.seq > version)
+                    .forEach((d) => applyDelta(d.delta));
+                buffered = [];
             } catch (e) {
                 console.error(e);
                 setError(e.message || "Unknown error");
             } finally {
-                setLoading(false);
+                if (!closed && id === fetchId) setLoading(false);
             }
         };
 
-        fetchProgress();
+        const source = new EventSource(
+            `http://localhost:8080/api/monitor/${studyId}/live`,
+            { withCredentials: true }
+        );
+
+        source.addEventListener("delta", (e) => {
+            const seq = seqOf(e);
+            const delta = JSON.parse(e.data);
+
+            if (version === null) {
+                buffered.push({ seq, delta });
+            } else if (seq > version) {
+                applyDelta(delta);
+            }
+        });
+
+        // Akış kayıt oldu → snapshot bundan sonra çekilir, aradaki delta kaçmaz
+        source.addEventListener("ready", fetchProgress);
+
+        // Sonuçlar yeniden hesaplandı ya da çok fazla delta kaçırıldı → baştan çek
+        source.addEventListener("resync", fetchProgress);
+
+        // Akış hiç açılamadı (ör. abone sınırı) → canlı güncelleme olmadan snapshot göster
+        source.onerror = () => {
+            if (source.readyState === EventSource.CLOSED && version === null) {
+                fetchProgress();
+            }
+        };
+
+        return () => {
+            closed = true;
+            source.close();
+        };
     }, [studyId]);
 
     /* ============================================================
@@ -35,30 +35,99 @@ const NotificationWidget = () => {
         return () => window.removeEventListener('storage', checkUser);
     }, []);
 
-    const fetchNotifications = async () => {
+    const [nextCursor, setNextCursor] = useState(null);
+
+    // Keyset sayfalama: before yoksa ilk sayfa, varsa devamı
+    const fetchNotifications = async (before = null) => {
         if (!userId) return;
         try {
             const token = localStorage.getItem("token");
-            const res = await fetch(`http://localhost:8080/api/notifications/user/${userId}`, {
+            const query = before ? `?before=${before}&limit=20` : "?limit=20";
+            const res = await fetch(`http://localhost:8080/api/notifications/user/${userId}/page${query}`, {
                 headers: { "Authorization": `Bearer ${token}` }
             });
             if (res.ok) {
                 const data = await res.json();
-                setNotifications(data);
-                // Assuming backend maps isRead -> read
-                setUnreadCount(data.filter(n => !n.read).length);
+                setNotifications(prev => before ? [...prev, ...data.items] : data.items);
+                setNextCursor(data.nextCursor);
             }
         } catch (err) {
             console.error("Error fetching notifications:", err);
         }
     };
 
-    useEffect(() => {
-        if (userId) {
-            fetchNotifications();
-            const interval = setInterval(fetchNotifications, 30000);
-            return () => clearInterval(interval);
+    /*
+       SSE gövdesini satır satır oku: "event:" + "data:" blokları boş satırla ayrılır.
+       EventSource Authorization header gönderemediği için fetch akışı kullanılıyor.
+    */
+    const readEventStream = async (response, onEvent) => {
+        const reader = response.body.getReader();
+        const decoder = new TextDecoder();
+        let buffer = "";
+
+        while (true) {
+            const { done, value } = await reader.read();
+            if (done) break;
+            buffer += decoder.decode(value, { stream: true });
+
+            let boundary;
+            while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+                const block = buffer.slice(0, boundary);
+                buffer = buffer.slice(boundary + 2);
+
+                let name = "message";
+                const data = [];
+                block.split("\n").forEach((line) => {
+                    if (line.startsWith("event:")) name = line.slice(6).trim();
+                    else if (line.startsWith("data:")) data.push(line.slice(5));
+                });
+                if (data.length > 0) onEvent(name, JSON.parse(data.join("\n")));
+            }
         }
+    };
+
+    // Polling yok: ilk sayfa bir kez çekilir, sonrası SSE ile gelir
+    useEffect(() => {
+        if (!userId) return;
+
+        fetchNotifications();
+
+        // Kanal JWT'deki kullanıcıya bağlı; bağlantı koparsa birkaç saniye sonra yeniden açılır
+        const controller = new AbortController();
+        let retryTimer = null;
+
+        const connect = async () => {
+            try {
+                const res = await fetch(`http://localhost:8080/api/notifications/user/${userId}/stream`, {
+                    headers: { "Authorization": `Bearer ${localStorage.getItem("token")}` },
+                    signal: controller.signal
+                });
+                // 401 / 403: başka kullanıcının kanalı ya da oturum yok → tekrar denenmez
+                if (res.status === 401 || res.status === 403) return;
+                if (res.ok) {
+                    await readEventStream(res, (name, data) => {
+                        if (name === "notification") {
+                            setNotifications(prev => prev.some(p => p.id === data.id) ? prev : [data, ...prev]);
+                        } else if (name === "unread") {
+                            setUnreadCount(data.count);
+                        }
+                    });
+                }
+            } catch (err) {
+                if (controller.signal.aborted) return;
+                console.error("Notification stream error:", err);
+            }
+            if (!controller.signal.aborted) {
+                retryTimer = setTimeout(connect, 5000);
+            }
+        };
+
+        connect();
+
+        return () => {
+            controller.abort();
+            clearTimeout(retryTimer);
+        };
     }, [userId]);
 
     const markAsRead = async (id) => {
@@ -345,6 +414,11 @@ const NotificationWidget = () => {
                                 );
                             })
                         )}
+                        {nextCursor && (
+                            <button style={styles.loadMore} onClick={() => fetchNotifications(nextCursor)}>
+                                Load older
+                            </button>
+                        )}
                     </div>
                 </div>
             )}
@@ -367,6 +441,7 @@ const styles = {
     time: { fontSize: '11px', color: '#94a3b8', display: 'block', marginBottom: '8px' },
     markReadBtn: { background: 'rgba(59, 130, 246, 0.2)', border: 'none', color: '#60a5fa', borderRadius: '50%', width: '24px', height: '24px', display: 'flex', alignItems: 'center', justifyContent: 'center', cursor: 'pointer', flexShrink: 0 },
     empty: { padding: '20px', textAlign: 'center', color: '#94a3b8', fontSize: '14px' },
+    loadMore: { width: '100%', padding: '10px', background: 'transparent', border: 'none', color: '#3b82f6', cursor: 'pointer', fontSize: '13px' },
 
     // New Styles for Actions
     actionRow: { display: 'flex', gap: '10px', marginTop: '8px' },
@@ -8,6 +8,7 @@ function QuizManagementPage() {
     const [loading, setLoading] = useState(true);
     const [results, setResults] = useState([]);
     const [sortConfig, setSortConfig] = useState({ key: 'submittedAt', direction: 'desc' });
+    const [batchStatus, setBatchStatus] = useState(null);
 
     const fetchQuiz = useCallback(async () => {
         try {
@@ -42,6 +43,64 @@ function QuizManagementPage() {
         }
     }, [quiz, fetchResults]);
 
+    const fetchBatchStatus = useCallback(async () => {
+        if (!quiz) return;
+        try {
+            const response = await fetch(`http://localhost:8080/api/quiz/${quiz.id}/batch-grade`, {
+                headers: { Authorization: `Bearer ${localStorage.getItem('token')}` }
+            });
+            if (response.ok) setBatchStatus(await response.json());
+        } catch (error) {
+            console.error('Error fetching batch grading status:', error);
+        }
+    }, [quiz]);
+
+    useEffect(() => {
+        fetchBatchStatus();
+    }, [fetchBatchStatus]);
+
+    // Toplu puanlama sürerken durum + sonuç tablosu yenilenir
+    useEffect(() => {
+        if (batchStatus?.status !== 'RUNNING') return;
+        const timer = setTimeout(async () => {
+            await fetchBatchStatus();
+            await fetchResults();
+        }, 3000);
+        return () => clearTimeout(timer);
+    }, [batchStatus, fetchBatchStatus, fetchResults]);
+
+    const handleToggleBatchGrading = async () => {
+        try {
+            const response = await fetch(
+                `http://localhost:8080/api/quiz/${quiz.id}/batch-grading?enabled=${!batchStatus?.batchGrading}`,
+                { method: 'PUT' }
+            );
+            if (!response.ok) throw new Error('Failed to update grading mode');
+            setBatchStatus(await response.json());
+            await fetchResults();
+        } catch (error) {
+            console.error('Error updating grading mode:', error);
+            alert('Failed to update grading mode');
+        }
+    };
+
+    const handleBatchGrade = async () => {
+        const waiting = results.filter(r => r.gradingStatus === 'GRADING').length;
+        if (!window.confirm(`Grade ${waiting} waiting submissions now?`)) return;
+
+        try {
+            const response = await fetch(`http://localhost:8080/api/quiz/${quiz.id}/batch-grade`, {
+                method: 'POST',
+                headers: { Authorization: `Bearer ${localStorage.getItem('token')}` }
+            });
+            if (!response.ok) throw new Error('Failed to start batch grading');
+            setBatchStatus(await response.json());
+        } catch (error) {
+            console.error('Error starting batch grading:', error);
+            alert('Failed to start batch grading');
+        }
+    };
+
     const handleSort = (key) => {
         let direction = 'asc';
         if (sortConfig.key === key && sortConfig.direction === 'asc') {
@@ -320,6 +379,35 @@ function QuizManagementPage() {
                             </button>
                         )}
                     </div>
+
+                    {/* Batch grading: open-ended answers graded together when the researcher decides */}
+                    {batchStatus && quiz.questions?.some(q => q.type === 'OPEN_ENDED') && (
+                        <div style={styles.batchPanel}>
+                            <label style={styles.batchToggle}>
+                                <input
+                                    type="checkbox"
+                                    checked={batchStatus.batchGrading}
+                                    onChange={handleToggleBatchGrading}
+                                />
+                                Grade open-ended answers in batches
+                            </label>
+                            <button
+                                style={styles.btnBatchGrade}
+                                onClick={handleBatchGrade}
+                                disabled={batchStatus.status === 'RUNNING'}
+                            >
+                                {batchStatus.status === 'RUNNING' ? 'Grading...' : 'Grade waiting submissions'}
+                            </button>
+                            {batchStatus.status !== 'IDLE' && (
+                                <p style={styles.batchInfo}>
+                                    Last run: {batchStatus.status} · {batchStatus.graded}/{batchStatus.results} graded
+                                    · {batchStatus.answers} answers in {batchStatus.batchRequests} requests
+                                    {batchStatus.reusedAnswers > 0 && ` · ${batchStatus.reusedAnswers} identical answers reused`}
+                                    {batchStatus.failed > 0 && ` · ${batchStatus.failed} queued for retry`}
+                                </p>
+                            )}
+                        </div>
+                    )}
                 </div>
 
                 {/* Participants Card */}
@@ -371,7 +459,9 @@ function QuizManagementPage() {
                                             <td style={styles.td}>{result.participantName?.split(' ')[1] || 'N/A'}</td>
                                             <td style={styles.td}>
                                                 <span style={styles.pointsBadge}>
-                                                    {result.totalPointsEarned}/{result.maxPossiblePoints}
+                                                    {result.gradingStatus === 'GRADING'
+                                                        ? 'Grading...'
+                                                        : `${result.totalPointsEarned}/${result.maxPossiblePoints}`}
                                                 </span>
                                             </td>
                                             <td style={styles.td}>{new Date(result.submittedAt).toLocaleDateString()}</td>
@@ -656,6 +746,42 @@ const styles = {
         display: 'flex',
         gap: '1rem',
     },
+    batchPanel: {
+        marginTop: '1rem',
+        padding: '1rem',
+        borderRadius: '10px',
+        background: 'rgba(74, 158, 255, 0.05)',
+        border: '1px solid rgba(74, 158, 255, 0.2)',
+        display: 'flex',
+        flexWrap: 'wrap',
+        alignItems: 'center',
+        gap: '1rem',
+    },
+    batchToggle: {
+        display: 'flex',
+        alignItems: 'center',
+        gap: '0.5rem',
+        color: '#c8d3f5',
+        fontSize: '0.95rem',
+        cursor: 'pointer',
+    },
+    btnBatchGrade: {
+        padding: '0.6rem 1rem',
+        borderRadius: '10px',
+        fontSize: '0.9rem',
+        fontWeight: '600',
+        cursor: 'pointer',
+        background: 'rgba(74, 158, 255, 0.1)',
+        color: '#4a9eff',
+        border: '1px solid rgba(74, 158, 255, 0.3)',
+        fontFamily: 'inherit',
+    },
+    batchInfo: {
+        width: '100%',
+        margin: 0,
+        color: '#8892b0',
+        fontSize: '0.85rem',
+    },
     btnEdit: {
         flex: 1,
         padding: '0.875rem',
@@ -15,6 +15,13 @@ function QuizResultPage() {
         fetchResult();
     }, [resultId]);
 
+    // Puanlama arka planda sürüyorsa bitene kadar sonucu yenile
+    useEffect(() => {
+        if (result?.gradingStatus !== 'GRADING') return;
+        const timer = setTimeout(fetchResult, 3000);
+        return () => clearTimeout(timer);
+    }, [result]);
+
     const fetchResult = async () => {
         try {
             const response = await fetch(`http://localhost:8080/api/quiz-attempt/result/${resultId}`);
@@ -35,6 +42,25 @@ function QuizResultPage() {
         }
     };
 
+    const retryGrading = async () => {
+        try {
+            const response = await fetch(
+                `http://localhost:8080/api/quiz-attempt/${resultId}/retry-grading`,
+                {
+                    method: 'POST',
+                    headers: { Authorization: `Bearer ${localStorage.getItem('token')}` }
+                }
+            );
+            if (!response.ok) {
+                alert(await response.text());
+                return;
+            }
+            fetchResult();
+        } catch (error) {
+            console.error('Error retrying grading:', error);
+        }
+    };
+
     const validateGrade = (questionId, value, maxPoints) => {
         // Allow empty string temporarily
         if (value === '' || value === null || value === undefined) {
@@ -226,7 +252,16 @@ function QuizResultPage() {
                     <div style={styles.summaryItem}>
                         <span style={styles.summaryLabel}>Graded</span>
                         <span style={styles.summaryValue}>
-                            {new Date(result.gradedAt).toLocaleString()}
+                            {result.gradingStatus === 'GRADING' && '⏳ Grading in progress...'}
+                            {result.gradingStatus === 'FAILED' && (
+                                <>
+                                    ⚠️ Automatic grading failed{' '}
+                                    <button style={styles.retryGradingBtn} onClick={retryGrading}>
+                                        Retry
+                                    </button>
+                                </>
+                            )}
+                            {result.gradedAt && new Date(result.gradedAt).toLocaleString()}
                         </span>
                     </div>
                 </div>
@@ -309,6 +344,14 @@ function QuizResultPage() {
                                 <div style={styles.feedbackLabel}>
                                     <span style={styles.aiIcon}>🤖</span>
                                     AI Feedback
+                                    {qResult.gradeReused && (
+                                        <span
+                                            style={styles.reusedBadge}
+                                            title="An identical answer was already graded; its score and feedback were reused"
+                                        >
+                                            Reused grade
+                                        </span>
+                                    )}
                                 </div>
                                 <div style={styles.feedbackText}>{qResult.aiFeedback}</div>
                             </div>
@@ -526,6 +569,15 @@ const styles = {
         fontSize: '1.3rem',
         fontWeight: 700,
     },
+    retryGradingBtn: {
+        background: 'rgba(74, 158, 255, 0.1)',
+        border: '1px solid rgba(74, 158, 255, 0.2)',
+        color: '#4a9eff',
+        padding: '0.25rem 0.75rem',
+        borderRadius: '8px',
+        cursor: 'pointer',
+        fontSize: '0.85rem',
+    },
     pointsSeparator: {
         color: 'rgba(255, 255, 255, 0.3)',
         margin: '0 0.3rem',
@@ -731,6 +783,18 @@ const styles = {
         alignItems: 'center',
         gap: '0.5rem',
     },
+    reusedBadge: {
+        marginLeft: 'auto',
+        padding: '0.2rem 0.6rem',
+        borderRadius: '999px',
+        background: 'rgba(255, 255, 255, 0.06)',
+        border: '1px solid rgba(255, 255, 255, 0.12)',
+        color: 'rgba(255, 255, 255, 0.6)',
+        fontSize: '0.75rem',
+        fontWeight: 500,
+        textTransform: 'none',
+        letterSpacing: 0,
+    },
     aiIcon: {
         fontSize: '1rem',
     },
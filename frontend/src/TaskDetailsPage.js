@@ -1606,7 +1606,7 @@ function TaskDetailPage() {
 
                     // === TEXT FILE ===
                     if (isTextFile(f.filename)) {
-                        fetch(`http://localhost:8080/file/${f.id}`, {
+                        fetch(artifactFileUrl(f), {
                             headers: { Authorization: `Bearer ${token}` }
                         })
                             .then((res) => res.text())
@@ -1620,7 +1620,7 @@ function TaskDetailPage() {
 
                     // === IMAGE FILE ===
                     if (isImage(f.filename)) {
-                        fetch(`http://localhost:8080/file/${f.id}`, {
+                        fetch(artifactFileUrl(f), {
                             headers: { Authorization: `Bearer ${token}` }
                         })
                             .then((res) => res.blob())
@@ -1634,7 +1634,7 @@ function TaskDetailPage() {
                             });
                     }
                     if (isPdf(f.filename)) {
-                        fetch(`http://localhost:8080/file/${f.id}`, {
+                        fetch(artifactFileUrl(f), {
                             headers: { Authorization: `Bearer ${token}` }
                         })
                             .then((res) => res.blob())
@@ -2747,6 +2747,12 @@ function isPdf(name) {
     return name.toLowerCase().endsWith(".pdf");
 }
 
+// İçerik hash'i URL'de → tarayıcı önbelleğinden gelir, tekrar indirilmez
+function artifactFileUrl(file) {
+    const base = `http://localhost:8080/file/${file.id}`;
+    return file.contentHash ? `${base}?v=${file.contentHash}` : base;
+}
+
 function detectLanguage(filename) {
     const ext = filename.split(".").pop().toLowerCase();
     const map = {